@@ -0,0 +1,668 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.jnosql.diana.api.Condition.AND;
+import static org.jnosql.diana.api.Condition.BETWEEN;
+import static org.jnosql.diana.api.Condition.EQUALS;
+import static org.jnosql.diana.api.Condition.GREATER_EQUALS_THAN;
+import static org.jnosql.diana.api.Condition.GREATER_THAN;
+import static org.jnosql.diana.api.Condition.IN;
+import static org.jnosql.diana.api.Condition.LESSER_EQUALS_THAN;
+import static org.jnosql.diana.api.Condition.LESSER_THAN;
+import static org.jnosql.diana.api.Condition.OR;
+
+/**
+ * The engine of the query optimizers of the document and column models. The condition is converted to a tree
+ * of nodes in the negation normal form, simplified bottom-up and converted back to a condition: the nested
+ * junctions of the same type are flattened, the duplicated conditions removed, the contradictions and tautologies
+ * detected, and the equals, in and range conditions of a field merged. The conditions of each model are read and
+ * created through a {@link Tree}, where every condition but AND, OR and NOT is a leaf of a name, a
+ * {@link Condition} and a value.
+ *
+ * @param <C> the condition type of the model
+ */
+public final class ConditionSimplifier<C> {
+
+    private static final Set<Condition> MERGEABLE = EnumSet.of(EQUALS, IN, GREATER_THAN, GREATER_EQUALS_THAN,
+            LESSER_THAN, LESSER_EQUALS_THAN, BETWEEN);
+
+    private static final Set<Condition> LOOKUPS = EnumSet.of(EQUALS, IN);
+
+    private final Tree<C> tree;
+
+    private final Node<C> all = new Constant<>(true);
+
+    private final Node<C> none = new Constant<>(false);
+
+    private ConditionSimplifier(Tree<C> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Creates a {@link ConditionSimplifier}
+     *
+     * @param tree the tree of the conditions of the model
+     * @param <C>  the condition type of the model
+     * @return a {@link ConditionSimplifier} instance
+     * @throws NullPointerException when tree is null
+     */
+    public static <C> ConditionSimplifier<C> of(Tree<C> tree) throws NullPointerException {
+        return new ConditionSimplifier<>(Objects.requireNonNull(tree, "tree is required"));
+    }
+
+    /**
+     * Simplifies the condition
+     *
+     * @param condition the condition
+     * @return the simplified condition
+     * @throws NullPointerException when condition is null
+     */
+    public Simplified<C> simplify(C condition) throws NullPointerException {
+        Objects.requireNonNull(condition, "condition is required");
+        Node<C> node = simplify(parse(condition));
+        if (node == none) {
+            return new Simplified<>(true, null);
+        }
+        if (node == all) {
+            return new Simplified<>(false, null);
+        }
+        return new Simplified<>(false, node.toCondition(tree));
+    }
+
+    /**
+     * Converts the condition to nodes pushing the negations down to the leaves
+     */
+    private Node<C> parse(C condition) {
+        Condition type = tree.type(condition);
+        switch (type) {
+            case AND:
+            case OR:
+                List<Node<C>> children = new ArrayList<>();
+                tree.children(condition).forEach(c -> children.add(parse(c)));
+                return new Junction<>(type, children);
+            case NOT:
+                return negate(parse(tree.operand(condition)));
+            default:
+                return new Leaf<>(tree, condition);
+        }
+    }
+
+    private Node<C> negate(Node<C> node) {
+        if (node instanceof Junction) {
+            Junction<C> junction = (Junction<C>) node;
+            List<Node<C>> children = new ArrayList<>();
+            junction.children.forEach(c -> children.add(negate(c)));
+            return new Junction<>(AND.equals(junction.type) ? OR : AND, children);
+        }
+        if (node instanceof Not) {
+            return ((Not<C>) node).child;
+        }
+        if (node instanceof Constant) {
+            return node == all ? none : all;
+        }
+        return new Not<>((Leaf<C>) node);
+    }
+
+    private Node<C> simplify(Node<C> node) {
+        if (!(node instanceof Junction)) {
+            return node;
+        }
+        Junction<C> junction = (Junction<C>) node;
+        boolean and = AND.equals(junction.type);
+        Node<C> absorbing = and ? none : all;
+        Node<C> neutral = and ? all : none;
+        Set<Node<C>> children = new LinkedHashSet<>();
+        for (Node<C> child : junction.children) {
+            Node<C> simplified = simplify(child);
+            if (simplified == absorbing) {
+                return absorbing;
+            }
+            if (simplified instanceof Junction && junction.type.equals(((Junction<C>) simplified).type)) {
+                children.addAll(((Junction<C>) simplified).children);
+            } else if (simplified != neutral) {
+                children.add(simplified);
+            }
+        }
+        for (Node<C> child : children) {
+            if (child instanceof Not && children.contains(((Not<C>) child).child)) {
+                return absorbing;
+            }
+        }
+        List<Node<C>> merged = and ? mergeAnd(new ArrayList<>(children)) : mergeOr(new ArrayList<>(children));
+        if (merged == null) {
+            return absorbing;
+        }
+        if (merged.isEmpty()) {
+            return neutral;
+        }
+        if (merged.size() == 1) {
+            return merged.get(0);
+        }
+        return new Junction<>(junction.type, merged);
+    }
+
+    /**
+     * Merges the equals, in and range conditions of each field joined by AND
+     *
+     * @return the nodes or null when there is a contradiction
+     */
+    private List<Node<C>> mergeAnd(List<Node<C>> nodes) {
+        Map<String, List<Leaf<C>>> fields = group(nodes, MERGEABLE);
+        List<Node<C>> merged = new ArrayList<>();
+        Set<String> emitted = new LinkedHashSet<>();
+        for (Node<C> node : nodes) {
+            if (!isGrouped(node, MERGEABLE)) {
+                merged.add(node);
+                continue;
+            }
+            String name = ((Leaf<C>) node).name;
+            if (emitted.add(name)) {
+                List<Leaf<C>> leaves = fields.get(name);
+                List<Node<C>> field = leaves.size() == 1 ? Collections.singletonList(leaves.get(0))
+                        : intersect(name, leaves);
+                if (field == null) {
+                    return null;
+                }
+                merged.addAll(field);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merges the equals and in conditions of each field joined by OR into a single in
+     */
+    private List<Node<C>> mergeOr(List<Node<C>> nodes) {
+        Map<String, List<Leaf<C>>> fields = group(nodes, LOOKUPS);
+        List<Node<C>> merged = new ArrayList<>();
+        Set<String> emitted = new LinkedHashSet<>();
+        for (Node<C> node : nodes) {
+            if (!isGrouped(node, LOOKUPS)) {
+                merged.add(node);
+                continue;
+            }
+            String name = ((Leaf<C>) node).name;
+            if (emitted.add(name)) {
+                List<Leaf<C>> leaves = fields.get(name);
+                if (leaves.size() == 1) {
+                    merged.add(leaves.get(0));
+                } else {
+                    Map<Object, Object> values = new LinkedHashMap<>();
+                    leaves.forEach(l -> lookupValues(l).forEach(v -> values.putIfAbsent(Values.key(v), v)));
+                    merged.add(lookup(name, new ArrayList<>(values.values())));
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Intersects the conditions on the same field
+     *
+     * @return the nodes or null when no value matches all of them
+     */
+    private List<Node<C>> intersect(String name, List<Leaf<C>> leaves) {
+        List<Object> candidates = null;
+        Bound lower = null;
+        Bound upper = null;
+        List<Node<C>> ranges = new ArrayList<>();
+        boolean mergeable = true;
+        for (Leaf<C> leaf : leaves) {
+            switch (leaf.type) {
+                case EQUALS:
+                case IN:
+                    candidates = intersect(candidates, lookupValues(leaf));
+                    continue;
+                default:
+                    ranges.add(leaf);
+            }
+            List<Object> bounds = BETWEEN.equals(leaf.type) ? Values.toList(leaf.value) : null;
+            if (bounds != null && bounds.size() != 2) {
+                mergeable = false;
+                continue;
+            }
+            switch (leaf.type) {
+                case GREATER_THAN:
+                    lower = Bound.lower(lower, leaf.value, false);
+                    break;
+                case GREATER_EQUALS_THAN:
+                    lower = Bound.lower(lower, leaf.value, true);
+                    break;
+                case LESSER_THAN:
+                    upper = Bound.upper(upper, leaf.value, false);
+                    break;
+                case LESSER_EQUALS_THAN:
+                    upper = Bound.upper(upper, leaf.value, true);
+                    break;
+                default:
+                    lower = Bound.lower(lower, bounds.get(0), true);
+                    upper = Bound.upper(upper, bounds.get(1), true);
+            }
+            mergeable &= lower != Bound.INCOMPARABLE && upper != Bound.INCOMPARABLE;
+        }
+        List<Node<C>> nodes = new ArrayList<>();
+        if (candidates != null) {
+            if (mergeable) {
+                Bound min = lower;
+                Bound max = upper;
+                candidates.removeIf(v -> min != null && !min.isBelow(v) || max != null && !max.isAbove(v));
+            }
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            nodes.add(lookup(name, candidates));
+            if (!mergeable) {
+                nodes.addAll(ranges);
+            }
+            return nodes;
+        }
+        if (!mergeable) {
+            return ranges;
+        }
+        if (lower != null && upper != null && Values.isComparable(lower.value, upper.value)) {
+            int compare = Values.compare(lower.value, upper.value);
+            if (compare > 0 || compare == 0 && !(lower.inclusive && upper.inclusive)) {
+                return null;
+            }
+            if (compare == 0) {
+                nodes.add(leaf(EQUALS, name, lower.value));
+                return nodes;
+            }
+            if (lower.inclusive && upper.inclusive) {
+                nodes.add(leaf(BETWEEN, name, Arrays.asList(lower.value, upper.value)));
+                return nodes;
+            }
+        }
+        if (lower != null) {
+            nodes.add(leaf(lower.inclusive ? GREATER_EQUALS_THAN : GREATER_THAN, name, lower.value));
+        }
+        if (upper != null) {
+            nodes.add(leaf(upper.inclusive ? LESSER_EQUALS_THAN : LESSER_THAN, name, upper.value));
+        }
+        return nodes;
+    }
+
+    /**
+     * The values matched by an equals or in leaf, the value of an equals is a single value even when it is a
+     * collection
+     */
+    private static List<Object> lookupValues(Leaf<?> leaf) {
+        return IN.equals(leaf.type) ? Values.toList(leaf.value) : Collections.singletonList(leaf.value);
+    }
+
+    private static List<Object> intersect(List<Object> candidates, List<Object> values) {
+        Map<Object, Object> keys = new LinkedHashMap<>();
+        values.forEach(v -> keys.putIfAbsent(Values.key(v), v));
+        if (candidates == null) {
+            return new ArrayList<>(keys.values());
+        }
+        List<Object> intersection = new ArrayList<>();
+        for (Object candidate : candidates) {
+            if (keys.containsKey(Values.key(candidate))) {
+                intersection.add(candidate);
+            }
+        }
+        return intersection;
+    }
+
+    private Node<C> lookup(String name, List<Object> values) {
+        if (values.size() == 1) {
+            return leaf(EQUALS, name, values.get(0));
+        }
+        return leaf(IN, name, values);
+    }
+
+    private Node<C> leaf(Condition type, String name, Object value) {
+        return new Leaf<>(tree, tree.leaf(type, name, value));
+    }
+
+    private Map<String, List<Leaf<C>>> group(List<Node<C>> nodes, Set<Condition> types) {
+        Map<String, List<Leaf<C>>> fields = new LinkedHashMap<>();
+        for (Node<C> node : nodes) {
+            if (isGrouped(node, types)) {
+                fields.computeIfAbsent(((Leaf<C>) node).name, n -> new ArrayList<>()).add((Leaf<C>) node);
+            }
+        }
+        return fields;
+    }
+
+    private boolean isGrouped(Node<C> node, Set<Condition> types) {
+        return node instanceof Leaf && types.contains(((Leaf<C>) node).type);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ConditionSimplifier{");
+        sb.append("tree=").append(tree);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Reads and creates the conditions of a model
+     *
+     * @param <C> the condition type of the model
+     */
+    public interface Tree<C> {
+
+        /**
+         * The type of the condition
+         *
+         * @param condition the condition
+         * @return the type
+         */
+        Condition type(C condition);
+
+        /**
+         * The name of the field of a leaf condition
+         *
+         * @param condition the leaf condition
+         * @return the name
+         */
+        String name(C condition);
+
+        /**
+         * The value of a leaf condition
+         *
+         * @param condition the leaf condition
+         * @return the value
+         */
+        Object value(C condition);
+
+        /**
+         * The conditions joined by an AND or OR condition
+         *
+         * @param condition the AND or OR condition
+         * @return the joined conditions
+         */
+        List<C> children(C condition);
+
+        /**
+         * The condition negated by a NOT condition
+         *
+         * @param condition the NOT condition
+         * @return the negated condition
+         */
+        C operand(C condition);
+
+        /**
+         * Negates the leaf condition
+         *
+         * @param condition the leaf condition
+         * @return the NOT condition
+         */
+        C negate(C condition);
+
+        /**
+         * Joins the conditions
+         *
+         * @param type       either {@link Condition#AND} or {@link Condition#OR}
+         * @param conditions the conditions
+         * @return the AND or OR condition
+         */
+        C join(Condition type, List<C> conditions);
+
+        /**
+         * Creates a leaf condition, the type is either {@link Condition#EQUALS}, {@link Condition#IN},
+         * {@link Condition#BETWEEN} or a comparison
+         *
+         * @param type  the type
+         * @param name  the name of the field
+         * @param value the value
+         * @return the leaf condition
+         */
+        C leaf(Condition type, String name, Object value);
+    }
+
+    /**
+     * The result of {@link #simplify(Object)}
+     *
+     * @param <C> the condition type of the model
+     */
+    public static final class Simplified<C> {
+
+        private final boolean contradiction;
+
+        private final C condition;
+
+        private Simplified(boolean contradiction, C condition) {
+            this.contradiction = contradiction;
+            this.condition = condition;
+        }
+
+        /**
+         * Checks if no entity matches the condition
+         *
+         * @return true when the condition is a contradiction
+         */
+        public boolean isContradiction() {
+            return contradiction;
+        }
+
+        /**
+         * The simplified condition
+         *
+         * @return the condition or {@link Optional#empty()} when it is a contradiction or every entity matches it
+         */
+        public Optional<C> getCondition() {
+            return Optional.ofNullable(condition);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Simplified{");
+            sb.append("contradiction=").append(contradiction);
+            sb.append(", condition=").append(condition);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+
+    private abstract static class Node<C> {
+
+        abstract C toCondition(Tree<C> tree);
+    }
+
+    private static final class Leaf<C> extends Node<C> {
+
+        private final C condition;
+
+        private final Condition type;
+
+        private final String name;
+
+        private final Object value;
+
+        private Leaf(Tree<C> tree, C condition) {
+            this.condition = condition;
+            this.type = tree.type(condition);
+            this.name = tree.name(condition);
+            this.value = tree.value(condition);
+        }
+
+        @Override
+        C toCondition(Tree<C> tree) {
+            return condition;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Leaf && condition.equals(((Leaf<?>) o).condition);
+        }
+
+        @Override
+        public int hashCode() {
+            return condition.hashCode();
+        }
+    }
+
+    private static final class Not<C> extends Node<C> {
+
+        private final Leaf<C> child;
+
+        private Not(Leaf<C> child) {
+            this.child = child;
+        }
+
+        @Override
+        C toCondition(Tree<C> tree) {
+            return tree.negate(child.toCondition(tree));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Not && child.equals(((Not<?>) o).child);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * child.hashCode() + 1;
+        }
+    }
+
+    private static final class Junction<C> extends Node<C> {
+
+        private final Condition type;
+
+        private final List<Node<C>> children;
+
+        private Junction(Condition type, List<Node<C>> children) {
+            this.type = type;
+            this.children = children;
+        }
+
+        @Override
+        C toCondition(Tree<C> tree) {
+            List<C> conditions = new ArrayList<>(children.size());
+            children.forEach(c -> conditions.add(c.toCondition(tree)));
+            return tree.join(type, conditions);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Junction && type.equals(((Junction<?>) o).type)
+                    && new LinkedHashSet<>(children).equals(new LinkedHashSet<>(((Junction<?>) o).children));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, new LinkedHashSet<>(children));
+        }
+    }
+
+    private static final class Constant<C> extends Node<C> {
+
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        C toCondition(Tree<C> tree) {
+            throw new IllegalStateException("The constant " + value + " has no condition");
+        }
+    }
+
+    /**
+     * A bound of a range, the {@link #INCOMPARABLE} bound means the values of the ranges can't be compared
+     */
+    private static final class Bound {
+
+        private static final Bound INCOMPARABLE = new Bound(null, false);
+
+        private final Object value;
+
+        private final boolean inclusive;
+
+        private Bound(Object value, boolean inclusive) {
+            this.value = value;
+            this.inclusive = inclusive;
+        }
+
+        private static Bound lower(Bound current, Object value, boolean inclusive) {
+            if (current == INCOMPARABLE) {
+                return current;
+            }
+            if (current == null) {
+                return new Bound(value, inclusive);
+            }
+            if (!Values.isComparable(current.value, value)) {
+                return INCOMPARABLE;
+            }
+            int compare = Values.compare(value, current.value);
+            if (compare == 0) {
+                return new Bound(current.value, current.inclusive && inclusive);
+            }
+            return compare > 0 ? new Bound(value, inclusive) : current;
+        }
+
+        private static Bound upper(Bound current, Object value, boolean inclusive) {
+            if (current == INCOMPARABLE) {
+                return current;
+            }
+            if (current == null) {
+                return new Bound(value, inclusive);
+            }
+            if (!Values.isComparable(current.value, value)) {
+                return INCOMPARABLE;
+            }
+            int compare = Values.compare(value, current.value);
+            if (compare == 0) {
+                return new Bound(current.value, current.inclusive && inclusive);
+            }
+            return compare < 0 ? new Bound(value, inclusive) : current;
+        }
+
+        /**
+         * Checks if the value satisfies this lower bound
+         */
+        private boolean isBelow(Object value) {
+            if (!Values.isComparable(this.value, value)) {
+                return false;
+            }
+            int compare = Values.compare(value, this.value);
+            return compare > 0 || compare == 0 && inclusive;
+        }
+
+        /**
+         * Checks if the value satisfies this upper bound
+         */
+        private boolean isAbove(Object value) {
+            if (!Values.isComparable(this.value, value)) {
+                return false;
+            }
+            int compare = Values.compare(value, this.value);
+            return compare < 0 || compare == 0 && inclusive;
+        }
+    }
+}
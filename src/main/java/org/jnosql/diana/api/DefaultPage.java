@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The default implementation of {@link Page}
+ */
+final class DefaultPage<T> implements Page<T> {
+
+    private final List<T> content;
+
+    private final String nextToken;
+
+    DefaultPage(List<T> content, String nextToken) {
+        this.content = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(content,
+                "content is required")));
+        this.nextToken = nextToken;
+    }
+
+    @Override
+    public List<T> getContent() {
+        return content;
+    }
+
+    @Override
+    public Optional<String> getNextToken() {
+        return Optional.ofNullable(nextToken);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DefaultPage<?> that = (DefaultPage<?>) o;
+        return Objects.equals(content, that.content) &&
+                Objects.equals(nextToken, that.nextToken);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(content, nextToken);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultPage{");
+        sb.append("content=").append(content);
+        sb.append(", nextToken='").append(nextToken).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api;
+
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of the result of a query: the entities of the page and the token to read the next one.
+ * The token is opaque, it's created by the database driver and just might be informed back to the query
+ * that created the page.
+ *
+ * @param <T> the entity type
+ * @see Page#of(List, String)
+ */
+public interface Page<T> {
+
+    /**
+     * The entities of the page
+     *
+     * @return the entities, it's immutable
+     */
+    List<T> getContent();
+
+    /**
+     * The token to read the next page
+     *
+     * @return the token or {@link Optional#empty()} when this is the last page
+     */
+    Optional<String> getNextToken();
+
+    /**
+     * Returns true if there is a page after this one
+     *
+     * @return if there is a next page
+     */
+    default boolean hasNext() {
+        return getNextToken().isPresent();
+    }
+
+    /**
+     * Creates a page
+     *
+     * @param content   the entities of the page
+     * @param nextToken the token to read the next page, null when this is the last page
+     * @param <T>       the entity type
+     * @return a page instance
+     * @throws NullPointerException when content is null
+     */
+    static <T> Page<T> of(List<T> content, String nextToken) throws NullPointerException {
+        return new DefaultPage<>(content, nextToken);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api;
+
+
+import java.util.Objects;
+
+/**
+ * A named placeholder of a value in a query template, it's replaced by the value bound to its name
+ * when the template is bound.
+ *
+ * @see Parameter#of(String)
+ */
+public final class Parameter {
+
+    private final String name;
+
+    private Parameter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a parameter to be used as a condition value in a query template
+     *
+     * @param name the parameter name
+     * @return a parameter instance
+     * @throws NullPointerException when name is null
+     */
+    public static Parameter of(String name) throws NullPointerException {
+        return new Parameter(Objects.requireNonNull(name, "name is required"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Parameter parameter = (Parameter) o;
+        return Objects.equals(name, parameter.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Parameter{");
+        sb.append("name='").append(name).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
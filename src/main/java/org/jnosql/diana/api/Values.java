@@ -0,0 +1,232 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Utilitarian class to compare the values of documents and columns, shared by the models and their engines so all
+ * of them agree on it. The numbers are compared by value, so 1, 1L and 1.0 are the same value.
+ */
+public final class Values {
+
+    /**
+     * The total order of {@link #order(Object, Object)}
+     */
+    public static final Comparator<Object> COMPARATOR = Values::order;
+
+    private Values() {
+    }
+
+    /**
+     * Returns a key that keeps the equals contract of the numbers by value, so it might be used in hash sets
+     *
+     * @param value the value
+     * @return the key
+     */
+    public static Object key(Object value) {
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (isIntegral(number)) {
+                return number.longValue();
+            }
+            if (!isFinite(number)) {
+                return number.doubleValue();
+            }
+            BigDecimal decimal = decimal(number).stripTrailingZeros();
+            if (decimal.scale() <= 0 && decimal.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0
+                    && decimal.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0) {
+                return decimal.longValue();
+            }
+            return decimal;
+        }
+        return value;
+    }
+
+    /**
+     * Checks if the number is a {@link Long}, {@link Integer}, {@link Short} or {@link Byte}
+     *
+     * @param number the number
+     * @return true when it is an integral number
+     */
+    public static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte;
+    }
+
+    /**
+     * Checks if the number is a {@link Double} or {@link Float}
+     *
+     * @param number the number
+     * @return true when it is a floating point number
+     */
+    public static boolean isFloating(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+
+    /**
+     * Checks if the number is neither NaN nor infinite
+     *
+     * @param number the number
+     * @return true when it is finite
+     */
+    public static boolean isFinite(Number number) {
+        if (isFloating(number)) {
+            double value = number.doubleValue();
+            return !Double.isNaN(value) && !Double.isInfinite(value);
+        }
+        return true;
+    }
+
+    /**
+     * Compares two numbers by value
+     *
+     * @param number the number
+     * @param other  the other number
+     * @return a negative integer, zero, or a positive integer as the number is less than, equal to, or greater
+     * than the other
+     */
+    public static int compareNumbers(Number number, Number other) {
+        if (isFinite(number) && isFinite(other)) {
+            return decimal(number).compareTo(decimal(other));
+        }
+        return Double.compare(number.doubleValue(), other.doubleValue());
+    }
+
+    /**
+     * Checks if the values are equal, the numbers by value
+     *
+     * @param value the value
+     * @param other the other value
+     * @return true when they are equal
+     */
+    public static boolean equals(Object value, Object other) {
+        if (value instanceof Number && other instanceof Number) {
+            return compareNumbers((Number) value, (Number) other) == 0;
+        }
+        return Objects.equals(value, other);
+    }
+
+    /**
+     * Checks if the two values can be compared by order
+     *
+     * @param value the value
+     * @param other the other value
+     * @return true when both are numbers or one is a {@link Comparable} of the other's class
+     */
+    public static boolean isComparable(Object value, Object other) {
+        if (value == null || other == null) {
+            return false;
+        }
+        if (value instanceof Number && other instanceof Number) {
+            return true;
+        }
+        return value instanceof Comparable && value.getClass().isInstance(other)
+                || other instanceof Comparable && other.getClass().isInstance(value);
+    }
+
+    /**
+     * Compares two values that are comparable, see {@link #isComparable(Object, Object)}
+     *
+     * @param value the value
+     * @param other the other value
+     * @return a negative integer, zero, or a positive integer as the value is less than, equal to, or greater
+     * than the other
+     */
+    @SuppressWarnings("unchecked")
+    public static int compare(Object value, Object other) {
+        if (value instanceof Number && other instanceof Number) {
+            return compareNumbers((Number) value, (Number) other);
+        }
+        if (value instanceof Comparable && value.getClass().isInstance(other)) {
+            return Integer.signum(((Comparable<Object>) value).compareTo(other));
+        }
+        return -Integer.signum(((Comparable<Object>) other).compareTo(value));
+    }
+
+    /**
+     * Compares any two values in a total order: the null comes first, the comparable values are compared
+     * with {@link #compare(Object, Object)} and the others are ordered by the class name, where every number
+     * has the {@link Number} name.
+     *
+     * @param value the value
+     * @param other the other value
+     * @return a negative integer, zero, or a positive integer as the value is less than, equal to, or greater
+     * than the other
+     */
+    public static int order(Object value, Object other) {
+        if (value == other) {
+            return 0;
+        }
+        if (value == null) {
+            return -1;
+        }
+        if (other == null) {
+            return 1;
+        }
+        if (isComparable(value, other)) {
+            return compare(value, other);
+        }
+        return typeName(value).compareTo(typeName(other));
+    }
+
+    /**
+     * Returns the elements of an {@link Iterable} value, such as the operand of an IN or a BETWEEN, or a list with
+     * just the value otherwise
+     *
+     * @param value the value
+     * @return the values
+     */
+    public static List<Object> toList(Object value) {
+        List<Object> values = new ArrayList<>();
+        if (value instanceof Iterable) {
+            Iterator<?> iterator = ((Iterable<?>) value).iterator();
+            iterator.forEachRemaining(values::add);
+        } else {
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static BigDecimal decimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isFloating(number)) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    private static String typeName(Object value) {
+        if (value instanceof Number) {
+            return Number.class.getName();
+        }
+        return value.getClass().getName();
+    }
+}
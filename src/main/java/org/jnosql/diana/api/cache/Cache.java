@@ -0,0 +1,132 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.cache;
+
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A bounded in-process cache used by the caching decorators of the managers.
+ * The cache is bounded by the number of entries and, optionally, by the total weight of the entries.
+ * When the cache is full the entries are evicted following a W-TinyLFU like policy: a small LRU window
+ * keeps the new entries and an entry just goes to the main LRU area when it is used more frequently than
+ * the entry that would be evicted.
+ * All the implementations must be thread-safe.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface Cache<K, V> {
+
+    /**
+     * Returns the value associated with the key, when the entry has expired it will be removed.
+     *
+     * @param key the key
+     * @return the value or {@link Optional#empty()} when it is not cached
+     * @throws NullPointerException when the key is null
+     */
+    Optional<V> get(K key) throws NullPointerException;
+
+    /**
+     * Associates the value with the key, replacing the previous value
+     *
+     * @param key   the key
+     * @param value the value
+     * @throws NullPointerException when either key or value are null
+     */
+    void put(K key, V value) throws NullPointerException;
+
+    /**
+     * Associates the value with the key with a time to live, replacing the previous value
+     *
+     * @param key   the key
+     * @param value the value
+     * @param ttl   the time to live
+     * @throws NullPointerException when either key, value or ttl are null
+     */
+    void put(K key, V value, Duration ttl) throws NullPointerException;
+
+    /**
+     * Removes the entry associated with the key
+     *
+     * @param key the key
+     * @throws NullPointerException when the key is null
+     */
+    void remove(K key) throws NullPointerException;
+
+    /**
+     * Removes all entries whose key matches the filter
+     *
+     * @param filter the filter
+     * @throws NullPointerException when filter is null
+     */
+    void removeIf(Predicate<? super K> filter) throws NullPointerException;
+
+    /**
+     * Removes all entries
+     */
+    void clear();
+
+    /**
+     * Returns the number of entries
+     *
+     * @return the number of entries
+     */
+    long size();
+
+    /**
+     * Returns the hit and miss statistics since the cache was created
+     *
+     * @return the {@link CacheStats} instance
+     */
+    CacheStats getStats();
+
+    /**
+     * Creates a cache bounded by the number of entries
+     *
+     * @param maximumSize the maximum number of entries
+     * @param <K>         the key type
+     * @param <V>         the value type
+     * @return a {@link Cache} instance
+     * @throws IllegalArgumentException when maximumSize is lesser than one
+     */
+    static <K, V> Cache<K, V> of(long maximumSize) throws IllegalArgumentException {
+        return new DefaultCache<>(maximumSize, Long.MAX_VALUE, (k, v) -> 1L);
+    }
+
+    /**
+     * Creates a cache bounded by both the number of entries and the total weight of the entries
+     *
+     * @param maximumSize   the maximum number of entries
+     * @param maximumWeight the maximum weight of all entries
+     * @param weigher       the function that gives the weight of an entry
+     * @param <K>           the key type
+     * @param <V>           the value type
+     * @return a {@link Cache} instance
+     * @throws IllegalArgumentException when either maximumSize or maximumWeight is lesser than one
+     * @throws NullPointerException     when weigher is null
+     */
+    static <K, V> Cache<K, V> of(long maximumSize, long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher)
+            throws IllegalArgumentException, NullPointerException {
+        return new DefaultCache<>(maximumSize, maximumWeight, weigher);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.cache;
+
+
+import java.util.Objects;
+
+/**
+ * Statistics about the performance of a {@link Cache}
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private CacheStats(long hitCount, long missCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Creates a {@link CacheStats} instance
+     *
+     * @param hitCount      the number of times a lookup found a value
+     * @param missCount     the number of times a lookup did not find a value
+     * @param evictionCount the number of entries evicted by the size policy
+     * @return a {@link CacheStats} instance
+     */
+    public static CacheStats of(long hitCount, long missCount, long evictionCount) {
+        return new CacheStats(hitCount, missCount, evictionCount);
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * The number of lookups, both hits and misses
+     *
+     * @return the number of lookups
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * The ratio of lookups that found a value, it returns 1 when there is no lookup
+     *
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CacheStats that = (CacheStats) o;
+        return hitCount == that.hitCount &&
+                missCount == that.missCount &&
+                evictionCount == that.evictionCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, evictionCount);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CacheStats{");
+        sb.append("hitCount=").append(hitCount);
+        sb.append(", missCount=").append(missCount);
+        sb.append(", evictionCount=").append(evictionCount);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.cache;
+
+
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * The default implementation of {@link Cache}. The entries are spread in segments, each one guarded by its
+ * own lock, and each segment has a LRU window and a LRU main area with a {@link FrequencySketch} as admission
+ * filter between them.
+ */
+final class DefaultCache<K, V> implements Cache<K, V> {
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    private static final int MINIMUM_SEGMENT_SIZE = 64;
+
+    private static final double WINDOW_RATIO = 0.01;
+
+    private final Segment[] segments;
+
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    DefaultCache(long maximumSize, long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximumSize must be greater than zero, maximumSize: " + maximumSize);
+        }
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("The maximumWeight must be greater than zero, maximumWeight: "
+                    + maximumWeight);
+        }
+        this.weigher = Objects.requireNonNull(weigher, "weigher is required");
+        int count = 1;
+        while (count < MAXIMUM_SEGMENTS && maximumSize / (count * 2) >= MINIMUM_SEGMENT_SIZE) {
+            count *= 2;
+        }
+        this.segments = (Segment[]) Array.newInstance(Segment.class, count);
+        for (int index = 0; index < count; index++) {
+            segments[index] = new Segment(maximumSize / count, maximumWeight == Long.MAX_VALUE ?
+                    Long.MAX_VALUE : Math.max(1, maximumWeight / count));
+        }
+    }
+
+    @Override
+    public Optional<V> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        V value = segment(key).get(key, System.nanoTime());
+        if (value == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(value);
+    }
+
+    @Override
+    public void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        segment(key).put(key, value, weigher.applyAsLong(key, value), 0L);
+    }
+
+    @Override
+    public void put(K key, V value, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        long expiresAt = System.nanoTime() + ttl.toNanos();
+        segment(key).put(key, value, weigher.applyAsLong(key, value), expiresAt == 0L ? 1L : expiresAt);
+    }
+
+    @Override
+    public void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        segment(key).remove(key);
+    }
+
+    @Override
+    public void removeIf(Predicate<? super K> filter) throws NullPointerException {
+        Objects.requireNonNull(filter, "filter is required");
+        for (Segment segment : segments) {
+            segment.removeIf(filter);
+        }
+    }
+
+    @Override
+    public void clear() {
+        removeIf(k -> true);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return CacheStats.of(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment segment(K key) {
+        int hash = spread(key.hashCode());
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static int spread(int hash) {
+        int value = hash * 0x9E3779B9;
+        return value ^ (value >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultCache{");
+        sb.append("segments=").append(segments.length);
+        sb.append(", size=").append(size());
+        sb.append(", stats=").append(getStats());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long weight;
+
+        private final long expiresAt;
+
+        private Entry(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0L && now - expiresAt >= 0;
+        }
+    }
+
+    private final class Segment {
+
+        private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75F, true);
+
+        private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75F, true);
+
+        private final FrequencySketch sketch;
+
+        private final long maximumSize;
+
+        private final long maximumWeight;
+
+        private final long windowSize;
+
+        private final long windowWeight;
+
+        private long currentWindowWeight;
+
+        private long currentMainWeight;
+
+        private Segment(long maximumSize, long maximumWeight) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.windowSize = Math.max(1, (long) (maximumSize * WINDOW_RATIO));
+            this.windowWeight = maximumWeight == Long.MAX_VALUE ? Long.MAX_VALUE :
+                    Math.max(1, (long) (maximumWeight * WINDOW_RATIO));
+            this.sketch = new FrequencySketch(maximumSize);
+        }
+
+        private synchronized V get(K key, long now) {
+            sketch.increment(spread(key.hashCode()));
+            Entry<V> entry = window.get(key);
+            if (entry == null) {
+                entry = main.get(key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        private synchronized void put(K key, V value, long weight, long expiresAt) {
+            sketch.increment(spread(key.hashCode()));
+            remove(key);
+            if (weight > maximumWeight) {
+                evictions.increment();
+                return;
+            }
+            window.put(key, new Entry<>(value, weight, expiresAt));
+            currentWindowWeight += weight;
+            while (window.size() > windowSize || currentWindowWeight > windowWeight) {
+                Map.Entry<K, Entry<V>> candidate = eldest(window);
+                window.remove(candidate.getKey());
+                currentWindowWeight -= candidate.getValue().weight;
+                admit(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        private void admit(K key, Entry<V> candidate) {
+            long mainSize = maximumSize - windowSize;
+            long mainWeight = maximumWeight == Long.MAX_VALUE ? Long.MAX_VALUE : maximumWeight - windowWeight;
+            if (main.size() < mainSize && currentMainWeight + candidate.weight <= mainWeight) {
+                main.put(key, candidate);
+                currentMainWeight += candidate.weight;
+                return;
+            }
+            Map.Entry<K, Entry<V>> victim = eldest(main);
+            if (victim != null && sketch.frequency(spread(key.hashCode())) <=
+                    sketch.frequency(spread(victim.getKey().hashCode()))) {
+                evictions.increment();
+                return;
+            }
+            main.put(key, candidate);
+            currentMainWeight += candidate.weight;
+            while (main.size() > mainSize || currentMainWeight > mainWeight) {
+                Map.Entry<K, Entry<V>> eldest = eldest(main);
+                main.remove(eldest.getKey());
+                currentMainWeight -= eldest.getValue().weight;
+                evictions.increment();
+            }
+        }
+
+        private synchronized void remove(K key) {
+            Entry<V> entry = window.remove(key);
+            if (entry != null) {
+                currentWindowWeight -= entry.weight;
+            }
+            entry = main.remove(key);
+            if (entry != null) {
+                currentMainWeight -= entry.weight;
+            }
+        }
+
+        private synchronized void removeIf(Predicate<? super K> filter) {
+            currentWindowWeight -= removeIf(window, filter);
+            currentMainWeight -= removeIf(main, filter);
+        }
+
+        private long removeIf(Map<K, Entry<V>> entries, Predicate<? super K> filter) {
+            long weight = 0;
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Entry<V>> entry = iterator.next();
+                if (filter.test(entry.getKey())) {
+                    weight += entry.getValue().weight;
+                    iterator.remove();
+                }
+            }
+            return weight;
+        }
+
+        private synchronized long size() {
+            return window.size() + main.size();
+        }
+
+        private Map.Entry<K, Entry<V>> eldest(Map<K, Entry<V>> entries) {
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+}
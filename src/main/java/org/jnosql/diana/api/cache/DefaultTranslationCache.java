@@ -0,0 +1,77 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.cache;
+
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The default implementation of {@link TranslationCache}, it delegates to a {@link Cache}.
+ */
+final class DefaultTranslationCache<S, T> implements TranslationCache<S, T> {
+
+    private final Cache<S, T> cache;
+
+    DefaultTranslationCache(Cache<S, T> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public T get(S shape, Function<? super S, ? extends T> translator) throws NullPointerException {
+        Objects.requireNonNull(shape, "shape is required");
+        Objects.requireNonNull(translator, "translator is required");
+        Optional<T> cached = cache.get(shape);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        T translation = Objects.requireNonNull(translator.apply(shape), "translation is required");
+        cache.put(shape, translation);
+        return translation;
+    }
+
+    @Override
+    public void invalidate(S shape) throws NullPointerException {
+        cache.remove(Objects.requireNonNull(shape, "shape is required"));
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultTranslationCache{");
+        sb.append("cache=").append(cache);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.cache;
+
+
+/**
+ * A count-min sketch that estimates how often a key was used, the counters are halved periodically
+ * so the old frequencies fade out. It is the TinyLFU admission filter of {@link DefaultCache},
+ * this class is not thread-safe.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+
+    private static final int MAXIMUM_FREQUENCY = 15;
+
+    private static final int[] SEEDS = {0x97CB3127, 0xB8F06A7B, 0x3C6EF372, 0xA54FF53A};
+
+    private final int[][] table;
+
+    private final int mask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    FrequencySketch(long capacity) {
+        int width = Integer.highestOneBit((int) Math.max(16, Math.min(1 << 24, capacity)) - 1) << 1;
+        this.table = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(int hash) {
+        int frequency = MAXIMUM_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (table[row][index] < MAXIMUM_FREQUENCY) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int[] row : table) {
+            for (int index = 0; index < row.length; index++) {
+                row[index] >>>= 1;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        int value = (hash + SEEDS[row]) * SEEDS[row];
+        value ^= value >>> 16;
+        return value & mask;
+    }
+}
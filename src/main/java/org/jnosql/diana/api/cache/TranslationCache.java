@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.cache;
+
+
+import java.util.function.Function;
+
+/**
+ * A bounded cache of the database statements translated from queries, keyed by the query shape, e.g.:
+ * {@link org.jnosql.diana.api.document.DocumentQueryShape} or {@link org.jnosql.diana.api.column.ColumnQueryShape}.
+ * The drivers translate a shape once and bind the literal values of each query to the cached statement.
+ * It's the extension point for the drivers that keep their statements elsewhere, e.g.: in the database session,
+ * and all the implementations must be thread-safe.
+ *
+ * @param <S> the shape type
+ * @param <T> the translation type
+ * @see TranslationCache#of(long)
+ */
+public interface TranslationCache<S, T> {
+
+    /**
+     * Returns the translation of the shape, translating and caching it when it is not cached.
+     * Concurrent misses of the same shape might translate it more than once, the last translation is kept.
+     *
+     * @param shape      the shape
+     * @param translator the function that translates the shape
+     * @return the translation
+     * @throws NullPointerException when either shape or translator is null or the translator returns null
+     */
+    T get(S shape, Function<? super S, ? extends T> translator) throws NullPointerException;
+
+    /**
+     * Removes the translation of the shape, e.g.: when the database discards the statement
+     *
+     * @param shape the shape
+     * @throws NullPointerException when shape is null
+     */
+    void invalidate(S shape) throws NullPointerException;
+
+    /**
+     * Removes all translations
+     */
+    void clear();
+
+    /**
+     * Returns the number of translations
+     *
+     * @return the number of translations
+     */
+    long size();
+
+    /**
+     * Returns the hit and miss statistics since the cache was created
+     *
+     * @return the {@link CacheStats} instance
+     */
+    CacheStats getStats();
+
+    /**
+     * Creates a translation cache backed by a {@link Cache} bounded by the number of entries
+     *
+     * @param maximumSize the maximum number of translations
+     * @param <S>         the shape type
+     * @param <T>         the translation type
+     * @return a {@link TranslationCache} instance
+     * @throws IllegalArgumentException when maximumSize is lesser than one
+     */
+    static <S, T> TranslationCache<S, T> of(long maximumSize) throws IllegalArgumentException {
+        return new DefaultTranslationCache<>(Cache.of(maximumSize));
+    }
+}
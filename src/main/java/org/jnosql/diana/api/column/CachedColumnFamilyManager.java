@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.cache.Cache;
+import org.jnosql.diana.api.cache.CacheStats;
+
+/**
+ * A {@link ColumnFamilyManager} decorator that keeps rows in a bounded in-process {@link Cache} keyed by the
+ * row key. Just the {@link ColumnQuery} that has a single {@link ColumnCondition#eq(Column)} on the key column
+ * are served from the cache, all the other query shapes go straight to the database.
+ * The insert, update and delete done through the same instance invalidate the rows touched, writes done by
+ * other clients are not seen until the row is evicted.
+ *
+ * @see Cache
+ */
+public interface CachedColumnFamilyManager extends ColumnFamilyManager {
+
+    /**
+     * Returns the hit and miss statistics of the cache
+     *
+     * @return the {@link CacheStats} instance
+     */
+    CacheStats getStats();
+
+    /**
+     * Removes all the rows of a column family from the cache without touching the database
+     *
+     * @param columnFamily the column family name
+     * @throws NullPointerException when columnFamily is null
+     */
+    void invalidate(String columnFamily) throws NullPointerException;
+
+    /**
+     * Removes all the rows from the cache without touching the database
+     */
+    void invalidateAll();
+
+    /**
+     * Creates a {@link CachedColumnFamilyManager} with a cache bounded by the number of rows
+     *
+     * @param manager     the {@link ColumnFamilyManager} to be decorated
+     * @param keyColumn   the name of the row key column
+     * @param maximumSize the maximum number of rows in the cache
+     * @return a {@link CachedColumnFamilyManager} instance
+     * @throws NullPointerException     when either manager or keyColumn are null
+     * @throws IllegalArgumentException when maximumSize is lesser than one
+     */
+    static CachedColumnFamilyManager of(ColumnFamilyManager manager, String keyColumn, long maximumSize)
+            throws NullPointerException, IllegalArgumentException {
+        return new DefaultCachedColumnFamilyManager(manager, keyColumn, Cache.of(maximumSize));
+    }
+
+    /**
+     * Creates a {@link CachedColumnFamilyManager} that uses the informed cache
+     *
+     * @param manager   the {@link ColumnFamilyManager} to be decorated
+     * @param keyColumn the name of the row key column
+     * @param cache     the cache
+     * @return a {@link CachedColumnFamilyManager} instance
+     * @throws NullPointerException when either manager, keyColumn or cache are null
+     */
+    static CachedColumnFamilyManager of(ColumnFamilyManager manager, String keyColumn,
+                                        Cache<Object, ColumnEntity> cache) throws NullPointerException {
+        return new DefaultCachedColumnFamilyManager(manager, keyColumn, cache);
+    }
+}
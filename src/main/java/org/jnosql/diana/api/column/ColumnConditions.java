@@ -0,0 +1,436 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.TypeReference;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.jnosql.diana.api.Values.compareNumbers;
+import static org.jnosql.diana.api.Values.isFinite;
+import static org.jnosql.diana.api.Values.isFloating;
+import static org.jnosql.diana.api.Values.isIntegral;
+import static org.jnosql.diana.api.Values.key;
+import static org.jnosql.diana.api.Values.toList;
+
+/**
+ * This class has utilitarian methods to evaluate a {@link ColumnCondition} on the client side.
+ * {@link #compile(ColumnCondition)} walks the condition tree once and returns a reusable
+ * {@link Predicate}: the operand types are resolved at compile time, the nested AND and OR are flattened and
+ * short-circuited, and the LIKE patterns are compiled once, so testing an entity does not allocate beyond the
+ * entity lookup.
+ * <p>The numbers are compared by value, so 1, 1L and 1.0 are equal; the other values are compared when one is a
+ * {@link Comparable} of the class of the other, otherwise the order conditions don't match.</p>
+ */
+public final class ColumnConditions {
+
+    private static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    private static final long EXACT_DOUBLE = 1L << 53;
+
+    private ColumnConditions() {
+    }
+
+    /**
+     * Compiles the condition to a predicate, a name with dots goes through the subcolumns, e.g.:
+     * "address.city", see {@link #value(ColumnEntity, String)}
+     *
+     * @param condition the condition
+     * @return the predicate
+     * @throws NullPointerException          when condition is null
+     * @throws UnsupportedOperationException when the condition has a {@link Condition#SUBQUERY}
+     */
+    public static Predicate<ColumnEntity> compile(ColumnCondition condition) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(condition, "condition is required");
+        Column column = condition.getColumn();
+        switch (condition.getCondition()) {
+            case AND:
+                return and(flatten(Condition.AND, condition));
+            case OR:
+                return or(flatten(Condition.OR, condition));
+            case NOT:
+                return compile(column.get(ColumnCondition.class)).negate();
+            case SUBQUERY:
+                throw new UnsupportedOperationException("The subquery condition cannot be evaluated on the client");
+            default:
+                return compare(condition.getCondition(), new Path(column.getName()), column.get());
+        }
+    }
+
+    /**
+     * Finds the value of a column in the entity, a name with dots goes through the subcolumns, e.g.:
+     * "address.city".
+     *
+     * @param entity the entity
+     * @param name   the column name
+     * @return the value or {@link Optional#empty()} when the entity has no such column
+     * @throws NullPointerException when there is a null parameter
+     */
+    public static Optional<Object> value(ColumnEntity entity, String name) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(name, "name is required");
+        return Optional.ofNullable(new Path(name).get(entity));
+    }
+
+    private static Predicate<ColumnEntity> compare(Condition condition, Path path, Object expected) {
+        switch (condition) {
+            case EQUALS:
+                Operand equals = new Operand(expected);
+                return e -> equals.isEqual(path.get(e));
+            case GREATER_THAN:
+                Operand greater = new Operand(expected);
+                return e -> {
+                    int compare = greater.compare(path.get(e));
+                    return compare != INCOMPARABLE && compare > 0;
+                };
+            case GREATER_EQUALS_THAN:
+                Operand greaterEquals = new Operand(expected);
+                return e -> {
+                    int compare = greaterEquals.compare(path.get(e));
+                    return compare != INCOMPARABLE && compare >= 0;
+                };
+            case LESSER_THAN:
+                Operand lesser = new Operand(expected);
+                return e -> {
+                    int compare = lesser.compare(path.get(e));
+                    return compare != INCOMPARABLE && compare < 0;
+                };
+            case LESSER_EQUALS_THAN:
+                Operand lesserEquals = new Operand(expected);
+                return e -> {
+                    int compare = lesserEquals.compare(path.get(e));
+                    return compare != INCOMPARABLE && compare <= 0;
+                };
+            case BETWEEN:
+                List<Object> bounds = toList(expected);
+                if (bounds.size() != 2) {
+                    throw new IllegalArgumentException("The between condition requires two values: " + expected);
+                }
+                Operand lower = new Operand(bounds.get(0));
+                Operand upper = new Operand(bounds.get(1));
+                return e -> {
+                    Object value = path.get(e);
+                    int compareLower = lower.compare(value);
+                    if (compareLower == INCOMPARABLE || compareLower < 0) {
+                        return false;
+                    }
+                    int compareUpper = upper.compare(value);
+                    return compareUpper != INCOMPARABLE && compareUpper <= 0;
+                };
+            case IN:
+                Set<Object> values = new HashSet<>();
+                toList(expected).forEach(v -> values.add(key(v)));
+                return e -> {
+                    Object value = path.get(e);
+                    return value != null && values.contains(key(value));
+                };
+            case LIKE:
+                Predicate<CharSequence> like = like(String.valueOf(expected));
+                return e -> {
+                    Object value = path.get(e);
+                    return value instanceof CharSequence && like.test((CharSequence) value);
+                };
+            default:
+                throw new UnsupportedOperationException("The condition is not supported: " + condition);
+        }
+    }
+
+    private static List<Predicate<ColumnEntity>> flatten(Condition type, ColumnCondition condition) {
+        List<Predicate<ColumnEntity>> predicates = new ArrayList<>();
+        for (ColumnCondition child : children(condition)) {
+            if (type.equals(child.getCondition())) {
+                predicates.addAll(flatten(type, child));
+            } else {
+                predicates.add(compile(child));
+            }
+        }
+        return predicates;
+    }
+
+    /**
+     * Returns the conditions joined by an AND or an OR condition
+     *
+     * @param condition the AND or OR condition
+     * @return the joined conditions
+     * @throws NullPointerException when condition is null
+     */
+    public static List<ColumnCondition> children(ColumnCondition condition) throws NullPointerException {
+        Objects.requireNonNull(condition, "condition is required");
+        if (condition instanceof DefaultColumnCondition) {
+            return ((DefaultColumnCondition) condition).getConditions();
+        }
+        return condition.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        });
+    }
+
+    private static Predicate<ColumnEntity> and(List<Predicate<ColumnEntity>> conditions) {
+        if (conditions.size() == 1) {
+            return conditions.get(0);
+        }
+        List<Predicate<ColumnEntity>> predicates = new ArrayList<>(conditions);
+        return e -> {
+            for (int index = 0; index < predicates.size(); index++) {
+                if (!predicates.get(index).test(e)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Predicate<ColumnEntity> or(List<Predicate<ColumnEntity>> conditions) {
+        if (conditions.size() == 1) {
+            return conditions.get(0);
+        }
+        List<Predicate<ColumnEntity>> predicates = new ArrayList<>(conditions);
+        return e -> {
+            for (int index = 0; index < predicates.size(); index++) {
+                if (predicates.get(index).test(e)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Converts the LIKE expression, where % matches any sequence and _ any character, the expressions that are
+     * just a prefix, suffix or infix don't use a regular expression
+     */
+    private static Predicate<CharSequence> like(String like) {
+        int wildcards = 0;
+        boolean single = false;
+        for (char character : like.toCharArray()) {
+            if (character == '%') {
+                wildcards++;
+            } else if (character == '_') {
+                single = true;
+            }
+        }
+        if (!single) {
+            String inner = like.replace("%", "");
+            boolean starts = like.startsWith("%");
+            boolean ends = like.endsWith("%") && like.length() > 1;
+            if (wildcards == 0) {
+                return v -> like.contentEquals(v);
+            }
+            if (wildcards == 1 && ends) {
+                return v -> v.toString().startsWith(inner);
+            }
+            if (wildcards == 1 && starts) {
+                return v -> v.toString().endsWith(inner);
+            }
+            if (wildcards == 2 && starts && ends) {
+                return v -> v.toString().contains(inner);
+            }
+        }
+        Pattern pattern = pattern(like);
+        return v -> pattern.matcher(v).matches();
+    }
+
+    private static Pattern pattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char character : like.toCharArray()) {
+            if (character == '%' || character == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(character == '%' ? ".*" : ".");
+            } else {
+                literal.append(character);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * The name of a column resolved once, with its parts when it goes through subcolumns
+     */
+    private static final class Path {
+
+        private final String name;
+
+        private final String[] parts;
+
+        private Path(String name) {
+            this.name = name;
+            this.parts = name.indexOf('.') < 0 ? null : name.split("\\.");
+        }
+
+        private Object get(ColumnEntity entity) {
+            List<Column> columns = entity.getColumns();
+            Column column = find(columns, name);
+            if (column != null || parts == null) {
+                return column == null ? null : column.get();
+            }
+            Object value = columns;
+            for (String part : parts) {
+                if (!(value instanceof Iterable)) {
+                    return null;
+                }
+                column = find((Iterable<?>) value, part);
+                if (column == null) {
+                    return null;
+                }
+                value = column.get();
+            }
+            return value;
+        }
+
+        private static Column find(Iterable<?> columns, String name) {
+            if (columns instanceof List && columns instanceof RandomAccess) {
+                List<?> list = (List<?>) columns;
+                for (int index = 0; index < list.size(); index++) {
+                    Object element = list.get(index);
+                    if (element instanceof Column && name.equals(((Column) element).getName())) {
+                        return (Column) element;
+                    }
+                }
+                return null;
+            }
+            for (Object element : columns) {
+                if (element instanceof Column && name.equals(((Column) element).getName())) {
+                    return (Column) element;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An operand with its comparison picked once from its type
+     */
+    private static final class Operand {
+
+        private final Object expected;
+
+        private final Kind kind;
+
+        private final long integral;
+
+        private final double floating;
+
+        private Operand(Object expected) {
+            this.expected = expected;
+            if (expected instanceof Number && isIntegral((Number) expected)) {
+                this.kind = Kind.INTEGRAL;
+            } else if (expected instanceof Number && isFloating((Number) expected)
+                    && isFinite((Number) expected)) {
+                this.kind = Kind.FLOATING;
+            } else if (expected instanceof Number) {
+                this.kind = Kind.NUMBER;
+            } else if (expected instanceof String) {
+                this.kind = Kind.STRING;
+            } else {
+                this.kind = Kind.OTHER;
+            }
+            this.integral = expected instanceof Number ? ((Number) expected).longValue() : 0L;
+            this.floating = expected instanceof Number ? ((Number) expected).doubleValue() : 0D;
+        }
+
+        private boolean isEqual(Object value) {
+            if (value == null) {
+                return false;
+            }
+            switch (kind) {
+                case STRING:
+                    return expected.equals(value);
+                case OTHER:
+                    return expected.equals(value);
+                default:
+                    return value instanceof Number && compare(value) == 0;
+            }
+        }
+
+        /**
+         * Compares the value to the operand
+         *
+         * @param value the value
+         * @return the comparison or {@link #INCOMPARABLE}
+         */
+        @SuppressWarnings("unchecked")
+        private int compare(Object value) {
+            if (value == null) {
+                return INCOMPARABLE;
+            }
+            switch (kind) {
+                case INTEGRAL:
+                    if (value instanceof Number && isIntegral((Number) value)) {
+                        return Long.compare(((Number) value).longValue(), integral);
+                    }
+                    if (value instanceof Number && isFloating((Number) value) && isFinite((Number) value)
+                            && Math.abs(integral) <= EXACT_DOUBLE) {
+                        return compareDoubles(((Number) value).doubleValue(), integral);
+                    }
+                    return value instanceof Number ? compareNumbers((Number) value, (Number) expected)
+                            : INCOMPARABLE;
+                case FLOATING:
+                    if (value instanceof Number && isFloating((Number) value) && isFinite((Number) value)) {
+                        return compareDoubles(((Number) value).doubleValue(), floating);
+                    }
+                    if (value instanceof Number && isIntegral((Number) value)
+                            && Math.abs(((Number) value).longValue()) <= EXACT_DOUBLE) {
+                        return compareDoubles(((Number) value).longValue(), floating);
+                    }
+                    return value instanceof Number ? compareNumbers((Number) value, (Number) expected)
+                            : INCOMPARABLE;
+                case NUMBER:
+                    return value instanceof Number ? compareNumbers((Number) value, (Number) expected)
+                            : INCOMPARABLE;
+                case STRING:
+                    return value instanceof String ? Integer.signum(((String) value).compareTo((String) expected))
+                            : INCOMPARABLE;
+                default:
+                    if (expected instanceof Comparable && expected.getClass().isInstance(value)) {
+                        return -Integer.signum(((Comparable<Object>) expected).compareTo(value));
+                    }
+                    if (value instanceof Comparable && value.getClass().isInstance(expected)) {
+                        return Integer.signum(((Comparable<Object>) value).compareTo(expected));
+                    }
+                    return INCOMPARABLE;
+            }
+        }
+
+        private static int compareDoubles(double value, double other) {
+            if (value < other) {
+                return -1;
+            }
+            return value > other ? 1 : 0;
+        }
+    }
+
+    private enum Kind {
+        INTEGRAL, FLOATING, NUMBER, STRING, OTHER
+    }
+}
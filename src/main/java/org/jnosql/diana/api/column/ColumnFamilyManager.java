@@ -19,6 +19,7 @@ package org.jnosql.diana.api.column;
 
 
 import org.jnosql.diana.api.NonUniqueResultException;
+import org.jnosql.diana.api.Page;
 
 import java.time.Duration;
 import java.util.List;
@@ -146,6 +147,22 @@ public interface ColumnFamilyManager extends AutoCloseable {
         throw new NonUniqueResultException("The select returns more than one entity, select: " + query);
     }
 
+    /**
+     * Returns a page of the select, {@link ColumnQuery#getMaxResults()} is the page size and
+     * {@link ColumnQuery#getPageToken()} the page to retrieve, the first one when it is empty.
+     * By default the page token is an offset, the select runs with {@link ColumnQuery#withFirstResult(long)}
+     * and one entity more than the page size to find out whether there is a next page; the drivers of
+     * databases with native paging should override it.
+     *
+     * @param query - select to figure out entities
+     * @return the page
+     * @throws NullPointerException     when select is null
+     * @throws IllegalArgumentException when the page token is invalid
+     */
+    default Page<ColumnEntity> selectPage(ColumnQuery query) throws NullPointerException, IllegalArgumentException {
+        return ColumnPages.select(query, this::select);
+    }
+
     /**
      * closes a resource
      */
@@ -20,6 +20,7 @@ package org.jnosql.diana.api.column;
 
 import org.jnosql.diana.api.ExecuteAsyncQueryException;
 import org.jnosql.diana.api.NonUniqueResultException;
+import org.jnosql.diana.api.Page;
 
 import java.time.Duration;
 import java.util.List;
@@ -219,6 +220,22 @@ public interface ColumnFamilyManagerAsync extends AutoCloseable {
 
     }
 
+    /**
+     * Returns a page of the select asynchronously, see {@link ColumnFamilyManager#selectPage(ColumnQuery)}
+     *
+     * @param query    select to select entities
+     * @param callBack the callback, when the process is finished will call this instance returning the page
+     * @throws ExecuteAsyncQueryException    when there is a async error
+     * @throws UnsupportedOperationException when the database does not support this feature
+     * @throws NullPointerException          when either select or callback are null
+     * @throws IllegalArgumentException      when the page token is invalid
+     */
+    default void selectPage(ColumnQuery query, Consumer<Page<ColumnEntity>> callBack)
+            throws ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException,
+            IllegalArgumentException {
+        ColumnPages.select(query, this::select, callBack);
+    }
+
     /**
      * closes a resource
      */
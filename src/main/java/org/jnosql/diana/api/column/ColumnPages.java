@@ -0,0 +1,101 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Page;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Utilitarian class to page a {@link ColumnQuery} over {@link ColumnQuery#withFirstResult(long)} and
+ * {@link ColumnQuery#withMaxResults(long)}, for the databases without native paging.
+ * The page token is the offset of the page and each page selects one entity more than the page size, so the
+ * last page is detected without an extra select.
+ */
+final class ColumnPages {
+
+    private static final byte OFFSET = 'o';
+
+    private ColumnPages() {
+    }
+
+    static Page<ColumnEntity> select(ColumnQuery query, Function<ColumnQuery, List<ColumnEntity>> select) {
+        Objects.requireNonNull(query, "query is required");
+        long offset = offset(query);
+        return page(query, offset, select.apply(query(query, offset)));
+    }
+
+    static void select(ColumnQuery query, BiConsumer<ColumnQuery, Consumer<List<ColumnEntity>>> select,
+                       Consumer<Page<ColumnEntity>> callBack) {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        long offset = offset(query);
+        select.accept(query(query, offset), entities -> callBack.accept(page(query, offset, entities)));
+    }
+
+    private static long offset(ColumnQuery query) {
+        return query.getPageToken().map(ColumnPages::decode).orElse(Math.max(query.getFirstResult(), 0L));
+    }
+
+    /**
+     * Creates the query of the page without the page token
+     */
+    private static ColumnQuery query(ColumnQuery query, long offset) {
+        ColumnQuery page = ColumnQuery.of(query.getColumnFamily());
+        query.getCondition().ifPresent(page::and);
+        query.getSorts().forEach(page::addSort);
+        query.getColumns().forEach(page::addColumn);
+        page.withFirstResult(offset);
+        long size = query.getMaxResults();
+        page.withMaxResults(size > 0 && size < Long.MAX_VALUE ? size + 1 : size);
+        return page;
+    }
+
+    private static Page<ColumnEntity> page(ColumnQuery query, long offset, List<ColumnEntity> entities) {
+        long size = query.getMaxResults();
+        if (size <= 0 || entities.size() <= size) {
+            return Page.of(entities, null);
+        }
+        return Page.of(new ArrayList<>(entities.subList(0, (int) size)), encode(offset + size));
+    }
+
+    private static String encode(long offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 1).put(OFFSET).putLong(offset);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private static long decode(String token) {
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        if (bytes.length != Long.BYTES + 1 || bytes[0] != OFFSET) {
+            throw new IllegalArgumentException("The page token is invalid: " + token);
+        }
+        long offset = ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+        if (offset < 0) {
+            throw new IllegalArgumentException("The page token is invalid: " + token);
+        }
+        return offset;
+    }
+}
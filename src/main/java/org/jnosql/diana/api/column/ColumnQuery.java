@@ -97,6 +97,29 @@ public interface ColumnQuery {
     long getFirstResult();
 
 
+    /**
+     * Set the page token, the select returns the page that the token points to, see
+     * {@link ColumnFamilyManager#selectPage(ColumnQuery)}
+     *
+     * @param pageToken the token of {@link org.jnosql.diana.api.Page#getNextToken()}
+     * @return the same instance with the page token
+     * @throws NullPointerException when pageToken is null
+     * @throws UnsupportedOperationException when the implementation does not support page tokens
+     */
+    default ColumnQuery withPageToken(String pageToken) throws NullPointerException,
+            UnsupportedOperationException {
+        throw new UnsupportedOperationException("This query does not support page tokens");
+    }
+
+    /**
+     * The token of the page to retrieve.
+     *
+     * @return the page token or {@link Optional#empty()} to retrieve the first page
+     */
+    default Optional<String> getPageToken() {
+        return Optional.empty();
+    }
+
     /**
      * Add the order how the result will returned
      *
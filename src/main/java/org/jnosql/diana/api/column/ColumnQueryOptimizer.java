@@ -0,0 +1,108 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * An optional stage that rewrites a {@link ColumnQuery} or {@link ColumnDeleteQuery} into an equivalent and
+ * simpler one before it reaches the database:
+ * <ul>
+ * <li>the negations are pushed down to the leaves with the De Morgan's laws and the nested AND and OR are
+ * flattened;</li>
+ * <li>the duplicated conditions are removed;</li>
+ * <li>the ranges on the same column joined by AND are merged, into a {@link org.jnosql.diana.api.Condition#BETWEEN}
+ * when both bounds are inclusive, and the equals and in conditions are intersected with them;</li>
+ * <li>the equals and in conditions on the same column joined by OR are collapsed into a single in;</li>
+ * <li>the conditions on the row key come first, the equals and in before the ranges;</li>
+ * <li>the contradictions, e.g.: {@code age > 10 AND age < 5}, make the whole query empty.</li>
+ * </ul>
+ * The negation of a comparison is kept as a negation, since {@code NOT age > 10} also matches the entities
+ * without age. The rewrites take the columns as single-valued.
+ */
+public interface ColumnQueryOptimizer {
+
+    /**
+     * Optimizes the query, the informed query is not changed
+     *
+     * @param query the query
+     * @return the equivalent query or {@link Optional#empty()} when no entity can match it
+     * @throws NullPointerException when query is null
+     */
+    Optional<ColumnQuery> optimize(ColumnQuery query) throws NullPointerException;
+
+    /**
+     * Optimizes the delete query, the informed query is not changed
+     *
+     * @param query the query
+     * @return the equivalent query or {@link Optional#empty()} when no entity can match it
+     * @throws NullPointerException when query is null
+     */
+    Optional<ColumnDeleteQuery> optimize(ColumnDeleteQuery query) throws NullPointerException;
+
+    /**
+     * Splits the query into queries on disjoint ranges of the row key, so they might run in parallel and their
+     * results concatenated. The query is split when, once optimized, its condition is an OR whose every branch
+     * is restricted to a row key range that doesn't overlap the others; the queries with sorts, first result,
+     * max results or page token are never split.
+     *
+     * @param query the query
+     * @return the optimized queries, a single one when the query can't be split or empty when no entity
+     * can match it
+     * @throws NullPointerException when query is null
+     */
+    List<ColumnQuery> split(ColumnQuery query) throws NullPointerException;
+
+    /**
+     * Creates a {@link ColumnFamilyManager} decorator that optimizes the queries before they reach the
+     * manager, the queries that no entity can match are answered without calling it and the queries that
+     * might be split by {@link #split(ColumnQuery)} run in parallel, so the manager must be thread-safe. The
+     * split queries run in a pool of its own that is shut down when the decorator is closed.
+     *
+     * @param manager the manager
+     * @return the decorated manager
+     * @throws NullPointerException when manager is null
+     */
+    ColumnFamilyManager decorate(ColumnFamilyManager manager) throws NullPointerException;
+
+    /**
+     * Creates a {@link ColumnFamilyManager} decorator like {@link #decorate(ColumnFamilyManager)} that runs the
+     * split queries on the executor
+     *
+     * @param manager  the manager
+     * @param executor the executor that runs the split queries in parallel
+     * @return the decorated manager
+     * @throws NullPointerException when either manager or executor are null
+     */
+    ColumnFamilyManager decorate(ColumnFamilyManager manager, Executor executor) throws NullPointerException;
+
+    /**
+     * Returns a {@link ColumnQueryOptimizer}, it has no state and might be shared
+     *
+     * @param key the name of the row key column
+     * @return the optimizer
+     * @throws NullPointerException when key is null
+     */
+    static ColumnQueryOptimizer of(String key) throws NullPointerException {
+        return new DefaultColumnQueryOptimizer(Objects.requireNonNull(key, "key is required"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import java.util.List;
+
+/**
+ * The shape of a {@link ColumnQuery} or {@link ColumnDeleteQuery}: the query with the literal values of
+ * its condition stripped. It's made of the column family, the condition tree with the column names and the
+ * operators, the sorts, the columns and whether the query has first result, max results and page token. The in and
+ * between values are stripped element by element, so their number of elements is part of the shape.
+ * Two queries with the same shape might share the same database statement, so the shape is meant to be the key
+ * of a {@link org.jnosql.diana.api.cache.TranslationCache}; only the fingerprint is part of the equals contract.
+ *
+ * @see ColumnQueryShape#of(ColumnQuery)
+ * @see ColumnQueryShape#of(ColumnDeleteQuery)
+ */
+public interface ColumnQueryShape {
+
+    /**
+     * Creates the shape of a query
+     *
+     * @param query the query
+     * @return the shape
+     * @throws NullPointerException when query is null
+     */
+    static ColumnQueryShape of(ColumnQuery query) throws NullPointerException {
+        return DefaultColumnQueryShape.of(query);
+    }
+
+    /**
+     * Creates the shape of a delete query
+     *
+     * @param query the query
+     * @return the shape
+     * @throws NullPointerException when query is null
+     */
+    static ColumnQueryShape of(ColumnDeleteQuery query) throws NullPointerException {
+        return DefaultColumnQueryShape.of(query);
+    }
+
+    /**
+     * The text that identifies the shape, the literal values are replaced by {@code ?}
+     *
+     * @return the fingerprint
+     */
+    String getFingerprint();
+
+    /**
+     * The literal values stripped from the condition, in the order of the fingerprint placeholders,
+     * the in and between values are flattened
+     *
+     * @return the values, it's immutable
+     */
+    List<Object> getValues();
+}
@@ -0,0 +1,298 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.cache.Cache;
+import org.jnosql.diana.api.cache.CacheStats;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The default implementation of {@link CachedColumnFamilyManager}.
+ * The rows are spread in stripes with a version each, a write increments the version of the row's stripe
+ * when it invalidates the row, so a row loaded from the database concurrently with the write is not cached.
+ */
+final class DefaultCachedColumnFamilyManager implements CachedColumnFamilyManager {
+
+    private static final int STRIPES = 64;
+
+    private final ColumnFamilyManager manager;
+
+    private final String keyColumn;
+
+    private final Cache<Object, ColumnEntity> cache;
+
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final Object[] locks = new Object[STRIPES];
+
+    DefaultCachedColumnFamilyManager(ColumnFamilyManager manager, String keyColumn,
+                                     Cache<Object, ColumnEntity> cache) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+        this.keyColumn = Objects.requireNonNull(keyColumn, "keyColumn is required");
+        this.cache = Objects.requireNonNull(cache, "cache is required");
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe] = new Object();
+        }
+    }
+
+    @Override
+    public ColumnEntity insert(ColumnEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        try {
+            return manager.insert(entity);
+        } finally {
+            invalidate(entity);
+        }
+    }
+
+    @Override
+    public ColumnEntity update(ColumnEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        try {
+            return manager.update(entity);
+        } finally {
+            invalidate(entity);
+        }
+    }
+
+    @Override
+    public Iterable<ColumnEntity> update(Iterable<ColumnEntity> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        try {
+            return manager.update(entities);
+        } finally {
+            entities.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public ColumnEntity insert(ColumnEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entity, "entity is required");
+        try {
+            return manager.insert(entity, ttl);
+        } finally {
+            invalidate(entity);
+        }
+    }
+
+    @Override
+    public Iterable<ColumnEntity> insert(Iterable<ColumnEntity> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        try {
+            return manager.insert(entities);
+        } finally {
+            entities.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public Iterable<ColumnEntity> insert(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        Objects.requireNonNull(entities, "entities is required");
+        try {
+            return manager.insert(entities, ttl);
+        } finally {
+            entities.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        try {
+            manager.delete(query);
+        } finally {
+            Optional<ColumnCondition> condition = query.getCondition();
+            if (condition.isPresent() && isKeyCondition(condition.get(), Condition.EQUALS)) {
+                invalidate(new RowKey(query.getColumnFamily(), condition.get().getColumn().get()));
+            } else if (condition.isPresent() && isKeyCondition(condition.get(), Condition.IN)
+                    && condition.get().getColumn().get() instanceof Iterable) {
+                for (Object key : (Iterable<?>) condition.get().getColumn().get()) {
+                    invalidate(new RowKey(query.getColumnFamily(), key));
+                }
+            } else {
+                invalidate(query.getColumnFamily());
+            }
+        }
+    }
+
+    @Override
+    public List<ColumnEntity> select(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Optional<ColumnCondition> condition = query.getCondition();
+        if (!condition.isPresent() || !isKeyCondition(condition.get(), Condition.EQUALS)
+                || query.getFirstResult() > 0 || query.getMaxResults() == 0) {
+            return manager.select(query);
+        }
+        RowKey key = new RowKey(query.getColumnFamily(), condition.get().getColumn().get());
+        Optional<ColumnEntity> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return Collections.singletonList(project(cached.get(), query.getColumns()));
+        }
+        if (!query.getColumns().isEmpty()) {
+            return manager.select(query);
+        }
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        List<ColumnEntity> entities = manager.select(query);
+        if (entities.size() == 1) {
+            load(key, entities.get(0).copy(), stripe, version);
+        }
+        return entities;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public void invalidate(String columnFamily) throws NullPointerException {
+        Objects.requireNonNull(columnFamily, "columnFamily is required");
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            versions.incrementAndGet(stripe);
+        }
+        cache.removeIf(key -> key instanceof RowKey && ((RowKey) key).columnFamily.equals(columnFamily));
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            versions.incrementAndGet(stripe);
+        }
+        cache.clear();
+    }
+
+    @Override
+    public void close() {
+        invalidateAll();
+        manager.close();
+    }
+
+    private boolean isKeyCondition(ColumnCondition condition, Condition type) {
+        return type.equals(condition.getCondition()) && keyColumn.equals(condition.getColumn().getName());
+    }
+
+    private ColumnEntity project(ColumnEntity entity, List<String> columns) {
+        if (columns.isEmpty()) {
+            return entity.copy();
+        }
+        return ColumnEntity.of(entity.getName(), entity.getColumns().stream()
+                .filter(c -> columns.contains(c.getName())).collect(toList()));
+    }
+
+    private void load(RowKey key, ColumnEntity entity, int stripe, long version) {
+        synchronized (locks[stripe]) {
+            if (versions.get(stripe) == version) {
+                cache.put(key, entity);
+            }
+        }
+    }
+
+    private void invalidate(ColumnEntity entity) {
+        Optional<Column> key = entity.find(keyColumn);
+        if (key.isPresent()) {
+            invalidate(new RowKey(entity.getName(), key.get().get()));
+        } else {
+            invalidate(entity.getName());
+        }
+    }
+
+    private void invalidate(RowKey key) {
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            versions.incrementAndGet(stripe);
+            cache.remove(key);
+        }
+    }
+
+    private int stripe(RowKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultCachedColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", keyColumn='").append(keyColumn).append('\'');
+        sb.append(", cache=").append(cache);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The row key, the integral numbers are normalized to long so the same row is found either
+     * when the key is written as int or as long.
+     */
+    private static final class RowKey {
+
+        private final String columnFamily;
+
+        private final Object key;
+
+        private RowKey(String columnFamily, Object key) {
+            this.columnFamily = columnFamily;
+            this.key = normalize(key);
+        }
+
+        private static Object normalize(Object key) {
+            if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte
+                    || key instanceof AtomicInteger || key instanceof AtomicLong) {
+                return ((Number) key).longValue();
+            }
+            if (key instanceof BigInteger && ((BigInteger) key).bitLength() < Long.SIZE) {
+                return ((BigInteger) key).longValue();
+            }
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RowKey that = (RowKey) o;
+            return Objects.equals(columnFamily, that.columnFamily) &&
+                    Objects.equals(key, that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(columnFamily, key);
+        }
+    }
+}
@@ -21,11 +21,11 @@ package org.jnosql.diana.api.column;
 import org.jnosql.diana.api.Condition;
 import org.jnosql.diana.api.TypeReference;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
-import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 import static org.jnosql.diana.api.Condition.AND;
 import static org.jnosql.diana.api.Condition.NOT;
@@ -33,17 +33,33 @@ import static org.jnosql.diana.api.Condition.OR;
 import static org.jnosql.diana.api.Condition.SUBQUERY;
 
 /**
- * The default implementation of {@link ColumnCondition}
+ * The default implementation of {@link ColumnCondition}.
+ * <p>The {@link Condition#AND} and {@link Condition#OR} conditions keep their children in an append-only array
+ * shared along a chain of {@link #and(ColumnCondition)} or {@link #or(ColumnCondition)} calls, so chaining n
+ * conditions costs O(n) instead of copying the list on each call; the nested conditions of the same type are
+ * flattened. The {@link Column} view is created on the first {@link #getColumn()}.</p>
  */
 class DefaultColumnCondition implements ColumnCondition {
 
-    private final Column column;
-
     private final Condition condition;
 
+    private final Children children;
+
+    private final int size;
+
+    private volatile Column column;
+
     private DefaultColumnCondition(Column column, Condition condition) {
         this.column = column;
         this.condition = condition;
+        this.children = null;
+        this.size = 0;
+    }
+
+    private DefaultColumnCondition(Condition condition, Children children, int size) {
+        this.condition = condition;
+        this.children = children;
+        this.size = size;
     }
 
     public static DefaultColumnCondition of(Column column, Condition condition) {
@@ -52,15 +68,13 @@ class DefaultColumnCondition implements ColumnCondition {
 
     static DefaultColumnCondition and(ColumnCondition... conditions) throws NullPointerException {
         requireNonNull(conditions, "condition is required");
-        Column column = Column.of(AND.getNameField(), asList(conditions));
-        return DefaultColumnCondition.of(column, AND);
+        return join(AND, conditions);
     }
 
 
     static DefaultColumnCondition or(ColumnCondition... conditions) throws NullPointerException {
         requireNonNull(conditions, "condition is required");
-        Column column = Column.of(OR.getNameField(), asList(conditions));
-        return DefaultColumnCondition.of(column, OR);
+        return join(OR, conditions);
     }
 
     static DefaultColumnCondition subquery(ColumnQuery query) throws NullPointerException {
@@ -98,21 +112,36 @@ class DefaultColumnCondition implements ColumnCondition {
     }
 
     public Column getColumn() {
-        return column;
+        Column current = column;
+        if (current == null) {
+            current = Column.of(condition.getNameField(), getConditions());
+            column = current;
+        }
+        return current;
     }
 
     public Condition getCondition() {
         return condition;
     }
 
+    /**
+     * Returns the children of an {@link Condition#AND} or {@link Condition#OR} condition without converting the
+     * {@link Column} value
+     *
+     * @return the children
+     */
+    List<ColumnCondition> getConditions() {
+        if (children != null) {
+            return children.list(size);
+        }
+        return column.get(new TypeReference<List<ColumnCondition>>() {
+        });
+    }
+
     @Override
     public ColumnCondition and(ColumnCondition condition) throws NullPointerException {
         requireNonNull(condition, "Conditions is required");
-        if (AND.equals(this.condition)) {
-            Column column = getConditions(condition, AND);
-            return new DefaultColumnCondition(column, AND);
-        }
-        return DefaultColumnCondition.and(this, condition);
+        return append(AND, condition);
     }
 
     @Override
@@ -129,19 +158,35 @@ class DefaultColumnCondition implements ColumnCondition {
     @Override
     public ColumnCondition or(ColumnCondition condition) {
         requireNonNull(condition, "Condition is required");
-        if (OR.equals(this.condition)) {
-            Column column = getConditions(condition, OR);
-            return new DefaultColumnCondition(column, OR);
+        return append(OR, condition);
+    }
+
+    private ColumnCondition append(Condition type, ColumnCondition condition) {
+        if (!type.equals(this.condition)) {
+            return join(type, this, condition);
+        }
+        ColumnCondition[] additions = flatten(type, condition);
+        if (children != null && children.append(size, additions)) {
+            return new DefaultColumnCondition(type, children, size + additions.length);
+        }
+        Children copy = new Children(getConditions().toArray(new ColumnCondition[0]));
+        copy.append(copy.size, additions);
+        return new DefaultColumnCondition(type, copy, copy.size);
+    }
+
+    private static DefaultColumnCondition join(Condition type, ColumnCondition... conditions) {
+        Children children = new Children(new ColumnCondition[0]);
+        for (ColumnCondition condition : conditions) {
+            children.append(children.size, flatten(type, condition));
         }
-        return DefaultColumnCondition.or(this, condition);
+        return new DefaultColumnCondition(type, children, children.size);
     }
 
-    private Column getConditions(ColumnCondition columnCondition, Condition condition) {
-        List<ColumnCondition> conditions = new ArrayList<>();
-        conditions.addAll(column.get(new TypeReference<List<ColumnCondition>>() {
-        }));
-        conditions.add(columnCondition);
-        return Column.of(condition.getNameField(), conditions);
+    private static ColumnCondition[] flatten(Condition type, ColumnCondition condition) {
+        if (condition instanceof DefaultColumnCondition && type.equals(condition.getCondition())) {
+            return ((DefaultColumnCondition) condition).getConditions().toArray(new ColumnCondition[0]);
+        }
+        return new ColumnCondition[]{condition};
     }
 
     @Override
@@ -153,21 +198,53 @@ class DefaultColumnCondition implements ColumnCondition {
             return false;
         }
         DefaultColumnCondition that = (DefaultColumnCondition) o;
-        return Objects.equals(column, that.column) &&
+        return Objects.equals(getColumn(), that.getColumn()) &&
                 condition == that.condition;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(column, condition);
+        return Objects.hash(getColumn(), condition);
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("DefaultColumnCondition{");
-        sb.append("column=").append(column);
+        sb.append("column=").append(getColumn());
         sb.append(", condition=").append(condition);
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * An append-only array of conditions, a condition sees the first size elements; just the condition at the
+     * end of the array appends in place, the others copy their elements.
+     */
+    private static final class Children {
+
+        private ColumnCondition[] elements;
+
+        private int size;
+
+        private Children(ColumnCondition[] elements) {
+            this.elements = elements;
+            this.size = elements.length;
+        }
+
+        private synchronized boolean append(int expected, ColumnCondition[] additions) {
+            if (size != expected) {
+                return false;
+            }
+            if (size + additions.length > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(size + additions.length, elements.length * 2 + 4));
+            }
+            System.arraycopy(additions, 0, elements, size, additions.length);
+            size += additions.length;
+            return true;
+        }
+
+        private synchronized List<ColumnCondition> list(int size) {
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(elements, size)));
+        }
+    }
 }
@@ -44,6 +44,8 @@ class DefaultColumnQuery implements ColumnQuery {
 
     private long firstResult;
 
+    private String pageToken;
+
     private DefaultColumnQuery(String columnFamily) {
         this.columnFamily = requireNonNull(columnFamily, "column family is required");
     }
@@ -105,6 +107,17 @@ class DefaultColumnQuery implements ColumnQuery {
         return firstResult;
     }
 
+    @Override
+    public ColumnQuery withPageToken(String pageToken) throws NullPointerException {
+        this.pageToken = requireNonNull(pageToken, "pageToken is required");
+        return this;
+    }
+
+    @Override
+    public Optional<String> getPageToken() {
+        return Optional.ofNullable(pageToken);
+    }
+
     @Override
     public ColumnQuery addSort(Sort sort) throws NullPointerException {
         this.sorts.add(requireNonNull(sort, "Sort is required"));
@@ -158,14 +171,15 @@ class DefaultColumnQuery implements ColumnQuery {
         return maxResults == that.getMaxResults() &&
                 firstResult == that.getFirstResult() &&
                 Objects.equals(columnFamily, that.getColumnFamily()) &&
-                Objects.equals(condition, that.getCondition()) &&
+                Objects.equals(getCondition(), that.getCondition()) &&
                 Objects.equals(sorts, that.getSorts()) &&
-                Objects.equals(columns, that.getColumns());
+                Objects.equals(columns, that.getColumns()) &&
+                Objects.equals(getPageToken(), that.getPageToken());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(columnFamily, condition, sorts, columns, maxResults, firstResult);
+        return Objects.hash(columnFamily, condition, sorts, columns, maxResults, firstResult, pageToken);
     }
 
     @Override
@@ -177,6 +191,7 @@ class DefaultColumnQuery implements ColumnQuery {
         sb.append(", columns=").append(columns);
         sb.append(", maxResults=").append(maxResults);
         sb.append(", firstResult=").append(firstResult);
+        sb.append(", pageToken='").append(pageToken).append('\'');
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,360 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.ConditionSimplifier;
+import org.jnosql.diana.api.ConditionSimplifier.Simplified;
+import org.jnosql.diana.api.Values;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.jnosql.diana.api.Condition.AND;
+import static org.jnosql.diana.api.Condition.EQUALS;
+import static org.jnosql.diana.api.Condition.GREATER_EQUALS_THAN;
+import static org.jnosql.diana.api.Condition.IN;
+import static org.jnosql.diana.api.Condition.LESSER_EQUALS_THAN;
+import static org.jnosql.diana.api.Condition.NOT;
+import static org.jnosql.diana.api.Condition.OR;
+
+/**
+ * The default implementation of {@link ColumnQueryOptimizer}, the condition is simplified by a
+ * {@link ConditionSimplifier} and ordered with the row key conditions first.
+ */
+final class DefaultColumnQueryOptimizer implements ColumnQueryOptimizer {
+
+    private static final ConditionSimplifier<ColumnCondition> SIMPLIFIER = ConditionSimplifier.of(new ColumnTree());
+
+    private final String key;
+
+    DefaultColumnQueryOptimizer(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public Optional<ColumnQuery> optimize(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        if (!query.getCondition().isPresent()) {
+            return Optional.of(copy(query, Optional.empty()));
+        }
+        Simplified<ColumnCondition> simplified = SIMPLIFIER.simplify(query.getCondition().get());
+        if (simplified.isContradiction()) {
+            return Optional.empty();
+        }
+        return Optional.of(copy(query, simplified.getCondition().map(this::order)));
+    }
+
+    @Override
+    public Optional<ColumnDeleteQuery> optimize(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        ColumnDeleteQuery optimized = ColumnDeleteQuery.of(query.getColumnFamily());
+        optimized.addAll(query.getColumns());
+        if (!query.getCondition().isPresent()) {
+            return Optional.of(optimized);
+        }
+        Simplified<ColumnCondition> simplified = SIMPLIFIER.simplify(query.getCondition().get());
+        if (simplified.isContradiction()) {
+            return Optional.empty();
+        }
+        simplified.getCondition().map(this::order).ifPresent(optimized::and);
+        return Optional.of(optimized);
+    }
+
+    @Override
+    public List<ColumnQuery> split(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        if (!query.getCondition().isPresent()) {
+            return Collections.singletonList(copy(query, Optional.empty()));
+        }
+        Simplified<ColumnCondition> simplified = SIMPLIFIER.simplify(query.getCondition().get());
+        if (simplified.isContradiction()) {
+            return Collections.emptyList();
+        }
+        Optional<ColumnCondition> condition = simplified.getCondition().map(this::order);
+        if (!condition.isPresent() || !OR.equals(condition.get().getCondition()) || !query.getSorts().isEmpty()
+                || query.getFirstResult() > 0 || query.getMaxResults() > 0 || query.getPageToken().isPresent()) {
+            return Collections.singletonList(copy(query, condition));
+        }
+        List<ColumnCondition> branches = ColumnConditions.children(condition.get());
+        List<List<Interval>> intervals = new ArrayList<>(branches.size());
+        for (ColumnCondition branch : branches) {
+            List<Interval> branchIntervals = intervals(branch);
+            if (branchIntervals == null) {
+                return Collections.singletonList(copy(query, condition));
+            }
+            for (List<Interval> previous : intervals) {
+                if (!Interval.isDisjoint(previous, branchIntervals)) {
+                    return Collections.singletonList(copy(query, condition));
+                }
+            }
+            intervals.add(branchIntervals);
+        }
+        List<ColumnQuery> queries = new ArrayList<>(branches.size());
+        branches.forEach(b -> queries.add(copy(query, Optional.of(b))));
+        return queries;
+    }
+
+    @Override
+    public ColumnFamilyManager decorate(ColumnFamilyManager manager) throws NullPointerException {
+        return OptimizedColumnFamilyManager.of(Objects.requireNonNull(manager, "manager is required"), this);
+    }
+
+    @Override
+    public ColumnFamilyManager decorate(ColumnFamilyManager manager, Executor executor)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(executor, "executor is required");
+        return new OptimizedColumnFamilyManager(manager, this, executor);
+    }
+
+    private static ColumnQuery copy(ColumnQuery query, Optional<ColumnCondition> condition) {
+        ColumnQuery optimized = ColumnQuery.of(query.getColumnFamily());
+        query.getSorts().forEach(optimized::addSort);
+        query.getColumns().forEach(optimized::addColumn);
+        optimized.withFirstResult(query.getFirstResult());
+        optimized.withMaxResults(query.getMaxResults());
+        query.getPageToken().ifPresent(optimized::withPageToken);
+        condition.ifPresent(optimized::and);
+        return optimized;
+    }
+
+    /**
+     * Moves the conditions on the row key to the beginning of each junction, the equals and in before the ranges
+     */
+    private ColumnCondition order(ColumnCondition condition) {
+        Condition type = condition.getCondition();
+        if (!AND.equals(type) && !OR.equals(type)) {
+            return condition;
+        }
+        List<ColumnCondition> children = new ArrayList<>();
+        ColumnConditions.children(condition).forEach(c -> children.add(order(c)));
+        children.sort(Comparator.comparingInt(this::rank));
+        ColumnCondition[] conditions = children.toArray(new ColumnCondition[children.size()]);
+        return AND.equals(type) ? ColumnCondition.and(conditions) : ColumnCondition.or(conditions);
+    }
+
+    private int rank(ColumnCondition condition) {
+        if (!isLeaf(condition) || !key.equals(condition.getColumn().getName())) {
+            return 2;
+        }
+        Condition type = condition.getCondition();
+        return EQUALS.equals(type) || IN.equals(type) ? 0 : 1;
+    }
+
+    /**
+     * Returns the row key intervals that contain every entity of the branch of an OR, the ranges of the row key
+     * are already merged by the {@link ConditionSimplifier}
+     *
+     * @return the intervals or null when the branch doesn't restrict the row key
+     */
+    private List<Interval> intervals(ColumnCondition branch) {
+        List<ColumnCondition> leaves = new ArrayList<>();
+        if (isLeaf(branch)) {
+            leaves.add(branch);
+        } else if (AND.equals(branch.getCondition())) {
+            ColumnConditions.children(branch).stream().filter(DefaultColumnQueryOptimizer::isLeaf)
+                    .forEach(leaves::add);
+        }
+        List<Interval> points = null;
+        List<Bound> lowers = new ArrayList<>();
+        List<Bound> uppers = new ArrayList<>();
+        for (ColumnCondition leaf : leaves) {
+            Column column = leaf.getColumn();
+            if (!key.equals(column.getName())) {
+                continue;
+            }
+            switch (leaf.getCondition()) {
+                case EQUALS:
+                case IN:
+                    points = new ArrayList<>();
+                    for (Object value : Values.toList(column.get())) {
+                        Bound bound = new Bound(value, true);
+                        points.add(new Interval(bound, bound));
+                    }
+                    break;
+                case GREATER_THAN:
+                case GREATER_EQUALS_THAN:
+                    lowers.add(new Bound(column.get(), GREATER_EQUALS_THAN.equals(leaf.getCondition())));
+                    break;
+                case LESSER_THAN:
+                case LESSER_EQUALS_THAN:
+                    uppers.add(new Bound(column.get(), LESSER_EQUALS_THAN.equals(leaf.getCondition())));
+                    break;
+                case BETWEEN:
+                    List<Object> bounds = Values.toList(column.get());
+                    if (bounds.size() != 2) {
+                        return null;
+                    }
+                    lowers.add(new Bound(bounds.get(0), true));
+                    uppers.add(new Bound(bounds.get(1), true));
+                    break;
+                default:
+            }
+        }
+        if (points != null) {
+            return points;
+        }
+        if (lowers.size() > 1 || uppers.size() > 1 || lowers.isEmpty() && uppers.isEmpty()) {
+            return null;
+        }
+        return Collections.singletonList(new Interval(lowers.isEmpty() ? null : lowers.get(0),
+                uppers.isEmpty() ? null : uppers.get(0)));
+    }
+
+    private static boolean isLeaf(ColumnCondition condition) {
+        Condition type = condition.getCondition();
+        return !AND.equals(type) && !OR.equals(type) && !NOT.equals(type);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultColumnQueryOptimizer{");
+        sb.append("key='").append(key).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The tree of the {@link ColumnCondition}
+     */
+    private static final class ColumnTree implements ConditionSimplifier.Tree<ColumnCondition> {
+
+        @Override
+        public Condition type(ColumnCondition condition) {
+            return condition.getCondition();
+        }
+
+        @Override
+        public String name(ColumnCondition condition) {
+            return condition.getColumn().getName();
+        }
+
+        @Override
+        public Object value(ColumnCondition condition) {
+            return condition.getColumn().get();
+        }
+
+        @Override
+        public List<ColumnCondition> children(ColumnCondition condition) {
+            return ColumnConditions.children(condition);
+        }
+
+        @Override
+        public ColumnCondition operand(ColumnCondition condition) {
+            return condition.getColumn().get(ColumnCondition.class);
+        }
+
+        @Override
+        public ColumnCondition negate(ColumnCondition condition) {
+            return condition.negate();
+        }
+
+        @Override
+        public ColumnCondition join(Condition type, List<ColumnCondition> conditions) {
+            ColumnCondition[] array = conditions.toArray(new ColumnCondition[conditions.size()]);
+            return AND.equals(type) ? ColumnCondition.and(array) : ColumnCondition.or(array);
+        }
+
+        @Override
+        public ColumnCondition leaf(Condition type, String name, Object value) {
+            Column column = Column.of(name, value);
+            switch (type) {
+                case EQUALS:
+                    return ColumnCondition.eq(column);
+                case IN:
+                    return ColumnCondition.in(column);
+                case BETWEEN:
+                    return ColumnCondition.between(column);
+                case GREATER_THAN:
+                    return ColumnCondition.gt(column);
+                case GREATER_EQUALS_THAN:
+                    return ColumnCondition.gte(column);
+                case LESSER_THAN:
+                    return ColumnCondition.lt(column);
+                case LESSER_EQUALS_THAN:
+                    return ColumnCondition.lte(column);
+                default:
+                    throw new IllegalArgumentException("The condition " + type + " is not a leaf");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ColumnTree{}";
+        }
+    }
+
+    /**
+     * A bound of a row key interval
+     */
+    private static final class Bound {
+
+        private final Object value;
+
+        private final boolean inclusive;
+
+        private Bound(Object value, boolean inclusive) {
+            this.value = value;
+            this.inclusive = inclusive;
+        }
+    }
+
+    /**
+     * A row key interval, a null bound means the interval is unbounded on that side
+     */
+    private static final class Interval {
+
+        private final Bound lower;
+
+        private final Bound upper;
+
+        private Interval(Bound lower, Bound upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        private static boolean isDisjoint(List<Interval> intervals, List<Interval> others) {
+            for (Interval interval : intervals) {
+                for (Interval other : others) {
+                    if (!isBefore(interval.upper, other.lower) && !isBefore(other.upper, interval.lower)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks if every value below the upper bound is below the lower bound
+         */
+        private static boolean isBefore(Bound upper, Bound lower) {
+            if (upper == null || lower == null || !Values.isComparable(upper.value, lower.value)) {
+                return false;
+            }
+            int compare = Values.compare(upper.value, lower.value);
+            return compare < 0 || compare == 0 && !(upper.inclusive && lower.inclusive);
+        }
+    }
+}
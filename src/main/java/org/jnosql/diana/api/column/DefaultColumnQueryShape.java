@@ -0,0 +1,196 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The default implementation of {@link ColumnQueryShape}, the fingerprint is computed once.
+ */
+final class DefaultColumnQueryShape implements ColumnQueryShape {
+
+    private final String fingerprint;
+
+    private final List<Object> values;
+
+    private DefaultColumnQueryShape(String fingerprint, List<Object> values) {
+        this.fingerprint = fingerprint;
+        this.values = values;
+    }
+
+    static ColumnQueryShape of(ColumnQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        StringBuilder fingerprint = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+        select(query, fingerprint, values);
+        return new DefaultColumnQueryShape(fingerprint.toString(), Collections.unmodifiableList(values));
+    }
+
+    static ColumnQueryShape of(ColumnDeleteQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        StringBuilder fingerprint = new StringBuilder("delete ");
+        List<Object> values = new ArrayList<>();
+        name(query.getColumnFamily(), fingerprint);
+        if (!query.getColumns().isEmpty()) {
+            fingerprint.append(" columns");
+            names(query.getColumns(), fingerprint);
+        }
+        query.getCondition().ifPresent(c -> {
+            fingerprint.append(" where ");
+            condition(c, fingerprint, values);
+        });
+        return new DefaultColumnQueryShape(fingerprint.toString(), Collections.unmodifiableList(values));
+    }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public List<Object> getValues() {
+        return values;
+    }
+
+    private static void select(ColumnQuery query, StringBuilder fingerprint, List<Object> values) {
+        fingerprint.append("select ");
+        name(query.getColumnFamily(), fingerprint);
+        if (!query.getColumns().isEmpty()) {
+            fingerprint.append(" columns");
+            names(query.getColumns(), fingerprint);
+        }
+        query.getCondition().ifPresent(c -> {
+            fingerprint.append(" where ");
+            condition(c, fingerprint, values);
+        });
+        if (!query.getSorts().isEmpty()) {
+            fingerprint.append(" sort(");
+            List<Sort> sorts = query.getSorts();
+            for (int index = 0; index < sorts.size(); index++) {
+                Sort sort = sorts.get(index);
+                if (index > 0) {
+                    fingerprint.append(", ");
+                }
+                name(sort.getName(), fingerprint);
+                fingerprint.append(' ').append(sort.getType());
+            }
+            fingerprint.append(')');
+        }
+        if (query.getFirstResult() > 0) {
+            fingerprint.append(" first");
+        }
+        if (query.getMaxResults() > 0) {
+            fingerprint.append(" max");
+        }
+        if (query.getPageToken().isPresent()) {
+            fingerprint.append(" page");
+        }
+    }
+
+    private static void condition(ColumnCondition condition, StringBuilder fingerprint, List<Object> values) {
+        Condition type = condition.getCondition();
+        fingerprint.append(type.name()).append('(');
+        switch (type) {
+            case AND:
+            case OR:
+                List<ColumnCondition> children = ColumnConditions.children(condition);
+                for (int index = 0; index < children.size(); index++) {
+                    if (index > 0) {
+                        fingerprint.append(", ");
+                    }
+                    condition(children.get(index), fingerprint, values);
+                }
+                break;
+            case NOT:
+                condition(condition.getColumn().get(ColumnCondition.class), fingerprint, values);
+                break;
+            case SUBQUERY:
+                select(condition.getColumn().get(ColumnQuery.class), fingerprint, values);
+                break;
+            case IN:
+            case BETWEEN:
+                name(condition.getColumn().getName(), fingerprint);
+                Object value = condition.getColumn().get();
+                if (value instanceof Iterable) {
+                    int size = values.size();
+                    ((Iterable<?>) value).forEach(values::add);
+                    fingerprint.append(", ?[").append(values.size() - size).append(']');
+                } else {
+                    values.add(value);
+                    fingerprint.append(", ?");
+                }
+                break;
+            default:
+                name(condition.getColumn().getName(), fingerprint);
+                values.add(condition.getColumn().get());
+                fingerprint.append(", ?");
+        }
+        fingerprint.append(')');
+    }
+
+    private static void names(List<String> names, StringBuilder fingerprint) {
+        fingerprint.append('(');
+        for (int index = 0; index < names.size(); index++) {
+            if (index > 0) {
+                fingerprint.append(", ");
+            }
+            name(names.get(index), fingerprint);
+        }
+        fingerprint.append(')');
+    }
+
+    /**
+     * Appends the name quoted, so a name never looks like the syntax of the fingerprint
+     */
+    private static void name(String name, StringBuilder fingerprint) {
+        fingerprint.append('\'').append(name.replace("'", "''")).append('\'');
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DefaultColumnQueryShape that = (DefaultColumnQueryShape) o;
+        return fingerprint.equals(that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return fingerprint.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultColumnQueryShape{");
+        sb.append("fingerprint='").append(fingerprint).append('\'');
+        sb.append(", values=").append(values);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Parameter;
+import org.jnosql.diana.api.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The default implementation of {@link ColumnQueryTemplate}.
+ * The condition is compiled once into a binder, the conditions without parameters are kept as they are and
+ * shared by every bound query.
+ */
+final class DefaultColumnQueryTemplate implements ColumnQueryTemplate {
+
+    private final String columnFamily;
+
+    private final ColumnCondition condition;
+
+    private final List<Sort> sorts;
+
+    private final List<String> columns;
+
+    private final long firstResult;
+
+    private final long maxResults;
+
+    private final String pageToken;
+
+    private final Set<String> parameters;
+
+    private final Function<Map<String, ?>, ColumnCondition> binder;
+
+    DefaultColumnQueryTemplate(ColumnQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        this.columnFamily = query.getColumnFamily();
+        this.condition = query.getCondition().orElse(null);
+        this.sorts = Collections.unmodifiableList(new ArrayList<>(query.getSorts()));
+        this.columns = Collections.unmodifiableList(new ArrayList<>(query.getColumns()));
+        this.firstResult = query.getFirstResult();
+        this.maxResults = query.getMaxResults();
+        this.pageToken = query.getPageToken().orElse(null);
+        Set<String> names = new LinkedHashSet<>();
+        this.binder = condition == null ? null : compile(condition, names);
+        this.parameters = Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public ColumnQuery bind(Map<String, ?> values) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(values, "values is required");
+        for (String parameter : parameters) {
+            if (!values.containsKey(parameter)) {
+                throw new IllegalArgumentException("The parameter " + parameter + " has no value");
+            }
+        }
+        ColumnQuery query = ColumnQuery.of(columnFamily);
+        sorts.forEach(query::addSort);
+        columns.forEach(query::addColumn);
+        query.withFirstResult(firstResult);
+        query.withMaxResults(maxResults);
+        if (pageToken != null) {
+            query.withPageToken(pageToken);
+        }
+        if (binder != null) {
+            query.and(binder.apply(values));
+        }
+        return query;
+    }
+
+    @Override
+    public Set<String> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String getColumnFamily() {
+        return columnFamily;
+    }
+
+    @Override
+    public long getMaxResults() {
+        return maxResults;
+    }
+
+    @Override
+    public long getFirstResult() {
+        return firstResult;
+    }
+
+    @Override
+    public Optional<String> getPageToken() {
+        return Optional.ofNullable(pageToken);
+    }
+
+    @Override
+    public Optional<ColumnCondition> getCondition() {
+        return Optional.ofNullable(condition);
+    }
+
+    @Override
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    @Override
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Compiles the condition into a binder, adding the names of its parameters
+     */
+    private static Function<Map<String, ?>, ColumnCondition> compile(ColumnCondition condition,
+                                                                      Set<String> names) {
+        switch (condition.getCondition()) {
+            case AND:
+            case OR:
+                List<Function<Map<String, ?>, ColumnCondition>> children = new ArrayList<>();
+                boolean bound = false;
+                for (ColumnCondition child : ColumnConditions.children(condition)) {
+                    Function<Map<String, ?>, ColumnCondition> binder = compile(child, names);
+                    children.add(binder);
+                    bound |= !(binder instanceof Constant);
+                }
+                if (!bound) {
+                    return new Constant(condition);
+                }
+                boolean and = Condition.AND.equals(condition.getCondition());
+                return values -> {
+                    ColumnCondition[] conditions = new ColumnCondition[children.size()];
+                    for (int index = 0; index < conditions.length; index++) {
+                        conditions[index] = children.get(index).apply(values);
+                    }
+                    return and ? ColumnCondition.and(conditions) : ColumnCondition.or(conditions);
+                };
+            case NOT:
+                Function<Map<String, ?>, ColumnCondition> child =
+                        compile(condition.getColumn().get(ColumnCondition.class), names);
+                if (child instanceof Constant) {
+                    return new Constant(condition);
+                }
+                return values -> child.apply(values).negate();
+            default:
+                return compileLeaf(condition, names);
+        }
+    }
+
+    private static Function<Map<String, ?>, ColumnCondition> compileLeaf(ColumnCondition condition,
+                                                                          Set<String> names) {
+        String name = condition.getColumn().getName();
+        Condition type = condition.getCondition();
+        Object value = condition.getColumn().get();
+        if (value instanceof Parameter) {
+            String parameter = ((Parameter) value).getName();
+            names.add(parameter);
+            return values -> create(name, type, value(values, parameter));
+        }
+        if (value instanceof Iterable) {
+            List<Object> elements = new ArrayList<>();
+            boolean bound = false;
+            for (Object element : (Iterable<?>) value) {
+                elements.add(element);
+                if (element instanceof Parameter) {
+                    names.add(((Parameter) element).getName());
+                    bound = true;
+                }
+            }
+            if (bound) {
+                return values -> {
+                    List<Object> resolved = new ArrayList<>(elements.size());
+                    for (Object element : elements) {
+                        resolved.add(element instanceof Parameter
+                                ? value(values, ((Parameter) element).getName()) : element);
+                    }
+                    return create(name, type, resolved);
+                };
+            }
+        }
+        return new Constant(condition);
+    }
+
+    private static Object value(Map<String, ?> values, String parameter) {
+        return Objects.requireNonNull(values.get(parameter), "the value of the parameter " + parameter
+                + " is required");
+    }
+
+    private static ColumnCondition create(String name, Condition type, Object value) {
+        Column column = Column.of(name, value);
+        if (Condition.BETWEEN.equals(type)) {
+            return DefaultColumnCondition.between(column);
+        }
+        return DefaultColumnCondition.of(column, type);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DefaultColumnQueryTemplate that = (DefaultColumnQueryTemplate) o;
+        return firstResult == that.firstResult &&
+                maxResults == that.maxResults &&
+                Objects.equals(pageToken, that.pageToken) &&
+                Objects.equals(columnFamily, that.columnFamily) &&
+                Objects.equals(condition, that.condition) &&
+                Objects.equals(sorts, that.sorts) &&
+                Objects.equals(columns, that.columns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(columnFamily, condition, sorts, columns, firstResult, maxResults, pageToken);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultColumnQueryTemplate{");
+        sb.append("columnFamily='").append(columnFamily).append('\'');
+        sb.append(", condition=").append(condition);
+        sb.append(", sorts=").append(sorts);
+        sb.append(", columns=").append(columns);
+        sb.append(", firstResult=").append(firstResult);
+        sb.append(", maxResults=").append(maxResults);
+        sb.append(", pageToken='").append(pageToken).append('\'');
+        sb.append(", parameters=").append(parameters);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The binder of a condition without parameters
+     */
+    private static final class Constant implements Function<Map<String, ?>, ColumnCondition> {
+
+        private final ColumnCondition condition;
+
+        private Constant(ColumnCondition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public ColumnCondition apply(Map<String, ?> values) {
+            return condition;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.metrics.Metrics;
+import org.jnosql.diana.api.metrics.OperationMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static org.jnosql.diana.api.column.DefaultMeteredColumnFamilyManager.columnFamily;
+import static org.jnosql.diana.api.column.DefaultMeteredColumnFamilyManager.copy;
+
+final class DefaultMeteredColumnFamilyManagerAsync implements MeteredColumnFamilyManagerAsync {
+
+    private static final Consumer<Object> NOOP = r -> {
+    };
+
+    private final ColumnFamilyManagerAsync manager;
+
+    private final Metrics metrics;
+
+    DefaultMeteredColumnFamilyManagerAsync(ColumnFamilyManagerAsync manager, Metrics metrics) {
+        this.manager = manager;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void insert(ColumnEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        insert(entity, NOOP::accept);
+    }
+
+    @Override
+    public void insert(ColumnEntity entity, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        insert(entity, ttl, NOOP::accept);
+    }
+
+    @Override
+    public void insert(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("insert", entity.getName(), callBack, e -> 1L, c -> manager.insert(entity, c));
+    }
+
+    @Override
+    public void insert(ColumnEntity entity, Duration ttl, Consumer<ColumnEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("insert", entity.getName(), callBack, e -> 1L, c -> manager.insert(entity, ttl, c));
+    }
+
+    @Override
+    public void insert(Iterable<ColumnEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        List<ColumnEntity> all = copy(entities);
+        submit("insert", columnFamily(all), all.size(), () -> manager.insert(all));
+    }
+
+    @Override
+    public void insert(Iterable<ColumnEntity> entities, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        List<ColumnEntity> all = copy(entities);
+        submit("insert", columnFamily(all), all.size(), () -> manager.insert(all, ttl));
+    }
+
+    @Override
+    public void update(ColumnEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        update(entity, NOOP::accept);
+    }
+
+    @Override
+    public void update(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("update", entity.getName(), callBack, e -> 1L, c -> manager.update(entity, c));
+    }
+
+    @Override
+    public void update(Iterable<ColumnEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        List<ColumnEntity> all = copy(entities);
+        submit("update", columnFamily(all), all.size(), () -> manager.update(all));
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException {
+        delete(query, NOOP::accept);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("delete", query.getColumnFamily(), callBack, r -> -1L, c -> manager.delete(query, c));
+    }
+
+    @Override
+    public void select(ColumnQuery query, Consumer<List<ColumnEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("select", query.getColumnFamily(), callBack, List::size, c -> manager.select(query, c));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    /**
+     * Sends the call with a callback that records the metrics before calling the caller callback, a call is
+     * recorded once even when the callback runs on the caller thread and fails
+     */
+    private <T> void measure(String operation, String columnFamily, Consumer<T> callBack, ToLongFunction<T> results,
+                             Consumer<Consumer<T>> call) {
+        OperationMetrics operationMetrics = metrics.operation(MANAGER, operation, columnFamily);
+        operationMetrics.started();
+        AtomicBoolean finished = new AtomicBoolean();
+        long start = System.nanoTime();
+        try {
+            call.accept(result -> {
+                if (finished.compareAndSet(false, true)) {
+                    operationMetrics.succeeded(System.nanoTime() - start, results.applyAsLong(result));
+                }
+                callBack.accept(result);
+            });
+        } catch (RuntimeException | Error exception) {
+            if (finished.compareAndSet(false, true)) {
+                operationMetrics.failed(System.nanoTime() - start);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Sends a call that has no callback, so it is measured until it is submitted
+     */
+    private void submit(String operation, String columnFamily, long results, Runnable call) {
+        OperationMetrics operationMetrics = metrics.operation(MANAGER, operation, columnFamily);
+        operationMetrics.started();
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } catch (RuntimeException | Error exception) {
+            operationMetrics.failed(System.nanoTime() - start);
+            throw exception;
+        }
+        operationMetrics.succeeded(System.nanoTime() - start, results);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultMeteredColumnFamilyManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", metrics=").append(metrics);
+        sb.append('}');
+        return sb.toString();
+    }
+}
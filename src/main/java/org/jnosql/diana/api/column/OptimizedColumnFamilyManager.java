@@ -0,0 +1,153 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link ColumnFamilyManager} decorator that optimizes the queries with {@link ColumnQueryOptimizer},
+ * the queries that no entity can match never reach the decorated manager and the queries split on disjoint row key
+ * ranges run in parallel on the executor.
+ */
+final class OptimizedColumnFamilyManager implements ColumnFamilyManager {
+
+    private final ColumnFamilyManager manager;
+
+    private final ColumnQueryOptimizer optimizer;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    OptimizedColumnFamilyManager(ColumnFamilyManager manager, ColumnQueryOptimizer optimizer, Executor executor) {
+        this(manager, optimizer, executor, null);
+    }
+
+    private OptimizedColumnFamilyManager(ColumnFamilyManager manager, ColumnQueryOptimizer optimizer,
+                                         Executor executor, ExecutorService ownedExecutor) {
+        this.manager = manager;
+        this.optimizer = optimizer;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * Creates a manager that runs the split queries in a cached pool of daemon threads that it shuts down on close
+     */
+    static OptimizedColumnFamilyManager of(ColumnFamilyManager manager, ColumnQueryOptimizer optimizer) {
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "optimized-column-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new OptimizedColumnFamilyManager(manager, optimizer, executor, executor);
+    }
+
+    @Override
+    public ColumnEntity insert(ColumnEntity entity) throws NullPointerException {
+        return manager.insert(entity);
+    }
+
+    @Override
+    public ColumnEntity insert(ColumnEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.insert(entity, ttl);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> insert(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.insert(entities);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> insert(Iterable<ColumnEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        return manager.insert(entities, ttl);
+    }
+
+    @Override
+    public ColumnEntity update(ColumnEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public Iterable<ColumnEntity> update(Iterable<ColumnEntity> entities) throws NullPointerException {
+        return manager.update(entities);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        optimizer.optimize(query).ifPresent(manager::delete);
+    }
+
+    @Override
+    public List<ColumnEntity> select(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        List<ColumnQuery> queries = optimizer.split(query);
+        if (queries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (queries.size() == 1) {
+            return manager.select(queries.get(0));
+        }
+        List<CompletableFuture<List<ColumnEntity>>> futures = new ArrayList<>(queries.size());
+        queries.forEach(q -> futures.add(CompletableFuture.supplyAsync(() -> manager.select(q), executor)));
+        List<ColumnEntity> entities = new ArrayList<>();
+        try {
+            futures.forEach(f -> entities.addAll(f.join()));
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        return entities;
+    }
+
+    @Override
+    public void close() {
+        try {
+            manager.close();
+        } finally {
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("OptimizedColumnFamilyManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", optimizer=").append(optimizer);
+        sb.append(", executor=").append(executor);
+        sb.append('}');
+        return sb.toString();
+    }
+}
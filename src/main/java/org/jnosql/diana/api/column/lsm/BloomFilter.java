@@ -0,0 +1,109 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.Values;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bloom filter of the row keys of a segment, it answers if a key might be in the segment, so a point lookup
+ * reads no block of most segments. The hash is taken from {@link Values#key(Object)}, so the equal numbers of
+ * different types have the same hash.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+
+    private final int hashes;
+
+    private BloomFilter(long[] bits, int hashes) {
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates a filter to the hashes of the keys
+     *
+     * @param keyHashes   the hashes, see {@link #hash(Object)}
+     * @param count       the number of hashes
+     * @param bitsPerKey  the bits per key
+     * @return the filter
+     */
+    static BloomFilter of(int[] keyHashes, int count, int bitsPerKey) {
+        long size = Math.max(64L, (long) count * bitsPerKey);
+        long[] bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (size + 63) / 64)];
+        int hashes = Math.max(1, Math.min(30, (int) Math.round(bitsPerKey * Math.log(2))));
+        BloomFilter filter = new BloomFilter(bits, hashes);
+        for (int index = 0; index < count; index++) {
+            filter.add(keyHashes[index]);
+        }
+        return filter;
+    }
+
+    static BloomFilter read(ByteBuffer buffer) {
+        int hashes = buffer.getInt();
+        long[] bits = new long[buffer.getInt()];
+        for (int index = 0; index < bits.length; index++) {
+            bits[index] = buffer.getLong();
+        }
+        return new BloomFilter(bits, hashes);
+    }
+
+    static int hash(Object key) {
+        int hash = Values.key(key).hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    boolean mightContain(Object key) {
+        int hash = hash(key);
+        int delta = Integer.rotateLeft(hash, 15) | 1;
+        long size = (long) bits.length * 64;
+        for (int index = 0; index < hashes; index++) {
+            long bit = (hash & 0xFFFFFFFFL) % size;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+            hash += delta;
+        }
+        return true;
+    }
+
+    int size() {
+        return Integer.BYTES * 2 + bits.length * Long.BYTES;
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.putInt(hashes);
+        buffer.putInt(bits.length);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+    }
+
+    private void add(int hash) {
+        int delta = Integer.rotateLeft(hash, 15) | 1;
+        long size = (long) bits.length * 64;
+        for (int index = 0; index < hashes; index++) {
+            long bit = (hash & 0xFFFFFFFFL) % size;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+            hash += delta;
+        }
+    }
+}
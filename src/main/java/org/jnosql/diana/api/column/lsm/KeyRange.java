@@ -0,0 +1,156 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.Values;
+
+/**
+ * A range of row keys, a null bound is unbounded.
+ */
+final class KeyRange {
+
+    static final KeyRange ALL = new KeyRange(null, false, null, false);
+
+    private final Object lower;
+
+    private final boolean lowerInclusive;
+
+    private final Object upper;
+
+    private final boolean upperInclusive;
+
+    private KeyRange(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+    }
+
+    static KeyRange closed(Object lower, Object upper) {
+        return new KeyRange(lower, true, upper, true);
+    }
+
+    static KeyRange greaterThan(Object lower, boolean inclusive) {
+        return new KeyRange(lower, inclusive, null, false);
+    }
+
+    static KeyRange lesserThan(Object upper, boolean inclusive) {
+        return new KeyRange(null, false, upper, inclusive);
+    }
+
+    Object getLower() {
+        return lower;
+    }
+
+    boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    /**
+     * Returns the intersection of both ranges
+     *
+     * @param other the other range
+     * @return the intersection
+     */
+    KeyRange intersect(KeyRange other) {
+        Object newLower = lower;
+        boolean newLowerInclusive = lowerInclusive;
+        if (lower == null || other.lower != null && isGreater(other.lower, other.lowerInclusive)) {
+            newLower = other.lower;
+            newLowerInclusive = other.lowerInclusive;
+        }
+        Object newUpper = upper;
+        boolean newUpperInclusive = upperInclusive;
+        if (upper == null || other.upper != null && isLesser(other.upper, other.upperInclusive)) {
+            newUpper = other.upper;
+            newUpperInclusive = other.upperInclusive;
+        }
+        return new KeyRange(newLower, newLowerInclusive, newUpper, newUpperInclusive);
+    }
+
+    boolean isEmpty() {
+        if (lower == null || upper == null) {
+            return false;
+        }
+        int compare = Values.order(lower, upper);
+        return compare > 0 || compare == 0 && !(lowerInclusive && upperInclusive);
+    }
+
+    /**
+     * Checks if the key is before the lower bound
+     *
+     * @param key the key
+     * @return true when the key is before the range
+     */
+    boolean isBefore(Object key) {
+        if (lower == null) {
+            return false;
+        }
+        int compare = Values.order(key, lower);
+        return compare < 0 || compare == 0 && !lowerInclusive;
+    }
+
+    /**
+     * Checks if the key is after the upper bound
+     *
+     * @param key the key
+     * @return true when the key is after the range
+     */
+    boolean isAfter(Object key) {
+        if (upper == null) {
+            return false;
+        }
+        int compare = Values.order(key, upper);
+        return compare > 0 || compare == 0 && !upperInclusive;
+    }
+
+    boolean contains(Object key) {
+        return !isBefore(key) && !isAfter(key);
+    }
+
+    /**
+     * Checks if the range overlaps the keys between first and last, both inclusive
+     *
+     * @param first the first key
+     * @param last  the last key
+     * @return true when there is a key of the range between first and last
+     */
+    boolean overlaps(Object first, Object last) {
+        return !isBefore(last) && !isAfter(first);
+    }
+
+    private boolean isGreater(Object value, boolean inclusive) {
+        int compare = Values.order(value, lower);
+        return compare > 0 || compare == 0 && lowerInclusive && !inclusive;
+    }
+
+    private boolean isLesser(Object value, boolean inclusive) {
+        int compare = Values.order(value, upper);
+        return compare < 0 || compare == 0 && upperInclusive && !inclusive;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("KeyRange{");
+        sb.append(lowerInclusive ? '[' : '(').append(lower == null ? "" : lower);
+        sb.append(", ").append(upper == null ? "" : upper).append(upperInclusive ? ']' : ')');
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.column.ColumnConfiguration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The configuration to the embedded LSM column engine, each call creates a {@link LsmColumnFamilyManagerFactory}
+ * over the directory, the databases already there are recovered when they are used. Just one factory at a time
+ * should use a directory.
+ */
+public class LsmColumnConfiguration implements ColumnConfiguration<LsmColumnFamilyManagerFactory> {
+
+    /**
+     * The default key column
+     */
+    public static final String KEY = "id";
+
+    /**
+     * The default memtable size, 4 MB, it's also the size of the segments written by the compactions
+     */
+    public static final int MEMTABLE_SIZE = 1 << 22;
+
+    /**
+     * The default block size of the segments, 4 KB
+     */
+    public static final int BLOCK_SIZE = 1 << 12;
+
+    /**
+     * The default size ratio between two levels
+     */
+    public static final int FANOUT = 10;
+
+    /**
+     * The default interval between the compactions
+     */
+    public static final Duration MAINTENANCE_INTERVAL = Duration.ofSeconds(1L);
+
+    private final Path directory;
+
+    private final String key;
+
+    private final int memtableSize;
+
+    private final int blockSize;
+
+    private final int fanout;
+
+    private final boolean sync;
+
+    private final Duration maintenanceInterval;
+
+    /**
+     * Creates a configuration with the {@link #KEY} as key column, the sync mode, {@link #MEMTABLE_SIZE},
+     * {@link #BLOCK_SIZE}, {@link #FANOUT} and {@link #MAINTENANCE_INTERVAL}
+     *
+     * @param directory the directory of the databases
+     * @throws NullPointerException when directory is null
+     */
+    public LsmColumnConfiguration(Path directory) throws NullPointerException {
+        this(directory, KEY, MEMTABLE_SIZE, BLOCK_SIZE, FANOUT, true, MAINTENANCE_INTERVAL);
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param directory           the directory of the databases
+     * @param key                 the name of the key column
+     * @param memtableSize        the size in bytes that writes the memtable as a segment
+     * @param blockSize           the block size in bytes of the segments, the unit of the reads
+     * @param fanout              the size ratio between two levels
+     * @param sync                when true each write returns after it's forced to the write-ahead log
+     * @param maintenanceInterval the interval between the compactions
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException when memtableSize is lesser than blockSize, blockSize is lesser than
+     *                                  64 bytes, fanout is lesser than 2 or maintenanceInterval isn't positive
+     */
+    public LsmColumnConfiguration(Path directory, String key, int memtableSize, int blockSize, int fanout,
+                                  boolean sync, Duration maintenanceInterval) throws NullPointerException,
+            IllegalArgumentException {
+        this.directory = Objects.requireNonNull(directory, "directory is required");
+        this.key = Objects.requireNonNull(key, "key is required");
+        this.maintenanceInterval = Objects.requireNonNull(maintenanceInterval, "maintenanceInterval is required");
+        if (blockSize < 64) {
+            throw new IllegalArgumentException("The block size must be at least 64 bytes: " + blockSize);
+        }
+        if (memtableSize < blockSize) {
+            throw new IllegalArgumentException("The memtable size must be at least the block size: " + memtableSize);
+        }
+        if (fanout < 2) {
+            throw new IllegalArgumentException("The fanout must be at least 2: " + fanout);
+        }
+        if (maintenanceInterval.isNegative() || maintenanceInterval.isZero()) {
+            throw new IllegalArgumentException("The maintenance interval must be positive: " + maintenanceInterval);
+        }
+        this.memtableSize = memtableSize;
+        this.blockSize = blockSize;
+        this.fanout = fanout;
+        this.sync = sync;
+    }
+
+    @Override
+    public LsmColumnFamilyManagerFactory get() {
+        return new LsmColumnFamilyManagerFactory(directory, key, memtableSize, blockSize, fanout, sync,
+                maintenanceInterval);
+    }
+}
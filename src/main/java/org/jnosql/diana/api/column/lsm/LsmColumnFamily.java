@@ -0,0 +1,308 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.Values;
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnCondition;
+import org.jnosql.diana.api.column.ColumnConditions;
+import org.jnosql.diana.api.column.ColumnEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A column family of {@link LsmColumnFamilyManager} over its {@link LsmTree}. The conditions on the row key
+ * are planned as point lookups, which use the bloom filters, and range scans, which start at the block of the
+ * lower bound; the other conditions are tested on the rows read.
+ * <p>The writes of the family hold its write monitor, so a delete that reads the rows and writes them back
+ * without the deleted columns doesn't lose a concurrent put nor bring back a row deleted meanwhile; the reads
+ * don't hold it.</p>
+ */
+final class LsmColumnFamily {
+
+    private final String name;
+
+    private final String key;
+
+    private final LsmTree tree;
+
+    private final Object writeMonitor = new Object();
+
+    LsmColumnFamily(String name, String key, LsmTree tree) {
+        this.name = name;
+        this.key = key;
+        this.tree = tree;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    LsmTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Puts the row, it replaces the row with the same key
+     *
+     * @param entity the entity with the key column
+     * @param ttl    the time to live or null when the row does not expire
+     */
+    void put(ColumnEntity entity, Duration ttl) {
+        Object id = entity.find(key).get().get();
+        long deadline = ttl == null ? 0L : System.currentTimeMillis() + Math.max(1L, ttl.toMillis());
+        Record record = new Record(id, entity.copy(), deadline);
+        synchronized (writeMonitor) {
+            tree.put(Collections.singletonList(record));
+        }
+    }
+
+    /**
+     * Deletes the rows that match the condition writing tombstones, when columns is not empty just these columns
+     * are removed from the rows.
+     *
+     * @param condition the condition or null to all rows
+     * @param columns   the columns to be removed
+     */
+    void delete(ColumnCondition condition, List<String> columns) {
+        Predicate<ColumnEntity> predicate = condition == null ? e -> true : ColumnConditions.compile(condition);
+        synchronized (writeMonitor) {
+            long now = System.currentTimeMillis();
+            List<Record> records = new ArrayList<>();
+            forEach(condition, record -> {
+                if (record.isAlive(now) && predicate.test(record.getEntity())) {
+                    if (columns.isEmpty()) {
+                        records.add(new Record(record.getKey(), null, 0L));
+                    } else {
+                        ColumnEntity entity = record.getEntity().copy();
+                        columns.stream().filter(c -> !key.equals(c)).forEach(entity::remove);
+                        records.add(new Record(record.getKey(), entity, record.getDeadline()));
+                    }
+                }
+                return true;
+            });
+            tree.put(records);
+        }
+    }
+
+    /**
+     * Selects the rows, ordered by the row key unless there is a sort; without sort the scan stops once the
+     * rows of the page are found
+     *
+     * @param condition   the condition or null to all rows
+     * @param sorts       the sorts
+     * @param firstResult the number of rows to skip
+     * @param maxResults  the maximum number of rows, when it's lesser than one there is no limit
+     * @param columns     the projection, an empty list returns all columns
+     * @return the rows
+     */
+    List<ColumnEntity> select(ColumnCondition condition, List<Sort> sorts, long firstResult, long maxResults,
+                              List<String> columns) {
+        Predicate<ColumnEntity> predicate = condition == null ? e -> true : ColumnConditions.compile(condition);
+        long now = System.currentTimeMillis();
+        long needed = sorts.isEmpty() && maxResults > 0 ? Math.max(0L, firstResult) + maxResults : Long.MAX_VALUE;
+        List<ColumnEntity> found = new ArrayList<>();
+        forEach(condition, record -> {
+            if (record.isAlive(now) && predicate.test(record.getEntity())) {
+                found.add(record.getEntity());
+            }
+            return found.size() < needed;
+        });
+        Stream<ColumnEntity> entities = found.stream();
+        if (!sorts.isEmpty()) {
+            entities = entities.sorted(comparator(sorts));
+        }
+        if (firstResult > 0) {
+            entities = entities.skip(firstResult);
+        }
+        if (maxResults > 0) {
+            entities = entities.limit(maxResults);
+        }
+        return entities.map(e -> project(e, columns)).collect(toList());
+    }
+
+    /**
+     * Visits the newest record of each key that might match the condition, in key order, while the action
+     * returns true
+     */
+    private void forEach(ColumnCondition condition, Predicate<Record> action) {
+        Access access = condition == null ? null : access(condition).orElse(null);
+        if (access == null) {
+            tree.scan(KeyRange.ALL, action);
+            return;
+        }
+        if (access.keys.isEmpty() && access.ranges.size() == 1) {
+            tree.scan(access.ranges.get(0), action);
+            return;
+        }
+        NavigableMap<Object, Record> records = new TreeMap<>(Values.COMPARATOR);
+        access.keys.forEach(id -> tree.get(id).ifPresent(r -> records.put(r.getKey(), r)));
+        access.ranges.forEach(range -> tree.scan(range, r -> {
+            records.put(r.getKey(), r);
+            return true;
+        }));
+        for (Record record : records.values()) {
+            if (!action.test(record)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Plans the keys and ranges that hold the rows that might match the condition
+     *
+     * @param condition the condition
+     * @return the access or {@link Optional#empty()} when the condition needs a full scan
+     */
+    private Optional<Access> access(ColumnCondition condition) {
+        Condition type = condition.getCondition();
+        Column column = condition.getColumn();
+        if (Condition.AND.equals(type)) {
+            return and(ColumnConditions.children(condition));
+        }
+        if (Condition.OR.equals(type)) {
+            Access union = new Access();
+            for (ColumnCondition child : ColumnConditions.children(condition)) {
+                Optional<Access> access = access(child);
+                if (!access.isPresent()) {
+                    return Optional.empty();
+                }
+                union.keys.addAll(access.get().keys);
+                union.ranges.addAll(access.get().ranges);
+            }
+            return Optional.of(union);
+        }
+        if (!key.equals(column.getName())) {
+            return Optional.empty();
+        }
+        Access access = new Access();
+        Object value = column.get();
+        switch (type) {
+            case EQUALS:
+                access.keys.add(value);
+                return Optional.of(access);
+            case IN:
+                access.keys.addAll(Values.toList(value));
+                return Optional.of(access);
+            case GREATER_THAN:
+                access.ranges.add(KeyRange.greaterThan(value, false));
+                return Optional.of(access);
+            case GREATER_EQUALS_THAN:
+                access.ranges.add(KeyRange.greaterThan(value, true));
+                return Optional.of(access);
+            case LESSER_THAN:
+                access.ranges.add(KeyRange.lesserThan(value, false));
+                return Optional.of(access);
+            case LESSER_EQUALS_THAN:
+                access.ranges.add(KeyRange.lesserThan(value, true));
+                return Optional.of(access);
+            case BETWEEN:
+                List<Object> bounds = Values.toList(value);
+                access.ranges.add(KeyRange.closed(bounds.get(0), bounds.get(1)));
+                return Optional.of(access);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * The point lookups of the child with fewer keys are preferred, otherwise the single ranges are intersected
+     */
+    private Optional<Access> and(List<ColumnCondition> conditions) {
+        Access lookups = null;
+        Access other = null;
+        KeyRange range = null;
+        for (ColumnCondition child : conditions) {
+            Optional<Access> access = access(child);
+            if (!access.isPresent()) {
+                continue;
+            }
+            Access candidate = access.get();
+            if (candidate.ranges.isEmpty()) {
+                if (lookups == null || candidate.keys.size() < lookups.keys.size()) {
+                    lookups = candidate;
+                }
+            } else if (candidate.keys.isEmpty() && candidate.ranges.size() == 1) {
+                range = range == null ? candidate.ranges.get(0) : range.intersect(candidate.ranges.get(0));
+            } else if (other == null) {
+                other = candidate;
+            }
+        }
+        if (lookups != null) {
+            return Optional.of(lookups);
+        }
+        if (range != null) {
+            Access access = new Access();
+            access.ranges.add(range);
+            return Optional.of(access);
+        }
+        return Optional.ofNullable(other);
+    }
+
+    private static ColumnEntity project(ColumnEntity entity, List<String> columns) {
+        if (columns.isEmpty()) {
+            return entity.copy();
+        }
+        return ColumnEntity.of(entity.getName(), entity.getColumns().stream()
+                .filter(c -> columns.contains(c.getName())).collect(toList()));
+    }
+
+    private static Comparator<ColumnEntity> comparator(List<Sort> sorts) {
+        Comparator<ColumnEntity> comparator = null;
+        for (Sort sort : sorts) {
+            Comparator<ColumnEntity> next = Comparator.comparing(
+                    e -> ColumnConditions.value(e, sort.getName()).orElse(null), Values.COMPARATOR);
+            if (Sort.SortType.DESC.equals(sort.getType())) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LsmColumnFamily{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", tree=").append(tree);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Access {
+
+        private final List<Object> keys = new ArrayList<>();
+
+        private final List<KeyRange> ranges = new ArrayList<>();
+    }
+}
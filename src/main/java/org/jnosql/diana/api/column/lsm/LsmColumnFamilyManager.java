@@ -0,0 +1,218 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnDeleteQuery;
+import org.jnosql.diana.api.column.ColumnEntity;
+import org.jnosql.diana.api.column.ColumnFamilyManager;
+import org.jnosql.diana.api.column.ColumnQuery;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The embedded implementation of {@link ColumnFamilyManager} over log-structured merge trees, each column family
+ * is a subdirectory of the database with its own {@link LsmTree}. The rows are kept sorted by the key column,
+ * so the equals and in conditions on it are served by lookups and the greater than, lesser than and between
+ * conditions by range scans, without reading the whole family. The data belongs to the
+ * {@link LsmColumnFamilyManagerFactory}, which closes the files.
+ */
+public final class LsmColumnFamilyManager implements ColumnFamilyManager {
+
+    private final String database;
+
+    private final Path directory;
+
+    private final String key;
+
+    private final long memtableSize;
+
+    private final int blockSize;
+
+    private final int fanout;
+
+    private final boolean sync;
+
+    private final ConcurrentMap<String, LsmColumnFamily> families = new ConcurrentHashMap<>();
+
+    LsmColumnFamilyManager(String database, Path directory, String key, long memtableSize, int blockSize,
+                           int fanout, boolean sync) {
+        this.database = database;
+        this.directory = directory;
+        this.key = key;
+        this.memtableSize = memtableSize;
+        this.blockSize = blockSize;
+        this.fanout = fanout;
+        this.sync = sync;
+    }
+
+    /**
+     * Returns the database name
+     *
+     * @return the database name
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * Returns the name of the key column
+     *
+     * @return the key column
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Saves the row, it replaces the row with the same key
+     *
+     * @param entity entity to be saved
+     * @return the entity saved
+     * @throws NullPointerException     when entity is null
+     * @throws IllegalArgumentException when the entity has not a comparable key column
+     */
+    @Override
+    public ColumnEntity insert(ColumnEntity entity) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(entity, "entity is required");
+        checkKey(entity);
+        family(entity.getName()).put(entity, null);
+        return entity;
+    }
+
+    /**
+     * Saves the row with time to live, it replaces the row with the same key
+     *
+     * @param entity entity to be saved
+     * @param ttl    time to live
+     * @return the entity saved
+     * @throws NullPointerException     when either entity or ttl are null
+     * @throws IllegalArgumentException when the entity has not a comparable key column
+     */
+    @Override
+    public ColumnEntity insert(ColumnEntity entity, Duration ttl) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        checkKey(entity);
+        family(entity.getName()).put(entity, ttl);
+        return entity;
+    }
+
+    /**
+     * Updates the row, when there is no row with the same key it's inserted
+     *
+     * @param entity entity to be saved
+     * @return the entity saved
+     * @throws NullPointerException     when entity is null
+     * @throws IllegalArgumentException when the entity has not a comparable key column
+     */
+    @Override
+    public ColumnEntity update(ColumnEntity entity) throws NullPointerException, IllegalArgumentException {
+        return insert(entity);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        existing(query.getColumnFamily()).ifPresent(f -> f.delete(query.getCondition().orElse(null),
+                query.getColumns()));
+    }
+
+    @Override
+    public List<ColumnEntity> select(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return existing(query.getColumnFamily()).map(f -> f.select(query.getCondition().orElse(null),
+                query.getSorts(), query.getFirstResult(), query.getMaxResults(), query.getColumns()))
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * The data belongs to the factory, so closing the manager keeps it.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Writes the memtable of every column family as a segment
+     *
+     * @return the number of memtables written
+     */
+    int flush() {
+        return (int) families.values().stream().filter(f -> f.getTree().flush()).count();
+    }
+
+    /**
+     * Runs a compaction step in every column family
+     *
+     * @return the number of compactions
+     */
+    int compact() {
+        return (int) families.values().stream().filter(f -> f.getTree().compact()).count();
+    }
+
+    void closeFamilies() {
+        families.values().forEach(f -> f.getTree().close());
+        families.clear();
+    }
+
+    LsmColumnFamily family(String name) {
+        return families.computeIfAbsent(name, n -> new LsmColumnFamily(n, key,
+                LsmTree.open(directory.resolve(n), memtableSize, blockSize, fanout, sync)));
+    }
+
+    private Optional<LsmColumnFamily> existing(String name) {
+        LsmColumnFamily family = families.get(name);
+        if (family == null && Files.isDirectory(directory.resolve(name))) {
+            family = family(name);
+        }
+        return Optional.ofNullable(family);
+    }
+
+    private void checkKey(ColumnEntity entity) {
+        Optional<Column> column = entity.find(key);
+        if (!column.isPresent()) {
+            throw new IllegalArgumentException("The entity must have the key column: " + key);
+        }
+        Object value = column.get().get();
+        if (!(value instanceof Number) && !(value instanceof Comparable)) {
+            throw new IllegalArgumentException("The key column must be a number or a Comparable, key: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LsmColumnFamilyManager{");
+        sb.append("database='").append(database).append('\'');
+        sb.append(", directory=").append(directory);
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", families=").append(families.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+}
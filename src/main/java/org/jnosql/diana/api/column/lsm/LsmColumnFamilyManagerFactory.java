@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.column.ColumnFamilyManagerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The LSM factory, each database is a subdirectory and each column family a subdirectory of its database,
+ * opened and recovered on the first use. A daemon thread periodically runs the compactions; closing the factory
+ * stops it and closes the files, the memtables are kept in their write-ahead logs.
+ */
+public final class LsmColumnFamilyManagerFactory implements ColumnFamilyManagerFactory<LsmColumnFamilyManager> {
+
+    private static final Logger LOGGER = Logger.getLogger(LsmColumnFamilyManagerFactory.class.getName());
+
+    private final Path directory;
+
+    private final String key;
+
+    private final long memtableSize;
+
+    private final int blockSize;
+
+    private final int fanout;
+
+    private final boolean sync;
+
+    private final ScheduledExecutorService maintenance;
+
+    private final ConcurrentMap<String, LsmColumnFamilyManager> databases = new ConcurrentHashMap<>();
+
+    LsmColumnFamilyManagerFactory(Path directory, String key, long memtableSize, int blockSize, int fanout,
+                                  boolean sync, Duration maintenanceInterval) {
+        this.directory = directory;
+        this.key = key;
+        this.memtableSize = memtableSize;
+        this.blockSize = blockSize;
+        this.fanout = fanout;
+        this.sync = sync;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lsm-column-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = maintenanceInterval.toNanos();
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public LsmColumnFamilyManager get(String database) throws NullPointerException {
+        Objects.requireNonNull(database, "database is required");
+        return databases.computeIfAbsent(database, d -> new LsmColumnFamilyManager(d, directory.resolve(d), key,
+                memtableSize, blockSize, fanout, sync));
+    }
+
+    /**
+     * Writes the memtables of every column family as segments, so the write-ahead logs are dropped.
+     *
+     * @return the number of memtables written
+     */
+    public int flush() {
+        return databases.values().stream().mapToInt(LsmColumnFamilyManager::flush).sum();
+    }
+
+    /**
+     * Runs the compaction steps of every column family while there is a level to compact, the maintenance thread
+     * calls it periodically.
+     *
+     * @return the number of compactions
+     */
+    public int compact() {
+        int total = 0;
+        for (int compactions = compactStep(); compactions > 0; compactions = compactStep()) {
+            total += compactions;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        maintenance.shutdownNow();
+        try {
+            maintenance.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        databases.values().forEach(LsmColumnFamilyManager::closeFamilies);
+        databases.clear();
+    }
+
+    private int compactStep() {
+        return databases.values().stream().mapToInt(LsmColumnFamilyManager::compact).sum();
+    }
+
+    private void maintain() {
+        try {
+            compact();
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Error on the maintenance of the column families at " + directory, exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LsmColumnFamilyManagerFactory{");
+        sb.append("directory=").append(directory);
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", databases=").append(databases.keySet());
+        sb.append(", sync=").append(sync);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,667 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.JNoSQLException;
+import org.jnosql.diana.api.Values;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A log-structured merge tree of rows sorted by key, in a directory with its files:
+ * <ul>
+ * <li>the write-ahead log of the memtable, <b>id.wal</b></li>
+ * <li>the segments, <b>id.sst</b>, see {@link Segment}</li>
+ * <li>the manifest, which lists the segment of each level</li>
+ * </ul>
+ * The writes go to the log and to the memtable, a {@link ConcurrentSkipListMap}; when the memtable reaches its
+ * size it's written as a new segment in the level zero. The segments of the level zero might overlap each other,
+ * when there are {@link #LEVEL0_LIMIT} of them they are merged with the overlapping segments of the level one.
+ * The segments of the other levels don't overlap and each level holds {@code fanout} times the bytes of the
+ * previous one, a level over its size has a segment merged in the next level, so a key is in at most one segment
+ * per level. The tombstones and the expired rows are dropped when they are merged in the last level.
+ * <p>The reads and the writes share the read lock; the write lock is just held to swap the memtable and the
+ * segments, so the flushes and compactions write their segments concurrently with reads and writes.</p>
+ */
+final class LsmTree {
+
+    /**
+     * The number of segments in the level zero that triggers its compaction
+     */
+    static final int LEVEL0_LIMIT = 4;
+
+    static final int MAX_LEVELS = 7;
+
+    static final int BLOOM_BITS_PER_KEY = 10;
+
+    private static final String MANIFEST = "MANIFEST";
+
+    private static final String SEGMENT = ".sst";
+
+    private static final String LOG = ".wal";
+
+    private final Path directory;
+
+    private final long memtableSize;
+
+    private final int blockSize;
+
+    private final int fanout;
+
+    private final boolean sync;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object writeMonitor = new Object();
+
+    private final Object flushMonitor = new Object();
+
+    private final Object compactionMonitor = new Object();
+
+    private final AtomicLong ids;
+
+    private final AtomicLong memtableBytes = new AtomicLong();
+
+    private final int[] cursors = new int[MAX_LEVELS];
+
+    private ConcurrentNavigableMap<Object, Record> memtable = new ConcurrentSkipListMap<>(Values.COMPARATOR);
+
+    private WriteAheadLog log;
+
+    private NavigableMap<Object, Record> immutable;
+
+    private WriteAheadLog immutableLog;
+
+    private List<List<Segment>> levels;
+
+    private boolean closed;
+
+    private LsmTree(Path directory, long memtableSize, int blockSize, int fanout, boolean sync,
+                    List<List<Segment>> levels, long nextId) {
+        this.directory = directory;
+        this.memtableSize = memtableSize;
+        this.blockSize = blockSize;
+        this.fanout = fanout;
+        this.sync = sync;
+        this.levels = levels;
+        this.ids = new AtomicLong(nextId);
+    }
+
+    /**
+     * Opens the tree at the directory, the segments not in the manifest are leftovers of an interrupted flush or
+     * compaction and are deleted, the write-ahead logs are replayed into the memtable.
+     *
+     * @param directory    the directory
+     * @param memtableSize the size in bytes that flushes the memtable, it's also the segment size of the
+     *                     compactions
+     * @param blockSize    the block size of the segments
+     * @param fanout       the size ratio between two levels
+     * @param sync         when true each write is forced to the disk
+     * @return the tree
+     * @throws JNoSQLException when there is an error to read the directory
+     */
+    static LsmTree open(Path directory, long memtableSize, int blockSize, int fanout, boolean sync)
+            throws JNoSQLException {
+        try {
+            Files.createDirectories(directory);
+            Map<Long, Integer> manifest = new HashMap<>();
+            Path manifestFile = directory.resolve(MANIFEST);
+            if (Files.exists(manifestFile)) {
+                for (String line : Files.readAllLines(manifestFile, StandardCharsets.UTF_8)) {
+                    String[] entry = line.trim().split(" ");
+                    if (entry.length == 2) {
+                        manifest.put(Long.valueOf(entry[1]), Integer.valueOf(entry[0]));
+                    }
+                }
+            }
+            List<Long> logs = new ArrayList<>();
+            List<List<Segment>> levels = new ArrayList<>();
+            levels.add(new ArrayList<>());
+            long maxId = 0L;
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.sorted().collect(toList())) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(SEGMENT)) {
+                        long id = Long.parseLong(name.substring(0, name.length() - SEGMENT.length()));
+                        maxId = Math.max(maxId, id);
+                        Integer level = manifest.get(id);
+                        if (level == null) {
+                            Files.delete(file);
+                            continue;
+                        }
+                        while (levels.size() <= level) {
+                            levels.add(new ArrayList<>());
+                        }
+                        levels.get(level).add(Segment.open(id, file));
+                    } else if (name.endsWith(LOG)) {
+                        long id = Long.parseLong(name.substring(0, name.length() - LOG.length()));
+                        maxId = Math.max(maxId, id);
+                        logs.add(id);
+                    }
+                }
+            }
+            for (int level = 1; level < levels.size(); level++) {
+                levels.get(level).sort(Comparator.comparing(Segment::getFirstKey, Values.COMPARATOR));
+            }
+            LsmTree tree = new LsmTree(directory, memtableSize, blockSize, fanout, sync, unmodifiable(levels),
+                    maxId + 1);
+            tree.recover(logs);
+            return tree;
+        } catch (IOException | NumberFormatException exception) {
+            throw new JNoSQLException("Error to open the column family at " + directory, exception);
+        }
+    }
+
+    /**
+     * Writes the records atomically in the log and then in the memtable, which is flushed when it's full
+     *
+     * @param records the records
+     * @throws JNoSQLException when there is an error to write the log
+     */
+    void put(Collection<Record> records) throws JNoSQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<byte[]> bytes = records.stream().map(Records::serialize).collect(toList());
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            synchronized (writeMonitor) {
+                log.append(bytes);
+                records.forEach(r -> memtable.put(r.getKey(), r));
+            }
+            memtableBytes.addAndGet(bytes.stream().mapToLong(b -> b.length).sum());
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (memtableBytes.get() >= memtableSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Finds the newest record of the key, looking at the memtables and then at the segments from the newest
+     * level to the oldest one
+     *
+     * @param key the key
+     * @return the record, which might be a tombstone or expired
+     */
+    Optional<Record> get(Object key) {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            Record record = memtable.get(key);
+            if (record == null && immutable != null) {
+                record = immutable.get(key);
+            }
+            if (record != null) {
+                return Optional.of(record);
+            }
+            List<Segment> level0 = levels.get(0);
+            for (int index = level0.size() - 1; index >= 0; index--) {
+                Optional<Record> found = level0.get(index).get(key);
+                if (found.isPresent()) {
+                    return found;
+                }
+            }
+            for (int level = 1; level < levels.size(); level++) {
+                Optional<Segment> segment = find(levels.get(level), key);
+                if (segment.isPresent()) {
+                    Optional<Record> found = segment.get().get(key);
+                    if (found.isPresent()) {
+                        return found;
+                    }
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scans the newest record of each key in the range, in key order, while the action returns true
+     *
+     * @param range  the range
+     * @param action the action, the records might be tombstones or expired
+     */
+    void scan(KeyRange range, Predicate<Record> action) {
+        if (range.isEmpty()) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            List<Iterator<Record>> sources = new ArrayList<>();
+            sources.add(bounded(memtable, range));
+            if (immutable != null) {
+                sources.add(bounded(immutable, range));
+            }
+            List<Segment> level0 = levels.get(0);
+            for (int index = level0.size() - 1; index >= 0; index--) {
+                sources.add(level0.get(index).scan(range));
+            }
+            for (int level = 1; level < levels.size(); level++) {
+                sources.add(concat(levels.get(level).stream().filter(s -> s.overlaps(range))
+                        .map(s -> s.scan(range)).collect(toList())));
+            }
+            MergeIterator records = new MergeIterator(sources);
+            while (records.hasNext()) {
+                if (!action.test(records.next())) {
+                    return;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the memtable as a segment of the level zero and deletes its log
+     *
+     * @return false when the memtable is empty
+     * @throws JNoSQLException when there is an error to write the segment, the memtable is kept and the next
+     *                         flush retries it
+     */
+    boolean flush() throws JNoSQLException {
+        synchronized (flushMonitor) {
+            NavigableMap<Object, Record> frozen;
+            WriteAheadLog frozenLog;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                if (immutable == null) {
+                    if (memtable.isEmpty()) {
+                        return false;
+                    }
+                    immutable = memtable;
+                    immutableLog = log;
+                    memtable = new ConcurrentSkipListMap<>(Values.COMPARATOR);
+                    memtableBytes.set(0L);
+                    log = createLog();
+                }
+                frozen = immutable;
+                frozenLog = immutableLog;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long id = ids.getAndIncrement();
+            Segment segment = Segment.write(id, segmentFile(id), frozen.values().iterator(), blockSize,
+                    BLOOM_BITS_PER_KEY, Long.MAX_VALUE).get();
+            lock.writeLock().lock();
+            try {
+                List<List<Segment>> next = mutable(levels);
+                next.get(0).add(segment);
+                writeManifest(next);
+                levels = unmodifiable(next);
+                immutable = null;
+                immutableLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            frozenLog.delete();
+            return true;
+        }
+    }
+
+    /**
+     * Runs a compaction step: the level zero when it has {@link #LEVEL0_LIMIT} segments, otherwise the first
+     * level over its size
+     *
+     * @return false when there is nothing to compact
+     * @throws JNoSQLException when there is an error to write the segments, the tree is kept as it was
+     */
+    boolean compact() throws JNoSQLException {
+        synchronized (compactionMonitor) {
+            List<List<Segment>> current;
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                current = levels;
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<Segment> inputs = new ArrayList<>();
+            int target = -1;
+            List<Segment> level0 = current.get(0);
+            if (level0.size() >= LEVEL0_LIMIT) {
+                for (int index = level0.size() - 1; index >= 0; index--) {
+                    inputs.add(level0.get(index));
+                }
+                target = 1;
+            } else {
+                for (int level = 1; level < Math.min(current.size(), MAX_LEVELS - 1); level++) {
+                    List<Segment> segments = current.get(level);
+                    if (segments.stream().mapToLong(Segment::getSize).sum() > maxBytes(level)) {
+                        inputs.add(segments.get(cursors[level]++ % segments.size()));
+                        target = level + 1;
+                        break;
+                    }
+                }
+            }
+            if (target < 0) {
+                return false;
+            }
+            Object first = inputs.stream().map(Segment::getFirstKey).min(Values.COMPARATOR).get();
+            Object last = inputs.stream().map(Segment::getLastKey).max(Values.COMPARATOR).get();
+            if (target < current.size()) {
+                KeyRange range = KeyRange.closed(first, last);
+                current.get(target).stream().filter(s -> s.overlaps(range)).forEach(inputs::add);
+            }
+            boolean bottom = true;
+            for (int level = target + 1; level < current.size(); level++) {
+                bottom &= current.get(level).isEmpty();
+            }
+            List<Segment> outputs = merge(inputs, bottom);
+            final int level = target;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                List<List<Segment>> next = mutable(levels);
+                next.forEach(segments -> segments.removeAll(inputs));
+                while (next.size() <= level) {
+                    next.add(new ArrayList<>());
+                }
+                next.get(level).addAll(outputs);
+                next.get(level).sort(Comparator.comparing(Segment::getFirstKey, Values.COMPARATOR));
+                writeManifest(next);
+                levels = unmodifiable(next);
+            } catch (RuntimeException exception) {
+                outputs.forEach(Segment::delete);
+                throw exception;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            inputs.forEach(Segment::delete);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of segments of each level
+     *
+     * @return the segments per level
+     */
+    List<Integer> getSegments() {
+        lock.readLock().lock();
+        try {
+            return levels.stream().map(List::size).collect(toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the files, the memtable is kept in its write-ahead log and recovered on the next open
+     */
+    void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            log.close();
+            if (immutableLog != null) {
+                immutableLog.close();
+            }
+            levels.forEach(segments -> segments.forEach(Segment::close));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recover(List<Long> logs) {
+        for (Long id : logs) {
+            for (Record record : WriteAheadLog.replay(logFile(id))) {
+                memtable.put(record.getKey(), record);
+            }
+        }
+        log = createLog();
+        if (!memtable.isEmpty()) {
+            List<byte[]> bytes = memtable.values().stream().map(Records::serialize).collect(toList());
+            log.append(bytes);
+            memtableBytes.set(bytes.stream().mapToLong(b -> b.length).sum());
+        }
+        for (Long id : logs) {
+            try {
+                Files.delete(logFile(id));
+            } catch (IOException exception) {
+                throw new JNoSQLException("Error to delete the write-ahead log " + logFile(id), exception);
+            }
+        }
+    }
+
+    private List<Segment> merge(List<Segment> inputs, boolean bottom) {
+        long now = System.currentTimeMillis();
+        Iterator<Record> merged = new MergeIterator(inputs.stream().map(s -> s.scan(KeyRange.ALL))
+                .collect(toList()));
+        Iterator<Record> records = bottom ? filter(merged, r -> r.isAlive(now)) : merged;
+        List<Segment> outputs = new ArrayList<>();
+        try {
+            while (records.hasNext()) {
+                long id = ids.getAndIncrement();
+                Segment.write(id, segmentFile(id), records, blockSize, BLOOM_BITS_PER_KEY, memtableSize)
+                        .ifPresent(outputs::add);
+            }
+        } catch (RuntimeException exception) {
+            outputs.forEach(Segment::delete);
+            throw exception;
+        }
+        return outputs;
+    }
+
+    private long maxBytes(int level) {
+        long bytes = memtableSize;
+        for (int index = 0; index < level; index++) {
+            bytes = bytes > Long.MAX_VALUE / fanout ? Long.MAX_VALUE : bytes * fanout;
+        }
+        return bytes;
+    }
+
+    private void writeManifest(List<List<Segment>> next) {
+        StringBuilder manifest = new StringBuilder();
+        for (int level = 0; level < next.size(); level++) {
+            for (Segment segment : next.get(level)) {
+                manifest.append(level).append(' ').append(segment.getId()).append('\n');
+            }
+        }
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try {
+            Files.write(temporary, manifest.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to write the manifest at " + directory, exception);
+        }
+    }
+
+    private WriteAheadLog createLog() {
+        long id = ids.getAndIncrement();
+        return WriteAheadLog.create(id, logFile(id), sync);
+    }
+
+    private Path segmentFile(long id) {
+        return directory.resolve(String.format("%020d", id) + SEGMENT);
+    }
+
+    private Path logFile(long id) {
+        return directory.resolve(String.format("%020d", id) + LOG);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The column family is closed: " + directory);
+        }
+    }
+
+    private static Optional<Segment> find(List<Segment> segments, Object key) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Segment segment = segments.get(middle);
+            if (Values.order(segment.getLastKey(), key) < 0) {
+                low = middle + 1;
+            } else if (Values.order(segment.getFirstKey(), key) > 0) {
+                high = middle - 1;
+            } else {
+                return Optional.of(segment);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Iterator<Record> bounded(NavigableMap<Object, Record> records, KeyRange range) {
+        NavigableMap<Object, Record> tail = range.getLower() == null ? records
+                : records.tailMap(range.getLower(), range.isLowerInclusive());
+        Iterator<Record> iterator = tail.values().iterator();
+        return new Iterator<Record>() {
+
+            private Record next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Record next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Record current = next;
+                next = advance();
+                return current;
+            }
+
+            private Record advance() {
+                if (iterator.hasNext()) {
+                    Record record = iterator.next();
+                    if (!range.isAfter(record.getKey())) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static Iterator<Record> filter(Iterator<Record> records, Predicate<Record> predicate) {
+        return new Iterator<Record>() {
+
+            private Record next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Record next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Record current = next;
+                next = advance();
+                return current;
+            }
+
+            private Record advance() {
+                while (records.hasNext()) {
+                    Record record = records.next();
+                    if (predicate.test(record)) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static Iterator<Record> concat(List<Iterator<Record>> iterators) {
+        Iterator<Iterator<Record>> sources = iterators.iterator();
+        return new Iterator<Record>() {
+
+            private Iterator<Record> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && sources.hasNext()) {
+                    current = sources.next();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Record next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    private static List<List<Segment>> mutable(List<List<Segment>> levels) {
+        List<List<Segment>> copy = new ArrayList<>();
+        levels.forEach(segments -> copy.add(new ArrayList<>(segments)));
+        return copy;
+    }
+
+    private static List<List<Segment>> unmodifiable(List<List<Segment>> levels) {
+        List<List<Segment>> copy = new ArrayList<>();
+        levels.forEach(segments -> copy.add(Collections.unmodifiableList(new ArrayList<>(segments))));
+        return Collections.unmodifiableList(copy);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LsmTree{");
+        sb.append("directory=").append(directory);
+        sb.append(", memtable=").append(memtable.size());
+        sb.append(", segments=").append(getSegments());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.Values;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted sources of records in key order, when the same key is in more than one source just the record
+ * of the newest one is returned, the sources are given from the newest to the oldest.
+ */
+final class MergeIterator implements Iterator<Record> {
+
+    private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.<Head, Object>comparing(h -> h.record
+            .getKey(), Values.COMPARATOR).thenComparingInt(h -> h.age));
+
+    MergeIterator(List<Iterator<Record>> sources) {
+        for (int age = 0; age < sources.size(); age++) {
+            Iterator<Record> source = sources.get(age);
+            if (source.hasNext()) {
+                heads.add(new Head(source, age));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public Record next() {
+        Head head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        Record record = head.record;
+        advance(head);
+        while (!heads.isEmpty() && Values.order(heads.peek().record.getKey(), record.getKey()) == 0) {
+            advance(heads.poll());
+        }
+        return record;
+    }
+
+    private void advance(Head head) {
+        if (head.source.hasNext()) {
+            head.record = head.source.next();
+            heads.add(head);
+        }
+    }
+
+    private static final class Head {
+
+        private final Iterator<Record> source;
+
+        private final int age;
+
+        private Record record;
+
+        private Head(Iterator<Record> source, int age) {
+            this.source = source;
+            this.age = age;
+            this.record = source.next();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.column.ColumnEntity;
+
+/**
+ * The version of a row in the tree, a record without entity is a tombstone.
+ */
+final class Record {
+
+    private final Object key;
+
+    private final ColumnEntity entity;
+
+    private final long deadline;
+
+    Record(Object key, ColumnEntity entity, long deadline) {
+        this.key = key;
+        this.entity = entity;
+        this.deadline = deadline;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    ColumnEntity getEntity() {
+        return entity;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    boolean isTombstone() {
+        return entity == null;
+    }
+
+    /**
+     * Checks if the row is visible: it's not a tombstone and it's not expired
+     *
+     * @param now the current time in epoch milliseconds
+     * @return true when the row is visible
+     */
+    boolean isAlive(long now) {
+        return entity != null && (deadline == 0L || now < deadline);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.JNoSQLException;
+import org.jnosql.diana.api.column.ColumnEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Utilitarian class to convert the records and keys to bytes with the Java serialization.
+ */
+final class Records {
+
+    private Records() {
+    }
+
+    static byte[] serialize(Record record) throws JNoSQLException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(record.getKey());
+            output.writeLong(record.getDeadline());
+            output.writeObject(record.getEntity());
+        } catch (IOException exception) {
+            throw new JNoSQLException("The row must be serializable, key: " + record.getKey(), exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Record deserialize(byte[] bytes) throws JNoSQLException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            Object key = input.readObject();
+            long deadline = input.readLong();
+            ColumnEntity entity = (ColumnEntity) input.readObject();
+            return new Record(key, entity, deadline);
+        } catch (IOException | ClassNotFoundException exception) {
+            throw new JNoSQLException("Error to read a row from the disk", exception);
+        }
+    }
+
+    static byte[] serializeKey(Object key) throws JNoSQLException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(key);
+        } catch (IOException exception) {
+            throw new JNoSQLException("The key must be serializable: " + key, exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object deserializeKey(byte[] bytes) throws JNoSQLException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return input.readObject();
+        } catch (IOException | ClassNotFoundException exception) {
+            throw new JNoSQLException("Error to read a key from the disk", exception);
+        }
+    }
+
+    static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
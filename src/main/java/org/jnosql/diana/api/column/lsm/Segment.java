@@ -0,0 +1,412 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.JNoSQLException;
+import org.jnosql.diana.api.Values;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * An immutable sorted segment file, the records are grouped in blocks and each block starts with its own
+ * entries: <pre>length(4) | record</pre>
+ * After the blocks there are the block index, with the first key, offset and length of each block and the last
+ * key of the segment, the bloom filter and the footer. The index and the filter are kept in memory, so a point
+ * lookup reads at most one block and a range scan starts at the block of its lower bound.
+ */
+final class Segment {
+
+    private static final int MAGIC = 0x4C534D31;
+
+    private static final int FOOTER = Long.BYTES * 3 + Integer.BYTES * 3;
+
+    private final long id;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final Object[] firstKeys;
+
+    private final long[] offsets;
+
+    private final int[] lengths;
+
+    private final Object lastKey;
+
+    private final BloomFilter bloom;
+
+    private final long entries;
+
+    private final long size;
+
+    private Segment(long id, Path file, FileChannel channel, Object[] firstKeys, long[] offsets, int[] lengths,
+                    Object lastKey, BloomFilter bloom, long entries, long size) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.firstKeys = firstKeys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.lastKey = lastKey;
+        this.bloom = bloom;
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Writes the records, sorted by key without duplicates, to a segment file and opens it
+     *
+     * @param id         the segment id
+     * @param file       the file
+     * @param records    the records
+     * @param blockSize  the block size
+     * @param bitsPerKey the bloom filter bits per key
+     * @param maxSize    the size in bytes that closes the segment, the remaining records stay in the iterator
+     * @return the segment or {@link Optional#empty()} when there is no record
+     * @throws JNoSQLException when there is an error to write the file
+     */
+    static Optional<Segment> write(long id, Path file, Iterator<Record> records, int blockSize, int bitsPerKey,
+                                   long maxSize) throws JNoSQLException {
+        if (!records.hasNext()) {
+            return Optional.empty();
+        }
+        try (OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            List<byte[]> firstKeys = new ArrayList<>();
+            List<long[]> blocks = new ArrayList<>();
+            int[] hashes = new int[1024];
+            long count = 0;
+            long position = 0;
+            ByteArrayOutputStream block = new ByteArrayOutputStream(blockSize);
+            DataOutputStream blockOutput = new DataOutputStream(block);
+            Object lastKey = null;
+            while (records.hasNext() && position + block.size() < maxSize) {
+                Record record = records.next();
+                if (block.size() == 0) {
+                    firstKeys.add(Records.serializeKey(record.getKey()));
+                }
+                byte[] bytes = Records.serialize(record);
+                blockOutput.writeInt(bytes.length);
+                blockOutput.write(bytes);
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, hashes.length * 2);
+                }
+                hashes[(int) count++] = BloomFilter.hash(record.getKey());
+                lastKey = record.getKey();
+                if (block.size() >= blockSize) {
+                    blocks.add(new long[]{position, block.size()});
+                    block.writeTo(output);
+                    position += block.size();
+                    block.reset();
+                }
+            }
+            if (block.size() > 0) {
+                blocks.add(new long[]{position, block.size()});
+                block.writeTo(output);
+                position += block.size();
+            }
+            long indexOffset = position;
+            int indexLength = 0;
+            for (int index = 0; index < blocks.size(); index++) {
+                byte[] key = firstKeys.get(index);
+                output.writeInt(key.length);
+                output.write(key);
+                output.writeLong(blocks.get(index)[0]);
+                output.writeInt((int) blocks.get(index)[1]);
+                indexLength += Integer.BYTES * 2 + Long.BYTES + key.length;
+            }
+            byte[] last = Records.serializeKey(lastKey);
+            output.writeInt(last.length);
+            output.write(last);
+            indexLength += Integer.BYTES + last.length;
+            BloomFilter bloom = BloomFilter.of(hashes, (int) count, bitsPerKey);
+            ByteBuffer filter = ByteBuffer.allocate(bloom.size());
+            bloom.write(filter);
+            output.write(filter.array());
+            output.writeLong(indexOffset);
+            output.writeInt(indexLength);
+            output.writeLong(indexOffset + indexLength);
+            output.writeInt(bloom.size());
+            output.writeLong(count);
+            output.writeInt(MAGIC);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to write the segment " + file, exception);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to write the segment " + file, exception);
+        }
+        return Optional.of(open(id, file));
+    }
+
+    /**
+     * Opens a segment file, loading its index and bloom filter
+     *
+     * @param id   the segment id
+     * @param file the file
+     * @return the segment
+     * @throws JNoSQLException when the file is not a valid segment
+     */
+    static Segment open(long id, Path file) throws JNoSQLException {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size = channel.size();
+            if (size < FOOTER) {
+                throw new JNoSQLException("The segment is corrupted: " + file);
+            }
+            ByteBuffer footer = read(channel, size - FOOTER, FOOTER);
+            long indexOffset = footer.getLong();
+            int indexLength = footer.getInt();
+            long bloomOffset = footer.getLong();
+            int bloomLength = footer.getInt();
+            long entries = footer.getLong();
+            if (footer.getInt() != MAGIC) {
+                throw new JNoSQLException("The segment is corrupted: " + file);
+            }
+            ByteBuffer index = read(channel, indexOffset, indexLength);
+            List<Object> firstKeys = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            List<Integer> lengths = new ArrayList<>();
+            Object lastKey = null;
+            while (index.hasRemaining()) {
+                Object key = Records.deserializeKey(bytes(index));
+                if (!index.hasRemaining()) {
+                    lastKey = key;
+                    break;
+                }
+                firstKeys.add(key);
+                offsets.add(index.getLong());
+                lengths.add(index.getInt());
+            }
+            BloomFilter bloom = BloomFilter.read(read(channel, bloomOffset, bloomLength));
+            return new Segment(id, file, channel, firstKeys.toArray(),
+                    offsets.stream().mapToLong(Long::longValue).toArray(),
+                    lengths.stream().mapToInt(Integer::intValue).toArray(), lastKey, bloom, entries, size);
+        } catch (IOException | RuntimeException exception) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closing) {
+                    exception.addSuppressed(closing);
+                }
+            }
+            if (exception instanceof JNoSQLException) {
+                throw (JNoSQLException) exception;
+            }
+            throw new JNoSQLException("Error to open the segment " + file, exception);
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    long getEntries() {
+        return entries;
+    }
+
+    Object getFirstKey() {
+        return firstKeys[0];
+    }
+
+    Object getLastKey() {
+        return lastKey;
+    }
+
+    boolean overlaps(KeyRange range) {
+        return range.overlaps(firstKeys[0], lastKey);
+    }
+
+    /**
+     * Finds the record of the key, the bloom filter avoids reading a block when the key is not in the segment
+     *
+     * @param key the key
+     * @return the record, which might be a tombstone
+     */
+    Optional<Record> get(Object key) {
+        if (Values.order(key, firstKeys[0]) < 0 || Values.order(key, lastKey) > 0 || !bloom.mightContain(key)) {
+            return Optional.empty();
+        }
+        for (Record record : readBlock(blockOf(key))) {
+            int compare = Values.order(record.getKey(), key);
+            if (compare == 0) {
+                return Optional.of(record);
+            }
+            if (compare > 0) {
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Iterates the records in the range, in key order, reading the blocks lazily
+     *
+     * @param range the range
+     * @return the records
+     */
+    Iterator<Record> scan(KeyRange range) {
+        if (!overlaps(range)) {
+            return Collections.emptyIterator();
+        }
+        int first = range.getLower() == null ? 0 : blockOf(range.getLower());
+        return new Iterator<Record>() {
+
+            private int next = first;
+
+            private Iterator<Record> records = Collections.emptyIterator();
+
+            private Record record = advance();
+
+            @Override
+            public boolean hasNext() {
+                return record != null;
+            }
+
+            @Override
+            public Record next() {
+                if (record == null) {
+                    throw new NoSuchElementException();
+                }
+                Record current = record;
+                record = advance();
+                return current;
+            }
+
+            private Record advance() {
+                while (true) {
+                    while (!records.hasNext()) {
+                        if (next >= offsets.length) {
+                            return null;
+                        }
+                        records = readBlock(next++).iterator();
+                    }
+                    Record candidate = records.next();
+                    if (range.isAfter(candidate.getKey())) {
+                        next = offsets.length;
+                        records = Collections.emptyIterator();
+                        return null;
+                    }
+                    if (!range.isBefore(candidate.getKey())) {
+                        return candidate;
+                    }
+                }
+            }
+        };
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to close the segment " + file, exception);
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to delete the segment " + file, exception);
+        }
+    }
+
+    /**
+     * Returns the last block whose first key is lesser or equal than the key, or the first block
+     */
+    private int blockOf(Object key) {
+        int low = 0;
+        int high = firstKeys.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (Values.order(firstKeys[middle], key) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private List<Record> readBlock(int index) {
+        try {
+            ByteBuffer buffer = read(channel, offsets[index], lengths[index]);
+            List<Record> records = new ArrayList<>();
+            while (buffer.hasRemaining()) {
+                records.add(Records.deserialize(bytes(buffer)));
+            }
+            return records;
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to read the segment " + file, exception);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Segment{");
+        sb.append("file=").append(file);
+        sb.append(", blocks=").append(offsets.length);
+        sb.append(", entries=").append(entries);
+        sb.append(", size=").append(size);
+        sb.append('}');
+        return sb.toString();
+    }
+}
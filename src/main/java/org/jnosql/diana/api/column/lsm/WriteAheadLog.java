@@ -0,0 +1,144 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.JNoSQLException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The write-ahead log of a memtable, each entry is <pre>crc(4) | length(4) | record</pre>
+ * It's replayed when the tree is opened and deleted once its memtable is in a segment.
+ */
+final class WriteAheadLog {
+
+    private static final int HEADER = Integer.BYTES * 2;
+
+    private final long id;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final boolean sync;
+
+    private WriteAheadLog(long id, Path file, FileChannel channel, boolean sync) {
+        this.id = id;
+        this.file = file;
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    static WriteAheadLog create(long id, Path file, boolean sync) throws JNoSQLException {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return new WriteAheadLog(id, file, channel, sync);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to create the write-ahead log " + file, exception);
+        }
+    }
+
+    /**
+     * Reads the records of a log, it stops at the first torn or corrupted entry
+     *
+     * @param file the log file
+     * @return the records in the write order
+     * @throws JNoSQLException when there is an error to read the file
+     */
+    static List<Record> replay(Path file) throws JNoSQLException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            List<Record> records = new ArrayList<>();
+            while (buffer.remaining() >= HEADER) {
+                int crc = buffer.getInt();
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                if (Records.crc(bytes) != crc) {
+                    break;
+                }
+                records.add(Records.deserialize(bytes));
+            }
+            return records;
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to read the write-ahead log " + file, exception);
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * Appends the records with a single write
+     *
+     * @param records the serialized records
+     * @throws JNoSQLException when there is an error to write the file
+     */
+    void append(List<byte[]> records) throws JNoSQLException {
+        int size = records.stream().mapToInt(r -> HEADER + r.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) {
+            buffer.putInt(Records.crc(record));
+            buffer.putInt(record.length);
+            buffer.put(record);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to write the write-ahead log " + file, exception);
+        }
+    }
+
+    void close() {
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to close the write-ahead log " + file, exception);
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to delete the write-ahead log " + file, exception);
+        }
+    }
+}
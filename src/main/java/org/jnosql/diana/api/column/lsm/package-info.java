@@ -0,0 +1,25 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+/**
+ * An embedded and persistent implementation of the column API in a log-structured merge tree layout: the writes
+ * go to a write-ahead log and a sorted memtable, which is flushed to immutable sorted segment files with block
+ * indexes and bloom filters, and these are merged by a leveled compaction.
+ * The start point is {@link org.jnosql.diana.api.column.lsm.LsmColumnConfiguration}.
+ */
+package org.jnosql.diana.api.column.lsm;
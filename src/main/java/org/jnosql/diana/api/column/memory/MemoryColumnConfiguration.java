@@ -0,0 +1,86 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.column.UnaryColumnConfiguration;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The configuration to the in-memory column engine, each call creates a new and empty
+ * {@link MemoryColumnFamilyManagerFactory}.
+ */
+public class MemoryColumnConfiguration implements UnaryColumnConfiguration<MemoryColumnFamilyManagerFactory> {
+
+    /**
+     * The default key column
+     */
+    public static final String KEY = "id";
+
+    /**
+     * The default interval between the removals of the expired rows
+     */
+    public static final Duration REAPER_INTERVAL = Duration.ofSeconds(1L);
+
+    private final String key;
+
+    private final Executor executor;
+
+    private final Duration reaperInterval;
+
+    /**
+     * Creates a configuration with the {@link #KEY} as key column that runs the asynchronous operations on
+     * {@link ForkJoinPool#commonPool()} and removes the expired rows every {@link #REAPER_INTERVAL}
+     */
+    public MemoryColumnConfiguration() {
+        this(KEY, ForkJoinPool.commonPool(), REAPER_INTERVAL);
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param key            the name of the key column
+     * @param executor       the executor to the asynchronous operations
+     * @param reaperInterval the interval between the removals of the expired rows
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException when reaperInterval is not positive
+     */
+    public MemoryColumnConfiguration(String key, Executor executor, Duration reaperInterval)
+            throws NullPointerException, IllegalArgumentException {
+        this.key = Objects.requireNonNull(key, "key is required");
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+        this.reaperInterval = Objects.requireNonNull(reaperInterval, "reaperInterval is required");
+        if (reaperInterval.isNegative() || reaperInterval.isZero()) {
+            throw new IllegalArgumentException("The reaper interval must be positive: " + reaperInterval);
+        }
+    }
+
+    @Override
+    public MemoryColumnFamilyManagerFactory get() {
+        return new MemoryColumnFamilyManagerFactory(key, executor, reaperInterval);
+    }
+
+    @Override
+    public MemoryColumnFamilyManagerFactory getAsync() {
+        return new MemoryColumnFamilyManagerFactory(key, executor, reaperInterval);
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.Values;
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnCondition;
+import org.jnosql.diana.api.column.ColumnConditions;
+import org.jnosql.diana.api.column.ColumnEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A column family of {@link MemoryColumnFamilyManager}, the rows are kept in a {@link ConcurrentSkipListMap}
+ * sorted by the row key, so the conditions on the key become point lookups or range scans and no lock is
+ * needed: a write replaces the whole row atomically.
+ */
+final class MemoryColumnFamily {
+
+    private final String name;
+
+    private final String key;
+
+    private final ConcurrentNavigableMap<Object, Row> rows = new ConcurrentSkipListMap<>(Values.COMPARATOR);
+
+    MemoryColumnFamily(String name, String key) {
+        this.name = name;
+        this.key = key;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Puts the row, it replaces the row with the same key
+     *
+     * @param entity the entity with the key column
+     * @param ttl    the time to live or null when the row does not expire
+     */
+    void put(ColumnEntity entity, Duration ttl) {
+        Object id = entity.find(key).get().get();
+        rows.put(id, new Row(id, entity.copy(), ttl == null ? null : System.nanoTime() + ttl.toNanos()));
+    }
+
+    /**
+     * Deletes the rows that match the condition, when columns is not empty just these columns are removed
+     * from the rows.
+     *
+     * @param condition the condition or null to all rows
+     * @param columns   the columns to be removed
+     */
+    void delete(ColumnCondition condition, List<String> columns) {
+        if (condition == null && columns.isEmpty()) {
+            rows.clear();
+            return;
+        }
+        Predicate<ColumnEntity> predicate = condition == null ? e -> true : ColumnConditions.compile(condition);
+        long now = System.nanoTime();
+        scan(condition).filter(r -> r.isAlive(now)).filter(r -> predicate.test(r.entity)).forEach(row -> {
+            if (columns.isEmpty()) {
+                rows.remove(row.id, row);
+            } else {
+                ColumnEntity entity = row.entity.copy();
+                columns.stream().filter(c -> !key.equals(c)).forEach(entity::remove);
+                rows.replace(row.id, row, new Row(row.id, entity, row.expires ? row.deadline : null));
+            }
+        });
+    }
+
+    /**
+     * Selects the rows, ordered by the row key unless there is a sort
+     *
+     * @param condition   the condition or null to all rows
+     * @param sorts       the sorts
+     * @param firstResult the number of rows to skip
+     * @param maxResults  the maximum number of rows, when it's lesser than one there is no limit
+     * @param columns     the projection, an empty list returns all columns
+     * @return the rows
+     */
+    List<ColumnEntity> select(ColumnCondition condition, List<Sort> sorts, long firstResult, long maxResults,
+                              List<String> columns) {
+        Predicate<ColumnEntity> predicate = condition == null ? e -> true : ColumnConditions.compile(condition);
+        long now = System.nanoTime();
+        Stream<ColumnEntity> entities = scan(condition).filter(r -> r.isAlive(now)).map(r -> r.entity)
+                .filter(predicate);
+        if (!sorts.isEmpty()) {
+            entities = entities.sorted(comparator(sorts));
+        }
+        if (firstResult > 0) {
+            entities = entities.skip(firstResult);
+        }
+        if (maxResults > 0) {
+            entities = entities.limit(maxResults);
+        }
+        return entities.map(e -> project(e, columns)).collect(toList());
+    }
+
+    /**
+     * Removes the expired rows
+     *
+     * @param now the current time in nanoseconds
+     * @return the number of rows removed
+     */
+    int purge(long now) {
+        int removed = 0;
+        for (Row row : rows.values()) {
+            if (!row.isAlive(now) && rows.remove(row.id, row)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    void clear() {
+        rows.clear();
+    }
+
+    private Stream<Row> scan(ColumnCondition condition) {
+        if (condition == null) {
+            return rows.values().stream();
+        }
+        return rows(condition).orElseGet(rows::values).stream();
+    }
+
+    /**
+     * Returns the rows that might match the condition using the row key, in key order
+     *
+     * @param condition the condition
+     * @return the rows or {@link Optional#empty()} when the condition needs a full scan
+     */
+    private Optional<Collection<Row>> rows(ColumnCondition condition) {
+        Condition type = condition.getCondition();
+        Column column = condition.getColumn();
+        if (Condition.AND.equals(type)) {
+            return and(ColumnConditions.children(condition));
+        }
+        if (Condition.OR.equals(type)) {
+            NavigableMap<Object, Row> union = new TreeMap<>(Values.COMPARATOR);
+            for (ColumnCondition child : ColumnConditions.children(condition)) {
+                Optional<Collection<Row>> children = rows(child);
+                if (!children.isPresent()) {
+                    return Optional.empty();
+                }
+                children.get().forEach(r -> union.put(r.id, r));
+            }
+            return Optional.of(union.values());
+        }
+        if (!key.equals(column.getName())) {
+            return Optional.empty();
+        }
+        switch (type) {
+            case EQUALS:
+                return Optional.of(get(Collections.singletonList(column.get())));
+            case IN:
+                return Optional.of(get(Values.toList(column.get())));
+            default:
+                return range(Collections.singletonList(condition)).map(Map::values);
+        }
+    }
+
+    private Optional<Collection<Row>> and(List<ColumnCondition> conditions) {
+        List<ColumnCondition> ranges = new ArrayList<>();
+        Collection<Row> smallest = null;
+        for (ColumnCondition child : conditions) {
+            if (isKeyRange(child)) {
+                ranges.add(child);
+                continue;
+            }
+            Optional<Collection<Row>> children = rows(child);
+            if (children.isPresent() && (smallest == null || children.get().size() < smallest.size())) {
+                smallest = children.get();
+            }
+        }
+        if (smallest != null) {
+            return Optional.of(smallest);
+        }
+        return range(ranges).map(Map::values);
+    }
+
+    private boolean isKeyRange(ColumnCondition condition) {
+        if (!key.equals(condition.getColumn().getName())) {
+            return false;
+        }
+        switch (condition.getCondition()) {
+            case GREATER_THAN:
+            case GREATER_EQUALS_THAN:
+            case LESSER_THAN:
+            case LESSER_EQUALS_THAN:
+            case BETWEEN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Intersects the range conditions on the row key into a single sub map of the rows
+     *
+     * @param conditions the range conditions
+     * @return the sub map or {@link Optional#empty()} when there is no range condition
+     */
+    private Optional<NavigableMap<Object, Row>> range(List<ColumnCondition> conditions) {
+        if (conditions.isEmpty()) {
+            return Optional.empty();
+        }
+        Bound lower = null;
+        Bound upper = null;
+        for (ColumnCondition condition : conditions) {
+            Object value = condition.getColumn().get();
+            switch (condition.getCondition()) {
+                case GREATER_THAN:
+                    lower = Bound.max(lower, new Bound(value, false));
+                    break;
+                case GREATER_EQUALS_THAN:
+                    lower = Bound.max(lower, new Bound(value, true));
+                    break;
+                case LESSER_THAN:
+                    upper = Bound.min(upper, new Bound(value, false));
+                    break;
+                case LESSER_EQUALS_THAN:
+                    upper = Bound.min(upper, new Bound(value, true));
+                    break;
+                case BETWEEN:
+                    List<Object> bounds = Values.toList(value);
+                    lower = Bound.max(lower, new Bound(bounds.get(0), true));
+                    upper = Bound.min(upper, new Bound(bounds.get(1), true));
+                    break;
+                default:
+                    return Optional.empty();
+            }
+        }
+        if (lower != null && upper != null) {
+            int compare = Values.order(lower.value, upper.value);
+            if (compare > 0 || compare == 0 && !(lower.inclusive && upper.inclusive)) {
+                return Optional.of(Collections.emptyNavigableMap());
+            }
+            return Optional.of(rows.subMap(lower.value, lower.inclusive, upper.value, upper.inclusive));
+        }
+        if (lower != null) {
+            return Optional.of(rows.tailMap(lower.value, lower.inclusive));
+        }
+        return Optional.of(rows.headMap(upper.value, upper.inclusive));
+    }
+
+    private Collection<Row> get(List<Object> keys) {
+        NavigableMap<Object, Row> found = new TreeMap<>(Values.COMPARATOR);
+        for (Object id : keys) {
+            Row row = rows.get(id);
+            if (row != null) {
+                found.put(row.id, row);
+            }
+        }
+        return found.values();
+    }
+
+    private static ColumnEntity project(ColumnEntity entity, List<String> columns) {
+        if (columns.isEmpty()) {
+            return entity.copy();
+        }
+        return ColumnEntity.of(entity.getName(), entity.getColumns().stream()
+                .filter(c -> columns.contains(c.getName())).collect(toList()));
+    }
+
+    private static Comparator<ColumnEntity> comparator(List<Sort> sorts) {
+        Comparator<ColumnEntity> comparator = null;
+        for (Sort sort : sorts) {
+            Comparator<ColumnEntity> next = Comparator.comparing(
+                    e -> ColumnConditions.value(e, sort.getName()).orElse(null), Values.COMPARATOR);
+            if (Sort.SortType.DESC.equals(sort.getType())) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryColumnFamily{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", size=").append(rows.size());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Bound {
+
+        private final Object value;
+
+        private final boolean inclusive;
+
+        private Bound(Object value, boolean inclusive) {
+            this.value = value;
+            this.inclusive = inclusive;
+        }
+
+        private static Bound max(Bound bound, Bound other) {
+            if (bound == null) {
+                return other;
+            }
+            int compare = Values.order(bound.value, other.value);
+            if (compare == 0) {
+                return bound.inclusive ? other : bound;
+            }
+            return compare > 0 ? bound : other;
+        }
+
+        private static Bound min(Bound bound, Bound other) {
+            if (bound == null) {
+                return other;
+            }
+            int compare = Values.order(bound.value, other.value);
+            if (compare == 0) {
+                return bound.inclusive ? other : bound;
+            }
+            return compare < 0 ? bound : other;
+        }
+    }
+
+    private static final class Row {
+
+        private final Object id;
+
+        private final ColumnEntity entity;
+
+        private final boolean expires;
+
+        private final long deadline;
+
+        private Row(Object id, ColumnEntity entity, Long deadline) {
+            this.id = id;
+            this.entity = entity;
+            this.expires = deadline != null;
+            this.deadline = deadline == null ? 0L : deadline;
+        }
+
+        private boolean isAlive(long now) {
+            return !expires || deadline - now > 0;
+        }
+    }
+}
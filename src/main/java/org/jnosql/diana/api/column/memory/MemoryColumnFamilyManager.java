@@ -0,0 +1,180 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnDeleteQuery;
+import org.jnosql.diana.api.column.ColumnEntity;
+import org.jnosql.diana.api.column.ColumnFamilyManager;
+import org.jnosql.diana.api.column.ColumnQuery;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The in-memory implementation of {@link ColumnFamilyManager}, the rows are kept sorted by the key column, so
+ * the equals, in, greater than, lesser than and between conditions on it are served by lookups and range scans.
+ * The expired rows are skipped by the selects and removed by the reaper of
+ * {@link MemoryColumnFamilyManagerFactory}, the data belongs to the factory and is kept while it is open.
+ */
+public final class MemoryColumnFamilyManager implements ColumnFamilyManager {
+
+    private final String database;
+
+    private final String key;
+
+    private final ConcurrentMap<String, MemoryColumnFamily> families = new ConcurrentHashMap<>();
+
+    MemoryColumnFamilyManager(String database, String key) {
+        this.database = database;
+        this.key = key;
+    }
+
+    /**
+     * Returns the database name
+     *
+     * @return the database name
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * Returns the name of the key column
+     *
+     * @return the key column
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Saves the row, it replaces the row with the same key
+     *
+     * @param entity entity to be saved
+     * @return the entity saved
+     * @throws NullPointerException     when entity is null
+     * @throws IllegalArgumentException when the entity has not a comparable key column
+     */
+    @Override
+    public ColumnEntity insert(ColumnEntity entity) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(entity, "entity is required");
+        checkKey(entity);
+        family(entity.getName()).put(entity, null);
+        return entity;
+    }
+
+    /**
+     * Saves the row with time to live, it replaces the row with the same key
+     *
+     * @param entity entity to be saved
+     * @param ttl    time to live
+     * @return the entity saved
+     * @throws NullPointerException     when either entity or ttl are null
+     * @throws IllegalArgumentException when the entity has not a comparable key column
+     */
+    @Override
+    public ColumnEntity insert(ColumnEntity entity, Duration ttl) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        checkKey(entity);
+        family(entity.getName()).put(entity, ttl);
+        return entity;
+    }
+
+    /**
+     * Updates the row, when there is no row with the same key it's inserted
+     *
+     * @param entity entity to be saved
+     * @return the entity saved
+     * @throws NullPointerException     when entity is null
+     * @throws IllegalArgumentException when the entity has not a comparable key column
+     */
+    @Override
+    public ColumnEntity update(ColumnEntity entity) throws NullPointerException, IllegalArgumentException {
+        return insert(entity);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        MemoryColumnFamily family = families.get(query.getColumnFamily());
+        if (family != null) {
+            family.delete(query.getCondition().orElse(null), query.getColumns());
+        }
+    }
+
+    @Override
+    public List<ColumnEntity> select(ColumnQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        MemoryColumnFamily family = families.get(query.getColumnFamily());
+        if (family == null) {
+            return Collections.emptyList();
+        }
+        return family.select(query.getCondition().orElse(null), query.getSorts(), query.getFirstResult(),
+                query.getMaxResults(), query.getColumns());
+    }
+
+    /**
+     * The data belongs to the factory, so closing the manager keeps it.
+     */
+    @Override
+    public void close() {
+    }
+
+    int purge(long now) {
+        return families.values().stream().mapToInt(f -> f.purge(now)).sum();
+    }
+
+    void clear() {
+        families.values().forEach(MemoryColumnFamily::clear);
+        families.clear();
+    }
+
+    private MemoryColumnFamily family(String name) {
+        return families.computeIfAbsent(name, n -> new MemoryColumnFamily(n, key));
+    }
+
+    private void checkKey(ColumnEntity entity) {
+        Optional<Column> column = entity.find(key);
+        if (!column.isPresent()) {
+            throw new IllegalArgumentException("The entity must have the key column: " + key);
+        }
+        Object value = column.get().get();
+        if (!(value instanceof Number) && !(value instanceof Comparable)) {
+            throw new IllegalArgumentException("The key column must be a number or a Comparable, key: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryColumnFamilyManager{");
+        sb.append("database='").append(database).append('\'');
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", families=").append(families.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.column.ColumnFamilyManagerAsync;
+import org.jnosql.diana.api.column.ColumnDeleteQuery;
+import org.jnosql.diana.api.column.ColumnEntity;
+import org.jnosql.diana.api.column.ColumnQuery;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * The in-memory implementation of {@link ColumnFamilyManagerAsync}, it runs the operations of
+ * {@link MemoryColumnFamilyManager} on an {@link Executor} and then calls the callback.
+ */
+public final class MemoryColumnFamilyManagerAsync implements ColumnFamilyManagerAsync {
+
+    private static final Consumer<Object> NOOP = r -> {
+    };
+
+    private final MemoryColumnFamilyManager manager;
+
+    private final Executor executor;
+
+    MemoryColumnFamilyManagerAsync(MemoryColumnFamilyManager manager, Executor executor) {
+        this.manager = manager;
+        this.executor = executor;
+    }
+
+    @Override
+    public void insert(ColumnEntity entity) throws ExecuteAsyncQueryException, NullPointerException {
+        insert(entity, NOOP::accept);
+    }
+
+    @Override
+    public void insert(ColumnEntity entity, Duration ttl) throws ExecuteAsyncQueryException, NullPointerException {
+        insert(entity, ttl, NOOP::accept);
+    }
+
+    @Override
+    public void insert(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws ExecuteAsyncQueryException,
+            NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.insert(entity)));
+    }
+
+    @Override
+    public void insert(ColumnEntity entity, Duration ttl, Consumer<ColumnEntity> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.insert(entity, ttl)));
+    }
+
+    @Override
+    public void update(ColumnEntity entity) throws ExecuteAsyncQueryException, NullPointerException {
+        update(entity, NOOP::accept);
+    }
+
+    @Override
+    public void update(ColumnEntity entity, Consumer<ColumnEntity> callBack) throws ExecuteAsyncQueryException,
+            NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.update(entity)));
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query) throws ExecuteAsyncQueryException {
+        delete(query, NOOP::accept);
+    }
+
+    @Override
+    public void delete(ColumnDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> {
+            manager.delete(query);
+            callBack.accept(null);
+        });
+    }
+
+    @Override
+    public void select(ColumnQuery query, Consumer<List<ColumnEntity>> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.select(query)));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private void execute(Runnable action) throws ExecuteAsyncQueryException {
+        try {
+            executor.execute(action);
+        } catch (RejectedExecutionException exception) {
+            throw new ExecuteAsyncQueryException("The executor rejected the operation", exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryColumnFamilyManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", executor=").append(executor);
+        sb.append('}');
+        return sb.toString();
+    }
+}
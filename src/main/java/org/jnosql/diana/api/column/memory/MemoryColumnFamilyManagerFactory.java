@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.column.ColumnFamilyManagerAsyncFactory;
+import org.jnosql.diana.api.column.ColumnFamilyManagerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory factory, it keeps the databases, so the managers of the same database share the same data.
+ * A daemon thread removes the expired rows periodically; closing the factory stops it and drops all data.
+ */
+public final class MemoryColumnFamilyManagerFactory implements
+        ColumnFamilyManagerFactory<MemoryColumnFamilyManager>,
+        ColumnFamilyManagerAsyncFactory<MemoryColumnFamilyManagerAsync> {
+
+    private final String key;
+
+    private final Executor executor;
+
+    private final ScheduledExecutorService reaper;
+
+    private final ConcurrentMap<String, MemoryColumnFamilyManager> databases = new ConcurrentHashMap<>();
+
+    MemoryColumnFamilyManagerFactory(String key, Executor executor, Duration reaperInterval) {
+        this.key = key;
+        this.executor = executor;
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "memory-column-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = reaperInterval.toNanos();
+        reaper.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public MemoryColumnFamilyManager get(String database) throws NullPointerException {
+        Objects.requireNonNull(database, "database is required");
+        return databases.computeIfAbsent(database, d -> new MemoryColumnFamilyManager(d, key));
+    }
+
+    @Override
+    public MemoryColumnFamilyManagerAsync getAsync(String database) throws NullPointerException {
+        return new MemoryColumnFamilyManagerAsync(get(database), executor);
+    }
+
+    /**
+     * Removes the expired rows of all databases, the reaper calls it periodically.
+     *
+     * @return the number of rows removed
+     */
+    public int purge() {
+        long now = System.nanoTime();
+        return databases.values().stream().mapToInt(m -> m.purge(now)).sum();
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        databases.values().forEach(MemoryColumnFamilyManager::clear);
+        databases.clear();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryColumnFamilyManagerFactory{");
+        sb.append("key='").append(key).append('\'');
+        sb.append(", databases=").append(databases.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A {@link DocumentCollectionManagerAsync} decorator that collects the concurrent single entity inserts and
+ * updates into micro-batches and dispatches each one as a single bulk call,
+ * {@link DocumentCollectionManagerAsync#insert(Iterable, java.util.function.Consumer)},
+ * {@link DocumentCollectionManagerAsync#insert(Iterable, Duration, java.util.function.Consumer)} or
+ * {@link DocumentCollectionManagerAsync#update(Iterable, java.util.function.Consumer)}, completing the callback
+ * of each caller with its own entity.
+ * <p>A batch is dispatched once the linger time passed since its first operation or when it reaches the
+ * maximum batch size, so each operation waits at most the linger time more than it would. The inserts are
+ * batched by time to live and apart from the updates. When the bulk call is rejected, the operations of the
+ * batch are sent one by one. Each callback is completed on its own, a callback that throws is logged and the
+ * others are still completed; when the bulk call returns fewer entities than it was sent, the callers without a
+ * result are completed with the entity they sent. The other operations go straight to the decorated manager and
+ * {@link #close()} dispatches the pending batches before closing it.</p>
+ */
+public interface BatchingDocumentCollectionManagerAsync extends DocumentCollectionManagerAsync {
+
+    /**
+     * The linger time used by {@link #of(DocumentCollectionManagerAsync)}
+     */
+    Duration LINGER = Duration.ofMillis(2L);
+
+    /**
+     * The maximum batch size used by {@link #of(DocumentCollectionManagerAsync)}
+     */
+    int MAXIMUM_BATCH_SIZE = 256;
+
+    /**
+     * Dispatches the pending batches now
+     */
+    void flush();
+
+    /**
+     * Creates a {@link BatchingDocumentCollectionManagerAsync} that lingers {@link #LINGER} and dispatches at
+     * most {@link #MAXIMUM_BATCH_SIZE} entities by bulk call
+     *
+     * @param manager the {@link DocumentCollectionManagerAsync} to be decorated
+     * @return a {@link BatchingDocumentCollectionManagerAsync} instance
+     * @throws NullPointerException when manager is null
+     */
+    static BatchingDocumentCollectionManagerAsync of(DocumentCollectionManagerAsync manager)
+            throws NullPointerException {
+        return of(manager, LINGER, MAXIMUM_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a {@link BatchingDocumentCollectionManagerAsync}
+     *
+     * @param manager          the {@link DocumentCollectionManagerAsync} to be decorated
+     * @param linger           the time a batch waits for more operations after the first one
+     * @param maximumBatchSize the number of entities that dispatches a batch before the linger time
+     * @return a {@link BatchingDocumentCollectionManagerAsync} instance
+     * @throws NullPointerException     when either manager or linger is null
+     * @throws IllegalArgumentException when linger is negative or maximumBatchSize is lesser than one
+     */
+    static BatchingDocumentCollectionManagerAsync of(DocumentCollectionManagerAsync manager, Duration linger,
+                                                     int maximumBatchSize)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(linger, "linger is required");
+        if (linger.isNegative()) {
+            throw new IllegalArgumentException("linger cannot be negative");
+        }
+        if (maximumBatchSize < 1) {
+            throw new IllegalArgumentException("maximumBatchSize must be greater than zero");
+        }
+        return new DefaultBatchingDocumentCollectionManagerAsync(manager, linger, maximumBatchSize);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs an asynchronous operation for each entity and calls the bulk callback once all of them answered, with
+ * the results in the order of the entities.
+ */
+final class BulkCallBack {
+
+    private BulkCallBack() {
+    }
+
+    static void run(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack,
+                    BiConsumer<DocumentEntity, Consumer<DocumentEntity>> operation) {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        List<DocumentEntity> all = new ArrayList<>();
+        entities.forEach(all::add);
+        if (all.isEmpty()) {
+            callBack.accept(Collections.emptyList());
+            return;
+        }
+        DocumentEntity[] results = new DocumentEntity[all.size()];
+        AtomicInteger remaining = new AtomicInteger(all.size());
+        for (int index = 0; index < all.size(); index++) {
+            int position = index;
+            operation.accept(all.get(index), result -> {
+                results[position] = result;
+                if (remaining.decrementAndGet() == 0) {
+                    callBack.accept(Arrays.asList(results));
+                }
+            });
+        }
+    }
+}
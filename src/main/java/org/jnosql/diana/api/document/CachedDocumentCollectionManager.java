@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.cache.Cache;
+import org.jnosql.diana.api.cache.CacheStats;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link DocumentCollectionManager} decorator that keeps the result of {@link DocumentQuery} in a bounded
+ * in-process {@link Cache}, so the same select does not hit the database on each call.
+ * Any insert, update or delete done through the same instance invalidates all the results of the collection,
+ * writes done by other clients are not seen until either the entry expires or it is evicted.
+ * The entities returned are read-only and shared among the callers, use {@link DocumentEntity#copy()} to
+ * change them.
+ *
+ * @see Cache
+ */
+public interface CachedDocumentCollectionManager extends DocumentCollectionManager {
+
+    /**
+     * Returns the hit and miss statistics of the cache
+     *
+     * @return the {@link CacheStats} instance
+     */
+    CacheStats getStats();
+
+    /**
+     * Removes all the results of a collection from the cache without touching the database
+     *
+     * @param collection the collection name
+     * @throws NullPointerException when collection is null
+     */
+    void invalidate(String collection) throws NullPointerException;
+
+    /**
+     * Removes all the results from the cache without touching the database
+     */
+    void invalidateAll();
+
+    /**
+     * Creates a {@link CachedDocumentCollectionManager} with a cache bounded by the number of queries
+     *
+     * @param manager     the {@link DocumentCollectionManager} to be decorated
+     * @param maximumSize the maximum number of query results in the cache
+     * @return a {@link CachedDocumentCollectionManager} instance
+     * @throws NullPointerException     when manager is null
+     * @throws IllegalArgumentException when maximumSize is lesser than one
+     */
+    static CachedDocumentCollectionManager of(DocumentCollectionManager manager, long maximumSize)
+            throws NullPointerException, IllegalArgumentException {
+        return new DefaultCachedDocumentCollectionManager(manager, Cache.of(maximumSize), null);
+    }
+
+    /**
+     * Creates a {@link CachedDocumentCollectionManager} that uses the informed cache,
+     * a weigher as {@code (query, entities) -> entities.size()} bounds the cache by the number of entities.
+     *
+     * @param manager the {@link DocumentCollectionManager} to be decorated
+     * @param cache   the cache
+     * @return a {@link CachedDocumentCollectionManager} instance
+     * @throws NullPointerException when either manager or cache are null
+     */
+    static CachedDocumentCollectionManager of(DocumentCollectionManager manager,
+                                              Cache<Object, List<DocumentEntity>> cache) throws NullPointerException {
+        return new DefaultCachedDocumentCollectionManager(manager, cache, null);
+    }
+
+    /**
+     * Creates a {@link CachedDocumentCollectionManager} that uses the informed cache and the results expire
+     * after the time to live
+     *
+     * @param manager the {@link DocumentCollectionManager} to be decorated
+     * @param cache   the cache
+     * @param ttl     the time to live of each result
+     * @return a {@link CachedDocumentCollectionManager} instance
+     * @throws NullPointerException when either manager, cache or ttl are null
+     */
+    static CachedDocumentCollectionManager of(DocumentCollectionManager manager,
+                                              Cache<Object, List<DocumentEntity>> cache, Duration ttl)
+            throws NullPointerException {
+        return new DefaultCachedDocumentCollectionManager(manager, cache,
+                Objects.requireNonNull(ttl, "ttl is required"));
+    }
+}
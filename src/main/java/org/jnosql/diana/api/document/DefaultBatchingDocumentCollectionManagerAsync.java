@@ -0,0 +1,371 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The default {@link BatchingDocumentCollectionManagerAsync}, there is an open batch by kind of operation;
+ * the first operation of a batch schedules its dispatch and the one that fills it dispatches it right away.
+ * A dispatched batch is sealed, so the operations that arrive later open a new one.
+ */
+final class DefaultBatchingDocumentCollectionManagerAsync implements BatchingDocumentCollectionManagerAsync {
+
+    private static final Logger LOGGER = Logger.getLogger(DefaultBatchingDocumentCollectionManagerAsync.class
+            .getName());
+
+    private static final Consumer<DocumentEntity> NOOP = e -> {
+    };
+
+    private static final Kind UPDATE = new Kind(true, null);
+
+    private static final Kind INSERT = new Kind(false, null);
+
+    private final DocumentCollectionManagerAsync manager;
+
+    private final long linger;
+
+    private final int maximumBatchSize;
+
+    private final ConcurrentHashMap<Kind, Batch> batches = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean closed;
+
+    DefaultBatchingDocumentCollectionManagerAsync(DocumentCollectionManagerAsync manager, Duration linger,
+                                                  int maximumBatchSize) {
+        this.manager = manager;
+        this.linger = linger.toNanos();
+        this.maximumBatchSize = maximumBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "document-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void insert(DocumentEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        insert(entity, NOOP);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        insert(entity, ttl, NOOP);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        enqueue(INSERT, entity, callBack);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Duration ttl, Consumer<DocumentEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        enqueue(new Kind(false, ttl), entity, callBack);
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        manager.insert(entities);
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        manager.insert(entities, ttl);
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        manager.insert(entities, callBack);
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Duration ttl, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        manager.insert(entities, ttl, callBack);
+    }
+
+    @Override
+    public void update(DocumentEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        update(entity, NOOP);
+    }
+
+    @Override
+    public void update(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        enqueue(UPDATE, entity, callBack);
+    }
+
+    @Override
+    public void update(Iterable<DocumentEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        manager.update(entities);
+    }
+
+    @Override
+    public void update(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        manager.update(entities, callBack);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException {
+        manager.delete(query);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        manager.delete(query, callBack);
+    }
+
+    @Override
+    public void select(DocumentQuery query, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        manager.select(query, callBack);
+    }
+
+    @Override
+    public void flush() {
+        batches.values().forEach(this::dispatch);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        try {
+            flush();
+        } finally {
+            manager.close();
+        }
+    }
+
+    private void enqueue(Kind kind, DocumentEntity entity, Consumer<DocumentEntity> callBack) {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        if (closed) {
+            throw new ExecuteAsyncQueryException("The manager is closed");
+        }
+        Operation operation = new Operation(entity, callBack);
+        while (true) {
+            Batch batch = batches.computeIfAbsent(kind, Batch::new);
+            int size = batch.add(operation);
+            if (size < 0) {
+                batches.remove(kind, batch);
+                continue;
+            }
+            if (size == 1 && size < maximumBatchSize) {
+                schedule(batch);
+            } else if (size == maximumBatchSize) {
+                dispatch(batch);
+            }
+            return;
+        }
+    }
+
+    private void schedule(Batch batch) {
+        try {
+            scheduler.schedule(() -> dispatch(batch), linger, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException exception) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Seals the batch and sends it as a bulk call, when the call is rejected the operations are sent one by one
+     */
+    private void dispatch(Batch batch) {
+        batches.remove(batch.kind, batch);
+        List<Operation> operations = batch.seal();
+        if (operations.isEmpty()) {
+            return;
+        }
+        List<DocumentEntity> entities = new ArrayList<>(operations.size());
+        operations.forEach(operation -> entities.add(operation.entity));
+        Consumer<List<DocumentEntity>> callBack = results -> complete(operations, results);
+        try {
+            batch.kind.send(manager, entities, callBack);
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "The bulk call was rejected, sending the operations one by one", exception);
+            for (Operation operation : operations) {
+                try {
+                    batch.kind.send(manager, operation);
+                } catch (RuntimeException error) {
+                    LOGGER.log(Level.WARNING, "The operation was rejected: " + operation.entity, error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the callback of each operation with its result, a callback that fails doesn't keep the others
+     * from completing and the operations without a result are completed with the entity sent
+     */
+    private static void complete(List<Operation> operations, List<DocumentEntity> results) {
+        int size = results == null ? 0 : results.size();
+        if (size < operations.size()) {
+            LOGGER.log(Level.WARNING, "The bulk call returned " + size + " entities for " + operations.size()
+                    + ", completing the others with the entity sent");
+        }
+        for (int index = 0; index < operations.size(); index++) {
+            Operation operation = operations.get(index);
+            try {
+                operation.callBack.accept(index < size ? results.get(index) : operation.entity);
+            } catch (RuntimeException exception) {
+                LOGGER.log(Level.WARNING, "The callback failed: " + operation.entity, exception);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultBatchingDocumentCollectionManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", linger=").append(linger);
+        sb.append(", maximumBatchSize=").append(maximumBatchSize);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The kind of operation of a batch: an update or an insert with an optional time to live
+     */
+    private static final class Kind {
+
+        private final boolean update;
+
+        private final Duration ttl;
+
+        private Kind(boolean update, Duration ttl) {
+            this.update = update;
+            this.ttl = ttl;
+        }
+
+        private void send(DocumentCollectionManagerAsync manager, List<DocumentEntity> entities,
+                          Consumer<List<DocumentEntity>> callBack) {
+            if (update) {
+                manager.update(entities, callBack);
+            } else if (ttl == null) {
+                manager.insert(entities, callBack);
+            } else {
+                manager.insert(entities, ttl, callBack);
+            }
+        }
+
+        private void send(DocumentCollectionManagerAsync manager, Operation operation) {
+            if (update) {
+                manager.update(operation.entity, operation.callBack);
+            } else if (ttl == null) {
+                manager.insert(operation.entity, operation.callBack);
+            } else {
+                manager.insert(operation.entity, ttl, operation.callBack);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Kind)) {
+                return false;
+            }
+            Kind kind = (Kind) o;
+            return update == kind.update && Objects.equals(ttl, kind.ttl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(update, ttl);
+        }
+    }
+
+    private static final class Operation {
+
+        private final DocumentEntity entity;
+
+        private final Consumer<DocumentEntity> callBack;
+
+        private Operation(DocumentEntity entity, Consumer<DocumentEntity> callBack) {
+            this.entity = entity;
+            this.callBack = callBack;
+        }
+    }
+
+    /**
+     * The operations of a kind collected until the batch is sealed
+     */
+    private static final class Batch {
+
+        private final Kind kind;
+
+        private final List<Operation> operations = new ArrayList<>();
+
+        private boolean sealed;
+
+        private Batch(Kind kind) {
+            this.kind = kind;
+        }
+
+        /**
+         * Adds the operation and returns the batch size, or -1 when the batch is sealed
+         */
+        private synchronized int add(Operation operation) {
+            if (sealed) {
+                return -1;
+            }
+            operations.add(operation);
+            return operations.size();
+        }
+
+        private synchronized List<Operation> seal() {
+            if (sealed) {
+                return new ArrayList<>();
+            }
+            sealed = true;
+            return operations;
+        }
+    }
+}
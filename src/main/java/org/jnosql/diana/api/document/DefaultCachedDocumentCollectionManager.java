@@ -0,0 +1,272 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.cache.Cache;
+import org.jnosql.diana.api.cache.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The default implementation of {@link CachedDocumentCollectionManager}.
+ * Each collection has a version that is incremented on every write, the version is part of the cache key,
+ * so a result loaded concurrently with a write is stored with the old version and never returned. A write just
+ * increments the version, the results of the old versions are unreachable and left to the eviction of the cache,
+ * so it doesn't scan the cache; {@link #invalidate(String)} removes them eagerly.
+ */
+final class DefaultCachedDocumentCollectionManager implements CachedDocumentCollectionManager {
+
+    private final DocumentCollectionManager manager;
+
+    private final Cache<Object, List<DocumentEntity>> cache;
+
+    private final Duration ttl;
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    DefaultCachedDocumentCollectionManager(DocumentCollectionManager manager,
+                                           Cache<Object, List<DocumentEntity>> cache, Duration ttl) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+        this.cache = Objects.requireNonNull(cache, "cache is required");
+        this.ttl = ttl;
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        try {
+            return manager.insert(entity);
+        } finally {
+            expire(entity.getName());
+        }
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entity, "entity is required");
+        try {
+            return manager.insert(entity, ttl);
+        } finally {
+            expire(entity.getName());
+        }
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities) throws NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        try {
+            return manager.insert(all);
+        } finally {
+            collections(all).forEach(this::expire);
+        }
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        List<DocumentEntity> all = copy(entities);
+        try {
+            return manager.insert(all, ttl);
+        } finally {
+            collections(all).forEach(this::expire);
+        }
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        try {
+            return manager.update(entity);
+        } finally {
+            expire(entity.getName());
+        }
+    }
+
+    @Override
+    public Iterable<DocumentEntity> update(Iterable<DocumentEntity> entities) throws NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        try {
+            return manager.update(all);
+        } finally {
+            collections(all).forEach(this::expire);
+        }
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        try {
+            manager.delete(query);
+        } finally {
+            expire(query.getCollection());
+        }
+    }
+
+    @Override
+    public List<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        QueryKey key = new QueryKey(query, version(query.getCollection()).get());
+        Optional<List<DocumentEntity>> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        List<DocumentEntity> entities = manager.select(query).stream().map(ImmutableDocumentEntity::of)
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+        if (ttl == null) {
+            cache.put(key, entities);
+        } else {
+            cache.put(key, entities, ttl);
+        }
+        return entities;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public void invalidate(String collection) throws NullPointerException {
+        Objects.requireNonNull(collection, "collection is required");
+        expire(collection);
+        cache.removeIf(key -> key instanceof QueryKey && ((QueryKey) key).collection.equals(collection));
+    }
+
+    @Override
+    public void invalidateAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        cache.clear();
+    }
+
+    @Override
+    public void close() {
+        invalidateAll();
+        manager.close();
+    }
+
+    private static List<DocumentEntity> copy(Iterable<DocumentEntity> entities) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<DocumentEntity> copy = new ArrayList<>();
+        entities.forEach(copy::add);
+        return copy;
+    }
+
+    /**
+     * Makes the cached results of the collection unreachable, they are left to the eviction of the cache
+     */
+    private void expire(String collection) {
+        version(collection).incrementAndGet();
+    }
+
+    /**
+     * The distinct collections of the entities, so a bulk write expires each collection once
+     */
+    private static Set<String> collections(List<DocumentEntity> entities) {
+        Set<String> collections = new LinkedHashSet<>();
+        entities.forEach(e -> collections.add(e.getName()));
+        return collections;
+    }
+
+    private AtomicLong version(String collection) {
+        return versions.computeIfAbsent(collection, c -> new AtomicLong());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultCachedDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", cache=").append(cache);
+        sb.append(", ttl=").append(ttl);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * A snapshot of a {@link DocumentQuery}, the query itself is mutable so it cannot be used as key
+     */
+    private static final class QueryKey {
+
+        private final String collection;
+
+        private final DocumentCondition condition;
+
+        private final List<Sort> sorts;
+
+        private final List<String> documents;
+
+        private final long maxResults;
+
+        private final long firstResult;
+
+        private final long version;
+
+        private final int hashCode;
+
+        private QueryKey(DocumentQuery query, long version) {
+            this.collection = query.getCollection();
+            this.condition = query.getCondition().orElse(null);
+            this.sorts = new ArrayList<>(query.getSorts());
+            this.documents = new ArrayList<>(query.getDocuments());
+            this.maxResults = query.getMaxResults();
+            this.firstResult = query.getFirstResult();
+            this.version = version;
+            this.hashCode = Objects.hash(collection, condition, sorts, documents, maxResults, firstResult, version);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            QueryKey that = (QueryKey) o;
+            return hashCode == that.hashCode &&
+                    maxResults == that.maxResults &&
+                    firstResult == that.firstResult &&
+                    version == that.version &&
+                    Objects.equals(collection, that.collection) &&
+                    Objects.equals(condition, that.condition) &&
+                    Objects.equals(sorts, that.sorts) &&
+                    Objects.equals(documents, that.documents);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -21,11 +21,11 @@ package org.jnosql.diana.api.document;
 import org.jnosql.diana.api.Condition;
 import org.jnosql.diana.api.TypeReference;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
-import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 import static org.jnosql.diana.api.Condition.AND;
 import static org.jnosql.diana.api.Condition.NOT;
@@ -33,17 +33,33 @@ import static org.jnosql.diana.api.Condition.OR;
 import static org.jnosql.diana.api.Condition.SUBQUERY;
 
 /**
- * The default implementation of {@link DocumentCondition}
+ * The default implementation of {@link DocumentCondition}.
+ * <p>The {@link Condition#AND} and {@link Condition#OR} conditions keep their children in an append-only array
+ * shared along a chain of {@link #and(DocumentCondition)} or {@link #or(DocumentCondition)} calls, so chaining n
+ * conditions costs O(n) instead of copying the list on each call; the nested conditions of the same type are
+ * flattened. The {@link Document} view is created on the first {@link #getDocument()}.</p>
  */
 class DefaultDocumentCondition implements DocumentCondition {
 
-    private final Document document;
-
     private final Condition condition;
 
+    private final Children children;
+
+    private final int size;
+
+    private volatile Document document;
+
     private DefaultDocumentCondition(Document document, Condition condition) {
         this.document = document;
         this.condition = condition;
+        this.children = null;
+        this.size = 0;
+    }
+
+    private DefaultDocumentCondition(Condition condition, Children children, int size) {
+        this.condition = condition;
+        this.children = children;
+        this.size = size;
     }
 
     public static DefaultDocumentCondition of(Document document, Condition condition) {
@@ -80,15 +96,13 @@ class DefaultDocumentCondition implements DocumentCondition {
 
     static DefaultDocumentCondition and(DocumentCondition... conditions) throws NullPointerException {
         requireNonNull(conditions, "condition is required");
-        Document document = Document.of(AND.getNameField(), asList(conditions));
-        return DefaultDocumentCondition.of(document, AND);
+        return join(AND, conditions);
     }
 
 
     static DefaultDocumentCondition or(DocumentCondition... conditions) throws NullPointerException {
         requireNonNull(conditions, "condition is required");
-        Document document = Document.of(OR.getNameField(), asList(conditions));
-        return DefaultDocumentCondition.of(document, OR);
+        return join(OR, conditions);
     }
 
     static DefaultDocumentCondition subquery(DocumentQuery query) throws NullPointerException {
@@ -99,21 +113,36 @@ class DefaultDocumentCondition implements DocumentCondition {
 
 
     public Document getDocument() {
-        return document;
+        Document current = document;
+        if (current == null) {
+            current = Document.of(condition.getNameField(), getConditions());
+            document = current;
+        }
+        return current;
     }
 
     public Condition getCondition() {
         return condition;
     }
 
+    /**
+     * Returns the children of an {@link Condition#AND} or {@link Condition#OR} condition without converting the
+     * {@link Document} value
+     *
+     * @return the children
+     */
+    List<DocumentCondition> getConditions() {
+        if (children != null) {
+            return children.list(size);
+        }
+        return document.get(new TypeReference<List<DocumentCondition>>() {
+        });
+    }
+
     @Override
     public DocumentCondition and(DocumentCondition condition) throws NullPointerException {
         requireNonNull(condition, "Conditions is required");
-        if (AND.equals(this.condition)) {
-            Document column = getConditions(condition, AND);
-            return new DefaultDocumentCondition(column, AND);
-        }
-        return DefaultDocumentCondition.and(this, condition);
+        return append(AND, condition);
     }
 
     @Override
@@ -129,19 +158,35 @@ class DefaultDocumentCondition implements DocumentCondition {
     @Override
     public DocumentCondition or(DocumentCondition condition) {
         requireNonNull(condition, "Condition is required");
-        if (OR.equals(this.condition)) {
-            Document document = getConditions(condition, OR);
-            return new DefaultDocumentCondition(document, OR);
+        return append(OR, condition);
+    }
+
+    private DocumentCondition append(Condition type, DocumentCondition condition) {
+        if (!type.equals(this.condition)) {
+            return join(type, this, condition);
+        }
+        DocumentCondition[] additions = flatten(type, condition);
+        if (children != null && children.append(size, additions)) {
+            return new DefaultDocumentCondition(type, children, size + additions.length);
         }
-        return DefaultDocumentCondition.or(this, condition);
+        Children copy = new Children(getConditions().toArray(new DocumentCondition[0]));
+        copy.append(copy.size, additions);
+        return new DefaultDocumentCondition(type, copy, copy.size);
     }
 
-    private Document getConditions(DocumentCondition columnCondition, Condition condition) {
-        List<DocumentCondition> conditions = new ArrayList<>();
-        conditions.addAll(document.get(new TypeReference<List<DocumentCondition>>() {
-        }));
-        conditions.add(columnCondition);
-        return Document.of(condition.getNameField(), conditions);
+    private static DefaultDocumentCondition join(Condition type, DocumentCondition... conditions) {
+        Children children = new Children(new DocumentCondition[0]);
+        for (DocumentCondition condition : conditions) {
+            children.append(children.size, flatten(type, condition));
+        }
+        return new DefaultDocumentCondition(type, children, children.size);
+    }
+
+    private static DocumentCondition[] flatten(Condition type, DocumentCondition condition) {
+        if (condition instanceof DefaultDocumentCondition && type.equals(condition.getCondition())) {
+            return ((DefaultDocumentCondition) condition).getConditions().toArray(new DocumentCondition[0]);
+        }
+        return new DocumentCondition[]{condition};
     }
 
     @Override
@@ -153,23 +198,53 @@ class DefaultDocumentCondition implements DocumentCondition {
             return false;
         }
         DefaultDocumentCondition that = (DefaultDocumentCondition) o;
-        return Objects.equals(document, that.document) &&
+        return Objects.equals(getDocument(), that.getDocument()) &&
                 condition == that.condition;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(document, condition);
+        return Objects.hash(getDocument(), condition);
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("DefaultDocumentCondition{");
-        sb.append("document=").append(document);
+        sb.append("document=").append(getDocument());
         sb.append(", condition=").append(condition);
         sb.append('}');
         return sb.toString();
     }
 
+    /**
+     * An append-only array of conditions, a condition sees the first size elements; just the condition at the
+     * end of the array appends in place, the others copy their elements.
+     */
+    private static final class Children {
+
+        private DocumentCondition[] elements;
+
+        private int size;
+
+        private Children(DocumentCondition[] elements) {
+            this.elements = elements;
+            this.size = elements.length;
+        }
 
+        private synchronized boolean append(int expected, DocumentCondition[] additions) {
+            if (size != expected) {
+                return false;
+            }
+            if (size + additions.length > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(size + additions.length, elements.length * 2 + 4));
+            }
+            System.arraycopy(additions, 0, elements, size, additions.length);
+            size += additions.length;
+            return true;
+        }
+
+        private synchronized List<DocumentCondition> list(int size) {
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(elements, size)));
+        }
+    }
 }
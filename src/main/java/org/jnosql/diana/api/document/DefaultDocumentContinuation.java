@@ -0,0 +1,309 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The default implementation of {@link DocumentContinuation}.
+ * The token is the URL-safe Base64 of a versioned binary record with the sorts and a tag before each value,
+ * it's never read with Java serialization since the tokens come back from the clients.
+ */
+final class DefaultDocumentContinuation implements DocumentContinuation {
+
+    private static final byte VERSION = 1;
+
+    private static final Sort.SortType[] TYPES = Sort.SortType.values();
+
+    private final List<Sort> sorts;
+
+    private final List<Object> values;
+
+    private final String token;
+
+    private DefaultDocumentContinuation(List<Sort> sorts, List<Object> values, String token) {
+        this.sorts = sorts;
+        this.values = values;
+        this.token = token;
+    }
+
+    static DocumentContinuation of(DocumentQuery query, DocumentEntity last) {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(last, "last is required");
+        List<Sort> sorts = query.getSorts();
+        if (sorts.isEmpty()) {
+            throw new IllegalArgumentException("The continuation requires a query with sorts");
+        }
+        List<Object> values = new ArrayList<>(sorts.size());
+        for (Sort sort : sorts) {
+            Object value = DocumentConditions.value(last, sort.getName()).orElseThrow(() ->
+                    new IllegalArgumentException("The entity has no value to the sort " + sort.getName()));
+            values.add(value instanceof Enum ? ((Enum<?>) value).name() : value);
+        }
+        sorts = Collections.unmodifiableList(new ArrayList<>(sorts));
+        values = Collections.unmodifiableList(values);
+        return new DefaultDocumentContinuation(sorts, values, encode(sorts, values));
+    }
+
+    static Optional<DocumentContinuation> next(DocumentQuery query, List<DocumentEntity> page) {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(page, "page is required");
+        if (page.isEmpty() || query.getMaxResults() > 0 && page.size() < query.getMaxResults()) {
+            return Optional.empty();
+        }
+        return Optional.of(of(query, page.get(page.size() - 1)));
+    }
+
+    static DocumentContinuation parse(String token) {
+        Objects.requireNonNull(token, "token is required");
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(
+                Base64.getUrlDecoder().decode(token)))) {
+            if (input.readByte() != VERSION) {
+                throw new IllegalArgumentException("The continuation token version is not supported");
+            }
+            int size = input.readUnsignedShort();
+            List<Sort> sorts = new ArrayList<>();
+            List<Object> values = new ArrayList<>();
+            for (int index = 0; index < size; index++) {
+                String name = input.readUTF();
+                int type = input.readUnsignedByte();
+                if (type >= TYPES.length) {
+                    throw new IllegalArgumentException("The continuation token has an invalid sort type");
+                }
+                sorts.add(Sort.of(name, TYPES[type]));
+                values.add(read(input));
+            }
+            if (sorts.isEmpty() || input.read() != -1) {
+                throw new IllegalArgumentException("The continuation token is invalid");
+            }
+            return new DefaultDocumentContinuation(Collections.unmodifiableList(sorts),
+                    Collections.unmodifiableList(values), token);
+        } catch (IOException | DateTimeParseException | NumberFormatException exception) {
+            throw new IllegalArgumentException("The continuation token is invalid", exception);
+        }
+    }
+
+    @Override
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    @Override
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public DocumentCondition toCondition() {
+        DocumentCondition[] branches = new DocumentCondition[sorts.size()];
+        for (int index = 0; index < branches.length; index++) {
+            Sort sort = sorts.get(index);
+            Document document = Document.of(sort.getName(), values.get(index));
+            DocumentCondition after = Sort.SortType.ASC.equals(sort.getType()) ? DocumentCondition.gt(document)
+                    : DocumentCondition.lt(document);
+            if (index == 0) {
+                branches[index] = after;
+                continue;
+            }
+            DocumentCondition[] conditions = new DocumentCondition[index + 1];
+            for (int previous = 0; previous < index; previous++) {
+                conditions[previous] = DocumentCondition.eq(Document.of(sorts.get(previous).getName(),
+                        values.get(previous)));
+            }
+            conditions[index] = after;
+            branches[index] = DocumentCondition.and(conditions);
+        }
+        return branches.length == 1 ? branches[0] : DocumentCondition.or(branches);
+    }
+
+    private static String encode(List<Sort> sorts, List<Object> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeShort(sorts.size());
+            for (int index = 0; index < sorts.size(); index++) {
+                output.writeUTF(sorts.get(index).getName());
+                output.writeByte(sorts.get(index).getType().ordinal());
+                write(output, values.get(index));
+            }
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("The continuation values cannot be encoded", exception);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static void write(DataOutputStream output, Object value) throws IOException {
+        if (value instanceof String) {
+            output.writeByte('s');
+            output.writeUTF((String) value);
+        } else if (value instanceof Integer) {
+            output.writeByte('i');
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte('l');
+            output.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            output.writeByte('h');
+            output.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            output.writeByte('b');
+            output.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            output.writeByte('d');
+            output.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            output.writeByte('f');
+            output.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte('z');
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            output.writeByte('c');
+            output.writeChar((Character) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte('I');
+            output.writeUTF(value.toString());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte('D');
+            output.writeUTF(value.toString());
+        } else if (value instanceof Date) {
+            output.writeByte('t');
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof LocalDate) {
+            output.writeByte('L');
+            output.writeUTF(value.toString());
+        } else if (value instanceof LocalTime) {
+            output.writeByte('T');
+            output.writeUTF(value.toString());
+        } else if (value instanceof LocalDateTime) {
+            output.writeByte('M');
+            output.writeUTF(value.toString());
+        } else if (value instanceof Instant) {
+            output.writeByte('N');
+            output.writeUTF(value.toString());
+        } else if (value instanceof OffsetDateTime) {
+            output.writeByte('O');
+            output.writeUTF(value.toString());
+        } else if (value instanceof ZonedDateTime) {
+            output.writeByte('Z');
+            output.writeUTF(value.toString());
+        } else {
+            throw new IllegalArgumentException("The continuation does not support the value type: "
+                    + value.getClass().getName());
+        }
+    }
+
+    private static Object read(DataInputStream input) throws IOException {
+        byte tag = input.readByte();
+        switch (tag) {
+            case 's':
+                return input.readUTF();
+            case 'i':
+                return input.readInt();
+            case 'l':
+                return input.readLong();
+            case 'h':
+                return input.readShort();
+            case 'b':
+                return input.readByte();
+            case 'd':
+                return input.readDouble();
+            case 'f':
+                return input.readFloat();
+            case 'z':
+                return input.readBoolean();
+            case 'c':
+                return input.readChar();
+            case 'I':
+                return new BigInteger(input.readUTF());
+            case 'D':
+                return new BigDecimal(input.readUTF());
+            case 't':
+                return new Date(input.readLong());
+            case 'L':
+                return LocalDate.parse(input.readUTF());
+            case 'T':
+                return LocalTime.parse(input.readUTF());
+            case 'M':
+                return LocalDateTime.parse(input.readUTF());
+            case 'N':
+                return Instant.parse(input.readUTF());
+            case 'O':
+                return OffsetDateTime.parse(input.readUTF());
+            case 'Z':
+                return ZonedDateTime.parse(input.readUTF());
+            default:
+                throw new IllegalArgumentException("The continuation token has an invalid value tag");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DefaultDocumentContinuation that = (DefaultDocumentContinuation) o;
+        return Objects.equals(sorts, that.sorts) &&
+                Objects.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sorts, values);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultDocumentContinuation{");
+        sb.append("sorts=").append(sorts);
+        sb.append(", values=").append(values);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -154,7 +154,7 @@ class DefaultDocumentQuery implements DocumentQuery {
         return maxResults == that.getMaxResults() &&
                 firstResult == that.getFirstResult() &&
                 Objects.equals(collection, that.getCollection()) &&
-                Objects.equals(condition, that.getCondition()) &&
+                Objects.equals(getCondition(), that.getCondition()) &&
                 Objects.equals(sorts, that.getSorts()) &&
                 Objects.equals(documents, that.getDocuments());
     }
@@ -0,0 +1,158 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.ConditionSimplifier;
+import org.jnosql.diana.api.ConditionSimplifier.Simplified;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The default implementation of {@link DocumentQueryOptimizer}, the condition is simplified by a
+ * {@link ConditionSimplifier}.
+ */
+final class DefaultDocumentQueryOptimizer implements DocumentQueryOptimizer {
+
+    static final DefaultDocumentQueryOptimizer INSTANCE = new DefaultDocumentQueryOptimizer();
+
+    private static final ConditionSimplifier<DocumentCondition> SIMPLIFIER = ConditionSimplifier.of(
+            new DocumentTree());
+
+    private DefaultDocumentQueryOptimizer() {
+    }
+
+    @Override
+    public Optional<DocumentQuery> optimize(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        DocumentQuery optimized = DocumentQuery.of(query.getCollection());
+        query.getSorts().forEach(optimized::addSort);
+        query.getDocuments().forEach(optimized::addColumn);
+        optimized.withFirstResult(query.getFirstResult());
+        optimized.withMaxResults(query.getMaxResults());
+        if (!query.getCondition().isPresent()) {
+            return Optional.of(optimized);
+        }
+        Simplified<DocumentCondition> simplified = SIMPLIFIER.simplify(query.getCondition().get());
+        if (simplified.isContradiction()) {
+            return Optional.empty();
+        }
+        simplified.getCondition().ifPresent(optimized::and);
+        return Optional.of(optimized);
+    }
+
+    @Override
+    public Optional<DocumentDeleteQuery> optimize(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        DocumentDeleteQuery optimized = DocumentDeleteQuery.of(query.getCollection());
+        optimized.addAll(query.getDocuments());
+        if (!query.getCondition().isPresent()) {
+            return Optional.of(optimized);
+        }
+        Simplified<DocumentCondition> simplified = SIMPLIFIER.simplify(query.getCondition().get());
+        if (simplified.isContradiction()) {
+            return Optional.empty();
+        }
+        simplified.getCondition().ifPresent(optimized::and);
+        return Optional.of(optimized);
+    }
+
+    @Override
+    public DocumentCollectionManager decorate(DocumentCollectionManager manager) throws NullPointerException {
+        return new OptimizedDocumentCollectionManager(Objects.requireNonNull(manager, "manager is required"),
+                this);
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultDocumentQueryOptimizer{}";
+    }
+
+    /**
+     * The tree of the {@link DocumentCondition}
+     */
+    private static final class DocumentTree implements ConditionSimplifier.Tree<DocumentCondition> {
+
+        @Override
+        public Condition type(DocumentCondition condition) {
+            return condition.getCondition();
+        }
+
+        @Override
+        public String name(DocumentCondition condition) {
+            return condition.getDocument().getName();
+        }
+
+        @Override
+        public Object value(DocumentCondition condition) {
+            return condition.getDocument().get();
+        }
+
+        @Override
+        public List<DocumentCondition> children(DocumentCondition condition) {
+            return DocumentConditions.children(condition);
+        }
+
+        @Override
+        public DocumentCondition operand(DocumentCondition condition) {
+            return condition.getDocument().get(DocumentCondition.class);
+        }
+
+        @Override
+        public DocumentCondition negate(DocumentCondition condition) {
+            return condition.negate();
+        }
+
+        @Override
+        public DocumentCondition join(Condition type, List<DocumentCondition> conditions) {
+            DocumentCondition[] array = conditions.toArray(new DocumentCondition[conditions.size()]);
+            return Condition.AND.equals(type) ? DocumentCondition.and(array) : DocumentCondition.or(array);
+        }
+
+        @Override
+        public DocumentCondition leaf(Condition type, String name, Object value) {
+            Document document = Document.of(name, value);
+            switch (type) {
+                case EQUALS:
+                    return DocumentCondition.eq(document);
+                case IN:
+                    return DocumentCondition.in(document);
+                case BETWEEN:
+                    return DocumentCondition.between(document);
+                case GREATER_THAN:
+                    return DocumentCondition.gt(document);
+                case GREATER_EQUALS_THAN:
+                    return DocumentCondition.gte(document);
+                case LESSER_THAN:
+                    return DocumentCondition.lt(document);
+                case LESSER_EQUALS_THAN:
+                    return DocumentCondition.lte(document);
+                default:
+                    throw new IllegalArgumentException("The condition " + type + " is not a leaf");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DocumentTree{}";
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The default implementation of {@link DocumentQueryShape}, the fingerprint is computed once.
+ */
+final class DefaultDocumentQueryShape implements DocumentQueryShape {
+
+    private final String fingerprint;
+
+    private final List<Object> values;
+
+    private DefaultDocumentQueryShape(String fingerprint, List<Object> values) {
+        this.fingerprint = fingerprint;
+        this.values = values;
+    }
+
+    static DocumentQueryShape of(DocumentQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        StringBuilder fingerprint = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+        select(query, fingerprint, values);
+        return new DefaultDocumentQueryShape(fingerprint.toString(), Collections.unmodifiableList(values));
+    }
+
+    static DocumentQueryShape of(DocumentDeleteQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        StringBuilder fingerprint = new StringBuilder("delete ");
+        List<Object> values = new ArrayList<>();
+        name(query.getCollection(), fingerprint);
+        if (!query.getDocuments().isEmpty()) {
+            fingerprint.append(" documents");
+            names(query.getDocuments(), fingerprint);
+        }
+        query.getCondition().ifPresent(c -> {
+            fingerprint.append(" where ");
+            condition(c, fingerprint, values);
+        });
+        return new DefaultDocumentQueryShape(fingerprint.toString(), Collections.unmodifiableList(values));
+    }
+
+    @Override
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public List<Object> getValues() {
+        return values;
+    }
+
+    private static void select(DocumentQuery query, StringBuilder fingerprint, List<Object> values) {
+        fingerprint.append("select ");
+        name(query.getCollection(), fingerprint);
+        if (!query.getDocuments().isEmpty()) {
+            fingerprint.append(" documents");
+            names(query.getDocuments(), fingerprint);
+        }
+        query.getCondition().ifPresent(c -> {
+            fingerprint.append(" where ");
+            condition(c, fingerprint, values);
+        });
+        if (!query.getSorts().isEmpty()) {
+            fingerprint.append(" sort(");
+            List<Sort> sorts = query.getSorts();
+            for (int index = 0; index < sorts.size(); index++) {
+                Sort sort = sorts.get(index);
+                if (index > 0) {
+                    fingerprint.append(", ");
+                }
+                name(sort.getName(), fingerprint);
+                fingerprint.append(' ').append(sort.getType());
+            }
+            fingerprint.append(')');
+        }
+        if (query.getFirstResult() > 0) {
+            fingerprint.append(" first");
+        }
+        if (query.getMaxResults() > 0) {
+            fingerprint.append(" max");
+        }
+    }
+
+    private static void condition(DocumentCondition condition, StringBuilder fingerprint, List<Object> values) {
+        Condition type = condition.getCondition();
+        fingerprint.append(type.name()).append('(');
+        switch (type) {
+            case AND:
+            case OR:
+                List<DocumentCondition> children = DocumentConditions.children(condition);
+                for (int index = 0; index < children.size(); index++) {
+                    if (index > 0) {
+                        fingerprint.append(", ");
+                    }
+                    condition(children.get(index), fingerprint, values);
+                }
+                break;
+            case NOT:
+                condition(condition.getDocument().get(DocumentCondition.class), fingerprint, values);
+                break;
+            case SUBQUERY:
+                select(condition.getDocument().get(DocumentQuery.class), fingerprint, values);
+                break;
+            case IN:
+            case BETWEEN:
+                name(condition.getDocument().getName(), fingerprint);
+                Object value = condition.getDocument().get();
+                if (value instanceof Iterable) {
+                    int size = values.size();
+                    ((Iterable<?>) value).forEach(values::add);
+                    fingerprint.append(", ?[").append(values.size() - size).append(']');
+                } else {
+                    values.add(value);
+                    fingerprint.append(", ?");
+                }
+                break;
+            default:
+                name(condition.getDocument().getName(), fingerprint);
+                values.add(condition.getDocument().get());
+                fingerprint.append(", ?");
+        }
+        fingerprint.append(')');
+    }
+
+    private static void names(List<String> names, StringBuilder fingerprint) {
+        fingerprint.append('(');
+        for (int index = 0; index < names.size(); index++) {
+            if (index > 0) {
+                fingerprint.append(", ");
+            }
+            name(names.get(index), fingerprint);
+        }
+        fingerprint.append(')');
+    }
+
+    /**
+     * Appends the name quoted, so a name never looks like the syntax of the fingerprint
+     */
+    private static void name(String name, StringBuilder fingerprint) {
+        fingerprint.append('\'').append(name.replace("'", "''")).append('\'');
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DefaultDocumentQueryShape that = (DefaultDocumentQueryShape) o;
+        return fingerprint.equals(that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return fingerprint.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultDocumentQueryShape{");
+        sb.append("fingerprint='").append(fingerprint).append('\'');
+        sb.append(", values=").append(values);
+        sb.append('}');
+        return sb.toString();
+    }
+}
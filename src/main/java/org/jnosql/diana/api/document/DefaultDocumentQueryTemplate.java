@@ -0,0 +1,262 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Parameter;
+import org.jnosql.diana.api.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The default implementation of {@link DocumentQueryTemplate}.
+ * The condition is compiled once into a binder, the conditions without parameters are kept as they are and
+ * shared by every bound query.
+ */
+final class DefaultDocumentQueryTemplate implements DocumentQueryTemplate {
+
+    private final String collection;
+
+    private final DocumentCondition condition;
+
+    private final List<Sort> sorts;
+
+    private final List<String> documents;
+
+    private final long firstResult;
+
+    private final long maxResults;
+
+    private final Set<String> parameters;
+
+    private final Function<Map<String, ?>, DocumentCondition> binder;
+
+    DefaultDocumentQueryTemplate(DocumentQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        this.collection = query.getCollection();
+        this.condition = query.getCondition().orElse(null);
+        this.sorts = Collections.unmodifiableList(new ArrayList<>(query.getSorts()));
+        this.documents = Collections.unmodifiableList(new ArrayList<>(query.getDocuments()));
+        this.firstResult = query.getFirstResult();
+        this.maxResults = query.getMaxResults();
+        Set<String> names = new LinkedHashSet<>();
+        this.binder = condition == null ? null : compile(condition, names);
+        this.parameters = Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public DocumentQuery bind(Map<String, ?> values) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(values, "values is required");
+        for (String parameter : parameters) {
+            if (!values.containsKey(parameter)) {
+                throw new IllegalArgumentException("The parameter " + parameter + " has no value");
+            }
+        }
+        DocumentQuery query = DocumentQuery.of(collection);
+        sorts.forEach(query::addSort);
+        documents.forEach(query::addColumn);
+        query.withFirstResult(firstResult);
+        query.withMaxResults(maxResults);
+        if (binder != null) {
+            query.and(binder.apply(values));
+        }
+        return query;
+    }
+
+    @Override
+    public Set<String> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public long getMaxResults() {
+        return maxResults;
+    }
+
+    @Override
+    public long getFirstResult() {
+        return firstResult;
+    }
+
+    @Override
+    public Optional<DocumentCondition> getCondition() {
+        return Optional.ofNullable(condition);
+    }
+
+    @Override
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    @Override
+    public List<String> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Compiles the condition into a binder, adding the names of its parameters
+     */
+    private static Function<Map<String, ?>, DocumentCondition> compile(DocumentCondition condition,
+                                                                      Set<String> names) {
+        switch (condition.getCondition()) {
+            case AND:
+            case OR:
+                List<Function<Map<String, ?>, DocumentCondition>> children = new ArrayList<>();
+                boolean bound = false;
+                for (DocumentCondition child : DocumentConditions.children(condition)) {
+                    Function<Map<String, ?>, DocumentCondition> binder = compile(child, names);
+                    children.add(binder);
+                    bound |= !(binder instanceof Constant);
+                }
+                if (!bound) {
+                    return new Constant(condition);
+                }
+                boolean and = Condition.AND.equals(condition.getCondition());
+                return values -> {
+                    DocumentCondition[] conditions = new DocumentCondition[children.size()];
+                    for (int index = 0; index < conditions.length; index++) {
+                        conditions[index] = children.get(index).apply(values);
+                    }
+                    return and ? DocumentCondition.and(conditions) : DocumentCondition.or(conditions);
+                };
+            case NOT:
+                Function<Map<String, ?>, DocumentCondition> child =
+                        compile(condition.getDocument().get(DocumentCondition.class), names);
+                if (child instanceof Constant) {
+                    return new Constant(condition);
+                }
+                return values -> child.apply(values).negate();
+            default:
+                return compileLeaf(condition, names);
+        }
+    }
+
+    private static Function<Map<String, ?>, DocumentCondition> compileLeaf(DocumentCondition condition,
+                                                                          Set<String> names) {
+        String name = condition.getDocument().getName();
+        Condition type = condition.getCondition();
+        Object value = condition.getDocument().get();
+        if (value instanceof Parameter) {
+            String parameter = ((Parameter) value).getName();
+            names.add(parameter);
+            return values -> create(name, type, value(values, parameter));
+        }
+        if (value instanceof Iterable) {
+            List<Object> elements = new ArrayList<>();
+            boolean bound = false;
+            for (Object element : (Iterable<?>) value) {
+                elements.add(element);
+                if (element instanceof Parameter) {
+                    names.add(((Parameter) element).getName());
+                    bound = true;
+                }
+            }
+            if (bound) {
+                return values -> {
+                    List<Object> resolved = new ArrayList<>(elements.size());
+                    for (Object element : elements) {
+                        resolved.add(element instanceof Parameter
+                                ? value(values, ((Parameter) element).getName()) : element);
+                    }
+                    return create(name, type, resolved);
+                };
+            }
+        }
+        return new Constant(condition);
+    }
+
+    private static Object value(Map<String, ?> values, String parameter) {
+        return Objects.requireNonNull(values.get(parameter), "the value of the parameter " + parameter
+                + " is required");
+    }
+
+    private static DocumentCondition create(String name, Condition type, Object value) {
+        Document document = Document.of(name, value);
+        if (Condition.BETWEEN.equals(type)) {
+            return DefaultDocumentCondition.between(document);
+        }
+        return DefaultDocumentCondition.of(document, type);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DefaultDocumentQueryTemplate that = (DefaultDocumentQueryTemplate) o;
+        return firstResult == that.firstResult &&
+                maxResults == that.maxResults &&
+                Objects.equals(collection, that.collection) &&
+                Objects.equals(condition, that.condition) &&
+                Objects.equals(sorts, that.sorts) &&
+                Objects.equals(documents, that.documents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collection, condition, sorts, documents, firstResult, maxResults);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultDocumentQueryTemplate{");
+        sb.append("collection='").append(collection).append('\'');
+        sb.append(", condition=").append(condition);
+        sb.append(", sorts=").append(sorts);
+        sb.append(", documents=").append(documents);
+        sb.append(", firstResult=").append(firstResult);
+        sb.append(", maxResults=").append(maxResults);
+        sb.append(", parameters=").append(parameters);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * The binder of a condition without parameters
+     */
+    private static final class Constant implements Function<Map<String, ?>, DocumentCondition> {
+
+        private final DocumentCondition condition;
+
+        private Constant(DocumentCondition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public DocumentCondition apply(Map<String, ?> values) {
+            return condition;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.metrics.Metrics;
+import org.jnosql.diana.api.metrics.OperationMetrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+final class DefaultMeteredDocumentCollectionManager implements MeteredDocumentCollectionManager {
+
+    private static final String ALL = "*";
+
+    private final DocumentCollectionManager manager;
+
+    private final Metrics metrics;
+
+    DefaultMeteredDocumentCollectionManager(DocumentCollectionManager manager, Metrics metrics) {
+        this.manager = manager;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return measure("insert", entity.getName(), () -> manager.insert(entity), e -> 1L);
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entity, "entity is required");
+        return measure("insert", entity.getName(), () -> manager.insert(entity, ttl), e -> 1L);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities) throws NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        return measure("insert", collection(all), () -> manager.insert(all), e -> all.size());
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        List<DocumentEntity> all = copy(entities);
+        return measure("insert", collection(all), () -> manager.insert(all, ttl), e -> all.size());
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        return measure("update", entity.getName(), () -> manager.update(entity), e -> 1L);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> update(Iterable<DocumentEntity> entities) throws NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        return measure("update", collection(all), () -> manager.update(all), e -> all.size());
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        measure("delete", query.getCollection(), () -> {
+            manager.delete(query);
+            return null;
+        }, r -> -1L);
+    }
+
+    @Override
+    public List<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return measure("select", query.getCollection(), () -> manager.select(query), List::size);
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private <T> T measure(String operation, String collection, Supplier<T> action, ToLongFunction<T> results) {
+        OperationMetrics operationMetrics = metrics.operation(MANAGER, operation, collection);
+        operationMetrics.started();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error exception) {
+            operationMetrics.failed(System.nanoTime() - start);
+            throw exception;
+        }
+        operationMetrics.succeeded(System.nanoTime() - start, results.applyAsLong(result));
+        return result;
+    }
+
+    static List<DocumentEntity> copy(Iterable<DocumentEntity> entities) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<DocumentEntity> copy = new ArrayList<>();
+        entities.forEach(copy::add);
+        return copy;
+    }
+
+    /**
+     * The collection of the entities, or {@link #ALL} when they span several
+     */
+    static String collection(List<DocumentEntity> entities) {
+        String collection = null;
+        for (DocumentEntity entity : entities) {
+            if (collection == null) {
+                collection = entity.getName();
+            } else if (!collection.equals(entity.getName())) {
+                return ALL;
+            }
+        }
+        return collection == null ? ALL : collection;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultMeteredDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", metrics=").append(metrics);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.metrics.Metrics;
+import org.jnosql.diana.api.metrics.OperationMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static org.jnosql.diana.api.document.DefaultMeteredDocumentCollectionManager.collection;
+import static org.jnosql.diana.api.document.DefaultMeteredDocumentCollectionManager.copy;
+
+final class DefaultMeteredDocumentCollectionManagerAsync implements MeteredDocumentCollectionManagerAsync {
+
+    private static final Consumer<Object> NOOP = r -> {
+    };
+
+    private final DocumentCollectionManagerAsync manager;
+
+    private final Metrics metrics;
+
+    DefaultMeteredDocumentCollectionManagerAsync(DocumentCollectionManagerAsync manager, Metrics metrics) {
+        this.manager = manager;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void insert(DocumentEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        insert(entity, NOOP::accept);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        insert(entity, ttl, NOOP::accept);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("insert", entity.getName(), callBack, e -> 1L, c -> manager.insert(entity, c));
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Duration ttl, Consumer<DocumentEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("insert", entity.getName(), callBack, e -> 1L, c -> manager.insert(entity, ttl, c));
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        submit("insert", collection(all), all.size(), () -> manager.insert(all));
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Duration ttl) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        submit("insert", collection(all), all.size(), () -> manager.insert(all, ttl));
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("insert", collection(all), callBack, List::size, c -> manager.insert(all, c));
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Duration ttl, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("insert", collection(all), callBack, List::size, c -> manager.insert(all, ttl, c));
+    }
+
+    @Override
+    public void update(DocumentEntity entity) throws ExecuteAsyncQueryException, UnsupportedOperationException,
+            NullPointerException {
+        update(entity, NOOP::accept);
+    }
+
+    @Override
+    public void update(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("update", entity.getName(), callBack, e -> 1L, c -> manager.update(entity, c));
+    }
+
+    @Override
+    public void update(Iterable<DocumentEntity> entities) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        submit("update", collection(all), all.size(), () -> manager.update(all));
+    }
+
+    @Override
+    public void update(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("update", collection(all), callBack, List::size, c -> manager.update(all, c));
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException {
+        delete(query, NOOP::accept);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("delete", query.getCollection(), callBack, r -> -1L, c -> manager.delete(query, c));
+    }
+
+    @Override
+    public void select(DocumentQuery query, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        measure("select", query.getCollection(), callBack, List::size, c -> manager.select(query, c));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    /**
+     * Sends a call that has no callback, so it is measured until it is submitted
+     */
+    private void submit(String operation, String collection, long results, Runnable call) {
+        OperationMetrics operationMetrics = metrics.operation(MANAGER, operation, collection);
+        operationMetrics.started();
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } catch (RuntimeException | Error exception) {
+            operationMetrics.failed(System.nanoTime() - start);
+            throw exception;
+        }
+        operationMetrics.succeeded(System.nanoTime() - start, results);
+    }
+
+    /**
+     * Sends the call with a callback that records the metrics before calling the caller callback, a call is
+     * recorded once even when the callback runs on the caller thread and fails
+     */
+    private <T> void measure(String operation, String collection, Consumer<T> callBack, ToLongFunction<T> results,
+                             Consumer<Consumer<T>> call) {
+        OperationMetrics operationMetrics = metrics.operation(MANAGER, operation, collection);
+        operationMetrics.started();
+        AtomicBoolean finished = new AtomicBoolean();
+        long start = System.nanoTime();
+        try {
+            call.accept(result -> {
+                if (finished.compareAndSet(false, true)) {
+                    operationMetrics.succeeded(System.nanoTime() - start, results.applyAsLong(result));
+                }
+                callBack.accept(result);
+            });
+        } catch (RuntimeException | Error exception) {
+            if (finished.compareAndSet(false, true)) {
+                operationMetrics.failed(System.nanoTime() - start);
+            }
+            throw exception;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultMeteredDocumentCollectionManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", metrics=").append(metrics);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.JNoSQLException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The default {@link ReplicatedDocumentCollectionManager}, the latencies are kept in a lock-free ring of the
+ * latest samples and the percentile is computed again every {@link #REFRESH} samples.
+ */
+final class DefaultReplicatedDocumentCollectionManager implements ReplicatedDocumentCollectionManager {
+
+    private static final int SAMPLES = 1024;
+
+    private static final int REFRESH = 64;
+
+    private final Node primary;
+
+    private final List<Node> replicas;
+
+    private final List<DocumentCollectionManager> managers;
+
+    private final boolean hedged;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long hedgeDelay = -1L;
+
+    DefaultReplicatedDocumentCollectionManager(DocumentCollectionManager primary,
+                                               List<DocumentCollectionManager> replicas,
+                                               boolean hedged, Executor executor) {
+        this(primary, replicas, hedged, executor, null);
+    }
+
+    private DefaultReplicatedDocumentCollectionManager(DocumentCollectionManager primary,
+                                                       List<DocumentCollectionManager> replicas,
+                                                       boolean hedged, Executor executor,
+                                                       ExecutorService ownedExecutor) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("The replicas are required");
+        }
+        List<Node> nodes = new ArrayList<>(replicas.size());
+        replicas.forEach(replica -> nodes.add(new Node(Objects.requireNonNull(replica, "replica is required"))));
+        this.primary = new Node(primary);
+        this.replicas = Collections.unmodifiableList(nodes);
+        this.managers = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.hedged = hedged;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * Creates a manager that runs the selects in a cached pool of daemon threads that it shuts down on close
+     */
+    static DefaultReplicatedDocumentCollectionManager of(DocumentCollectionManager primary,
+                                                         List<DocumentCollectionManager> replicas,
+                                                         boolean hedged) {
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "replicated-document-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new DefaultReplicatedDocumentCollectionManager(primary, replicas, hedged, executor, executor);
+    }
+
+    @Override
+    public DocumentCollectionManager getPrimary() {
+        return primary.manager;
+    }
+
+    @Override
+    public List<DocumentCollectionManager> getReplicas() {
+        return managers;
+    }
+
+    @Override
+    public Optional<Duration> getHedgeDelay() {
+        long delay = hedgeDelay;
+        if (!hedged || delay < 0L) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(delay));
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity) throws NullPointerException {
+        return primary.manager.insert(entity);
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return primary.manager.insert(entity, ttl);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return primary.manager.insert(entities);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        return primary.manager.insert(entities, ttl);
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        return primary.manager.update(entity);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> update(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return primary.manager.update(entities);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        primary.manager.delete(query);
+    }
+
+    @Override
+    public List<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Node first = choose();
+        long delay = hedgeDelay;
+        if (!hedged || delay < 0L) {
+            return first.select(query);
+        }
+        CompletableFuture<List<DocumentEntity>> firstSelect = submit(first, query);
+        try {
+            return firstSelect.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException exception) {
+            CompletableFuture<List<DocumentEntity>> secondSelect = submit(hedge(first), query);
+            return join(firstOf(firstSelect, secondSelect));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new JNoSQLException("Interrupted while waiting the select", exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        List<Node> nodes = new ArrayList<>(replicas);
+        nodes.add(primary);
+        for (Node node : nodes) {
+            try {
+                node.manager.close();
+            } catch (RuntimeException exception) {
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Picks two replicas at random and keeps the one with the lower load
+     */
+    private Node choose() {
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Node a = replicas.get(first);
+        Node b = replicas.get(second);
+        return a.load() <= b.load() ? a : b;
+    }
+
+    /**
+     * Returns the replica with the lower load other than the node, or the primary when there is no other one
+     */
+    private Node hedge(Node node) {
+        Node best = null;
+        for (Node replica : replicas) {
+            if (replica != node && (best == null || replica.load() < best.load())) {
+                best = replica;
+            }
+        }
+        return best == null ? primary : best;
+    }
+
+    private CompletableFuture<List<DocumentEntity>> submit(Node node, DocumentQuery query) {
+        return CompletableFuture.supplyAsync(() -> node.select(query), executor);
+    }
+
+    /**
+     * Completes with the first select that succeeds, or with the error of the first one when both fail
+     */
+    private static <T> CompletableFuture<T> firstOf(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        first.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (second.isCompletedExceptionally()) {
+                result.completeExceptionally(error);
+            }
+        });
+        second.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (first.isCompletedExceptionally()) {
+                first.whenComplete((v, firstError) -> result.completeExceptionally(firstError));
+            }
+        });
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    private void record(long latency) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % SAMPLES), latency);
+        long recorded = index + 1;
+        if (recorded >= MINIMUM_SAMPLES && (recorded == MINIMUM_SAMPLES || recorded % REFRESH == 0)) {
+            int size = (int) Math.min(recorded, SAMPLES);
+            long[] values = new long[size];
+            for (int position = 0; position < size; position++) {
+                values[position] = samples.get(position);
+            }
+            Arrays.sort(values);
+            hedgeDelay = values[Math.min(size - 1, (int) Math.ceil(HEDGE_PERCENTILE * size) - 1)];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultReplicatedDocumentCollectionManager{");
+        sb.append("primary=").append(primary.manager);
+        sb.append(", replicas=").append(managers);
+        sb.append(", hedged=").append(hedged);
+        sb.append(", hedgeDelay=").append(hedgeDelay);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * A manager with its selects in flight and the moving average of its select latency
+     */
+    private final class Node {
+
+        private final DocumentCollectionManager manager;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicLong latency = new AtomicLong();
+
+        private Node(DocumentCollectionManager manager) {
+            this.manager = manager;
+        }
+
+        private List<DocumentEntity> select(DocumentQuery query) {
+            inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                return manager.select(query);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                inFlight.decrementAndGet();
+                latency.accumulateAndGet(elapsed, (average, sample) -> average + ((sample - average) >> 3));
+                record(elapsed);
+            }
+        }
+
+        private double load() {
+            return (latency.get() + 1.0) * (inFlight.get() + 1);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.Values;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The default implementation of {@link ShardedDocumentCollectionManager}.
+ * The work of a single shard runs on the caller thread, the work of several shards runs on the executor and
+ * the caller waits for all of them.
+ */
+final class DefaultShardedDocumentCollectionManager implements ShardedDocumentCollectionManager {
+
+    private final List<DocumentCollectionManager> shards;
+
+    private final String key;
+
+    private final ToIntFunction<Object> hash;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    DefaultShardedDocumentCollectionManager(List<DocumentCollectionManager> shards, String key,
+                                            ToIntFunction<Object> hash, Executor executor) {
+        this(shards, key, hash, executor, null);
+    }
+
+    private DefaultShardedDocumentCollectionManager(List<DocumentCollectionManager> shards, String key,
+                                                    ToIntFunction<Object> hash, Executor executor,
+                                                    ExecutorService ownedExecutor) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("The shards are required");
+        }
+        shards.forEach(s -> Objects.requireNonNull(s, "shard is required"));
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.key = key;
+        this.hash = hash;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * Creates a manager that runs the shards in a cached pool of daemon threads that it shuts down on close
+     */
+    static DefaultShardedDocumentCollectionManager of(List<DocumentCollectionManager> shards, String key,
+                                                      ToIntFunction<Object> hash) {
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "sharded-document-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new DefaultShardedDocumentCollectionManager(shards, key, hash, executor, executor);
+    }
+
+    @Override
+    public List<DocumentCollectionManager> getShards() {
+        return shards;
+    }
+
+    @Override
+    public DocumentCollectionManager getShard(DocumentEntity entity) throws NullPointerException,
+            IllegalArgumentException {
+        return shards.get(shardOf(entity));
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity) throws NullPointerException {
+        return getShard(entity).insert(entity);
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        return getShard(entity).insert(entity, ttl);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return write(entities, DocumentCollectionManager::insert);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        return write(entities, (shard, batch) -> shard.insert(batch, ttl));
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        return getShard(entity).update(entity);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> update(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return write(entities, DocumentCollectionManager::update);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        BitSet targets = targets(query.getCondition().orElse(null));
+        run(targets, shard -> {
+            shards.get(shard).delete(query);
+            return null;
+        });
+    }
+
+    @Override
+    public List<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        BitSet targets = targets(query.getCondition().orElse(null));
+        if (targets.cardinality() == 1) {
+            return shards.get(targets.nextSetBit(0)).select(query);
+        }
+        long first = Math.max(query.getFirstResult(), 0L);
+        long max = query.getMaxResults();
+        List<String> extra = new ArrayList<>();
+        DocumentQuery shardQuery = DocumentQuery.of(query.getCollection());
+        query.getCondition().ifPresent(shardQuery::and);
+        query.getSorts().forEach(shardQuery::addSort);
+        query.getDocuments().forEach(shardQuery::addColumn);
+        if (!query.getDocuments().isEmpty()) {
+            Set<String> documents = new LinkedHashSet<>(query.getDocuments());
+            for (Sort sort : query.getSorts()) {
+                String name = sort.getName().split("\\.", 2)[0];
+                if (documents.add(name)) {
+                    extra.add(name);
+                    shardQuery.addColumn(name);
+                }
+            }
+        }
+        if (max > 0) {
+            shardQuery.withMaxResults(first > Long.MAX_VALUE - max ? Long.MAX_VALUE : first + max);
+        }
+        List<List<DocumentEntity>> results = run(targets, shard -> shards.get(shard).select(shardQuery));
+        List<DocumentEntity> entities = merge(results, comparator(query.getSorts()), first, max);
+        if (extra.isEmpty()) {
+            return entities;
+        }
+        List<DocumentEntity> projected = new ArrayList<>(entities.size());
+        for (DocumentEntity entity : entities) {
+            List<Document> documents = new ArrayList<>(entity.getDocuments());
+            documents.removeIf(d -> extra.contains(d.getName()));
+            projected.add(DocumentEntity.of(entity.getName(), documents));
+        }
+        return projected;
+    }
+
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        for (DocumentCollectionManager shard : shards) {
+            try {
+                shard.close();
+            } catch (RuntimeException exception) {
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private int shardOf(DocumentEntity entity) {
+        Objects.requireNonNull(entity, "entity is required");
+        Object value = DocumentConditions.value(entity, key).orElseThrow(() ->
+                new IllegalArgumentException("The entity has no key document " + key + ": " + entity));
+        return shardOf(value);
+    }
+
+    private int shardOf(Object value) {
+        return Math.floorMod(hash.applyAsInt(value), shards.size());
+    }
+
+    /**
+     * Groups the entities by shard, writes each group in parallel and returns the results in the order of
+     * the entities
+     */
+    private Iterable<DocumentEntity> write(Iterable<DocumentEntity> entities, BatchWriter writer) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<List<DocumentEntity>> batches = new ArrayList<>(shards.size());
+        List<List<Integer>> positions = new ArrayList<>(shards.size());
+        for (int index = 0; index < shards.size(); index++) {
+            batches.add(new ArrayList<>());
+            positions.add(new ArrayList<>());
+        }
+        BitSet targets = new BitSet(shards.size());
+        int size = 0;
+        for (DocumentEntity entity : entities) {
+            int shard = shardOf(entity);
+            batches.get(shard).add(entity);
+            positions.get(shard).add(size++);
+            targets.set(shard);
+        }
+        List<List<DocumentEntity>> results = run(targets, shard -> {
+            List<DocumentEntity> written = new ArrayList<>();
+            writer.write(shards.get(shard), batches.get(shard)).forEach(written::add);
+            return written;
+        });
+        DocumentEntity[] ordered = new DocumentEntity[size];
+        int result = 0;
+        for (int shard = targets.nextSetBit(0); shard >= 0; shard = targets.nextSetBit(shard + 1)) {
+            List<DocumentEntity> written = results.get(result++);
+            List<Integer> shardPositions = positions.get(shard);
+            for (int index = 0; index < written.size() && index < shardPositions.size(); index++) {
+                ordered[shardPositions.get(index)] = written.get(index);
+            }
+        }
+        List<DocumentEntity> list = new ArrayList<>(size);
+        for (DocumentEntity entity : ordered) {
+            if (entity != null) {
+                list.add(entity);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Runs the task on each target shard, in parallel when there is more than one, and returns the results in
+     * the order of the shards
+     */
+    private <T> List<T> run(BitSet targets, Function<Integer, T> task) {
+        if (targets.cardinality() == 1) {
+            return Collections.singletonList(task.apply(targets.nextSetBit(0)));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.cardinality());
+        for (int shard = targets.nextSetBit(0); shard >= 0; shard = targets.nextSetBit(shard + 1)) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(target), executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        return results;
+    }
+
+    /**
+     * Returns the shards that might hold the entities matched by the condition
+     */
+    private BitSet targets(DocumentCondition condition) {
+        BitSet targets = condition == null ? null : restrict(condition);
+        if (targets == null) {
+            targets = new BitSet(shards.size());
+            targets.set(0, shards.size());
+        }
+        return targets;
+    }
+
+    /**
+     * Returns the shards the condition restricts the entities to or null when it might match any shard
+     */
+    private BitSet restrict(DocumentCondition condition) {
+        switch (condition.getCondition()) {
+            case EQUALS:
+            case IN:
+                if (!key.equals(condition.getDocument().getName())) {
+                    return null;
+                }
+                BitSet targets = new BitSet(shards.size());
+                Object value = condition.getDocument().get();
+                if (Condition.IN.equals(condition.getCondition()) && value instanceof Iterable) {
+                    ((Iterable<?>) value).forEach(v -> targets.set(shardOf(v)));
+                } else {
+                    targets.set(shardOf(value));
+                }
+                return targets;
+            case AND:
+                BitSet and = null;
+                for (DocumentCondition child : DocumentConditions.children(condition)) {
+                    BitSet restricted = restrict(child);
+                    if (restricted != null) {
+                        if (and == null) {
+                            and = restricted;
+                        } else {
+                            and.and(restricted);
+                        }
+                    }
+                }
+                return and;
+            case OR:
+                BitSet or = new BitSet(shards.size());
+                for (DocumentCondition child : DocumentConditions.children(condition)) {
+                    BitSet restricted = restrict(child);
+                    if (restricted == null) {
+                        return null;
+                    }
+                    or.or(restricted);
+                }
+                return or;
+            default:
+                return null;
+        }
+    }
+
+    private static Comparator<DocumentEntity> comparator(List<Sort> sorts) {
+        Comparator<DocumentEntity> comparator = (a, b) -> 0;
+        for (Sort sort : sorts) {
+            Comparator<DocumentEntity> next = Comparator.comparing(
+                    e -> DocumentConditions.value(e, sort.getName()).orElse(null), Values::order);
+            if (Sort.SortType.DESC.equals(sort.getType())) {
+                next = next.reversed();
+            }
+            comparator = comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Merges the sorted results of the shards, skipping the first entities and limited to max, the ties are
+     * taken in the order of the shards
+     */
+    private static List<DocumentEntity> merge(List<List<DocumentEntity>> results,
+                                              Comparator<DocumentEntity> comparator, long first, long max) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(results.size(), 1), (a, b) -> {
+            int compare = comparator.compare(a.current(), b.current());
+            return compare == 0 ? Integer.compare(a.shard, b.shard) : compare;
+        });
+        for (int index = 0; index < results.size(); index++) {
+            if (!results.get(index).isEmpty()) {
+                queue.add(new Cursor(index, results.get(index)));
+            }
+        }
+        List<DocumentEntity> entities = new ArrayList<>();
+        long skipped = 0;
+        while (!queue.isEmpty() && (max <= 0 || entities.size() < max)) {
+            Cursor cursor = queue.poll();
+            if (skipped < first) {
+                skipped++;
+            } else {
+                entities.add(cursor.current());
+            }
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultShardedDocumentCollectionManager{");
+        sb.append("shards=").append(shards);
+        sb.append(", key='").append(key).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private interface BatchWriter {
+
+        Iterable<DocumentEntity> write(DocumentCollectionManager shard, List<DocumentEntity> entities);
+    }
+
+    private static final class Cursor {
+
+        private final int shard;
+
+        private final List<DocumentEntity> entities;
+
+        private int position;
+
+        private Cursor(int shard, List<DocumentEntity> entities) {
+            this.shard = shard;
+            this.entities = entities;
+        }
+
+        private DocumentEntity current() {
+            return entities.get(position);
+        }
+
+        private boolean next() {
+            return ++position < entities.size();
+        }
+    }
+}
@@ -118,6 +118,42 @@ public interface DocumentCollectionManagerAsync extends AutoCloseable {
     void insert(DocumentEntity entity, Duration ttl, Consumer<DocumentEntity> callBack) throws
             ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException;
 
+    /**
+     * Saves entities asynchronously, by default it's just run for each saving using
+     * {@link DocumentCollectionManagerAsync#insert(DocumentEntity, Consumer)} and calls the callback once
+     * all of them are saved, each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param entities entities to be saved
+     * @param callBack the callback, when the process is finished will call this instance returning
+     *                 the saved entities, in the order of entities, within parameters
+     * @throws ExecuteAsyncQueryException    when there is a async error
+     * @throws UnsupportedOperationException when the database does not support this feature
+     * @throws NullPointerException          when either entities or callback are null
+     */
+    default void insert(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        BulkCallBack.run(entities, callBack, this::insert);
+    }
+
+    /**
+     * Saves entities asynchronously with time to live, by default it's just run for each saving using
+     * {@link DocumentCollectionManagerAsync#insert(DocumentEntity, Duration, Consumer)} and calls the callback
+     * once all of them are saved, each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param entities entities to be saved
+     * @param ttl      time to live
+     * @param callBack the callback, when the process is finished will call this instance returning
+     *                 the saved entities, in the order of entities, within parameters
+     * @throws ExecuteAsyncQueryException    when there is a async error
+     * @throws UnsupportedOperationException when the database does not support this feature
+     * @throws NullPointerException          when either entities or ttl or callback are null
+     */
+    default void insert(Iterable<DocumentEntity> entities, Duration ttl, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        BulkCallBack.run(entities, callBack, (entity, saved) -> insert(entity, ttl, saved));
+    }
+
 
     /**
      * Updates an entity asynchronously
@@ -157,6 +193,23 @@ public interface DocumentCollectionManagerAsync extends AutoCloseable {
     void update(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws
             ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException;
 
+    /**
+     * Updates entities asynchronously, by default it's just run for each saving using
+     * {@link DocumentCollectionManagerAsync#update(DocumentEntity, Consumer)} and calls the callback once
+     * all of them are updated, each NoSQL vendor might replace to a more appropriate one.
+     *
+     * @param entities entities to be updated
+     * @param callBack the callback, when the process is finished will call this instance returning
+     *                 the updated entities, in the order of entities, within parameters
+     * @throws ExecuteAsyncQueryException    when there is a async error
+     * @throws UnsupportedOperationException when the database does not support this feature
+     * @throws NullPointerException          when either entities or callback are null
+     */
+    default void update(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) throws
+            ExecuteAsyncQueryException, UnsupportedOperationException, NullPointerException {
+        BulkCallBack.run(entities, callBack, this::update);
+    }
+
 
     /**
      * Deletes an entity asynchronously
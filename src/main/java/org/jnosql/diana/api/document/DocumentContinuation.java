@@ -0,0 +1,112 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The position after the last entity of a page of a {@link DocumentQuery}, used to seek the next page instead of
+ * skipping the previous ones with {@link DocumentQuery#withFirstResult(long)}. It keeps the values of the
+ * {@link DocumentQuery#getSorts()} documents of the last entity and becomes the condition
+ * {@code s1 > v1 OR (s1 = v1 AND s2 > v2) OR ...}, {@code <} for the descending sorts, so the database might
+ * answer each page through an index in constant time. The sorts should end with a unique document,
+ * e.g.: the id, otherwise the entities that share the values of the last one are skipped.
+ * The token is opaque, URL-safe and holds just the sorts and the values, which are limited to the strings,
+ * numbers, booleans, characters, dates and times of {@link java.time}, {@link java.util.Date} and enums
+ * (as their names).
+ *
+ * @see DocumentContinuation#of(DocumentQuery, DocumentEntity)
+ * @see DocumentContinuation#parse(String)
+ * @see DocumentQuery#withContinuation(String)
+ */
+public interface DocumentContinuation {
+
+    /**
+     * Creates the continuation after the entity
+     *
+     * @param query the query that returned the entity
+     * @param last  the last entity of the page
+     * @return the continuation
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException when the query has no sort, the entity has no value to a sort or
+     *                                  the value type is not supported
+     */
+    static DocumentContinuation of(DocumentQuery query, DocumentEntity last) throws NullPointerException,
+            IllegalArgumentException {
+        return DefaultDocumentContinuation.of(query, last);
+    }
+
+    /**
+     * Returns the continuation after a page, when the page is shorter than {@link DocumentQuery#getMaxResults()}
+     * there is no next page
+     *
+     * @param query the query that returned the page
+     * @param page  the page
+     * @return the continuation or {@link Optional#empty()} when the page is the last one
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException see {@link #of(DocumentQuery, DocumentEntity)}
+     */
+    static Optional<DocumentContinuation> next(DocumentQuery query, List<DocumentEntity> page)
+            throws NullPointerException, IllegalArgumentException {
+        return DefaultDocumentContinuation.next(query, page);
+    }
+
+    /**
+     * Reads a continuation from its token
+     *
+     * @param token the token
+     * @return the continuation
+     * @throws NullPointerException     when token is null
+     * @throws IllegalArgumentException when the token is invalid
+     */
+    static DocumentContinuation parse(String token) throws NullPointerException, IllegalArgumentException {
+        return DefaultDocumentContinuation.parse(token);
+    }
+
+    /**
+     * The opaque representation of the continuation
+     *
+     * @return the token
+     */
+    String getToken();
+
+    /**
+     * The sorts of the query that created the continuation
+     *
+     * @return the sorts
+     */
+    List<Sort> getSorts();
+
+    /**
+     * The values of the sort documents of the last entity
+     *
+     * @return the values
+     */
+    List<Object> getValues();
+
+    /**
+     * Returns the condition that matches the entities after the continuation
+     *
+     * @return the condition
+     */
+    DocumentCondition toCondition();
+}
@@ -153,4 +153,30 @@ public interface DocumentQuery {
      */
     DocumentDeleteQuery toDeleteQuery();
 
+    /**
+     * Creates a copy of this query, with the same collection, sorts, documents and max results, whose
+     * condition is this query condition and the condition of the continuation, so the select returns the page
+     * after the continuation. The first result of the copy is zero, since the continuation condition already
+     * starts after the last entity of the previous page. This query is not changed, so it can be reused with
+     * another continuation.
+     *
+     * @param token the token of a {@link DocumentContinuation} created from a query with the same sorts
+     * @return a new {@link DocumentQuery} with the continuation condition added
+     * @throws NullPointerException     when token is null
+     * @throws IllegalArgumentException when the token is invalid or its sorts are not the sorts of this query
+     * @see DocumentContinuation
+     */
+    default DocumentQuery withContinuation(String token) throws NullPointerException, IllegalArgumentException {
+        DocumentContinuation continuation = DocumentContinuation.parse(token);
+        if (!continuation.getSorts().equals(getSorts())) {
+            throw new IllegalArgumentException("The continuation sorts " + continuation.getSorts()
+                    + " are not the query sorts " + getSorts());
+        }
+        DocumentQuery query = DocumentQuery.of(getCollection()).withMaxResults(getMaxResults());
+        getSorts().forEach(query::addSort);
+        getDocuments().forEach(query::addColumn);
+        getCondition().ifPresent(query::and);
+        return query.and(continuation.toCondition());
+    }
+
 }
@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import java.util.Optional;
+
+/**
+ * An optional stage that rewrites a {@link DocumentQuery} or {@link DocumentDeleteQuery} into an equivalent and
+ * simpler one before it reaches the database:
+ * <ul>
+ * <li>the negations are pushed down to the leaves with the De Morgan's laws and the nested AND and OR are
+ * flattened;</li>
+ * <li>the duplicated conditions are removed;</li>
+ * <li>the ranges on the same document joined by AND are merged, into a {@link org.jnosql.diana.api.Condition#BETWEEN}
+ * when both bounds are inclusive, and the equals and in conditions are intersected with them;</li>
+ * <li>the equals and in conditions on the same document joined by OR are collapsed into a single in;</li>
+ * <li>the contradictions, e.g.: {@code age > 10 AND age < 5}, make the whole query empty.</li>
+ * </ul>
+ * The negation of a comparison is kept as a negation, since {@code NOT age > 10} also matches the entities
+ * without age. The rewrites take the documents as single-valued.
+ */
+public interface DocumentQueryOptimizer {
+
+    /**
+     * Optimizes the query, the informed query is not changed
+     *
+     * @param query the query
+     * @return the equivalent query or {@link Optional#empty()} when no entity can match it
+     * @throws NullPointerException when query is null
+     */
+    Optional<DocumentQuery> optimize(DocumentQuery query) throws NullPointerException;
+
+    /**
+     * Optimizes the delete query, the informed query is not changed
+     *
+     * @param query the query
+     * @return the equivalent query or {@link Optional#empty()} when no entity can match it
+     * @throws NullPointerException when query is null
+     */
+    Optional<DocumentDeleteQuery> optimize(DocumentDeleteQuery query) throws NullPointerException;
+
+    /**
+     * Creates a {@link DocumentCollectionManager} decorator that optimizes the queries before they reach the
+     * manager, the queries that no entity can match are answered without calling it
+     *
+     * @param manager the manager
+     * @return the decorated manager
+     * @throws NullPointerException when manager is null
+     */
+    DocumentCollectionManager decorate(DocumentCollectionManager manager) throws NullPointerException;
+
+    /**
+     * Returns the default {@link DocumentQueryOptimizer}, it has no state and might be shared
+     *
+     * @return the optimizer
+     */
+    static DocumentQueryOptimizer of() {
+        return DefaultDocumentQueryOptimizer.INSTANCE;
+    }
+}
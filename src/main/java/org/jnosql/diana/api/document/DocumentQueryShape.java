@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import java.util.List;
+
+/**
+ * The shape of a {@link DocumentQuery} or {@link DocumentDeleteQuery}: the query with the literal values of
+ * its condition stripped. It's made of the collection, the condition tree with the document names and the
+ * operators, the sorts, the documents and whether the query has first result and max results. The in and
+ * between values are stripped element by element, so their number of elements is part of the shape.
+ * Two queries with the same shape might share the same database statement, so the shape is meant to be the key
+ * of a {@link org.jnosql.diana.api.cache.TranslationCache}; only the fingerprint is part of the equals contract.
+ *
+ * @see DocumentQueryShape#of(DocumentQuery)
+ * @see DocumentQueryShape#of(DocumentDeleteQuery)
+ */
+public interface DocumentQueryShape {
+
+    /**
+     * Creates the shape of a query
+     *
+     * @param query the query
+     * @return the shape
+     * @throws NullPointerException when query is null
+     */
+    static DocumentQueryShape of(DocumentQuery query) throws NullPointerException {
+        return DefaultDocumentQueryShape.of(query);
+    }
+
+    /**
+     * Creates the shape of a delete query
+     *
+     * @param query the query
+     * @return the shape
+     * @throws NullPointerException when query is null
+     */
+    static DocumentQueryShape of(DocumentDeleteQuery query) throws NullPointerException {
+        return DefaultDocumentQueryShape.of(query);
+    }
+
+    /**
+     * The text that identifies the shape, the literal values are replaced by {@code ?}
+     *
+     * @return the fingerprint
+     */
+    String getFingerprint();
+
+    /**
+     * The literal values stripped from the condition, in the order of the fingerprint placeholders,
+     * the in and between values are flattened
+     *
+     * @return the values, it's immutable
+     */
+    List<Object> getValues();
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An immutable and thread-safe snapshot of a {@link DocumentQuery} whose condition values might be
+ * {@link org.jnosql.diana.api.Parameter} placeholders, either as the whole value or as an element of the
+ * values of an in or between condition. The template is built once and bound per request, binding rebuilds
+ * only the conditions that hold parameters and shares the others. The template keeps the equals contract,
+ * so it might be used as the key of a cache of the database translations.
+ *
+ * @see DocumentQueryTemplate#of(DocumentQuery)
+ */
+public interface DocumentQueryTemplate {
+
+    /**
+     * Creates a template from the current state of the query, the later changes of the query aren't visible
+     * to the template
+     *
+     * @param query the query
+     * @return the template
+     * @throws NullPointerException when query is null
+     */
+    static DocumentQueryTemplate of(DocumentQuery query) throws NullPointerException {
+        return new DefaultDocumentQueryTemplate(query);
+    }
+
+    /**
+     * Creates a new {@link DocumentQuery} replacing each parameter by its value
+     *
+     * @param values the values by parameter name
+     * @return a new query
+     * @throws NullPointerException     when values is null or a parameter is bound to null
+     * @throws IllegalArgumentException when a parameter has no value or its value is invalid to its condition
+     */
+    DocumentQuery bind(Map<String, ?> values) throws NullPointerException, IllegalArgumentException;
+
+    /**
+     * The names of the parameters in the order they appear in the condition
+     *
+     * @return the parameter names
+     */
+    Set<String> getParameters();
+
+    /**
+     * The document collection name
+     *
+     * @return the document collection name
+     */
+    String getCollection();
+
+    /**
+     * The maximum number of results the select object was set to retrieve.
+     *
+     * @return the maximum number of results
+     */
+    long getMaxResults();
+
+    /**
+     * The position of the first result the select object was set to retrieve.
+     *
+     * @return the position of the first result
+     */
+    long getFirstResult();
+
+    /**
+     * The condition with the parameters, if empty the template has no condition
+     *
+     * @return the condition
+     */
+    Optional<DocumentCondition> getCondition();
+
+    /**
+     * The sorts that contains in this template
+     *
+     * @return the sorts, it's immutable
+     */
+    List<Sort> getSorts();
+
+    /**
+     * The documents that will be returned in the query
+     *
+     * @return the documents, it's immutable
+     */
+    List<String> getDocuments();
+}
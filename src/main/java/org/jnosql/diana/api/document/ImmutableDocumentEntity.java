@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * A read-only {@link DocumentEntity}, it's safe to share it among threads.
+ * The {@link ImmutableDocumentEntity#copy()} returns a mutable instance.
+ */
+final class ImmutableDocumentEntity implements DocumentEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+
+    private final List<Document> documents;
+
+    private ImmutableDocumentEntity(String name, List<Document> documents) {
+        this.name = name;
+        this.documents = Collections.unmodifiableList(documents);
+    }
+
+    static DocumentEntity of(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        if (entity instanceof ImmutableDocumentEntity) {
+            return entity;
+        }
+        return new ImmutableDocumentEntity(entity.getName(), new ArrayList<>(entity.getDocuments()));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean remove(String name) throws NullPointerException {
+        throw new UnsupportedOperationException("This entity is read-only, use copy to change it");
+    }
+
+    @Override
+    public boolean remove(Document document) throws NullPointerException {
+        throw new UnsupportedOperationException("This entity is read-only, use copy to change it");
+    }
+
+    @Override
+    public List<Document> getDocuments() {
+        return documents;
+    }
+
+    @Override
+    public void add(Document document) throws UnsupportedOperationException, NullPointerException {
+        throw new UnsupportedOperationException("This entity is read-only, use copy to change it");
+    }
+
+    @Override
+    public void addAll(Iterable<Document> documents) throws UnsupportedOperationException, NullPointerException {
+        throw new UnsupportedOperationException("This entity is read-only, use copy to change it");
+    }
+
+    @Override
+    public Optional<Document> find(String name) throws NullPointerException {
+        Objects.requireNonNull(name, "name is required");
+        return documents.stream().filter(document -> document.getName().equals(name)).findFirst();
+    }
+
+    @Override
+    public int size() {
+        return documents.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return documents.isEmpty();
+    }
+
+    @Override
+    public DocumentEntity copy() {
+        return DocumentEntity.of(name, documents);
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        return documents.stream().collect(Collectors.toMap(Document::getName, document -> document.getValue().get()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DocumentEntity)) {
+            return false;
+        }
+        DocumentEntity that = (DocumentEntity) o;
+        return Objects.equals(documents.stream().sorted(comparing(Document::getName)).collect(Collectors.toList()),
+                that.getDocuments().stream().sorted(comparing(Document::getName)).collect(Collectors.toList())) &&
+                Objects.equals(name, that.getName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(documents, name);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ImmutableDocumentEntity{");
+        sb.append("documents=").append(documents);
+        sb.append(", name='").append(name).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.metrics.Metrics;
+
+import java.util.Objects;
+
+/**
+ * A {@link DocumentCollectionManagerAsync} decorator that records the latency, errors, result sizes and calls
+ * in flight of each operation by collection on a {@link Metrics}, with the manager {@link #MANAGER}. The latency
+ * goes from the call until the callback; the single entity calls without a callback are sent with one, so they
+ * are measured the same way, while the bulk inserts and updates without a callback are sent as they are and
+ * measured until they are submitted. A call rejected on submission is recorded as an error.
+ *
+ * @see org.jnosql.diana.api.metrics.MetricsRegistry
+ */
+public interface MeteredDocumentCollectionManagerAsync extends DocumentCollectionManagerAsync {
+
+    /**
+     * The manager name of the metrics
+     */
+    String MANAGER = "document-async";
+
+    /**
+     * The metrics recorded on
+     *
+     * @return the {@link Metrics}
+     */
+    Metrics getMetrics();
+
+    /**
+     * Creates a {@link MeteredDocumentCollectionManagerAsync}
+     *
+     * @param manager the {@link DocumentCollectionManagerAsync} to be decorated
+     * @param metrics the metrics
+     * @return a {@link MeteredDocumentCollectionManagerAsync} instance
+     * @throws NullPointerException when either manager or metrics is null
+     */
+    static MeteredDocumentCollectionManagerAsync of(DocumentCollectionManagerAsync manager, Metrics metrics)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(metrics, "metrics is required");
+        return new DefaultMeteredDocumentCollectionManagerAsync(manager, metrics);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link DocumentCollectionManager} decorator that optimizes the queries with {@link DocumentQueryOptimizer},
+ * the queries that no entity can match never reach the decorated manager.
+ */
+final class OptimizedDocumentCollectionManager implements DocumentCollectionManager {
+
+    private final DocumentCollectionManager manager;
+
+    private final DocumentQueryOptimizer optimizer;
+
+    OptimizedDocumentCollectionManager(DocumentCollectionManager manager, DocumentQueryOptimizer optimizer) {
+        this.manager = manager;
+        this.optimizer = optimizer;
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity) throws NullPointerException {
+        return manager.insert(entity);
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        return manager.insert(entity, ttl);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return manager.insert(entities);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities, Duration ttl)
+            throws NullPointerException, UnsupportedOperationException {
+        return manager.insert(entities, ttl);
+    }
+
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException {
+        return manager.update(entity);
+    }
+
+    @Override
+    public Iterable<DocumentEntity> update(Iterable<DocumentEntity> entities) throws NullPointerException {
+        return manager.update(entities);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        optimizer.optimize(query).ifPresent(manager::delete);
+    }
+
+    @Override
+    public List<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        return optimizer.optimize(query).map(manager::select).orElse(Collections.emptyList());
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("OptimizedDocumentCollectionManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", optimizer=").append(optimizer);
+        sb.append('}');
+        return sb.toString();
+    }
+}
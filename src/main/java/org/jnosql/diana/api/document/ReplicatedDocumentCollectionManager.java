@@ -0,0 +1,110 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link DocumentCollectionManager} that sends the writes to a primary and the selects to its replicas, so
+ * the reads might not see the latest writes yet.
+ * <p>Each select goes to the better of two replicas picked at random, the one with the lower recent latency
+ * times the selects in flight. When hedging is enabled and the replica does not answer within the
+ * {@link #HEDGE_PERCENTILE} of the observed select latencies, or fails before it, the same select is sent to
+ * the best other replica, or the primary when there is a single replica, and the first answer wins. The hedge
+ * needs {@link #MINIMUM_SAMPLES} observed selects to know the percentile.</p>
+ *
+ * @see ReplicatedDocumentCollectionManager#of(DocumentCollectionManager, List)
+ */
+public interface ReplicatedDocumentCollectionManager extends DocumentCollectionManager {
+
+    /**
+     * The percentile of the select latency after which a hedged select is sent
+     */
+    double HEDGE_PERCENTILE = 0.95;
+
+    /**
+     * The number of selects observed before the hedging starts
+     */
+    int MINIMUM_SAMPLES = 32;
+
+    /**
+     * The manager that receives the writes
+     *
+     * @return the primary
+     */
+    DocumentCollectionManager getPrimary();
+
+    /**
+     * The managers that receive the selects
+     *
+     * @return the replicas, it's immutable
+     */
+    List<DocumentCollectionManager> getReplicas();
+
+    /**
+     * The delay after which a hedged select is sent, the {@link #HEDGE_PERCENTILE} of the latencies observed
+     *
+     * @return the delay or {@link Optional#empty()} when hedging is disabled or there are not enough samples
+     */
+    Optional<Duration> getHedgeDelay();
+
+    /**
+     * Creates a hedged {@link ReplicatedDocumentCollectionManager} that runs the selects in a pool of its own
+     * that is shut down when the manager is closed
+     *
+     * @param primary  the primary
+     * @param replicas the replicas
+     * @return a {@link ReplicatedDocumentCollectionManager} instance
+     * @throws NullPointerException     when either primary or replicas is null
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    static ReplicatedDocumentCollectionManager of(DocumentCollectionManager primary,
+                                                  List<DocumentCollectionManager> replicas)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(primary, "primary is required");
+        Objects.requireNonNull(replicas, "replicas is required");
+        return DefaultReplicatedDocumentCollectionManager.of(primary, replicas, true);
+    }
+
+    /**
+     * Creates a {@link ReplicatedDocumentCollectionManager}
+     *
+     * @param primary  the primary
+     * @param replicas the replicas
+     * @param hedged   whether a slow select is sent to a second replica
+     * @param executor the executor that runs the selects
+     * @return a {@link ReplicatedDocumentCollectionManager} instance
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException when replicas is empty
+     */
+    static ReplicatedDocumentCollectionManager of(DocumentCollectionManager primary,
+                                                  List<DocumentCollectionManager> replicas,
+                                                  boolean hedged, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(primary, "primary is required");
+        Objects.requireNonNull(replicas, "replicas is required");
+        Objects.requireNonNull(executor, "executor is required");
+        return new DefaultReplicatedDocumentCollectionManager(primary, replicas, hedged, executor);
+    }
+}
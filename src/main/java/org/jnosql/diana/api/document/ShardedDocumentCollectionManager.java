@@ -0,0 +1,102 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+
+import org.jnosql.diana.api.Values;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link DocumentCollectionManager} that spreads the entities across shards, each shard is a
+ * {@link DocumentCollectionManager}, e.g.: one per cluster.
+ * <p>The writes go to the shard of the value of the key document, the hash of the value modulo the number of
+ * shards. The entities without the key document are rejected.</p>
+ * <p>The selects and deletes go to the shards that might hold the entities: just the shards of the values when
+ * the condition restricts the key document with equals or in, otherwise all of them, in parallel. The results
+ * of several shards are merged respecting the {@link DocumentQuery#getSorts()} with a k-way merge, each shard
+ * is asked for at most {@code firstResult + maxResults} entities and the global first result and max results
+ * are applied on the merge. When the query has documents the sort documents are fetched too, so the shards
+ * results can be merged, and removed afterwards.</p>
+ * <p>The values are compared as the in-memory engines do: the null comes first, the numbers by value and the
+ * values of different types by the class name.</p>
+ *
+ * @see ShardedDocumentCollectionManager#of(List, String)
+ */
+public interface ShardedDocumentCollectionManager extends DocumentCollectionManager {
+
+    /**
+     * The shards in the routing order
+     *
+     * @return the shards, it's immutable
+     */
+    List<DocumentCollectionManager> getShards();
+
+    /**
+     * Returns the shard of an entity
+     *
+     * @param entity the entity
+     * @return the shard
+     * @throws NullPointerException     when entity is null
+     * @throws IllegalArgumentException when the entity has no key document
+     */
+    DocumentCollectionManager getShard(DocumentEntity entity) throws NullPointerException, IllegalArgumentException;
+
+    /**
+     * Creates a {@link ShardedDocumentCollectionManager} that hashes the key with the hash code of the value,
+     * where the numbers equal by value have the same hash, and runs the shards in a pool of its own that is shut
+     * down when the manager is closed
+     *
+     * @param shards the shards
+     * @param key    the name of the key document
+     * @return a {@link ShardedDocumentCollectionManager} instance
+     * @throws NullPointerException     when either shards or key are null
+     * @throws IllegalArgumentException when shards is empty
+     */
+    static ShardedDocumentCollectionManager of(List<DocumentCollectionManager> shards, String key)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(shards, "shards is required");
+        Objects.requireNonNull(key, "key is required");
+        return DefaultShardedDocumentCollectionManager.of(shards, key, v -> Values.key(v).hashCode());
+    }
+
+    /**
+     * Creates a {@link ShardedDocumentCollectionManager}
+     *
+     * @param shards   the shards
+     * @param key      the name of the key document
+     * @param hash     the hash function of the key value, the shard is the hash modulo the number of shards
+     * @param executor the executor that runs the shards in parallel
+     * @return a {@link ShardedDocumentCollectionManager} instance
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException when shards is empty
+     */
+    static ShardedDocumentCollectionManager of(List<DocumentCollectionManager> shards, String key,
+                                               ToIntFunction<Object> hash, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(shards, "shards is required");
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(hash, "hash is required");
+        Objects.requireNonNull(executor, "executor is required");
+        return new DefaultShardedDocumentCollectionManager(shards, key, hash, executor);
+    }
+}
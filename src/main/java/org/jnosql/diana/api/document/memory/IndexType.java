@@ -0,0 +1,35 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+/**
+ * The kind of secondary index on a document of a collection.
+ *
+ * @see MemoryDocumentCollectionManager#createIndex(String, String, IndexType)
+ */
+public enum IndexType {
+    /**
+     * A hash index, it serves the equals and in conditions
+     */
+    HASH,
+    /**
+     * A sorted index, it serves the equals, in, greater than, lesser than and between conditions
+     */
+    SORTED
+}
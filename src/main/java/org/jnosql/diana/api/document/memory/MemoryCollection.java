@@ -0,0 +1,309 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.Values;
+import org.jnosql.diana.api.document.Document;
+import org.jnosql.diana.api.document.DocumentCondition;
+import org.jnosql.diana.api.document.DocumentConditions;
+import org.jnosql.diana.api.document.DocumentEntity;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A collection of {@link MemoryDocumentCollectionManager}, it keeps the entities by their key document in insertion
+ * order with their secondary indexes. Each collection has its own lock, so the writes in one collection don't
+ * block the other ones and the selects in the same collection run concurrently.
+ */
+final class MemoryCollection {
+
+    private final String name;
+
+    private final String key;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Object, Row> rows = new LinkedHashMap<>();
+
+    private final Map<String, MemoryIndex> indexes = new HashMap<>();
+
+    private final PriorityQueue<Row> expirations = new PriorityQueue<>(
+            (a, b) -> Long.compare(a.deadline - b.deadline, 0L));
+
+    private long sequence;
+
+    MemoryCollection(String name, String key) {
+        this.name = name;
+        this.key = key;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Puts the entity, it replaces the entity with the same key
+     *
+     * @param entity the entity with the key document
+     * @param ttl    the time to live or null when the entity does not expire
+     */
+    void put(DocumentEntity entity, Duration ttl) {
+        Object id = Values.key(entity.find(key).get().get());
+        DocumentEntity copy = entity.copy();
+        Long deadline = ttl == null ? null : System.nanoTime() + ttl.toNanos();
+        write(() -> {
+            Row old = rows.get(id);
+            Row row = new Row(id, copy, deadline, old == null ? ++sequence : old.sequence);
+            rows.put(id, row);
+            if (old != null) {
+                unindex(old);
+            }
+            index(row);
+            if (row.expires) {
+                expirations.add(row);
+            }
+        });
+    }
+
+    /**
+     * Deletes the entities that match the condition, when documents is not empty just these documents are
+     * removed from the entities.
+     *
+     * @param condition the condition or null to all entities
+     * @param documents the documents to be removed
+     */
+    void delete(DocumentCondition condition, List<String> documents) {
+        Predicate<DocumentEntity> predicate = condition == null ? e -> true : DocumentConditions.compile(condition);
+        write(() -> {
+            List<Row> matches = candidates(condition).filter(r -> predicate.test(r.entity)).collect(toList());
+            for (Row row : matches) {
+                unindex(row);
+                if (documents.isEmpty()) {
+                    rows.remove(row.id);
+                    continue;
+                }
+                DocumentEntity entity = row.entity.copy();
+                documents.stream().filter(d -> !key.equals(d)).forEach(entity::remove);
+                Row updated = new Row(row.id, entity, row.expires ? row.deadline : null, row.sequence);
+                rows.put(row.id, updated);
+                index(updated);
+                if (updated.expires) {
+                    expirations.add(updated);
+                }
+            }
+        });
+    }
+
+    /**
+     * Selects the entities
+     *
+     * @param condition   the condition or null to all entities
+     * @param sorts       the sorts
+     * @param firstResult the number of entities to skip
+     * @param maxResults  the maximum number of entities, when it's lesser than one there is no limit
+     * @param documents   the projection, an empty list returns all documents
+     * @return the entities
+     */
+    List<DocumentEntity> select(DocumentCondition condition, List<Sort> sorts, long firstResult, long maxResults,
+                                List<String> documents) {
+        Predicate<DocumentEntity> predicate = condition == null ? e -> true : DocumentConditions.compile(condition);
+        long now = System.nanoTime();
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            Stream<DocumentEntity> entities = candidates(condition).filter(r -> r.isAlive(now))
+                    .map(r -> r.entity).filter(predicate);
+            if (!sorts.isEmpty()) {
+                entities = entities.sorted(comparator(sorts));
+            }
+            if (firstResult > 0) {
+                entities = entities.skip(firstResult);
+            }
+            if (maxResults > 0) {
+                entities = entities.limit(maxResults);
+            }
+            return entities.map(e -> project(e, documents)).collect(toList());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    void createIndex(String document, IndexType type) {
+        write(() -> {
+            MemoryIndex index = new MemoryIndex(document, type);
+            rows.values().forEach(r -> index.add(r.id, r.entity));
+            indexes.put(document, index);
+        });
+    }
+
+    void dropIndex(String document) {
+        write(() -> indexes.remove(document));
+    }
+
+    void clear() {
+        write(() -> {
+            rows.clear();
+            expirations.clear();
+            indexes.replaceAll((document, index) -> new MemoryIndex(document, index.getType()));
+        });
+    }
+
+    private void write(Runnable action) {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            purge();
+            action.run();
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void purge() {
+        long now = System.nanoTime();
+        while (!expirations.isEmpty() && !expirations.peek().isAlive(now)) {
+            Row row = expirations.poll();
+            if (rows.get(row.id) == row) {
+                rows.remove(row.id);
+                unindex(row);
+            }
+        }
+    }
+
+    private void index(Row row) {
+        indexes.values().forEach(i -> i.add(row.id, row.entity));
+    }
+
+    private void unindex(Row row) {
+        indexes.values().forEach(i -> i.remove(row.id, row.entity));
+    }
+
+    private Stream<Row> candidates(DocumentCondition condition) {
+        if (condition == null) {
+            return rows.values().stream();
+        }
+        Optional<Set<Object>> ids = ids(condition);
+        if (ids.isPresent()) {
+            return ids.get().stream().map(rows::get).filter(Objects::nonNull)
+                    .sorted(Comparator.comparingLong(r -> r.sequence));
+        }
+        return rows.values().stream();
+    }
+
+    private Optional<Set<Object>> ids(DocumentCondition condition) {
+        Condition type = condition.getCondition();
+        Document document = condition.getDocument();
+        if (Condition.AND.equals(type)) {
+            return DocumentConditions.children(condition).stream().map(this::ids)
+                    .filter(Optional::isPresent).map(Optional::get).min(Comparator.comparingInt(Set::size));
+        }
+        if (Condition.OR.equals(type)) {
+            Set<Object> union = new HashSet<>();
+            for (DocumentCondition child : DocumentConditions.children(condition)) {
+                Optional<Set<Object>> ids = ids(child);
+                if (!ids.isPresent()) {
+                    return Optional.empty();
+                }
+                union.addAll(ids.get());
+            }
+            return Optional.of(union);
+        }
+        MemoryIndex index = indexes.get(document.getName());
+        if (index == null) {
+            return Optional.empty();
+        }
+        return index.find(type, document.get());
+    }
+
+    private static DocumentEntity project(DocumentEntity entity, List<String> documents) {
+        if (documents.isEmpty()) {
+            return entity.copy();
+        }
+        return DocumentEntity.of(entity.getName(), entity.getDocuments().stream()
+                .filter(d -> documents.contains(d.getName())).collect(Collectors.toList()));
+    }
+
+    private static Comparator<DocumentEntity> comparator(List<Sort> sorts) {
+        Comparator<DocumentEntity> comparator = null;
+        for (Sort sort : sorts) {
+            Comparator<DocumentEntity> next = Comparator.comparing(
+                    e -> DocumentConditions.value(e, sort.getName()).orElse(null), Values.COMPARATOR);
+            if (Sort.SortType.DESC.equals(sort.getType())) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryCollection{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", indexes=").append(indexes.values());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Row {
+
+        private final Object id;
+
+        private final DocumentEntity entity;
+
+        private final boolean expires;
+
+        private final long deadline;
+
+        private final long sequence;
+
+        private Row(Object id, DocumentEntity entity, Long deadline, long sequence) {
+            this.id = id;
+            this.sequence = sequence;
+            this.entity = entity;
+            this.expires = deadline != null;
+            this.deadline = deadline == null ? 0L : deadline;
+        }
+
+        private boolean isAlive(long now) {
+            return !expires || deadline - now > 0;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.document.Document;
+import org.jnosql.diana.api.document.DocumentCollectionManager;
+import org.jnosql.diana.api.document.DocumentDeleteQuery;
+import org.jnosql.diana.api.document.DocumentEntity;
+import org.jnosql.diana.api.document.DocumentQuery;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The in-memory implementation of {@link DocumentCollectionManager}, the entities are kept by the key document,
+ * when an entity is inserted without it a random {@link UUID} is generated. Each collection is guarded by its own
+ * read-write lock and might have secondary indexes to its documents.
+ * The data belongs to the database of {@link MemoryDocumentCollectionManagerFactory}, so it is kept while the
+ * factory is open.
+ */
+public final class MemoryDocumentCollectionManager implements DocumentCollectionManager {
+
+    private final String database;
+
+    private final String key;
+
+    private final ConcurrentMap<String, MemoryCollection> collections = new ConcurrentHashMap<>();
+
+    MemoryDocumentCollectionManager(String database, String key) {
+        this.database = database;
+        this.key = key;
+    }
+
+    /**
+     * Returns the database name
+     *
+     * @return the database name
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * Returns the name of the key document
+     *
+     * @return the key document
+     */
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        DocumentEntity saved = withKey(entity);
+        collection(saved.getName()).put(saved, null);
+        return saved;
+    }
+
+    @Override
+    public DocumentEntity insert(DocumentEntity entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        DocumentEntity saved = withKey(entity);
+        collection(saved.getName()).put(saved, ttl);
+        return saved;
+    }
+
+    /**
+     * Updates the entity with the same key document, when there is no such entity it's inserted
+     *
+     * @param entity entity to be updated
+     * @return the entity updated
+     * @throws NullPointerException     when entity is null
+     * @throws IllegalArgumentException when the entity has not the key document
+     */
+    @Override
+    public DocumentEntity update(DocumentEntity entity) throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(entity, "entity is required");
+        if (!entity.find(key).isPresent()) {
+            throw new IllegalArgumentException("To update an entity it must have the key document: " + key);
+        }
+        collection(entity.getName()).put(entity, null);
+        return entity;
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        MemoryCollection collection = collections.get(query.getCollection());
+        if (collection != null) {
+            collection.delete(query.getCondition().orElse(null), query.getDocuments());
+        }
+    }
+
+    @Override
+    public List<DocumentEntity> select(DocumentQuery query) throws NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        MemoryCollection collection = collections.get(query.getCollection());
+        if (collection == null) {
+            return Collections.emptyList();
+        }
+        return collection.select(query.getCondition().orElse(null), query.getSorts(), query.getFirstResult(),
+                query.getMaxResults(), query.getDocuments());
+    }
+
+    /**
+     * Creates a secondary index to a document of the collection, the current entities are indexed at once.
+     * A hash index serves the equals and in conditions, a sorted index serves the range conditions as well.
+     *
+     * @param collection the collection
+     * @param document   the document name, a name with dots is a subdocument, e.g.: "address.city"
+     * @param type       the index type
+     * @throws NullPointerException when there is a null parameter
+     */
+    public void createIndex(String collection, String document, IndexType type) throws NullPointerException {
+        Objects.requireNonNull(collection, "collection is required");
+        Objects.requireNonNull(document, "document is required");
+        Objects.requireNonNull(type, "type is required");
+        collection(collection).createIndex(document, type);
+    }
+
+    /**
+     * Drops the secondary index of a document
+     *
+     * @param collection the collection
+     * @param document   the document name
+     * @throws NullPointerException when there is a null parameter
+     */
+    public void dropIndex(String collection, String document) throws NullPointerException {
+        Objects.requireNonNull(collection, "collection is required");
+        Objects.requireNonNull(document, "document is required");
+        MemoryCollection memoryCollection = collections.get(collection);
+        if (memoryCollection != null) {
+            memoryCollection.dropIndex(document);
+        }
+    }
+
+    /**
+     * The data belongs to the factory, so closing the manager keeps it.
+     */
+    @Override
+    public void close() {
+    }
+
+    void clear() {
+        collections.values().forEach(MemoryCollection::clear);
+        collections.clear();
+    }
+
+    private MemoryCollection collection(String name) {
+        return collections.computeIfAbsent(name, n -> new MemoryCollection(n, key));
+    }
+
+    private DocumentEntity withKey(DocumentEntity entity) {
+        if (entity.find(key).isPresent()) {
+            return entity;
+        }
+        DocumentEntity copy = entity.copy();
+        copy.add(Document.of(key, UUID.randomUUID().toString()));
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryDocumentCollectionManager{");
+        sb.append("database='").append(database).append('\'');
+        sb.append(", key='").append(key).append('\'');
+        sb.append(", collections=").append(collections.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+}
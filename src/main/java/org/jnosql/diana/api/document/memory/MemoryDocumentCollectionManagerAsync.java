@@ -0,0 +1,170 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.document.DocumentCollectionManagerAsync;
+import org.jnosql.diana.api.document.DocumentDeleteQuery;
+import org.jnosql.diana.api.document.DocumentEntity;
+import org.jnosql.diana.api.document.DocumentQuery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * The in-memory implementation of {@link DocumentCollectionManagerAsync}, it runs the operations of
+ * {@link MemoryDocumentCollectionManager} on an {@link Executor} and then calls the callback.
+ */
+public final class MemoryDocumentCollectionManagerAsync implements DocumentCollectionManagerAsync {
+
+    private static final Consumer<Object> NOOP = r -> {
+    };
+
+    private final MemoryDocumentCollectionManager manager;
+
+    private final Executor executor;
+
+    MemoryDocumentCollectionManagerAsync(MemoryDocumentCollectionManager manager, Executor executor) {
+        this.manager = manager;
+        this.executor = executor;
+    }
+
+    @Override
+    public void insert(DocumentEntity entity) throws ExecuteAsyncQueryException, NullPointerException {
+        insert(entity, NOOP::accept);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Duration ttl) throws ExecuteAsyncQueryException, NullPointerException {
+        insert(entity, ttl, NOOP::accept);
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws ExecuteAsyncQueryException,
+            NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.insert(entity)));
+    }
+
+    @Override
+    public void insert(DocumentEntity entity, Duration ttl, Consumer<DocumentEntity> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.insert(entity, ttl)));
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(copy(manager.insert(all))));
+    }
+
+    @Override
+    public void insert(Iterable<DocumentEntity> entities, Duration ttl, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        Objects.requireNonNull(ttl, "ttl is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(copy(manager.insert(all, ttl))));
+    }
+
+    @Override
+    public void update(DocumentEntity entity) throws ExecuteAsyncQueryException, NullPointerException {
+        update(entity, NOOP::accept);
+    }
+
+    @Override
+    public void update(DocumentEntity entity, Consumer<DocumentEntity> callBack) throws ExecuteAsyncQueryException,
+            NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.update(entity)));
+    }
+
+    @Override
+    public void update(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        List<DocumentEntity> all = copy(entities);
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(copy(manager.update(all))));
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query) throws ExecuteAsyncQueryException {
+        delete(query, NOOP::accept);
+    }
+
+    @Override
+    public void delete(DocumentDeleteQuery query, Consumer<Void> callBack) throws ExecuteAsyncQueryException,
+            NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> {
+            manager.delete(query);
+            callBack.accept(null);
+        });
+    }
+
+    @Override
+    public void select(DocumentQuery query, Consumer<List<DocumentEntity>> callBack)
+            throws ExecuteAsyncQueryException, NullPointerException {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(callBack, "callBack is required");
+        execute(() -> callBack.accept(manager.select(query)));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private void execute(Runnable action) throws ExecuteAsyncQueryException {
+        try {
+            executor.execute(action);
+        } catch (RejectedExecutionException exception) {
+            throw new ExecuteAsyncQueryException("The executor rejected the operation", exception);
+        }
+    }
+
+    private static List<DocumentEntity> copy(Iterable<DocumentEntity> entities) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<DocumentEntity> copy = new ArrayList<>();
+        entities.forEach(copy::add);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryDocumentCollectionManagerAsync{");
+        sb.append("manager=").append(manager);
+        sb.append(", executor=").append(executor);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.document.DocumentCollectionManagerAsyncFactory;
+import org.jnosql.diana.api.document.DocumentCollectionManagerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * The in-memory factory, it keeps the databases, so the managers of the same database share the same data.
+ * Closing the factory drops all data.
+ */
+public final class MemoryDocumentCollectionManagerFactory implements
+        DocumentCollectionManagerFactory<MemoryDocumentCollectionManager>,
+        DocumentCollectionManagerAsyncFactory<MemoryDocumentCollectionManagerAsync> {
+
+    private final String key;
+
+    private final Executor executor;
+
+    private final ConcurrentMap<String, MemoryDocumentCollectionManager> databases = new ConcurrentHashMap<>();
+
+    MemoryDocumentCollectionManagerFactory(String key, Executor executor) {
+        this.key = key;
+        this.executor = executor;
+    }
+
+    @Override
+    public MemoryDocumentCollectionManager get(String database) throws NullPointerException {
+        Objects.requireNonNull(database, "database is required");
+        return databases.computeIfAbsent(database, d -> new MemoryDocumentCollectionManager(d, key));
+    }
+
+    @Override
+    public MemoryDocumentCollectionManagerAsync getAsync(String database) throws NullPointerException {
+        return new MemoryDocumentCollectionManagerAsync(get(database), executor);
+    }
+
+    @Override
+    public void close() {
+        databases.values().forEach(MemoryDocumentCollectionManager::clear);
+        databases.clear();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryDocumentCollectionManagerFactory{");
+        sb.append("key='").append(key).append('\'');
+        sb.append(", databases=").append(databases.keySet());
+        sb.append('}');
+        return sb.toString();
+    }
+}
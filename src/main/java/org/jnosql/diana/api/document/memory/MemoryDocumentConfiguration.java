@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.document.UnaryDocumentConfiguration;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The configuration to the in-memory document engine, each call creates a new and empty
+ * {@link MemoryDocumentCollectionManagerFactory}.
+ */
+public class MemoryDocumentConfiguration implements UnaryDocumentConfiguration<MemoryDocumentCollectionManagerFactory> {
+
+    /**
+     * The default key document
+     */
+    public static final String KEY = "_id";
+
+    private final String key;
+
+    private final Executor executor;
+
+    /**
+     * Creates a configuration with the {@link #KEY} as key document that runs the asynchronous operations on
+     * {@link ForkJoinPool#commonPool()}
+     */
+    public MemoryDocumentConfiguration() {
+        this(KEY, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param key      the name of the key document
+     * @param executor the executor to the asynchronous operations
+     * @throws NullPointerException when either key or executor are null
+     */
+    public MemoryDocumentConfiguration(String key, Executor executor) throws NullPointerException {
+        this.key = Objects.requireNonNull(key, "key is required");
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+    }
+
+    @Override
+    public MemoryDocumentCollectionManagerFactory get() {
+        return new MemoryDocumentCollectionManagerFactory(key, executor);
+    }
+
+    @Override
+    public MemoryDocumentCollectionManagerFactory getAsync() {
+        return new MemoryDocumentCollectionManagerFactory(key, executor);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.Values;
+import org.jnosql.diana.api.document.DocumentConditions;
+import org.jnosql.diana.api.document.DocumentEntity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.jnosql.diana.api.document.memory.IndexType.SORTED;
+
+/**
+ * A secondary index of a document in a {@link MemoryCollection}, it maps the document value to the keys of the
+ * entities. The index returns candidates, so the entities still must be tested against the condition.
+ * This class isn't thread-safe, the collection guards it with its lock.
+ */
+final class MemoryIndex {
+
+    private final String document;
+
+    private final IndexType type;
+
+    private final Map<Object, Set<Object>> entries;
+
+    MemoryIndex(String document, IndexType type) {
+        this.document = document;
+        this.type = type;
+        this.entries = SORTED.equals(type) ? new TreeMap<>(Values.COMPARATOR) : new HashMap<>();
+    }
+
+    String getDocument() {
+        return document;
+    }
+
+    IndexType getType() {
+        return type;
+    }
+
+    void add(Object id, DocumentEntity entity) {
+        DocumentConditions.value(entity, document)
+                .ifPresent(v -> entries.computeIfAbsent(key(v), k -> new HashSet<>()).add(id));
+    }
+
+    void remove(Object id, DocumentEntity entity) {
+        DocumentConditions.value(entity, document).map(this::key).ifPresent(k -> {
+            Set<Object> ids = entries.get(k);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                entries.remove(k);
+            }
+        });
+    }
+
+    /**
+     * Finds the candidates to the condition on the indexed document
+     *
+     * @param condition the condition
+     * @param expected  the value of the condition
+     * @return the keys of the candidates or {@link Optional#empty()} when the index cannot serve the condition
+     */
+    Optional<Set<Object>> find(Condition condition, Object expected) {
+        switch (condition) {
+            case EQUALS:
+                return Optional.of(get(expected));
+            case IN:
+                Set<Object> ids = new HashSet<>();
+                Values.toList(expected).forEach(v -> ids.addAll(get(v)));
+                return Optional.of(ids);
+            case GREATER_THAN:
+                return range(expected, false, null, false);
+            case GREATER_EQUALS_THAN:
+                return range(expected, true, null, false);
+            case LESSER_THAN:
+                return range(null, false, expected, false);
+            case LESSER_EQUALS_THAN:
+                return range(null, false, expected, true);
+            case BETWEEN:
+                Object[] bounds = Values.toList(expected).toArray();
+                if (Values.order(bounds[0], bounds[1]) > 0) {
+                    return Optional.of(Collections.emptySet());
+                }
+                return range(bounds[0], true, bounds[1], true);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private Set<Object> get(Object value) {
+        return entries.getOrDefault(key(value), Collections.emptySet());
+    }
+
+    private Optional<Set<Object>> range(Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        if (!SORTED.equals(type)) {
+            return Optional.empty();
+        }
+        NavigableMap<Object, Set<Object>> range = (NavigableMap<Object, Set<Object>>) entries;
+        if (from != null) {
+            range = range.tailMap(from, fromInclusive);
+        }
+        if (to != null) {
+            range = range.headMap(to, toInclusive);
+        }
+        Set<Object> ids = new HashSet<>();
+        range.values().forEach(ids::addAll);
+        return Optional.of(ids);
+    }
+
+    private Object key(Object value) {
+        return SORTED.equals(type) ? value : Values.key(value);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryIndex{");
+        sb.append("document='").append(document).append('\'');
+        sb.append(", type=").append(type);
+        sb.append(", size=").append(entries.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -21,6 +21,9 @@ package org.jnosql.diana.api.key;
 import org.jnosql.diana.api.Value;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -81,6 +84,45 @@ public interface BucketManager extends AutoCloseable {
      */
     <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException, UnsupportedOperationException;
 
+    /**
+     * Saves the {@link Iterable} of keys splitting them in chunks, each chunk is saved using
+     * {@link BucketManager#put(Iterable)}. When parallel is true the chunks might be saved concurrently,
+     * so the implementation must be thread-safe.
+     *
+     * @param entities  keys to be insert
+     * @param chunkSize the maximum number of entities on each chunk
+     * @param parallel  if the chunks might run concurrently
+     * @param <K>       the key type
+     * @throws NullPointerException     when the iterable is null
+     * @throws IllegalArgumentException when chunkSize is lesser than one
+     */
+    default <K> void put(Iterable<KeyValueEntity<K>> entities, int chunkSize, boolean parallel)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(entities, "entities is required");
+        Chunks.of(entities, chunkSize, parallel).forEach(this::put);
+    }
+
+    /**
+     * Saves the {@link Iterable} of keys with a defined time to live splitting them in chunks,
+     * each chunk is saved using {@link BucketManager#put(Iterable, Duration)}.
+     * When parallel is true the chunks might be saved concurrently, so the implementation must be thread-safe.
+     *
+     * @param entities  keys to be insert
+     * @param ttl       the time to entity expire
+     * @param chunkSize the maximum number of entities on each chunk
+     * @param parallel  if the chunks might run concurrently
+     * @param <K>       the key type
+     * @throws NullPointerException          when either the iterable or ttl are null
+     * @throws IllegalArgumentException      when chunkSize is lesser than one
+     * @throws UnsupportedOperationException when expired time is not supported
+     */
+    default <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl, int chunkSize, boolean parallel)
+            throws NullPointerException, IllegalArgumentException, UnsupportedOperationException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        Chunks.of(entities, chunkSize, parallel).forEach(c -> put(c, ttl));
+    }
+
     /**
      * Finds the Value from a key
      *
@@ -101,6 +143,47 @@ public interface BucketManager extends AutoCloseable {
      */
     <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException;
 
+    /**
+     * Finds the values from keys keeping the association between the key and its value, by default it's just
+     * run for each key using {@link BucketManager#get(Object)}, each NoSQL vendor might replace to a more
+     * appropriate one. The keys that are not found are not present in the result and the map keeps the
+     * same order of the keys.
+     *
+     * @param keys the keys to be used in this query
+     * @param <K>  the key type
+     * @return the values found by key
+     * @throws NullPointerException when either the keys or the entities values are null
+     */
+    default <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Value> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            get(key).ifPresent(value -> values.put(key, value));
+        }
+        return values;
+    }
+
+    /**
+     * Finds the values from keys splitting them in chunks, each chunk is found using
+     * {@link BucketManager#getAll(Iterable)}. When parallel is true the chunks might run concurrently,
+     * so the implementation must be thread-safe.
+     *
+     * @param keys      the keys to be used in this query
+     * @param chunkSize the maximum number of keys on each chunk
+     * @param parallel  if the chunks might run concurrently
+     * @param <K>       the key type
+     * @return the values found by key in the same order of the keys
+     * @throws NullPointerException     when either the keys or the entities values are null
+     * @throws IllegalArgumentException when chunkSize is lesser than one
+     * @see BucketManager#getAll(Iterable)
+     */
+    default <K> Map<K, Value> getAll(Iterable<K> keys, int chunkSize, boolean parallel)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(keys, "keys is required");
+        return Chunks.of(keys, chunkSize, parallel).map(this::getAll)
+                .collect(LinkedHashMap::new, Map::putAll, Map::putAll);
+    }
+
     /**
      * Removes an entity from key
      *
@@ -119,6 +202,24 @@ public interface BucketManager extends AutoCloseable {
      */
     <K> void remove(Iterable<K> keys) throws NullPointerException;
 
+    /**
+     * Removes entities from keys splitting them in chunks, each chunk is removed using
+     * {@link BucketManager#remove(Iterable)}. When parallel is true the chunks might run concurrently,
+     * so the implementation must be thread-safe.
+     *
+     * @param keys      the keys to be used
+     * @param chunkSize the maximum number of keys on each chunk
+     * @param parallel  if the chunks might run concurrently
+     * @param <K>       the key type
+     * @throws NullPointerException     when the key is null
+     * @throws IllegalArgumentException when chunkSize is lesser than one
+     */
+    default <K> void remove(Iterable<K> keys, int chunkSize, boolean parallel)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(keys, "keys is required");
+        Chunks.of(keys, chunkSize, parallel).forEach(this::remove);
+    }
+
     /**
      * closes a resource
      */
@@ -0,0 +1,74 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.cache.Cache;
+import org.jnosql.diana.api.cache.CacheStats;
+
+/**
+ * A {@link BucketManager} decorator that keeps the values read in a bounded in-process {@link Cache},
+ * a near-cache, so the hot keys does not hit the database on each read.
+ * The cache is kept coherent on the writes done through the same instance: every put and remove invalidates
+ * the key and the time to live informed on {@link BucketManager#put(KeyValueEntity, java.time.Duration)} is honored.
+ * Writes done by other clients are not seen until the entry is evicted.
+ *
+ * @see Cache
+ */
+public interface CachedBucketManager extends BucketManager {
+
+    /**
+     * Returns the hit and miss statistics of the cache
+     *
+     * @return the {@link CacheStats} instance
+     */
+    CacheStats getStats();
+
+    /**
+     * Removes all values from the cache without touching the database
+     */
+    void invalidateAll();
+
+    /**
+     * Creates a {@link CachedBucketManager} that uses the informed cache
+     *
+     * @param manager the {@link BucketManager} to be decorated
+     * @param cache   the cache
+     * @return a {@link CachedBucketManager} instance
+     * @throws NullPointerException when either manager or cache are null
+     */
+    static CachedBucketManager of(BucketManager manager, Cache<Object, Value> cache) throws NullPointerException {
+        return new DefaultCachedBucketManager(manager, cache);
+    }
+
+    /**
+     * Creates a {@link CachedBucketManager} with a cache bounded by the number of keys
+     *
+     * @param manager     the {@link BucketManager} to be decorated
+     * @param maximumSize the maximum number of keys in the cache
+     * @return a {@link CachedBucketManager} instance
+     * @throws NullPointerException     when manager is null
+     * @throws IllegalArgumentException when maximumSize is lesser than one
+     */
+    static CachedBucketManager of(BucketManager manager, long maximumSize) throws NullPointerException,
+            IllegalArgumentException {
+        return new DefaultCachedBucketManager(manager, Cache.of(maximumSize));
+    }
+}
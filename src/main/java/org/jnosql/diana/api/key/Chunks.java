@@ -0,0 +1,63 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Utilitarian class to split the bulk operations of {@link BucketManager} in chunks
+ */
+final class Chunks {
+
+    private Chunks() {
+    }
+
+    /**
+     * Splits the elements in chunks keeping the order of the elements
+     *
+     * @param elements the elements
+     * @param size     the maximum number of elements on each chunk
+     * @param parallel if the returned stream is parallel
+     * @param <T>      the element type
+     * @return the chunks as stream
+     * @throws IllegalArgumentException when size is lesser than one
+     */
+    static <T> Stream<List<T>> of(Iterable<T> elements, int size, boolean parallel) throws IllegalArgumentException {
+        if (size < 1) {
+            throw new IllegalArgumentException("The chunk size must be greater than zero, size: " + size);
+        }
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>();
+        for (T element : elements) {
+            chunk.add(element);
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return StreamSupport.stream(chunks.spliterator(), parallel);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.cache.Cache;
+import org.jnosql.diana.api.cache.CacheStats;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The default implementation of {@link CachedBucketManager}.
+ * The keys are spread in stripes with a version each, a write increments the version of the key's stripe
+ * when it invalidates the key, so a value loaded from the database concurrently with the write is not cached.
+ * The keys written with time to live keep their deadline, so the value loaded later expires on the cache
+ * at the same time it expires on the database.
+ */
+final class DefaultCachedBucketManager implements CachedBucketManager {
+
+    private static final int STRIPES = 64;
+
+    private static final int MINIMUM_PURGE_SIZE = 1024;
+
+    private final BucketManager manager;
+
+    private final Cache<Object, Value> cache;
+
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    private final Object[] locks = new Object[STRIPES];
+
+    private final Map<Object, Long> deadlines = new ConcurrentHashMap<>();
+
+    private volatile int purgeSize = MINIMUM_PURGE_SIZE;
+
+    DefaultCachedBucketManager(BucketManager manager, Cache<Object, Value> cache) {
+        this.manager = Objects.requireNonNull(manager, "manager is required");
+        this.cache = Objects.requireNonNull(cache, "cache is required");
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe] = new Object();
+        }
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        manager.put(key, value);
+        invalidate(key);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        manager.put(entity);
+        invalidate(entity.getKey());
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        manager.put(entity, ttl);
+        invalidate(entity.getKey(), ttl);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        manager.put(entities);
+        entities.forEach(e -> invalidate(e.getKey()));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        manager.put(entities, ttl);
+        entities.forEach(e -> invalidate(e.getKey(), ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Optional<Value> cached = cache.get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        int stripe = stripe(key);
+        long version = versions.get(stripe);
+        Optional<Value> value = manager.get(key);
+        value.ifPresent(v -> load(key, v, stripe, version));
+        return value;
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        return new ArrayList<>(getAll(keys).values());
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Value> values = new LinkedHashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            Optional<Value> cached = cache.get(key);
+            values.put(key, cached.orElse(null));
+            if (!cached.isPresent()) {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long[] stripeVersions = new long[missing.size()];
+            for (int index = 0; index < missing.size(); index++) {
+                stripeVersions[index] = versions.get(stripe(missing.get(index)));
+            }
+            Map<K, Value> loaded = manager.getAll(missing);
+            for (int index = 0; index < missing.size(); index++) {
+                K key = missing.get(index);
+                Value value = loaded.get(key);
+                if (value != null) {
+                    values.put(key, value);
+                    load(key, value, stripe(key), stripeVersions[index]);
+                }
+            }
+        }
+        values.values().removeIf(Objects::isNull);
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        manager.remove(key);
+        invalidate(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        manager.remove(keys);
+        keys.forEach(this::invalidate);
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            versions.incrementAndGet(stripe);
+        }
+        cache.clear();
+    }
+
+    @Override
+    public void close() {
+        invalidateAll();
+        manager.close();
+    }
+
+    private void load(Object key, Value value, int stripe, long version) {
+        synchronized (locks[stripe]) {
+            if (versions.get(stripe) != version) {
+                return;
+            }
+            Long deadline = deadlines.get(key);
+            if (deadline == null) {
+                cache.put(key, value);
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                cache.put(key, value, Duration.ofNanos(remaining));
+            } else {
+                deadlines.remove(key);
+            }
+        }
+    }
+
+    private void invalidate(Object key) {
+        invalidate(key, null);
+    }
+
+    private void invalidate(Object key, Duration ttl) {
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            versions.incrementAndGet(stripe);
+            cache.remove(key);
+            if (ttl == null) {
+                deadlines.remove(key);
+            } else {
+                deadlines.put(key, System.nanoTime() + ttl.toNanos());
+            }
+        }
+        if (ttl != null && deadlines.size() > purgeSize) {
+            purgeDeadlines();
+        }
+    }
+
+    private void purgeDeadlines() {
+        long now = System.nanoTime();
+        deadlines.values().removeIf(deadline -> deadline - now <= 0);
+        purgeSize = Math.max(MINIMUM_PURGE_SIZE, deadlines.size() * 2);
+    }
+
+    private int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultCachedBucketManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", cache=").append(cache);
+        sb.append('}');
+        return sb.toString();
+    }
+}
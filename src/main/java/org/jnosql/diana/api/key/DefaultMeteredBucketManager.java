@@ -0,0 +1,164 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.metrics.Metrics;
+import org.jnosql.diana.api.metrics.OperationMetrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+final class DefaultMeteredBucketManager implements MeteredBucketManager {
+
+    private final BucketManager manager;
+
+    private final Metrics metrics;
+
+    private final String bucketName;
+
+    DefaultMeteredBucketManager(BucketManager manager, Metrics metrics, String bucketName) {
+        this.manager = manager;
+        this.metrics = metrics;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        run("put", 1L, () -> manager.put(key, value));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        run("put", 1L, () -> manager.put(entity));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        run("put", 1L, () -> manager.put(entity, ttl));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        List<KeyValueEntity<K>> all = copy(entities);
+        run("put", all.size(), () -> manager.put(all));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        List<KeyValueEntity<K>> all = copy(entities);
+        run("put", all.size(), () -> manager.put(all, ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        return measure("get", () -> manager.get(key), v -> v.isPresent() ? 1L : 0L);
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        return measure("get", () -> manager.get(keys), DefaultMeteredBucketManager::size);
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        return measure("get", () -> manager.getAll(keys), Map::size);
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        run("remove", 1L, () -> manager.remove(key));
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        List<K> all = copy(keys);
+        run("remove", all.size(), () -> manager.remove(all));
+    }
+
+    @Override
+    public void close() {
+        manager.close();
+    }
+
+    private void run(String operation, long results, Runnable action) {
+        measure(operation, () -> {
+            action.run();
+            return null;
+        }, r -> results);
+    }
+
+    private <T> T measure(String operation, Supplier<T> action, ToLongFunction<T> results) {
+        OperationMetrics operationMetrics = metrics.operation(MANAGER, operation, bucketName);
+        operationMetrics.started();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error exception) {
+            operationMetrics.failed(System.nanoTime() - start);
+            throw exception;
+        }
+        operationMetrics.succeeded(System.nanoTime() - start, results.applyAsLong(result));
+        return result;
+    }
+
+    private static <T> List<T> copy(Iterable<T> items) {
+        Objects.requireNonNull(items, "items is required");
+        List<T> copy = new ArrayList<>();
+        items.forEach(copy::add);
+        return copy;
+    }
+
+    private static long size(Iterable<?> items) {
+        if (items instanceof Collection) {
+            return ((Collection<?>) items).size();
+        }
+        long size = 0L;
+        for (Object ignored : items) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultMeteredBucketManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", metrics=").append(metrics);
+        sb.append(", bucketName='").append(bucketName).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
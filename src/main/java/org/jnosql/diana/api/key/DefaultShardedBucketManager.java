@@ -0,0 +1,391 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The default {@link ShardedBucketManager}, while a resharding is not finished the writes and the moves of a
+ * key hold the lock of its stripe, so a move never puts back a value older than a concurrent write.
+ */
+final class DefaultShardedBucketManager implements ShardedBucketManager {
+
+    private static final int STRIPES = 64;
+
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private volatile HashRing ring;
+
+    private volatile HashRing previous;
+
+    DefaultShardedBucketManager(HashRing ring, Executor executor) {
+        this(ring, executor, null);
+    }
+
+    private DefaultShardedBucketManager(HashRing ring, Executor executor, ExecutorService ownedExecutor) {
+        this.ring = Objects.requireNonNull(ring, "ring is required");
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+        this.ownedExecutor = ownedExecutor;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Creates a manager that runs the shards in a cached pool of daemon threads that it shuts down on close
+     */
+    static DefaultShardedBucketManager of(HashRing ring) {
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "sharded-bucket-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new DefaultShardedBucketManager(ring, executor, executor);
+    }
+
+    @Override
+    public Map<String, BucketManager> getShards() {
+        return ring.getShards();
+    }
+
+    @Override
+    public <K> String getShard(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return ring.owner(key);
+    }
+
+    @Override
+    public synchronized void reshard(Map<String, BucketManager> shards) throws NullPointerException,
+            IllegalArgumentException, IllegalStateException {
+        if (previous != null) {
+            throw new IllegalStateException("The previous resharding is not finished");
+        }
+        HashRing next = ring.with(shards);
+        previous = ring;
+        ring = next;
+    }
+
+    @Override
+    public <K> void migrate(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        HashRing current = ring;
+        HashRing old = previous;
+        if (old == null) {
+            return;
+        }
+        Map<String, List<K>> groups = new LinkedHashMap<>();
+        for (K key : keys) {
+            Objects.requireNonNull(key, "key is required");
+            String owner = old.owner(key);
+            if (!owner.equals(current.owner(key))) {
+                groups.computeIfAbsent(owner, k -> new ArrayList<>()).add(key);
+            }
+        }
+        run(groups, true, (owner, group) -> {
+            group.forEach(key -> move(key, current, old));
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized void finishResharding() {
+        previous = null;
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        write(Collections.singletonList(key), (current, parallel) -> current.shard(current.owner(key))
+                .put(key, value));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        K key = entity.getKey();
+        write(Collections.singletonList(key), (current, parallel) -> current.shard(current.owner(key)).put(entity));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        K key = entity.getKey();
+        write(Collections.singletonList(key), (current, parallel) -> current.shard(current.owner(key))
+                .put(entity, ttl));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        put(entities, (shard, group) -> shard.put(group));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(ttl, "ttl is required");
+        put(entities, (shard, group) -> shard.put(group, ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        HashRing current = ring;
+        HashRing old = previous;
+        Optional<Value> value = current.shard(current.owner(key)).get(key);
+        if (value.isPresent() || old == null || old.owner(key).equals(current.owner(key))) {
+            return value;
+        }
+        return move(key, current, old);
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        return new ArrayList<>(getAll(keys).values());
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        HashRing current = ring;
+        HashRing old = previous;
+        Map<String, List<K>> groups = group(keys, Function.identity(), current);
+        List<Map<K, Value>> loaded = run(groups, true, (owner, group) -> {
+            Map<K, Value> values = current.shard(owner).getAll(group);
+            if (old != null && values.size() < group.size()) {
+                for (K key : group) {
+                    if (!values.containsKey(key) && !old.owner(key).equals(owner)) {
+                        move(key, current, old).ifPresent(value -> values.put(key, value));
+                    }
+                }
+            }
+            return values;
+        });
+        Map<K, Value> found = new LinkedHashMap<>();
+        loaded.forEach(found::putAll);
+        Map<K, Value> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            Value value = found.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        write(Collections.singletonList(key), (current, parallel) -> current.shard(current.owner(key)).remove(key));
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> all = new ArrayList<>();
+        keys.forEach(all::add);
+        write(all, (current, parallel) -> run(group(all, Function.identity(), current), parallel,
+                (owner, group) -> {
+                    current.shard(owner).remove(group);
+                    return null;
+                }));
+    }
+
+    @Override
+    public void close() {
+        Set<BucketManager> shards = Collections.newSetFromMap(new IdentityHashMap<>());
+        shards.addAll(ring.getShards().values());
+        HashRing old = previous;
+        if (old != null) {
+            shards.addAll(old.getShards().values());
+        }
+        RuntimeException error = null;
+        for (BucketManager shard : shards) {
+            try {
+                shard.close();
+            } catch (RuntimeException exception) {
+                if (error == null) {
+                    error = exception;
+                } else {
+                    error.addSuppressed(exception);
+                }
+            }
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private <K> void put(Iterable<KeyValueEntity<K>> entities,
+                         BiConsumer<BucketManager, List<KeyValueEntity<K>>> put) {
+        Objects.requireNonNull(entities, "entities is required");
+        List<KeyValueEntity<K>> all = new ArrayList<>();
+        List<K> keys = new ArrayList<>();
+        for (KeyValueEntity<K> entity : entities) {
+            all.add(Objects.requireNonNull(entity, "entity is required"));
+            keys.add(entity.getKey());
+        }
+        write(keys, (current, parallel) -> run(group(all, KeyValueEntity::getKey, current), parallel,
+                (owner, group) -> {
+                    put.accept(current.shard(owner), group);
+                    return null;
+                }));
+    }
+
+    /**
+     * Runs the write on the current layout and, while resharding, removes the keys from their previous owner
+     * holding the locks of their stripes. The tasks on the executor that move keys take those locks, so while
+     * they are held the write runs on the calling thread rather than waiting for the executor
+     */
+    private <K> void write(List<K> keys, BiConsumer<HashRing, Boolean> write) {
+        HashRing old = previous;
+        if (old == null) {
+            write.accept(ring, true);
+            return;
+        }
+        Set<Integer> stripes = new TreeSet<>();
+        keys.forEach(key -> stripes.add(stripe(key)));
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (Integer stripe : stripes) {
+                locks[stripe].lock();
+                held.add(locks[stripe]);
+            }
+            HashRing current = ring;
+            write.accept(current, false);
+            Map<String, List<K>> stale = new LinkedHashMap<>();
+            for (K key : keys) {
+                String owner = old.owner(key);
+                if (!owner.equals(current.owner(key))) {
+                    stale.computeIfAbsent(owner, k -> new ArrayList<>()).add(key);
+                }
+            }
+            run(stale, false, (owner, group) -> {
+                old.shard(owner).remove(group);
+                return null;
+            });
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * Moves the key from the previous owner to the current one, the time to live is not kept
+     */
+    private <K> Optional<Value> move(K key, HashRing current, HashRing old) {
+        ReentrantLock lock = locks[stripe(key)];
+        lock.lock();
+        try {
+            BucketManager target = current.shard(current.owner(key));
+            Optional<Value> value = target.get(key);
+            if (value.isPresent()) {
+                return value;
+            }
+            BucketManager source = old.shard(old.owner(key));
+            value = source.get(key);
+            if (value.isPresent()) {
+                target.put(key, value.get().get());
+                source.remove(key);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T, K> Map<String, List<T>> group(Iterable<T> items, Function<T, K> key, HashRing current) {
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            K value = Objects.requireNonNull(key.apply(item), "key is required");
+            groups.computeIfAbsent(current.owner(value), k -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs the task on each group, in parallel when allowed and there is more than one, and returns the results
+     * in the order of the groups
+     */
+    private <T, R> List<R> run(Map<String, List<T>> groups, boolean parallel, BiFunction<String, List<T>, R> task) {
+        if (!parallel || groups.size() <= 1) {
+            List<R> results = new ArrayList<>(1);
+            groups.forEach((owner, group) -> results.add(task.apply(owner, group)));
+            return results;
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(groups.size());
+        groups.forEach((owner, group) ->
+                futures.add(CompletableFuture.supplyAsync(() -> task.apply(owner, group), executor)));
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+        return results;
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultShardedBucketManager{");
+        sb.append("ring=").append(ring);
+        sb.append(", previous=").append(previous);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The default {@link WriteBehindBucketManager}, a write stays on the buffer until it is written on the
+ * decorated manager and is removed only when no newer write of the key replaced it, so the reads never see an
+ * older value while a flush is running. A single flush runs at a time, which keeps the writes of a key in order.
+ */
+final class DefaultWriteBehindBucketManager implements WriteBehindBucketManager {
+
+    private static final Logger LOGGER = Logger.getLogger(DefaultWriteBehindBucketManager.class.getName());
+
+    private static final int BACKLOG = 4;
+
+    private final BucketManager manager;
+
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Object, Pending> buffer = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService flusher;
+
+    private boolean closed;
+
+    DefaultWriteBehindBucketManager(BucketManager manager, int batchSize, Duration flushInterval) {
+        this.manager = manager;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "write-behind-bucket");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        put(KeyValueEntity.of(key, value));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        buffer(entity.getKey(), new Pending(entity, null));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        buffer(entity.getKey(), new Pending(entity, ttl));
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        entities.forEach(this::put);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException,
+            UnsupportedOperationException {
+        Objects.requireNonNull(entities, "entities is required");
+        entities.forEach(entity -> put(entity, ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Pending pending = buffer.get(key);
+        if (pending != null) {
+            return pending.value();
+        }
+        return manager.get(key);
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        return new ArrayList<>(getAll(keys).values());
+    }
+
+    @Override
+    public <K> Map<K, Value> getAll(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        Map<K, Optional<Value>> buffered = new LinkedHashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            Pending pending = buffer.get(Objects.requireNonNull(key, "key is required"));
+            if (pending == null) {
+                missing.add(key);
+                buffered.put(key, null);
+            } else {
+                buffered.put(key, pending.value());
+            }
+        }
+        Map<K, Value> loaded = missing.isEmpty() ? new LinkedHashMap<>() : manager.getAll(missing);
+        Map<K, Value> values = new LinkedHashMap<>();
+        buffered.forEach((key, value) -> {
+            Value found = value == null ? loaded.get(key) : value.orElse(null);
+            if (found != null) {
+                values.put(key, found);
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        buffer(key, new Pending(key));
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        keys.forEach(this::remove);
+    }
+
+    @Override
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+            for (Pending pending : buffer.values()) {
+                batch.add(pending);
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public int getPendingSize() {
+        return buffer.size();
+    }
+
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        flusher.shutdownNow();
+        try {
+            flusher.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            manager.close();
+        }
+    }
+
+    /**
+     * Buffers the write under the read lock of close, so a write either fails or is in the buffer before the
+     * final flush of close
+     */
+    private void buffer(Object key, Pending pending) {
+        Objects.requireNonNull(key, "key is required");
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The manager is closed");
+            }
+            buffer.put(key, pending);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        int size = buffer.size();
+        if (size >= batchSize * BACKLOG) {
+            flush();
+        } else if (size >= batchSize && scheduled.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    scheduled.set(false);
+                    flushQuietly();
+                });
+            } catch (RuntimeException exception) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the batch grouped by kind of write and removes from the buffer the keys not written again
+     */
+    private void write(List<Pending> batch) {
+        List<KeyValueEntity<Object>> puts = new ArrayList<>();
+        Map<Duration, List<KeyValueEntity<Object>>> expiring = new LinkedHashMap<>();
+        List<Object> removes = new ArrayList<>();
+        for (Pending pending : batch) {
+            if (pending.entity == null) {
+                removes.add(pending.key);
+            } else if (pending.ttl == null) {
+                puts.add(pending.entity);
+            } else {
+                expiring.computeIfAbsent(pending.ttl, t -> new ArrayList<>()).add(pending.entity);
+            }
+        }
+        if (!puts.isEmpty()) {
+            manager.put(puts);
+        }
+        expiring.forEach((ttl, entities) -> manager.put(entities, ttl));
+        if (!removes.isEmpty()) {
+            manager.remove(removes);
+        }
+        batch.forEach(pending -> buffer.remove(pending.key, pending));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "The write-behind flush failed, the writes are kept to be retried",
+                    exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultWriteBehindBucketManager{");
+        sb.append("manager=").append(manager);
+        sb.append(", batchSize=").append(batchSize);
+        sb.append(", pending=").append(buffer.size());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * A buffered write, either a put, with an optional time to live, or a remove
+     */
+    private static final class Pending {
+
+        private final Object key;
+
+        private final KeyValueEntity<Object> entity;
+
+        private final Duration ttl;
+
+        @SuppressWarnings("unchecked")
+        private Pending(KeyValueEntity<?> entity, Duration ttl) {
+            this.key = entity.getKey();
+            this.entity = (KeyValueEntity<Object>) entity;
+            this.ttl = ttl;
+        }
+
+        private Pending(Object key) {
+            this.key = key;
+            this.entity = null;
+            this.ttl = null;
+        }
+
+        private Optional<Value> value() {
+            return entity == null ? Optional.empty() : Optional.of(entity.getValue());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * An immutable consistent hash ring, the virtual nodes of a shard are placed by the hash of
+ * {@code name#index}, so the position of a shard does not depend on the other shards.
+ */
+final class HashRing {
+
+    private final Map<String, BucketManager> shards;
+
+    private final TreeMap<Long, String> nodes;
+
+    private final int virtualNodes;
+
+    private HashRing(Map<String, BucketManager> shards, TreeMap<Long, String> nodes, int virtualNodes) {
+        this.shards = shards;
+        this.nodes = nodes;
+        this.virtualNodes = virtualNodes;
+    }
+
+    static HashRing of(Map<String, BucketManager> shards, int virtualNodes) {
+        Objects.requireNonNull(shards, "shards is required");
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("The shards are required");
+        }
+        Map<String, BucketManager> copy = new LinkedHashMap<>();
+        TreeMap<Long, String> nodes = new TreeMap<>();
+        shards.forEach((name, shard) -> {
+            copy.put(Objects.requireNonNull(name, "name is required"),
+                    Objects.requireNonNull(shard, "shard is required"));
+            for (int index = 0; index < virtualNodes; index++) {
+                long position = hash(name + '#' + index);
+                String current = nodes.get(position);
+                if (current == null || current.compareTo(name) > 0) {
+                    nodes.put(position, name);
+                }
+            }
+        });
+        return new HashRing(Collections.unmodifiableMap(copy), nodes, virtualNodes);
+    }
+
+    HashRing with(Map<String, BucketManager> shards) {
+        return of(shards, virtualNodes);
+    }
+
+    Map<String, BucketManager> getShards() {
+        return shards;
+    }
+
+    String owner(Object key) {
+        Map.Entry<Long, String> node = nodes.ceilingEntry(mix(key.hashCode()));
+        return node == null ? nodes.firstEntry().getValue() : node.getValue();
+    }
+
+    BucketManager shard(String name) {
+        return shards.get(name);
+    }
+
+    /**
+     * The 64 bits FNV-1a hash of the text mixed, so the close names are spread on the ring
+     */
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte value : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= value & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, it spreads the bits of the hash over the 64 bits
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("HashRing{");
+        sb.append("shards=").append(shards.keySet());
+        sb.append(", virtualNodes=").append(virtualNodes);
+        sb.append('}');
+        return sb.toString();
+    }
+}
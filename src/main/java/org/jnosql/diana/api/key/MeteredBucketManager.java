@@ -0,0 +1,63 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.metrics.Metrics;
+
+import java.util.Objects;
+
+/**
+ * A {@link BucketManager} decorator that records the latency, errors, result sizes and calls in flight of the
+ * put, get and remove operations on a {@link Metrics}, with the manager {@link #MANAGER} and the bucket name as
+ * collection. The result size is the number of keys written, removed or found.
+ *
+ * @see org.jnosql.diana.api.metrics.MetricsRegistry
+ */
+public interface MeteredBucketManager extends BucketManager {
+
+    /**
+     * The manager name of the metrics
+     */
+    String MANAGER = "bucket";
+
+    /**
+     * The metrics recorded on
+     *
+     * @return the {@link Metrics}
+     */
+    Metrics getMetrics();
+
+    /**
+     * Creates a {@link MeteredBucketManager}
+     *
+     * @param manager    the {@link BucketManager} to be decorated
+     * @param metrics    the metrics
+     * @param bucketName the bucket name recorded as collection
+     * @return a {@link MeteredBucketManager} instance
+     * @throws NullPointerException when there is a null parameter
+     */
+    static MeteredBucketManager of(BucketManager manager, Metrics metrics, String bucketName)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(metrics, "metrics is required");
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        return new DefaultMeteredBucketManager(manager, metrics, bucketName);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.JNoSQLException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Utilitarian class to convert the keys and values to bytes with the Java serialization, shared by the
+ * key-value engines that keep them out of the heap.
+ */
+public final class Serializer {
+
+    private Serializer() {
+    }
+
+    /**
+     * Converts the value to bytes
+     *
+     * @param value the value
+     * @return the bytes
+     * @throws JNoSQLException when the value is not serializable
+     */
+    public static byte[] serialize(Object value) throws JNoSQLException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+        } catch (IOException exception) {
+            throw new JNoSQLException("The value must be serializable: " + value, exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Converts the bytes back to the value
+     *
+     * @param bytes the bytes
+     * @return the value
+     * @throws JNoSQLException when the bytes are not a value
+     */
+    public static Object deserialize(byte[] bytes) throws JNoSQLException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return input.readObject();
+        } catch (IOException | ClassNotFoundException exception) {
+            throw new JNoSQLException("Error to read the value", exception);
+        }
+    }
+}
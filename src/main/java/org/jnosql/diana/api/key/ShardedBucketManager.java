@@ -0,0 +1,121 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link BucketManager} that spreads the keys across named shards, each shard is a {@link BucketManager},
+ * using consistent hashing: every shard has virtual nodes on a hash ring placed by its name and a key goes to
+ * the first virtual node after the hash of the key. The bulk operations are grouped by shard and each group
+ * runs in parallel.
+ * <p>Resharding with {@link #reshard(Map)} only moves the keys whose owner changed, about {@code 1/n} of them
+ * when a shard is added. Until {@link #finishResharding()} the previous layout is kept: a read that misses on
+ * the new owner falls back to the previous owner and moves the value, without its time to live, and the writes
+ * remove the key from the previous owner, so a stale value never comes back. {@link #migrate(Iterable)} moves
+ * the keys eagerly when the caller knows them.</p>
+ *
+ * @see ShardedBucketManager#of(Map)
+ */
+public interface ShardedBucketManager extends BucketManager {
+
+    /**
+     * The number of virtual nodes of each shard used by {@link #of(Map)}
+     */
+    int VIRTUAL_NODES = 160;
+
+    /**
+     * The current shards by name
+     *
+     * @return the shards, it's immutable
+     */
+    Map<String, BucketManager> getShards();
+
+    /**
+     * Returns the name of the shard that owns the key
+     *
+     * @param key the key
+     * @param <K> the key type
+     * @return the shard name
+     * @throws NullPointerException when key is null
+     */
+    <K> String getShard(K key) throws NullPointerException;
+
+    /**
+     * Replaces the shards, the shards with the same name keep their keys. The shards removed are not closed,
+     * since their keys might still be read until {@link #finishResharding()}.
+     *
+     * @param shards the new shards by name
+     * @throws NullPointerException     when shards is null
+     * @throws IllegalArgumentException when shards is empty
+     * @throws IllegalStateException    when a resharding is not finished yet
+     */
+    void reshard(Map<String, BucketManager> shards) throws NullPointerException, IllegalArgumentException,
+            IllegalStateException;
+
+    /**
+     * Moves the keys from their previous owner to the current one, the time to live of the values is not kept
+     *
+     * @param keys the keys
+     * @param <K>  the key type
+     * @throws NullPointerException when keys is null
+     */
+    <K> void migrate(Iterable<K> keys) throws NullPointerException;
+
+    /**
+     * Forgets the previous layout, the keys not moved yet are no longer read from their previous owner
+     */
+    void finishResharding();
+
+    /**
+     * Creates a {@link ShardedBucketManager} with {@link #VIRTUAL_NODES} virtual nodes by shard that runs the
+     * shards in a pool of its own that is shut down when the manager is closed
+     *
+     * @param shards the shards by name
+     * @return a {@link ShardedBucketManager} instance
+     * @throws NullPointerException     when shards is null
+     * @throws IllegalArgumentException when shards is empty
+     */
+    static ShardedBucketManager of(Map<String, BucketManager> shards) throws NullPointerException,
+            IllegalArgumentException {
+        return DefaultShardedBucketManager.of(HashRing.of(shards, VIRTUAL_NODES));
+    }
+
+    /**
+     * Creates a {@link ShardedBucketManager}
+     *
+     * @param shards       the shards by name
+     * @param virtualNodes the number of virtual nodes of each shard
+     * @param executor     the executor that runs the shards in parallel
+     * @return a {@link ShardedBucketManager} instance
+     * @throws NullPointerException     when either shards or executor is null
+     * @throws IllegalArgumentException when shards is empty or virtualNodes is lesser than one
+     */
+    static ShardedBucketManager of(Map<String, BucketManager> shards, int virtualNodes, Executor executor)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(executor, "executor is required");
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be greater than zero");
+        }
+        return new DefaultShardedBucketManager(HashRing.of(shards, virtualNodes), executor);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A {@link BucketManager} decorator that buffers the puts and removes in memory and writes them on the
+ * decorated manager later, in batches, through {@link BucketManager#put(Iterable)},
+ * {@link BucketManager#put(Iterable, Duration)} and {@link BucketManager#remove(Iterable)}. Repeated writes of
+ * the same key are coalesced, so just the last one reaches the database.
+ * <p>The buffer is flushed on a timer and whenever it reaches the batch size; when the database cannot keep
+ * up and the buffer reaches four batches, the writers flush it themselves. The reads through the same instance
+ * see the buffered writes, and {@link #close()} drains the buffer before closing the decorated manager. The
+ * writes not flushed yet are lost when the process dies, so it fits data that tolerates a short durability
+ * window, such as counters and sessions. The time to live of a put counts from the flush.</p>
+ * <p>A failed flush keeps the writes on the buffer to be retried on the next one.</p>
+ */
+public interface WriteBehindBucketManager extends BucketManager {
+
+    /**
+     * The batch size used by {@link #of(BucketManager)}
+     */
+    int BATCH_SIZE = 1000;
+
+    /**
+     * The flush interval used by {@link #of(BucketManager)}
+     */
+    Duration FLUSH_INTERVAL = Duration.ofMillis(100L);
+
+    /**
+     * Writes the buffered puts and removes on the decorated manager now
+     */
+    void flush();
+
+    /**
+     * The number of keys with a write not flushed yet
+     *
+     * @return the number of buffered keys
+     */
+    int getPendingSize();
+
+    /**
+     * Creates a {@link WriteBehindBucketManager} that flushes every {@link #FLUSH_INTERVAL} or every
+     * {@link #BATCH_SIZE} keys
+     *
+     * @param manager the {@link BucketManager} to be decorated
+     * @return a {@link WriteBehindBucketManager} instance
+     * @throws NullPointerException when manager is null
+     */
+    static WriteBehindBucketManager of(BucketManager manager) throws NullPointerException {
+        return of(manager, BATCH_SIZE, FLUSH_INTERVAL);
+    }
+
+    /**
+     * Creates a {@link WriteBehindBucketManager}
+     *
+     * @param manager       the {@link BucketManager} to be decorated
+     * @param batchSize     the number of keys written by bulk call, a flush starts when the buffer reaches it
+     * @param flushInterval the interval between the timed flushes
+     * @return a {@link WriteBehindBucketManager} instance
+     * @throws NullPointerException     when either manager or flushInterval is null
+     * @throws IllegalArgumentException when batchSize is lesser than one or flushInterval is not positive
+     */
+    static WriteBehindBucketManager of(BucketManager manager, int batchSize, Duration flushInterval)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(flushInterval, "flushInterval is required");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than zero");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive");
+        }
+        return new DefaultWriteBehindBucketManager(manager, batchSize, flushInterval);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.disk;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The disk implementation of {@link BucketManager}, the keys and values are serialized with the Java
+ * serialization, so they must be {@link java.io.Serializable}, and the keys must have a consistent equals and
+ * hashCode. The log belongs to {@link DiskBucketManagerFactory}, which closes it.
+ */
+public final class DiskBucketManager implements BucketManager {
+
+    private final String bucketName;
+
+    private final DiskLog log;
+
+    DiskBucketManager(String bucketName, DiskLog log) {
+        this.bucketName = bucketName;
+        this.log = log;
+    }
+
+    /**
+     * Returns the bucket name
+     *
+     * @return the bucket name
+     */
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    /**
+     * Returns the number of values which aren't expired
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return log.size();
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        log.put(key, value, null);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        log.put(entity.getKey(), entity.get(), null);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        log.put(entity.getKey(), entity.get(), ttl);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        log.putAll(entities, null);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        log.putAll(entities, ttl);
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return log.get(key).map(Value::of);
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<Value> values = new ArrayList<>();
+        for (K key : keys) {
+            get(key).ifPresent(values::add);
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        log.remove(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<K> all = new ArrayList<>();
+        keys.forEach(key -> all.add(Objects.requireNonNull(key, "key is required")));
+        log.removeAll(all);
+    }
+
+    /**
+     * The log belongs to the factory, so closing the manager keeps it open.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DiskBucketManager{");
+        sb.append("bucketName='").append(bucketName).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
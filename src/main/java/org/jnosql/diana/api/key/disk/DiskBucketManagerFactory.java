@@ -0,0 +1,157 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.disk;
+
+import org.jnosql.diana.api.key.BucketManagerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The disk factory, each bucket is a subdirectory with its own log, opened and recovered on the first use.
+ * A daemon thread periodically removes the expired keys and compacts the segments; closing the factory stops it
+ * and flushes every log.
+ */
+public final class DiskBucketManagerFactory implements BucketManagerFactory<DiskBucketManager> {
+
+    private static final Logger LOGGER = Logger.getLogger(DiskBucketManagerFactory.class.getName());
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final boolean sync;
+
+    private final double compactionThreshold;
+
+    private final ScheduledExecutorService maintenance;
+
+    private final ConcurrentMap<String, DiskBucketManager> buckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, DiskLog> logs = new ConcurrentHashMap<>();
+
+    DiskBucketManagerFactory(Path directory, int segmentSize, boolean sync, double compactionThreshold,
+                             Duration maintenanceInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.compactionThreshold = compactionThreshold;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "disk-bucket-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = maintenanceInterval.toNanos();
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public DiskBucketManager getBucketManager(String bucketName) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        return buckets.computeIfAbsent(bucketName, b -> new DiskBucketManager(b, log(b)));
+    }
+
+    @Override
+    public <T> List<T> getList(String bucketName, Class<T> clazz) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The disk engine does not support list");
+    }
+
+    @Override
+    public <T> Set<T> getSet(String bucketName, Class<T> clazz) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The disk engine does not support set");
+    }
+
+    @Override
+    public <T> Queue<T> getQueue(String bucketName, Class<T> clazz) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The disk engine does not support queue");
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(String bucketName, Class<K> keyValue, Class<V> valueValue)
+            throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("The disk engine does not support map");
+    }
+
+    /**
+     * Removes the expired keys of every bucket, the maintenance thread calls it periodically.
+     *
+     * @return the number of keys removed
+     */
+    public int purge() {
+        return logs.values().stream().mapToInt(DiskLog::purge).sum();
+    }
+
+    /**
+     * Compacts the segments of every bucket whose garbage ratio reached the threshold, the maintenance thread
+     * calls it periodically.
+     *
+     * @return the number of segments compacted
+     */
+    public int compact() {
+        return logs.values().stream().mapToInt(l -> l.compact(compactionThreshold)).sum();
+    }
+
+    @Override
+    public void close() {
+        maintenance.shutdownNow();
+        try {
+            maintenance.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        logs.values().forEach(DiskLog::close);
+        logs.clear();
+        buckets.clear();
+    }
+
+    private DiskLog log(String bucketName) {
+        return logs.computeIfAbsent(bucketName, b -> DiskLog.open(directory.resolve(b), segmentSize, sync));
+    }
+
+    private void maintain() {
+        try {
+            purge();
+            compact();
+        } catch (RuntimeException exception) {
+            LOGGER.log(Level.WARNING, "Error on the maintenance of the disk buckets at " + directory, exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DiskBucketManagerFactory{");
+        sb.append("directory=").append(directory);
+        sb.append(", buckets=").append(buckets.keySet());
+        sb.append(", sync=").append(sync);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.disk;
+
+import org.jnosql.diana.api.key.KeyValueConfiguration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The configuration to the disk key-value engine, each call creates a {@link DiskBucketManagerFactory} over the
+ * directory, the buckets already there are recovered when they are used. Just one factory at a time should use
+ * a directory.
+ */
+public class DiskConfiguration implements KeyValueConfiguration<DiskBucketManagerFactory> {
+
+    /**
+     * The default segment size, 64 MB, it's also the maximum size of a record
+     */
+    public static final int SEGMENT_SIZE = 1 << 26;
+
+    /**
+     * The default garbage ratio that triggers the compaction of a segment
+     */
+    public static final double COMPACTION_THRESHOLD = 0.5;
+
+    /**
+     * The default interval between the removals of the expired keys and the compactions
+     */
+    public static final Duration MAINTENANCE_INTERVAL = Duration.ofSeconds(1L);
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final boolean sync;
+
+    private final double compactionThreshold;
+
+    private final Duration maintenanceInterval;
+
+    /**
+     * Creates a configuration with the sync mode, {@link #SEGMENT_SIZE}, {@link #COMPACTION_THRESHOLD} and
+     * {@link #MAINTENANCE_INTERVAL}
+     *
+     * @param directory the directory of the buckets
+     * @throws NullPointerException when directory is null
+     */
+    public DiskConfiguration(Path directory) throws NullPointerException {
+        this(directory, SEGMENT_SIZE, true, COMPACTION_THRESHOLD, MAINTENANCE_INTERVAL);
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param directory           the directory of the buckets
+     * @param segmentSize         the segment size in bytes, it's also the maximum size of a record
+     * @param sync                when true each write returns after its record is forced to the disk, the
+     *                            concurrent writes share the same force; when false the operating system writes
+     *                            the pages back and the logs are forced on close
+     * @param compactionThreshold the garbage ratio that triggers the compaction of a segment
+     * @param maintenanceInterval the interval between the removals of the expired keys and the compactions
+     * @throws NullPointerException     when either directory or maintenanceInterval are null
+     * @throws IllegalArgumentException when segmentSize is lesser than 1 KB, compactionThreshold isn't greater
+     *                                  than zero and lesser or equal than one or maintenanceInterval isn't positive
+     */
+    public DiskConfiguration(Path directory, int segmentSize, boolean sync, double compactionThreshold,
+                             Duration maintenanceInterval) throws NullPointerException, IllegalArgumentException {
+        this.directory = Objects.requireNonNull(directory, "directory is required");
+        this.maintenanceInterval = Objects.requireNonNull(maintenanceInterval, "maintenanceInterval is required");
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("The segment size must be at least 1024 bytes: " + segmentSize);
+        }
+        if (!(compactionThreshold > 0D && compactionThreshold <= 1D)) {
+            throw new IllegalArgumentException("The compaction threshold must be greater than zero and lesser or "
+                    + "equal than one: " + compactionThreshold);
+        }
+        if (maintenanceInterval.isNegative() || maintenanceInterval.isZero()) {
+            throw new IllegalArgumentException("The maintenance interval must be positive: " + maintenanceInterval);
+        }
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public DiskBucketManagerFactory get() {
+        return new DiskBucketManagerFactory(directory, segmentSize, sync, compactionThreshold, maintenanceInterval);
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.disk;
+
+import org.jnosql.diana.api.JNoSQLException;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.jnosql.diana.api.key.Serializer;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only log of a bucket. The records are appended to memory-mapped segment files of a fixed size and
+ * an in-memory index maps each key to the location of its latest record.
+ * <p>
+ * Record layout: crc (4 bytes), key length (4), value length (4), deadline in epoch milliseconds or zero (8),
+ * type (1), key bytes and value bytes. The crc covers everything after it, so a torn write is detected on
+ * recovery: the segments are replayed in order and each one ends at the first invalid record.
+ * <p>
+ * A delete appends a tombstone, which must survive while an older segment might hold a put of the same key.
+ * An expired put plays the same role. The compaction copies the live records of a segment with enough garbage
+ * to the active segment and deletes its file; the tombstones are copied as well, unless the segment is the oldest.
+ * <p>
+ * In the sync mode the writes are group committed: a writer waits until its record is forced to the disk and
+ * a single force covers every record appended before it started.
+ */
+final class DiskLog {
+
+    static final int HEADER = 21;
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final String EXTENSION = ".log";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final boolean sync;
+
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final Map<Object, Location> index = new ConcurrentHashMap<>();
+
+    private final Map<Object, Location> tombstones = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Set<Segment> dirty = new LinkedHashSet<>();
+
+    private final Object commitLock = new Object();
+
+    private final Object flushLock = new Object();
+
+    private Segment active;
+
+    private long written;
+
+    private long committed;
+
+    private boolean flushing;
+
+    private DiskLog(Path directory, int segmentSize, boolean sync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens the log of the directory, the segments are replayed to rebuild the index
+     *
+     * @param directory   the directory
+     * @param segmentSize the segment size in bytes
+     * @param sync        if the writes wait until the record is on the disk
+     * @return the log
+     * @throws JNoSQLException when there is an IO error
+     */
+    static DiskLog open(Path directory, int segmentSize, boolean sync) throws JNoSQLException {
+        DiskLog log = new DiskLog(directory, segmentSize, sync);
+        try {
+            Files.createDirectories(directory);
+            List<Long> ids = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    ids.add(Long.parseLong(name.substring(0, name.length() - EXTENSION.length())));
+                }
+            }
+            ids.sort(Long::compare);
+            for (Long id : ids) {
+                log.recover(log.map(id));
+            }
+            if (log.active == null) {
+                log.active = log.map(0L);
+            }
+        } catch (IOException | NumberFormatException exception) {
+            throw new JNoSQLException("Error to open the log at " + directory, exception);
+        }
+        return log;
+    }
+
+    void put(Object key, Object value, Duration ttl) {
+        putAll(Collections.singletonList(KeyValueEntity.of(key, value)), ttl);
+    }
+
+    /**
+     * Appends the entities with a single lock and a single commit
+     *
+     * @param entities the entities
+     * @param ttl      the time to live or null when the entities don't expire
+     */
+    void putAll(Iterable<? extends KeyValueEntity<?>> entities, Duration ttl) {
+        long deadline = ttl == null ? 0L : Math.max(1L, System.currentTimeMillis() + ttl.toMillis());
+        List<Object> keys = new ArrayList<>();
+        List<byte[]> records = new ArrayList<>();
+        for (KeyValueEntity<?> entity : entities) {
+            keys.add(entity.getKey());
+            records.add(record(PUT, Serializer.serialize(entity.getKey()), Serializer.serialize(entity.get()),
+                    deadline));
+        }
+        long sequence;
+        lock.lock();
+        try {
+            for (int position = 0; position < records.size(); position++) {
+                Object key = keys.get(position);
+                Location location = append(records.get(position), deadline);
+                release(index.put(key, location));
+                Location tombstone = tombstones.remove(key);
+                if (tombstone != null) {
+                    segment(tombstone).tombstones.addAndGet(-tombstone.length);
+                    release(tombstone);
+                }
+            }
+            sequence = written;
+        } finally {
+            lock.unlock();
+        }
+        commit(sequence);
+    }
+
+    Optional<Object> get(Object key) {
+        while (true) {
+            Location location = index.get(key);
+            if (location == null || location.isExpired(System.currentTimeMillis())) {
+                return Optional.empty();
+            }
+            Segment segment = segments.get(location.segment);
+            if (segment == null) {
+                continue;
+            }
+            ByteBuffer buffer = segment.read(location.offset, location.length);
+            int keyLength = buffer.getInt(4);
+            int valueLength = buffer.getInt(8);
+            byte[] value = new byte[valueLength];
+            buffer.position(HEADER + keyLength);
+            buffer.get(value);
+            return Optional.of(Serializer.deserialize(value));
+        }
+    }
+
+    void remove(Object key) {
+        removeAll(Collections.singletonList(key));
+    }
+
+    /**
+     * Appends the tombstones of the keys found with a single lock and a single commit
+     *
+     * @param keys the keys
+     */
+    void removeAll(Iterable<?> keys) {
+        List<Object> all = new ArrayList<>();
+        List<byte[]> records = new ArrayList<>();
+        for (Object key : keys) {
+            all.add(key);
+            records.add(record(DELETE, Serializer.serialize(key), EMPTY, 0L));
+        }
+        long sequence;
+        lock.lock();
+        try {
+            boolean appended = false;
+            for (int position = 0; position < records.size(); position++) {
+                Object key = all.get(position);
+                Location old = index.remove(key);
+                if (old == null) {
+                    continue;
+                }
+                Location tombstone = append(records.get(position), 0L);
+                tombstones.put(key, tombstone);
+                segment(tombstone).tombstones.addAndGet(tombstone.length);
+                release(old);
+                appended = true;
+            }
+            if (!appended) {
+                return;
+            }
+            sequence = written;
+        } finally {
+            lock.unlock();
+        }
+        commit(sequence);
+    }
+
+    int size() {
+        long now = System.currentTimeMillis();
+        return (int) index.values().stream().filter(l -> !l.isExpired(now)).count();
+    }
+
+    /**
+     * Removes the expired keys from the index, their records become tombstones
+     *
+     * @return the number of keys removed
+     */
+    int purge() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Map.Entry<Object, Location> entry : index.entrySet()) {
+            if (!entry.getValue().isExpired(now)) {
+                continue;
+            }
+            lock.lock();
+            try {
+                if (index.remove(entry.getKey(), entry.getValue())) {
+                    tombstones.put(entry.getKey(), entry.getValue());
+                    segment(entry.getValue()).tombstones.addAndGet(entry.getValue().length);
+                    removed++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Compacts the sealed segments whose garbage ratio reached the threshold
+     *
+     * @param threshold the garbage ratio, between zero and one
+     * @return the number of segments compacted
+     * @throws JNoSQLException when there is an IO error
+     */
+    int compact(double threshold) throws JNoSQLException {
+        int compacted = 0;
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment == active) {
+                break;
+            }
+            boolean oldest = segment.id == segments.firstKey();
+            long garbage = segment.garbage.get() + (oldest ? segment.tombstones.get() : 0L);
+            if (segment.position > 0 && (double) garbage / segment.position >= threshold) {
+                compact(segment, oldest);
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Forces the appended records to the disk, the flushes run one at a time, so when it returns every record
+     * appended before the call is on the disk
+     */
+    void flush() {
+        synchronized (flushLock) {
+            List<Segment> segments;
+            lock.lock();
+            try {
+                segments = new ArrayList<>(dirty);
+                dirty.clear();
+            } finally {
+                lock.unlock();
+            }
+            segments.forEach(s -> s.buffer.force());
+        }
+    }
+
+    void close() {
+        flush();
+    }
+
+    private void compact(Segment segment, boolean oldest) throws JNoSQLException {
+        int offset = 0;
+        while (offset < segment.position) {
+            ByteBuffer header = segment.read(offset, HEADER);
+            int length = HEADER + header.getInt(4) + header.getInt(8);
+            ByteBuffer record = segment.read(offset, length);
+            byte[] keyBytes = new byte[header.getInt(4)];
+            record.position(HEADER);
+            record.get(keyBytes);
+            Object key = Serializer.deserialize(keyBytes);
+            lock.lock();
+            try {
+                Location location = index.get(key);
+                Location tombstone = tombstones.get(key);
+                if (location != null && location.is(segment, offset)) {
+                    byte[] bytes = new byte[length];
+                    record.position(0);
+                    record.get(bytes);
+                    index.put(key, append(bytes, location.deadline));
+                } else if (tombstone != null && tombstone.is(segment, offset)) {
+                    if (oldest) {
+                        tombstones.remove(key);
+                    } else {
+                        Location moved = append(record(DELETE, keyBytes, EMPTY, 0L), 0L);
+                        tombstones.put(key, moved);
+                        segment(moved).tombstones.addAndGet(moved.length);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            offset += length;
+        }
+        flush();
+        segments.remove(segment.id);
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException exception) {
+            throw new JNoSQLException("Error to delete the segment " + segment.file, exception);
+        }
+    }
+
+    private void commit(long sequence) {
+        if (!sync) {
+            return;
+        }
+        while (true) {
+            synchronized (commitLock) {
+                if (committed >= sequence) {
+                    return;
+                }
+                if (flushing) {
+                    try {
+                        commitLock.wait();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new JNoSQLException("Interrupted while waiting the commit", exception);
+                    }
+                    continue;
+                }
+                flushing = true;
+            }
+            long target = 0L;
+            try {
+                lock.lock();
+                try {
+                    target = written;
+                } finally {
+                    lock.unlock();
+                }
+                flush();
+            } finally {
+                synchronized (commitLock) {
+                    flushing = false;
+                    committed = Math.max(committed, target);
+                    commitLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the record to the active segment, it must be called with the lock held
+     */
+    private Location append(byte[] record, long deadline) throws IllegalArgumentException, JNoSQLException {
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("The record has " + record.length
+                    + " bytes, the maximum is the segment size: " + segmentSize);
+        }
+        if (active.position + record.length > segmentSize) {
+            active.buffer.force();
+            dirty.remove(active);
+            try {
+                active = map(active.id + 1);
+            } catch (IOException exception) {
+                throw new JNoSQLException("Error to create a segment at " + directory, exception);
+            }
+        }
+        ByteBuffer buffer = active.buffer.duplicate();
+        buffer.position(active.position);
+        buffer.put(record);
+        Location location = new Location(active.id, active.position, record.length, deadline);
+        active.position += record.length;
+        dirty.add(active);
+        written++;
+        return location;
+    }
+
+    private void release(Location location) {
+        if (location != null) {
+            Segment segment = segments.get(location.segment);
+            if (segment != null) {
+                segment.garbage.addAndGet(location.length);
+            }
+        }
+    }
+
+    private Segment segment(Location location) {
+        return segments.get(location.segment);
+    }
+
+    private Segment map(long id) throws IOException {
+        Path file = directory.resolve(String.format("%020d", id) + EXTENSION);
+        try (RandomAccessFile random = new RandomAccessFile(file.toFile(), "rw")) {
+            if (random.length() < segmentSize) {
+                random.setLength(segmentSize);
+            }
+            FileChannel channel = random.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, random.length());
+            Segment segment = new Segment(id, file, buffer);
+            segments.put(id, segment);
+            return segment;
+        }
+    }
+
+    private void recover(Segment segment) {
+        int capacity = segment.buffer.capacity();
+        int offset = 0;
+        while (offset + HEADER <= capacity) {
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(offset);
+            int crc = buffer.getInt();
+            int keyLength = buffer.getInt();
+            int valueLength = buffer.getInt();
+            long deadline = buffer.getLong();
+            byte type = buffer.get();
+            long length = (long) HEADER + keyLength + valueLength;
+            if ((type != PUT && type != DELETE) || keyLength <= 0 || valueLength < 0
+                    || offset + length > capacity || crc != crc(segment.read(offset, (int) length))) {
+                if (crc != 0 || keyLength != 0 || valueLength != 0 || deadline != 0L || type != 0) {
+                    zero(segment, offset);
+                }
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(keyBytes);
+            Object key = Serializer.deserialize(keyBytes);
+            Location location = new Location(segment.id, offset, (int) length, deadline);
+            Location old = index.remove(key);
+            Location tombstone = tombstones.remove(key);
+            release(old);
+            if (tombstone != null) {
+                segment(tombstone).tombstones.addAndGet(-tombstone.length);
+                release(tombstone);
+            }
+            if (type == PUT && !location.isExpired(System.currentTimeMillis())) {
+                index.put(key, location);
+            } else {
+                tombstones.put(key, location);
+                segment.tombstones.addAndGet(length);
+            }
+            offset += length;
+        }
+        segment.position = offset;
+        active = segment;
+    }
+
+    private static void zero(Segment segment, int offset) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset);
+        byte[] zeros = new byte[Math.min(8192, buffer.remaining())];
+        while (buffer.hasRemaining()) {
+            buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+        }
+        segment.buffer.force();
+    }
+
+    private static byte[] record(byte type, byte[] key, byte[] value, long deadline) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + key.length + value.length);
+        buffer.position(4);
+        buffer.putInt(key.length);
+        buffer.putInt(value.length);
+        buffer.putLong(deadline);
+        buffer.put(type);
+        buffer.put(key);
+        buffer.put(value);
+        buffer.putInt(0, crc(buffer));
+        return buffer.array();
+    }
+
+    private static int crc(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = record.duplicate();
+        content.position(4);
+        content.limit(record.capacity());
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DiskLog{");
+        sb.append("directory=").append(directory);
+        sb.append(", segments=").append(segments.keySet());
+        sb.append(", sync=").append(sync);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class Segment {
+
+        private final long id;
+
+        private final Path file;
+
+        private final MappedByteBuffer buffer;
+
+        private final AtomicLong garbage = new AtomicLong();
+
+        private final AtomicLong tombstones = new AtomicLong();
+
+        private volatile int position;
+
+        private Segment(long id, Path file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private ByteBuffer read(int offset, int length) {
+            ByteBuffer buffer = this.buffer.duplicate();
+            buffer.position(offset);
+            buffer.limit(offset + length);
+            return buffer.slice();
+        }
+    }
+
+    private static final class Location {
+
+        private final long segment;
+
+        private final int offset;
+
+        private final int length;
+
+        private final long deadline;
+
+        private Location(long segment, int offset, int length, long deadline) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.deadline = deadline;
+        }
+
+        private boolean isExpired(long now) {
+            return deadline != 0L && now >= deadline;
+        }
+
+        private boolean is(Segment segment, int offset) {
+            return this.segment == segment.id && this.offset == offset;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+/**
+ * A key-value implementation that persists the buckets to the local disk, each bucket is an append-only log of
+ * memory-mapped segment files with an in-memory index of the keys.
+ * The start point is {@link org.jnosql.diana.api.key.disk.DiskConfiguration}.
+ */
+package org.jnosql.diana.api.key.disk;
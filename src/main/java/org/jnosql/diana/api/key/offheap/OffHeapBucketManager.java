@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.BucketManager;
+import org.jnosql.diana.api.key.KeyValueEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The off-heap implementation of {@link BucketManager}, the values are serialized with the Java serialization,
+ * so they must be {@link java.io.Serializable}, and the keys must have a consistent equals and hashCode.
+ * The data belongs to {@link OffHeapBucketManagerFactory} and is kept while it's open.
+ */
+public final class OffHeapBucketManager implements BucketManager {
+
+    private final String bucketName;
+
+    private final OffHeapStore store;
+
+    OffHeapBucketManager(String bucketName, OffHeapStore store) {
+        this.bucketName = bucketName;
+        this.store = store;
+    }
+
+    /**
+     * Returns the bucket name
+     *
+     * @return the bucket name
+     */
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    /**
+     * Returns the number of values which aren't expired
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public <K, V> void put(K key, V value) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        store.put(key, value, null);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        store.put(entity.getKey(), entity.get(), null);
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entity, "entity is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        store.put(entity.getKey(), entity.get(), ttl);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        entities.forEach(this::put);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) throws NullPointerException {
+        Objects.requireNonNull(entities, "entities is required");
+        Objects.requireNonNull(ttl, "ttl is required");
+        entities.forEach(e -> put(e, ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        return store.get(key).map(Value::of);
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        List<Value> values = new ArrayList<>();
+        for (K key : keys) {
+            get(key).ifPresent(values::add);
+        }
+        return values;
+    }
+
+    @Override
+    public <K> void remove(K key) throws NullPointerException {
+        Objects.requireNonNull(key, "key is required");
+        store.remove(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) throws NullPointerException {
+        Objects.requireNonNull(keys, "keys is required");
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * The data belongs to the factory, so closing the manager keeps it.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("OffHeapBucketManager{");
+        sb.append("bucketName='").append(bucketName).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import org.jnosql.diana.api.key.BucketManagerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The off-heap factory, all buckets and collections share the same slabs of memory, the buckets and each kind of
+ * collection have their own namespace. A daemon thread removes the expired values periodically; closing the
+ * factory stops it and releases all slabs.
+ */
+public final class OffHeapBucketManagerFactory implements BucketManagerFactory<OffHeapBucketManager> {
+
+    private final Slabs slabs;
+
+    private final ScheduledExecutorService reaper;
+
+    private final ConcurrentMap<String, OffHeapBucketManager> buckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, OffHeapStore> stores = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, List<?>> lists = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<?>> sets = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Queue<?>> queues = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Map<?, ?>> maps = new ConcurrentHashMap<>();
+
+    OffHeapBucketManagerFactory(int slabSize, long maxMemory, Duration reaperInterval) {
+        this.slabs = new Slabs(slabSize, maxMemory);
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "off-heap-bucket-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = reaperInterval.toNanos();
+        reaper.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public OffHeapBucketManager getBucketManager(String bucketName) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        return buckets.computeIfAbsent(bucketName, b -> new OffHeapBucketManager(b, store("bucket:" + b)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return (List<T>) lists.computeIfAbsent(bucketName, b -> new OffHeapList<>(store("list:" + b), clazz));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Set<T> getSet(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return (Set<T>) sets.computeIfAbsent(bucketName, b -> Collections.newSetFromMap(
+                new OffHeapMap<>(store("set:" + b), clazz, Boolean.class)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Queue<T> getQueue(String bucketName, Class<T> clazz) throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(clazz, "clazz is required");
+        return (Queue<T>) queues.computeIfAbsent(bucketName, b -> new OffHeapQueue<>(store("queue:" + b), clazz));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getMap(String bucketName, Class<K> keyValue, Class<V> valueValue)
+            throws NullPointerException {
+        Objects.requireNonNull(bucketName, "bucketName is required");
+        Objects.requireNonNull(keyValue, "keyValue is required");
+        Objects.requireNonNull(valueValue, "valueValue is required");
+        return (Map<K, V>) maps.computeIfAbsent(bucketName, b -> new OffHeapMap<>(store("map:" + b), keyValue,
+                valueValue));
+    }
+
+    /**
+     * Returns the off-heap memory reserved by the slabs
+     *
+     * @return the reserved memory in bytes
+     */
+    public long getReservedMemory() {
+        return slabs.getReservedMemory();
+    }
+
+    /**
+     * Removes the expired values of all buckets, the reaper calls it periodically.
+     *
+     * @return the number of values removed
+     */
+    public int purge() {
+        long now = System.nanoTime();
+        return stores.values().stream().mapToInt(s -> s.purge(now)).sum();
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        buckets.clear();
+        lists.clear();
+        sets.clear();
+        queues.clear();
+        maps.clear();
+        stores.values().forEach(OffHeapStore::clear);
+        stores.clear();
+        slabs.clear();
+    }
+
+    private OffHeapStore store(String name) {
+        return stores.computeIfAbsent(name, n -> new OffHeapStore(slabs));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("OffHeapBucketManagerFactory{");
+        sb.append("buckets=").append(buckets.keySet());
+        sb.append(", reservedMemory=").append(slabs.getReservedMemory());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import org.jnosql.diana.api.key.KeyValueConfiguration;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The configuration to the off-heap key-value engine, each call creates a new and empty
+ * {@link OffHeapBucketManagerFactory}. The memory is reserved lazily, a slab at a time, up to the maximum
+ * memory; the JVM must allow that much direct memory, see -XX:MaxDirectMemorySize.
+ */
+public class OffHeapConfiguration implements KeyValueConfiguration<OffHeapBucketManagerFactory> {
+
+    /**
+     * The default slab size, 16 MB
+     */
+    public static final int SLAB_SIZE = 1 << 24;
+
+    /**
+     * The default maximum memory, 1 GB
+     */
+    public static final long MAX_MEMORY = 1L << 30;
+
+    /**
+     * The default interval between the removals of the expired values
+     */
+    public static final Duration REAPER_INTERVAL = Duration.ofSeconds(1L);
+
+    private final int slabSize;
+
+    private final long maxMemory;
+
+    private final Duration reaperInterval;
+
+    /**
+     * Creates a configuration with {@link #SLAB_SIZE}, {@link #MAX_MEMORY} and {@link #REAPER_INTERVAL}
+     */
+    public OffHeapConfiguration() {
+        this(SLAB_SIZE, MAX_MEMORY, REAPER_INTERVAL);
+    }
+
+    /**
+     * Creates a configuration
+     *
+     * @param slabSize       the slab size in bytes, a power of two, it is also the maximum size of a serialized
+     *                       value
+     * @param maxMemory      the maximum off-heap memory in bytes
+     * @param reaperInterval the interval between the removals of the expired values
+     * @throws NullPointerException     when reaperInterval is null
+     * @throws IllegalArgumentException when slabSize is not a power of two between 64 bytes and 1 GB, maxMemory is
+     *                                  lesser than slabSize or reaperInterval is not positive
+     */
+    public OffHeapConfiguration(int slabSize, long maxMemory, Duration reaperInterval) throws NullPointerException,
+            IllegalArgumentException {
+        Objects.requireNonNull(reaperInterval, "reaperInterval is required");
+        if (Integer.bitCount(slabSize) != 1 || slabSize < Slabs.MIN_CHUNK || slabSize > 1 << 30) {
+            throw new IllegalArgumentException("The slab size must be a power of two between "
+                    + Slabs.MIN_CHUNK + " and " + (1 << 30) + ", size: " + slabSize);
+        }
+        if (maxMemory < slabSize) {
+            throw new IllegalArgumentException("The maximum memory must be at least the slab size: " + maxMemory);
+        }
+        if (reaperInterval.isNegative() || reaperInterval.isZero()) {
+            throw new IllegalArgumentException("The reaper interval must be positive: " + reaperInterval);
+        }
+        this.slabSize = slabSize;
+        this.maxMemory = maxMemory;
+        this.reaperInterval = reaperInterval;
+    }
+
+    @Override
+    public OffHeapBucketManagerFactory get() {
+        return new OffHeapBucketManagerFactory(slabSize, maxMemory, reaperInterval);
+    }
+}
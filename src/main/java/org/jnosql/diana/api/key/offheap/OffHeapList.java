@@ -0,0 +1,99 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A {@link java.util.List} whose elements live in an {@link OffHeapStore}, keyed by their index.
+ * The operations are synchronized; get, set and appending run in constant time, inserting or removing in the
+ * middle moves the following elements.
+ *
+ * @param <T> the element type
+ */
+final class OffHeapList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final OffHeapStore store;
+
+    private final Class<T> type;
+
+    private int size;
+
+    OffHeapList(OffHeapStore store, Class<T> type) {
+        this.store = store;
+        this.type = type;
+    }
+
+    @Override
+    public synchronized T get(int index) {
+        check(index, size);
+        return type.cast(store.get((long) index).orElse(null));
+    }
+
+    @Override
+    public synchronized T set(int index, T element) {
+        Objects.requireNonNull(element, "element is required");
+        T old = get(index);
+        store.put((long) index, element, null);
+        return old;
+    }
+
+    @Override
+    public synchronized void add(int index, T element) {
+        Objects.requireNonNull(element, "element is required");
+        check(index, size + 1);
+        for (int position = size; position > index; position--) {
+            store.put((long) position, get(position - 1), null);
+        }
+        store.put((long) index, element, null);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public synchronized T remove(int index) {
+        T old = get(index);
+        for (int position = index; position < size - 1; position++) {
+            store.put((long) position, get(position + 1), null);
+        }
+        store.remove((long) --size);
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        store.clear();
+        size = 0;
+        modCount++;
+    }
+
+    private static void check(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
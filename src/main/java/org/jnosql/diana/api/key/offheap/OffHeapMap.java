@@ -0,0 +1,131 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link Map} whose values live in an {@link OffHeapStore}, the entry set iterates over a snapshot of the keys
+ * and reads each value when it's requested.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class OffHeapMap<K, V> extends AbstractMap<K, V> {
+
+    private final OffHeapStore store;
+
+    private final Class<K> keyType;
+
+    private final Class<V> valueType;
+
+    OffHeapMap(OffHeapStore store, Class<K> keyType, Class<V> valueType) {
+        this.store = store;
+        this.keyType = keyType;
+        this.valueType = valueType;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        return store.get(key).map(valueType::cast).orElse(null);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && store.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(value, "value is required");
+        V old = get(key);
+        store.put(key, value, null);
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        V old = get(key);
+        store.remove(key);
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                Iterator<Object> keys = store.keys().iterator();
+                return new Iterator<Entry<K, V>>() {
+
+                    private K current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        current = keyType.cast(keys.next());
+                        Optional<Object> value = store.get(current);
+                        return new SimpleEntry<>(current, value.map(valueType::cast).orElse(null));
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException("There is no current entry");
+                        }
+                        store.remove(current);
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A FIFO {@link java.util.Queue} whose elements live in an {@link OffHeapStore}, keyed by their position.
+ * The operations are synchronized and run in constant time.
+ *
+ * @param <T> the element type
+ */
+final class OffHeapQueue<T> extends AbstractQueue<T> {
+
+    private final OffHeapStore store;
+
+    private final Class<T> type;
+
+    private long head;
+
+    private long tail;
+
+    OffHeapQueue(OffHeapStore store, Class<T> type) {
+        this.store = store;
+        this.type = type;
+    }
+
+    @Override
+    public synchronized boolean offer(T element) {
+        Objects.requireNonNull(element, "element is required");
+        store.put(tail, element, null);
+        tail++;
+        return true;
+    }
+
+    @Override
+    public synchronized T poll() {
+        if (head == tail) {
+            return null;
+        }
+        T element = peek();
+        store.remove(head);
+        head++;
+        return element;
+    }
+
+    @Override
+    public synchronized T peek() {
+        if (head == tail) {
+            return null;
+        }
+        return type.cast(store.get(head).orElse(null));
+    }
+
+    @Override
+    public synchronized int size() {
+        return (int) (tail - head);
+    }
+
+    @Override
+    public synchronized void clear() {
+        store.clear();
+        head = tail;
+    }
+
+    @Override
+    public synchronized Iterator<T> iterator() {
+        long end = tail;
+        return new Iterator<T>() {
+
+            private long position = head;
+
+            @Override
+            public boolean hasNext() {
+                synchronized (OffHeapQueue.this) {
+                    position = Math.max(position, head);
+                    return position < end;
+                }
+            }
+
+            @Override
+            public T next() {
+                synchronized (OffHeapQueue.this) {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return type.cast(store.get(position++).orElse(null));
+                }
+            }
+        };
+    }
+}
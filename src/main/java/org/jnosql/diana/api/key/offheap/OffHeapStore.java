@@ -0,0 +1,236 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import org.jnosql.diana.api.key.Serializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A bucket of serialized values in the off-heap memory. The keys stay on the heap in a hash index split in
+ * stripes, each one guarded by its own read-write lock; the value bytes are read while the stripe read lock is
+ * held, so a chunk is never freed, and then reused, during a read.
+ */
+final class OffHeapStore {
+
+    private static final int STRIPES = 64;
+
+    private final Slabs slabs;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    OffHeapStore(Slabs slabs) {
+        this.slabs = slabs;
+        for (int index = 0; index < STRIPES; index++) {
+            stripes[index] = new Stripe();
+        }
+    }
+
+    /**
+     * Puts the value, the value is serialized and copied to the off-heap memory before the index is locked
+     *
+     * @param key   the key
+     * @param value the value
+     * @param ttl   the time to live or null when the value does not expire
+     */
+    void put(Object key, Object value, Duration ttl) {
+        byte[] bytes = Serializer.serialize(value);
+        long address = slabs.allocate(bytes.length);
+        slabs.write(address, bytes);
+        Entry entry = new Entry(address, bytes.length, ttl == null ? null : System.nanoTime() + ttl.toNanos());
+        Stripe stripe = stripe(key);
+        Lock write = stripe.lock.writeLock();
+        write.lock();
+        try {
+            Entry old = stripe.entries.put(key, entry);
+            if (old != null) {
+                slabs.free(old.address, old.length);
+            }
+        } finally {
+            write.unlock();
+        }
+    }
+
+    Optional<Object> get(Object key) {
+        byte[] bytes = null;
+        Stripe stripe = stripe(key);
+        Lock read = stripe.lock.readLock();
+        read.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && entry.isAlive(System.nanoTime())) {
+                bytes = slabs.read(entry.address, entry.length);
+            }
+        } finally {
+            read.unlock();
+        }
+        return bytes == null ? Optional.empty() : Optional.of(Serializer.deserialize(bytes));
+    }
+
+    boolean containsKey(Object key) {
+        Stripe stripe = stripe(key);
+        Lock read = stripe.lock.readLock();
+        read.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            return entry != null && entry.isAlive(System.nanoTime());
+        } finally {
+            read.unlock();
+        }
+    }
+
+    boolean remove(Object key) {
+        Stripe stripe = stripe(key);
+        Lock write = stripe.lock.writeLock();
+        write.lock();
+        try {
+            Entry entry = stripe.entries.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            slabs.free(entry.address, entry.length);
+            return entry.isAlive(System.nanoTime());
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the keys which aren't expired
+     *
+     * @return the keys
+     */
+    Set<Object> keys() {
+        long now = System.nanoTime();
+        Set<Object> keys = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            Lock read = stripe.lock.readLock();
+            read.lock();
+            try {
+                stripe.entries.forEach((key, entry) -> {
+                    if (entry.isAlive(now)) {
+                        keys.add(key);
+                    }
+                });
+            } finally {
+                read.unlock();
+            }
+        }
+        return keys;
+    }
+
+    int size() {
+        long now = System.nanoTime();
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            Lock read = stripe.lock.readLock();
+            read.lock();
+            try {
+                size += (int) stripe.entries.values().stream().filter(e -> e.isAlive(now)).count();
+            } finally {
+                read.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes the expired values and frees their memory
+     *
+     * @param now the current time in nanoseconds
+     * @return the number of values removed
+     */
+    int purge(long now) {
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            Lock write = stripe.lock.writeLock();
+            write.lock();
+            try {
+                Iterator<Entry> iterator = stripe.entries.values().iterator();
+                while (iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    if (!entry.isAlive(now)) {
+                        iterator.remove();
+                        slabs.free(entry.address, entry.length);
+                        removed++;
+                    }
+                }
+            } finally {
+                write.unlock();
+            }
+        }
+        return removed;
+    }
+
+    void clear() {
+        for (Stripe stripe : stripes) {
+            Lock write = stripe.lock.writeLock();
+            write.lock();
+            try {
+                stripe.entries.values().forEach(e -> slabs.free(e.address, e.length));
+                stripe.entries.clear();
+            } finally {
+                write.unlock();
+            }
+        }
+    }
+
+    private Stripe stripe(Object key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<Object, Entry> entries = new HashMap<>();
+    }
+
+    private static final class Entry {
+
+        private final long address;
+
+        private final int length;
+
+        private final boolean expires;
+
+        private final long deadline;
+
+        private Entry(long address, int length, Long deadline) {
+            this.address = address;
+            this.length = length;
+            this.expires = deadline != null;
+            this.deadline = deadline == null ? 0L : deadline;
+        }
+
+        private boolean isAlive(long now) {
+            return !expires || deadline - now > 0;
+        }
+    }
+}
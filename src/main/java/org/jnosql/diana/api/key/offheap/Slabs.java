@@ -0,0 +1,168 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The off-heap memory allocator, the memory is reserved in slabs of direct {@link ByteBuffer} and each slab is
+ * split in chunks of a size class, the size classes are the powers of two from {@link #MIN_CHUNK} to the slab
+ * size. A freed chunk goes back to the free list of its size class, so the memory is reused without compaction.
+ * The address of a chunk is the slab index in the upper 32 bits and the offset in the lower ones.
+ */
+final class Slabs {
+
+    static final int MIN_CHUNK = 64;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_CHUNK);
+
+    private final int slabSize;
+
+    private final AtomicReferenceArray<ByteBuffer> slabs;
+
+    private final SizeClass[] classes;
+
+    private int allocatedSlabs;
+
+    Slabs(int slabSize, long maxMemory) {
+        this.slabSize = slabSize;
+        this.slabs = new AtomicReferenceArray<>((int) Math.max(1L, maxMemory / slabSize));
+        int count = Integer.numberOfTrailingZeros(slabSize) - MIN_SHIFT + 1;
+        this.classes = new SizeClass[count];
+        for (int index = 0; index < count; index++) {
+            classes[index] = new SizeClass(MIN_CHUNK << index);
+        }
+    }
+
+    /**
+     * Allocates a chunk to the length
+     *
+     * @param length the length in bytes
+     * @return the chunk address
+     * @throws IllegalArgumentException when length is greater than the slab size
+     * @throws IllegalStateException    when the maximum memory is reached and there is no free chunk
+     */
+    long allocate(int length) throws IllegalArgumentException, IllegalStateException {
+        return classes[sizeClass(length)].allocate();
+    }
+
+    void free(long address, int length) {
+        classes[sizeClass(length)].free(address);
+    }
+
+    void write(long address, byte[] bytes) {
+        ByteBuffer buffer = slabs.get(slab(address)).duplicate();
+        buffer.position(offset(address));
+        buffer.put(bytes);
+    }
+
+    byte[] read(long address, int length) {
+        ByteBuffer buffer = slabs.get(slab(address)).duplicate();
+        buffer.position(offset(address));
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the memory reserved by the slabs
+     *
+     * @return the reserved memory in bytes
+     */
+    synchronized long getReservedMemory() {
+        return (long) allocatedSlabs * slabSize;
+    }
+
+    synchronized void clear() {
+        for (int index = 0; index < allocatedSlabs; index++) {
+            slabs.set(index, null);
+        }
+        allocatedSlabs = 0;
+        for (int index = 0; index < classes.length; index++) {
+            classes[index] = new SizeClass(MIN_CHUNK << index);
+        }
+    }
+
+    private int sizeClass(int length) {
+        if (length > slabSize) {
+            throw new IllegalArgumentException("The value has " + length + " bytes, the maximum is the slab size: "
+                    + slabSize);
+        }
+        if (length <= MIN_CHUNK) {
+            return 0;
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(length - 1) - MIN_SHIFT;
+    }
+
+    private synchronized int newSlab() throws IllegalStateException {
+        if (allocatedSlabs == slabs.length()) {
+            throw new IllegalStateException("The off-heap memory is full, maximum: "
+                    + (long) slabs.length() * slabSize + " bytes");
+        }
+        slabs.set(allocatedSlabs, ByteBuffer.allocateDirect(slabSize));
+        return allocatedSlabs++;
+    }
+
+    private static int slab(long address) {
+        return (int) (address >>> Integer.SIZE);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private final class SizeClass {
+
+        private final int chunkSize;
+
+        private long[] free = new long[16];
+
+        private int freeCount;
+
+        private int slab = -1;
+
+        private int next;
+
+        private SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        private synchronized long allocate() {
+            if (freeCount > 0) {
+                return free[--freeCount];
+            }
+            if (slab < 0 || next + chunkSize > slabSize) {
+                slab = newSlab();
+                next = 0;
+            }
+            long address = ((long) slab << Integer.SIZE) | next;
+            next += chunkSize;
+            return address;
+        }
+
+        private synchronized void free(long address) {
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = address;
+        }
+    }
+}
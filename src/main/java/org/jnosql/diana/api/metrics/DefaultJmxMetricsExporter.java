@@ -0,0 +1,166 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The default {@link JmxMetricsExporter}, it's a {@link DynamicMBean} whose attributes are built from the
+ * registry on each request
+ */
+final class DefaultJmxMetricsExporter implements JmxMetricsExporter, DynamicMBean {
+
+    private static final Map<String, Function<OperationStats, Object>> METRICS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("count", OperationStats::getCount);
+        METRICS.put("errors", OperationStats::getErrors);
+        METRICS.put("inFlight", OperationStats::getInFlight);
+        METRICS.put("latencyMean", s -> s.getLatency().getMean());
+        METRICS.put("latencyP50", s -> s.getLatency().getPercentile(0.5));
+        METRICS.put("latencyP95", s -> s.getLatency().getPercentile(0.95));
+        METRICS.put("latencyP99", s -> s.getLatency().getPercentile(0.99));
+        METRICS.put("latencyMax", s -> s.getLatency().getMax());
+        METRICS.put("resultSizeMean", s -> s.getResultSize().getMean());
+        METRICS.put("resultSizeMax", s -> s.getResultSize().getMax());
+    }
+
+    private final MetricsRegistry registry;
+
+    private final ObjectName objectName;
+
+    private final MBeanServer server;
+
+    private DefaultJmxMetricsExporter(MetricsRegistry registry, ObjectName objectName, MBeanServer server) {
+        this.registry = registry;
+        this.objectName = objectName;
+        this.server = server;
+    }
+
+    static JmxMetricsExporter export(MetricsRegistry registry, String name, MBeanServer server) {
+        try {
+            ObjectName objectName = new ObjectName("org.jnosql.diana:type=Metrics,name=" + ObjectName.quote(name));
+            DefaultJmxMetricsExporter exporter = new DefaultJmxMetricsExporter(registry, objectName, server);
+            server.registerMBean(exporter, objectName);
+            return exporter;
+        } catch (MalformedObjectNameException exception) {
+            throw new IllegalArgumentException("The name is not valid: " + name, exception);
+        } catch (JMException exception) {
+            throw new IllegalArgumentException("The metrics could not be exported as " + name, exception);
+        }
+    }
+
+    @Override
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.unregisterMBean(objectName);
+        } catch (InstanceNotFoundException exception) {
+            // already unregistered
+        } catch (JMException exception) {
+            throw new IllegalStateException("The metrics could not be unregistered", exception);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Object value = attributes().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("The metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, Object> attributes = attributes();
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Object value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException("There is no operation: " + actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Object> attributes = attributes();
+        MBeanAttributeInfo[] infos = new MBeanAttributeInfo[attributes.size()];
+        int index = 0;
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            infos[index++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                    entry.getKey(), true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "The metrics of the JNoSQL Diana managers", infos, null,
+                null, null);
+    }
+
+    private Map<String, Object> attributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (OperationStats stats : registry.getOperations()) {
+            String prefix = stats.getManager() + '.' + stats.getOperation() + '.' + stats.getCollection() + '.';
+            METRICS.forEach((metric, value) -> attributes.put(prefix + metric, value.apply(stats)));
+        }
+        return attributes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultJmxMetricsExporter{");
+        sb.append("objectName=").append(objectName);
+        sb.append('}');
+        return sb.toString();
+    }
+}
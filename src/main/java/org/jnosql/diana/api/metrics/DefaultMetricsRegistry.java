@@ -0,0 +1,77 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The default {@link MetricsRegistry}, the operations are kept in nested maps by manager, operation and
+ * collection, so the lookup on the hot path does not build a composite key.
+ */
+final class DefaultMetricsRegistry implements MetricsRegistry {
+
+    private static final Comparator<OperationStats> ORDER = Comparator.comparing(OperationStats::getManager)
+            .thenComparing(OperationStats::getOperation).thenComparing(OperationStats::getCollection);
+
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, DefaultOperationStats>>>
+            managers = new ConcurrentHashMap<>();
+
+    @Override
+    public OperationMetrics operation(String manager, String operation, String collection)
+            throws NullPointerException {
+        Objects.requireNonNull(manager, "manager is required");
+        Objects.requireNonNull(operation, "operation is required");
+        Objects.requireNonNull(collection, "collection is required");
+        ConcurrentMap<String, ConcurrentMap<String, DefaultOperationStats>> operations = managers.get(manager);
+        if (operations == null) {
+            operations = managers.computeIfAbsent(manager, k -> new ConcurrentHashMap<>());
+        }
+        ConcurrentMap<String, DefaultOperationStats> collections = operations.get(operation);
+        if (collections == null) {
+            collections = operations.computeIfAbsent(operation, k -> new ConcurrentHashMap<>());
+        }
+        DefaultOperationStats stats = collections.get(collection);
+        if (stats == null) {
+            stats = collections.computeIfAbsent(collection, k -> new DefaultOperationStats(manager, operation, k));
+        }
+        return stats;
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> operations = new ArrayList<>();
+        managers.values().forEach(o -> o.values().forEach(c -> operations.addAll(c.values())));
+        operations.sort(ORDER);
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultMetricsRegistry{");
+        sb.append("operations=").append(getOperations());
+        sb.append('}');
+        return sb.toString();
+    }
+}
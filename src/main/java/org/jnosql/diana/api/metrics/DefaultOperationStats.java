@@ -0,0 +1,124 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link OperationMetrics} of the {@link DefaultMetricsRegistry}, it records on lock-free counters and
+ * histograms
+ */
+final class DefaultOperationStats implements OperationMetrics, OperationStats {
+
+    private final String manager;
+
+    private final String operation;
+
+    private final String collection;
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder inFlight = new LongAdder();
+
+    private final Histogram latency = Histogram.of();
+
+    private final Histogram resultSize = Histogram.of();
+
+    DefaultOperationStats(String manager, String operation, String collection) {
+        this.manager = manager;
+        this.operation = operation;
+        this.collection = collection;
+    }
+
+    @Override
+    public void started() {
+        inFlight.increment();
+    }
+
+    @Override
+    public void succeeded(long nanos, long results) {
+        inFlight.decrement();
+        latency.record(nanos);
+        if (results >= 0L) {
+            resultSize.record(results);
+        }
+    }
+
+    @Override
+    public void failed(long nanos) {
+        inFlight.decrement();
+        errors.increment();
+        latency.record(nanos);
+    }
+
+    @Override
+    public String getManager() {
+        return manager;
+    }
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public Histogram getResultSize() {
+        return resultSize;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DefaultOperationStats{");
+        sb.append("manager='").append(manager).append('\'');
+        sb.append(", operation='").append(operation).append('\'');
+        sb.append(", collection='").append(collection).append('\'');
+        sb.append(", count=").append(getCount());
+        sb.append(", errors=").append(getErrors());
+        sb.append(", inFlight=").append(getInFlight());
+        sb.append(", latency=").append(latency);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values, such as latencies in nanoseconds, in the style of the
+ * HdrHistogram: the values are counted in log-linear buckets, each power of two split in {@link #SUB_BUCKETS}
+ * linear buckets, so the percentiles have a relative error lesser than {@code 1/SUB_BUCKETS} on any magnitude
+ * while the memory is fixed. Recording a value is a few atomic increments without any lock or allocation.
+ * The negative values are recorded as zero.
+ */
+public final class Histogram {
+
+    /**
+     * The number of linear buckets of each power of two
+     */
+    public static final int SUB_BUCKETS = 32;
+
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    private Histogram() {
+    }
+
+    /**
+     * Creates an empty {@link Histogram}
+     *
+     * @return a {@link Histogram} instance
+     */
+    public static Histogram of() {
+        return new Histogram();
+    }
+
+    /**
+     * Records a value
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        long recorded = Math.max(0L, value);
+        counts.incrementAndGet(index(recorded));
+        count.increment();
+        sum.add(recorded);
+        long current = max.get();
+        while (recorded > current && !max.compareAndSet(current, recorded)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * The number of values recorded
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * The sum of the values recorded
+     *
+     * @return the sum
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * The greatest value recorded
+     *
+     * @return the max or zero when there is no value
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * The mean of the values recorded
+     *
+     * @return the mean or zero when there is no value
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0L ? 0D : (double) sum.sum() / total;
+    }
+
+    /**
+     * Returns the value below which the percentile of the values falls, it's the highest value of its bucket
+     * and never greater than {@link #getMax()}
+     *
+     * @param percentile the percentile between 0 and 1, e.g.: 0.99
+     * @return the value at the percentile or zero when there is no value
+     * @throws IllegalArgumentException when percentile is out of the range between 0 and 1
+     */
+    public long getPercentile(double percentile) throws IllegalArgumentException {
+        if (percentile < 0D || percentile > 1D) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int index = 0; index < BUCKETS; index++) {
+            snapshot[index] = counts.get(index);
+            total += snapshot[index];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(percentile * total));
+        long seen = 0L;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += snapshot[index];
+            if (seen >= target) {
+                return Math.min(highest(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highest(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - shift * SUB_BUCKETS;
+        long next = (mantissa + 1) << shift;
+        return next <= 0L ? Long.MAX_VALUE : next - 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Histogram{");
+        sb.append("count=").append(getCount());
+        sb.append(", mean=").append(getMean());
+        sb.append(", max=").append(getMax());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+
+/**
+ * Exports the operations of a {@link MetricsRegistry} as a single read-only MBean named
+ * {@code org.jnosql.diana:type=Metrics,name=<name>}. Each operation has the attributes
+ * {@code <manager>.<operation>.<collection>.<metric>}: count, errors, inFlight, latencyMean, latencyP50,
+ * latencyP95, latencyP99, latencyMax, with the latencies in nanoseconds, resultSizeMean and resultSizeMax.
+ * The attributes are read from the registry on each request, so the operations recorded after the export
+ * show up without exporting again.
+ */
+public interface JmxMetricsExporter extends AutoCloseable {
+
+    /**
+     * The name the MBean is registered with
+     *
+     * @return the {@link ObjectName}
+     */
+    ObjectName getObjectName();
+
+    /**
+     * Unregisters the MBean
+     */
+    @Override
+    void close();
+
+    /**
+     * Exports the registry on the platform {@link MBeanServer}
+     *
+     * @param registry the registry
+     * @param name     the name of the MBean
+     * @return a {@link JmxMetricsExporter} instance
+     * @throws NullPointerException     when either registry or name is null
+     * @throws IllegalArgumentException when name is not valid on an {@link ObjectName} or already registered
+     */
+    static JmxMetricsExporter export(MetricsRegistry registry, String name) throws NullPointerException,
+            IllegalArgumentException {
+        return export(registry, name, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Exports the registry
+     *
+     * @param registry the registry
+     * @param name     the name of the MBean
+     * @param server   the server the MBean is registered on
+     * @return a {@link JmxMetricsExporter} instance
+     * @throws NullPointerException     when there is a null parameter
+     * @throws IllegalArgumentException when name is not valid on an {@link ObjectName} or already registered
+     */
+    static JmxMetricsExporter export(MetricsRegistry registry, String name, MBeanServer server)
+            throws NullPointerException, IllegalArgumentException {
+        Objects.requireNonNull(registry, "registry is required");
+        Objects.requireNonNull(name, "name is required");
+        Objects.requireNonNull(server, "server is required");
+        return DefaultJmxMetricsExporter.export(registry, name, server);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+/**
+ * The SPI of the metrics recorded by the instrumented managers, it can be implemented to send the metrics to
+ * any monitoring system; {@link MetricsRegistry#of()} keeps them in memory.
+ *
+ * @see OperationMetrics
+ */
+public interface Metrics {
+
+    /**
+     * Returns the metrics of an operation, the instrumented managers call it on each call, so it should be
+     * a lookup without allocation
+     *
+     * @param manager    the kind of manager, e.g.: document, column-async or bucket
+     * @param operation  the operation, e.g.: insert or select
+     * @param collection the collection, column family or bucket name, {@code *} when a bulk call spans several
+     * @return the {@link OperationMetrics}
+     * @throws NullPointerException when there is a null parameter
+     */
+    OperationMetrics operation(String manager, String operation, String collection) throws NullPointerException;
+}
@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+import java.util.List;
+
+/**
+ * A {@link Metrics} that keeps the metrics of each operation in memory, as {@link OperationStats}
+ *
+ * @see JmxMetricsExporter
+ */
+public interface MetricsRegistry extends Metrics {
+
+    /**
+     * The operations with metrics
+     *
+     * @return the operations sorted by manager, operation and collection
+     */
+    List<OperationStats> getOperations();
+
+    /**
+     * Creates an empty {@link MetricsRegistry}
+     *
+     * @return a {@link MetricsRegistry} instance
+     */
+    static MetricsRegistry of() {
+        return new DefaultMetricsRegistry();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+/**
+ * Records the calls of an operation of a manager on a collection, the instrumented managers call
+ * {@link #started()} before the call and either {@link #succeeded(long, long)} or {@link #failed(long)} once it
+ * answers. The implementations must be thread-safe and cheap, since they run on the hot path.
+ */
+public interface OperationMetrics {
+
+    /**
+     * A call started
+     */
+    void started();
+
+    /**
+     * A call finished successfully
+     *
+     * @param nanos   the latency in nanoseconds
+     * @param results the number of entities read or written, a negative value when it is unknown
+     */
+    void succeeded(long nanos, long results);
+
+    /**
+     * A call failed
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    void failed(long nanos);
+}
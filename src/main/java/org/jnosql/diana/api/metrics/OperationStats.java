@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+
+/**
+ * The metrics recorded for an operation of a manager on a collection
+ */
+public interface OperationStats {
+
+    /**
+     * The kind of manager
+     *
+     * @return the manager
+     */
+    String getManager();
+
+    /**
+     * The operation name
+     *
+     * @return the operation
+     */
+    String getOperation();
+
+    /**
+     * The collection, column family or bucket name
+     *
+     * @return the collection
+     */
+    String getCollection();
+
+    /**
+     * The number of calls finished, successfully or not
+     *
+     * @return the number of calls
+     */
+    long getCount();
+
+    /**
+     * The number of calls failed
+     *
+     * @return the number of errors
+     */
+    long getErrors();
+
+    /**
+     * The number of calls started and not finished yet
+     *
+     * @return the calls in flight
+     */
+    long getInFlight();
+
+    /**
+     * The latency of the calls in nanoseconds, successfully or not
+     *
+     * @return the latency histogram
+     */
+    Histogram getLatency();
+
+    /**
+     * The number of entities read or written by the successful calls that know it
+     *
+     * @return the result size histogram
+     */
+    Histogram getResultSize();
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ValuesTest {
+
+    @Test
+    public void shouldReturnTheSameKeyToEqualNumbers() {
+        Object key = Values.key(1);
+        assertEquals(key, Values.key(1L));
+        assertEquals(key, Values.key(1.0));
+        assertEquals(key, Values.key(1.0F));
+        assertEquals(key, Values.key(new BigDecimal("1.00")));
+        assertEquals(key, Values.key(BigInteger.ONE));
+        assertEquals(Values.key(0.5), Values.key(new BigDecimal("0.50")));
+        assertEquals(Values.key(Double.NaN), Values.key(Float.NaN));
+        assertNotEquals(key, Values.key(1.5));
+        assertEquals("1", Values.key("1"));
+    }
+
+    @Test
+    public void shouldCompareNumbersByValue() {
+        assertTrue(Values.equals(1, 1.0));
+        assertFalse(Values.equals(1, "1"));
+        assertEquals(0, Values.compare(2L, new BigDecimal("2.0")));
+        assertEquals(-1, Values.compare(1, 1.5));
+        assertEquals(1, Values.compare("b", "a"));
+        assertTrue(Values.isComparable(1, 2.5));
+        assertFalse(Values.isComparable(1, "1"));
+        assertFalse(Values.isComparable(null, 1));
+    }
+
+    @Test
+    public void shouldOrderAnyValues() {
+        List<Object> values = Arrays.asList("a", 2.5, null, 1, "b", 2L);
+        values.sort(Values.COMPARATOR);
+        assertEquals(Arrays.asList(null, 1, 2L, 2.5, "a", "b"), values);
+    }
+
+    @Test
+    public void shouldConvertToList() {
+        assertEquals(Arrays.asList(1, 2), Values.toList(Arrays.asList(1, 2)));
+        assertEquals(Collections.singletonList(1), Values.toList(1));
+    }
+}
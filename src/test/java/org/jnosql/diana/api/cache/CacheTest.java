@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+package org.jnosql.diana.api.cache;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMaximumSizeIsInvalid() {
+        Cache.of(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenWeigherIsNull() {
+        Cache.of(10, 10, null);
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        Cache<String, String> cache = Cache.of(10);
+        cache.put("key", "value");
+        assertEquals(Optional.of("value"), cache.get("key"));
+        assertFalse(cache.get("other").isPresent());
+        assertEquals(CacheStats.of(1, 1, 0), cache.getStats());
+    }
+
+    @Test
+    public void shouldRemove() {
+        Cache<String, String> cache = Cache.of(10);
+        cache.put("key", "value");
+        cache.put("key2", "value");
+        cache.remove("key");
+        assertFalse(cache.get("key").isPresent());
+        cache.removeIf(k -> k.startsWith("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldBeBoundedBySize() {
+        Cache<Integer, Integer> cache = Cache.of(100);
+        IntStream.range(0, 1_000).forEach(i -> cache.put(i, i));
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getStats().getEvictionCount() >= 900);
+    }
+
+    @Test
+    public void shouldBeBoundedByWeight() {
+        Cache<Integer, String> cache = Cache.of(1_000, 100, (k, v) -> v.length());
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "0123456789"));
+        assertTrue(cache.size() <= 10);
+    }
+
+    @Test
+    public void shouldKeepFrequentKeys() {
+        Cache<Integer, Integer> cache = Cache.of(100);
+        IntStream.range(0, 50).forEach(i -> cache.put(i, i));
+        for (int round = 0; round < 5; round++) {
+            IntStream.range(0, 50).forEach(cache::get);
+        }
+        IntStream.range(1_000, 10_000).forEach(i -> {
+            cache.put(i, i);
+            cache.get(i % 50);
+        });
+        long kept = IntStream.range(0, 50).filter(i -> cache.get(i).isPresent()).count();
+        assertTrue(kept > 40);
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        Cache<String, String> cache = Cache.of(10);
+        cache.put("key", "value", Duration.ofMillis(10L));
+        cache.put("key2", "value", Duration.ofHours(1L));
+        Thread.sleep(50L);
+        assertFalse(cache.get("key").isPresent());
+        assertTrue(cache.get("key2").isPresent());
+    }
+
+    @Test
+    public void shouldReturnHitRate() {
+        assertEquals(1.0, CacheStats.of(0, 0, 0).getHitRate(), 0.0);
+        assertEquals(0.75, CacheStats.of(3, 1, 0).getHitRate(), 0.0);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+package org.jnosql.diana.api.cache;
+
+import org.jnosql.diana.api.document.Document;
+import org.jnosql.diana.api.document.DocumentCondition;
+import org.jnosql.diana.api.document.DocumentQuery;
+import org.jnosql.diana.api.document.DocumentQueryShape;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class TranslationCacheTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenMaximumSizeIsInvalid() {
+        TranslationCache.of(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenTranslationIsNull() {
+        TranslationCache.<String, String>of(10).get("shape", s -> null);
+    }
+
+    @Test
+    public void shouldTranslateShapeOnce() {
+        TranslationCache<DocumentQueryShape, String> cache = TranslationCache.of(10);
+        AtomicInteger translations = new AtomicInteger();
+        for (int age = 0; age < 100; age++) {
+            DocumentQueryShape shape = DocumentQueryShape.of(DocumentQuery.of("person")
+                    .and(DocumentCondition.gt(Document.of("age", age))));
+            assertEquals("SELECT * FROM person WHERE age > ?", cache.get(shape, s -> {
+                translations.incrementAndGet();
+                return "SELECT * FROM person WHERE age > ?";
+            }));
+        }
+        assertEquals(1, translations.get());
+        assertEquals(1, cache.size());
+        assertEquals(99, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void shouldInvalidate() {
+        TranslationCache<String, String> cache = TranslationCache.of(10);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.invalidate("a");
+        assertEquals(1, cache.size());
+        assertEquals("A!", cache.get("a", s -> "A!"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
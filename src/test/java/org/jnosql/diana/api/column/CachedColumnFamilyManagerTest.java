@@ -0,0 +1,201 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Condition;
+import org.jnosql.diana.api.TypeReference;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachedColumnFamilyManagerTest {
+
+    private final MapColumnFamilyManager delegate = new MapColumnFamilyManager();
+
+    private final CachedColumnFamilyManager manager = CachedColumnFamilyManager.of(delegate, "id", 100);
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        CachedColumnFamilyManager.of(null, "id", 100);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenKeyColumnIsNull() {
+        CachedColumnFamilyManager.of(delegate, null, 100);
+    }
+
+    @Test
+    public void shouldServeRowFromCache() {
+        manager.insert(person(1L, "Otavio"));
+        assertEquals("Otavio", name(manager.select(byId(1L))));
+        assertEquals("Otavio", name(manager.select(byId(1))));
+        assertEquals(1, delegate.selects);
+        assertEquals(1, manager.getStats().getHitCount());
+    }
+
+    @Test
+    public void shouldProjectCachedRow() {
+        manager.insert(person(1L, "Otavio"));
+        manager.select(byId(1L));
+        List<ColumnEntity> entities = manager.select(byId(1L).addColumn("name"));
+        assertEquals(1, delegate.selects);
+        assertEquals(1, entities.get(0).size());
+        assertEquals("Otavio", name(entities));
+    }
+
+    @Test
+    public void shouldNotShareCachedRow() {
+        manager.insert(person(1L, "Otavio"));
+        manager.select(byId(1L)).get(0).add(Column.of("name", "Poliana"));
+        assertEquals("Otavio", name(manager.select(byId(1L))));
+    }
+
+    @Test
+    public void shouldInvalidateRowOnUpdate() {
+        manager.insert(person(1L, "Otavio"));
+        manager.insert(person(2L, "Ada"));
+        manager.select(byId(1L));
+        manager.select(byId(2L));
+        manager.update(person(1L, "Poliana"));
+        assertEquals("Poliana", name(manager.select(byId(1L))));
+        assertEquals("Ada", name(manager.select(byId(2L))));
+        assertEquals(3, delegate.selects);
+    }
+
+    @Test
+    public void shouldInvalidateRowOnDelete() {
+        manager.insert(person(1L, "Otavio"));
+        manager.select(byId(1L));
+        manager.delete(ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 1L))));
+        assertTrue(manager.select(byId(1L)).isEmpty());
+    }
+
+    @Test
+    public void shouldInvalidateRowsOnDeleteIn() {
+        manager.insert(person(1L, "Otavio"));
+        manager.insert(person(2L, "Ada"));
+        manager.select(byId(1L));
+        manager.select(byId(2L));
+        manager.delete(ColumnDeleteQuery.of("person", ColumnCondition.in(Column.of("id", Arrays.asList(1L, 2L)))));
+        assertTrue(manager.select(byId(1L)).isEmpty());
+        assertTrue(manager.select(byId(2L)).isEmpty());
+    }
+
+    @Test
+    public void shouldInvalidateColumnFamilyOnDeleteAll() {
+        manager.insert(person(1L, "Otavio"));
+        manager.select(byId(1L));
+        manager.delete(ColumnDeleteQuery.of("person"));
+        assertTrue(manager.select(byId(1L)).isEmpty());
+    }
+
+    @Test
+    public void shouldPassThroughOtherQueries() {
+        manager.insert(person(1L, "Otavio"));
+        manager.select(ColumnQuery.of("person"));
+        manager.select(ColumnQuery.of("person"));
+        manager.select(byId(1L).withFirstResult(1));
+        assertEquals(3, delegate.selects);
+        assertEquals(0, manager.getStats().getRequestCount());
+    }
+
+    @Test
+    public void shouldInvalidateAll() {
+        manager.insert(person(1L, "Otavio"));
+        manager.select(byId(1L));
+        manager.invalidateAll();
+        manager.select(byId(1L));
+        assertEquals(2, delegate.selects);
+    }
+
+    private static ColumnEntity person(long id, String name) {
+        return ColumnEntity.of("person", Arrays.asList(Column.of("id", id), Column.of("name", name)));
+    }
+
+    private static ColumnQuery byId(Object id) {
+        return ColumnQuery.of("person").and(ColumnCondition.eq(Column.of("id", id)));
+    }
+
+    private static String name(List<ColumnEntity> entities) {
+        return entities.get(0).find("name").get().get(String.class);
+    }
+
+    private static class MapColumnFamilyManager implements ColumnFamilyManager {
+
+        private final Map<Long, ColumnEntity> rows = new ConcurrentHashMap<>();
+
+        private int selects;
+
+        @Override
+        public ColumnEntity insert(ColumnEntity entity) {
+            rows.put(entity.find("id").get().get(Long.class), entity.copy());
+            return entity;
+        }
+
+        @Override
+        public ColumnEntity insert(ColumnEntity entity, Duration ttl) {
+            return insert(entity);
+        }
+
+        @Override
+        public ColumnEntity update(ColumnEntity entity) {
+            return insert(entity);
+        }
+
+        @Override
+        public void delete(ColumnDeleteQuery query) {
+            Optional<ColumnCondition> condition = query.getCondition();
+            if (!condition.isPresent()) {
+                rows.clear();
+            } else if (Condition.IN.equals(condition.get().getCondition())) {
+                condition.get().getColumn().get(new TypeReferenceLongs()).forEach(rows::remove);
+            } else {
+                rows.remove(condition.get().getColumn().get(Long.class));
+            }
+        }
+
+        @Override
+        public List<ColumnEntity> select(ColumnQuery query) {
+            selects++;
+            Optional<ColumnCondition> condition = query.getCondition();
+            if (!condition.isPresent()) {
+                return rows.values().stream().map(ColumnEntity::copy).collect(Collectors.toList());
+            }
+            ColumnEntity entity = rows.get(condition.get().getColumn().get(Long.class));
+            return entity == null ? Collections.emptyList() : Collections.singletonList(entity.copy());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class TypeReferenceLongs extends TypeReference<List<Long>> {
+    }
+}
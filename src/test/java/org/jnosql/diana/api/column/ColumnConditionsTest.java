@@ -0,0 +1,142 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnConditionsTest {
+
+    private final ColumnEntity ada = ColumnEntity.of("person", Arrays.asList(Column.of("name", "Ada"),
+            Column.of("age", 36), Column.of("salary", 1500.5), Column.of("birthday", LocalDate.of(1815, 12, 10)),
+            Column.of("address", Arrays.asList(Column.of("city", "London"), Column.of("zip", 10)))));
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenConditionIsNull() {
+        ColumnConditions.compile(null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnErrorWhenConditionIsSubquery() {
+        ColumnConditions.compile(ColumnCondition.subquery(ColumnQuery.of("person")));
+    }
+
+    @Test
+    public void shouldCompareNumbersByValue() {
+        assertTrue(test(ColumnCondition.eq(Column.of("age", 36L))));
+        assertTrue(test(ColumnCondition.eq(Column.of("age", 36.0))));
+        assertTrue(test(ColumnCondition.eq(Column.of("age", new BigDecimal("36.00")))));
+        assertTrue(test(ColumnCondition.eq(Column.of("salary", new BigDecimal("1500.50")))));
+        assertFalse(test(ColumnCondition.eq(Column.of("age", "36"))));
+        assertTrue(test(ColumnCondition.gt(Column.of("age", 35.5))));
+        assertTrue(test(ColumnCondition.gte(Column.of("age", BigInteger.valueOf(36)))));
+        assertTrue(test(ColumnCondition.lt(Column.of("salary", 1501))));
+        assertFalse(test(ColumnCondition.lte(Column.of("salary", 1500))));
+        assertFalse(test(ColumnCondition.gt(Column.of("age", Double.NaN))));
+        assertTrue(test(ColumnCondition.lt(Column.of("age", Double.POSITIVE_INFINITY))));
+    }
+
+    @Test
+    public void shouldCompareComparables() {
+        assertTrue(test(ColumnCondition.gt(Column.of("name", "Ab"))));
+        assertTrue(test(ColumnCondition.lt(Column.of("birthday", LocalDate.of(1900, 1, 1)))));
+        assertFalse(test(ColumnCondition.lt(Column.of("name", 10))));
+        assertFalse(test(ColumnCondition.gt(Column.of("age", "A"))));
+        assertFalse(test(ColumnCondition.gt(Column.of("unknown", 1))));
+    }
+
+    @Test
+    public void shouldEvaluateInAndBetween() {
+        assertTrue(test(ColumnCondition.in(Column.of("age", Arrays.asList(1, 36.0, "36")))));
+        assertFalse(test(ColumnCondition.in(Column.of("age", Arrays.asList(1, "36")))));
+        assertTrue(test(ColumnCondition.in(Column.of("name", Arrays.asList("Alan", "Ada")))));
+        assertTrue(test(ColumnCondition.between(Column.of("age", Arrays.asList(30, 36L)))));
+        assertFalse(test(ColumnCondition.between(Column.of("age", Arrays.asList(37, 40)))));
+    }
+
+    @Test
+    public void shouldEvaluateLike() {
+        assertTrue(test(ColumnCondition.like(Column.of("name", "Ada"))));
+        assertTrue(test(ColumnCondition.like(Column.of("name", "A%"))));
+        assertTrue(test(ColumnCondition.like(Column.of("name", "%da"))));
+        assertTrue(test(ColumnCondition.like(Column.of("name", "%d%"))));
+        assertTrue(test(ColumnCondition.like(Column.of("name", "A_a"))));
+        assertTrue(test(ColumnCondition.like(Column.of("name", "%"))));
+        assertTrue(test(ColumnCondition.like(Column.of("name", "A%a%"))));
+        assertFalse(test(ColumnCondition.like(Column.of("name", "a%"))));
+        assertFalse(test(ColumnCondition.like(Column.of("name", "A.a"))));
+        assertFalse(test(ColumnCondition.like(Column.of("age", "3%"))));
+    }
+
+    @Test
+    public void shouldGoThroughSubcolumns() {
+        assertTrue(test(ColumnCondition.eq(Column.of("address.city", "London"))));
+        assertTrue(test(ColumnCondition.gt(Column.of("address.zip", 9))));
+        assertFalse(test(ColumnCondition.eq(Column.of("address.country", "UK"))));
+        assertFalse(test(ColumnCondition.eq(Column.of("name.first", "Ada"))));
+        assertEquals(Optional.of("London"), ColumnConditions.value(ada, "address.city"));
+        assertEquals(Optional.empty(), ColumnConditions.value(ada, "address.country"));
+    }
+
+    @Test
+    public void shouldCombineConditions() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        ColumnCondition age = ColumnCondition.gt(Column.of("age", 40));
+        assertFalse(test(name.and(age)));
+        assertTrue(test(name.or(age)));
+        assertTrue(test(age.negate()));
+        assertFalse(test(age.negate().negate()));
+        assertTrue(test(name.and(age.negate()).and(ColumnCondition.lt(Column.of("age", 40)))));
+        assertTrue(test(age.or(ColumnCondition.eq(Column.of("age", 1))).or(name)));
+    }
+
+    @Test
+    public void shouldFlattenNestedConditions() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        ColumnCondition age = ColumnCondition.between(Column.of("age", Arrays.asList(30, 40)));
+        ColumnCondition salary = ColumnCondition.gt(Column.of("salary", 1000));
+        assertTrue(test(ColumnCondition.and(name, ColumnCondition.and(age, salary))));
+        assertFalse(test(ColumnCondition.and(name, ColumnCondition.and(age, salary.negate()))));
+        assertTrue(test(ColumnCondition.or(salary.negate(), ColumnCondition.or(age.negate(), name))));
+    }
+
+    @Test
+    public void shouldReuseThePredicate() {
+        Predicate<ColumnEntity> predicate = ColumnConditions.compile(ColumnCondition.gt(Column.of("age", 40))
+                .and(ColumnCondition.like(Column.of("name", "A%"))));
+        ColumnEntity entity = ColumnEntity.of("person", Arrays.asList(Column.of("age", 50),
+                Column.of("name", "Alan")));
+        assertTrue(predicate.test(entity));
+        assertFalse(predicate.test(ada));
+    }
+
+    private boolean test(ColumnCondition condition) {
+        return ColumnConditions.compile(condition).test(ada);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Page;
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.column.memory.MemoryColumnConfiguration;
+import org.jnosql.diana.api.column.memory.MemoryColumnFamilyManagerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnPageTest {
+
+    private final MemoryColumnFamilyManagerFactory factory =
+            new MemoryColumnConfiguration("id", Runnable::run, Duration.ofMinutes(1L)).getAsync();
+
+    private ColumnFamilyManager manager;
+
+    @Before
+    public void setUp() {
+        manager = factory.get("database");
+        for (int id = 0; id < 10; id++) {
+            manager.insert(ColumnEntity.of("person", Arrays.asList(Column.of("id", id), Column.of("age", id % 3))));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTokenIsInvalid() {
+        manager.selectPage(query().withPageToken("invalid"));
+    }
+
+    @Test
+    public void shouldReadAllPages() {
+        List<Integer> ids = new ArrayList<>();
+        ColumnQuery query = query();
+        int pages = 0;
+        while (true) {
+            Page<ColumnEntity> page = manager.selectPage(query);
+            page.getContent().forEach(e -> ids.add(e.find("id").get().get(Integer.class)));
+            pages++;
+            if (!page.hasNext()) {
+                break;
+            }
+            query = query().withPageToken(page.getNextToken().get());
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), ids);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    public void shouldNotHaveNextWhenLastPageIsFull() {
+        Page<ColumnEntity> page = manager.selectPage(query().withMaxResults(5));
+        page = manager.selectPage(query().withMaxResults(5).withPageToken(page.getNextToken().get()));
+        assertEquals(5, page.getContent().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void shouldReturnAllWithoutMaxResults() {
+        Page<ColumnEntity> page = manager.selectPage(ColumnQuery.of("person").withFirstResult(2));
+        assertEquals(8, page.getContent().size());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void shouldSelectPageAsync() {
+        ColumnFamilyManagerAsync async = factory.getAsync("database");
+        AtomicReference<Page<ColumnEntity>> page = new AtomicReference<>();
+        async.selectPage(query().withMaxResults(3).and(ColumnCondition.eq(Column.of("age", 0))), page::set);
+        assertEquals(3, page.get().getContent().size());
+        assertTrue(page.get().hasNext());
+        async.selectPage(query().withMaxResults(3).and(ColumnCondition.eq(Column.of("age", 0)))
+                .withPageToken(page.get().getNextToken().get()), page::set);
+        assertEquals(1, page.get().getContent().size());
+        assertEquals(9, page.get().getContent().get(0).find("id").get().get(Integer.class).intValue());
+        assertFalse(page.get().hasNext());
+    }
+
+    @Test
+    public void shouldKeepTokenInQuery() {
+        ColumnQuery query = query().withPageToken("token");
+        assertEquals("token", query.getPageToken().get());
+        assertNotEquals(query(), query);
+        assertEquals(query().withPageToken("token"), query);
+    }
+
+    private ColumnQuery query() {
+        return ColumnQuery.of("person").addSort(Sort.of("id", ASC)).withMaxResults(4);
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnQueryOptimizerTest {
+
+    private final ColumnQueryOptimizer optimizer = ColumnQueryOptimizer.of("id");
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenKeyIsNull() {
+        ColumnQueryOptimizer.of(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        optimizer.optimize((ColumnQuery) null);
+    }
+
+    @Test
+    public void shouldKeepQueryWithoutCondition() {
+        ColumnQuery query = ColumnQuery.of("person").addSort(Sort.of("name", ASC)).addColumn("name")
+                .withFirstResult(2).withMaxResults(10);
+        ColumnQuery optimized = optimizer.optimize(query).get();
+        assertEquals(query, optimized);
+        assertFalse(optimized.getCondition().isPresent());
+    }
+
+    @Test
+    public void shouldPushNegationDown() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        ColumnCondition city = ColumnCondition.eq(Column.of("city", "London"));
+        assertEquals(ColumnCondition.or(name.negate(), city.negate()), optimize(name.and(city).negate()));
+        assertEquals(ColumnCondition.and(name.negate(), city), optimize(name.or(city.negate()).negate()));
+        assertEquals(name, optimize(name.negate().negate()));
+    }
+
+    @Test
+    public void shouldMergeRangesIntoBetween() {
+        ColumnCondition condition = ColumnCondition.and(ColumnCondition.gte(Column.of("age", 10)),
+                ColumnCondition.lte(Column.of("age", 30)), ColumnCondition.gte(Column.of("age", 18)));
+        assertEquals(ColumnCondition.between(Column.of("age", Arrays.asList(18, 30))), optimize(condition));
+    }
+
+    @Test
+    public void shouldKeepTightestExclusiveBounds() {
+        ColumnCondition condition = ColumnCondition.and(ColumnCondition.gt(Column.of("age", 10)),
+                ColumnCondition.gte(Column.of("age", 10)), ColumnCondition.lt(Column.of("age", 30.5)));
+        assertEquals(ColumnCondition.and(ColumnCondition.gt(Column.of("age", 10)),
+                ColumnCondition.lt(Column.of("age", 30.5))), optimize(condition));
+    }
+
+    @Test
+    public void shouldCollapseEqualsIntoIn() {
+        ColumnCondition condition = ColumnCondition.or(ColumnCondition.eq(Column.of("name", "Ada")),
+                ColumnCondition.eq(Column.of("age", 10)), ColumnCondition.eq(Column.of("name", "Alan")),
+                ColumnCondition.in(Column.of("name", Arrays.asList("Ada", "Grace"))));
+        assertEquals(ColumnCondition.or(ColumnCondition.in(Column.of("name",
+                Arrays.asList("Ada", "Alan", "Grace"))), ColumnCondition.eq(Column.of("age", 10))),
+                optimize(condition));
+    }
+
+    @Test
+    public void shouldNotSpreadCollectionOfEquals() {
+        List<String> first = Arrays.asList("a", "b");
+        List<String> second = Arrays.asList("c");
+        ColumnCondition condition = ColumnCondition.eq(Column.of("tags", first))
+                .or(ColumnCondition.eq(Column.of("tags", second)));
+        ColumnCondition expected = ColumnCondition.in(Column.of("tags", Arrays.asList(first, second)));
+        assertEquals(expected, optimize(condition));
+
+        CountingColumnFamilyManager delegate = new CountingColumnFamilyManager();
+        optimizer.decorate(delegate).select(ColumnQuery.of("person").and(condition));
+        assertEquals(expected, ((ColumnQuery) delegate.queries.get(0)).getCondition().get());
+    }
+
+    @Test
+    public void shouldRemoveDuplicates() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        ColumnCondition like = ColumnCondition.like(Column.of("city", "Lon%"));
+        assertEquals(ColumnCondition.and(name, like), optimize(name.and(like).and(like).and(name)));
+        assertEquals(like, optimize(like.or(like)));
+    }
+
+    @Test
+    public void shouldIntersectEqualsWithRanges() {
+        ColumnCondition condition = ColumnCondition.and(
+                ColumnCondition.in(Column.of("age", Arrays.asList(5, 15, 25))),
+                ColumnCondition.gt(Column.of("age", 10)), ColumnCondition.eq(Column.of("name", "Ada")),
+                ColumnCondition.in(Column.of("age", Arrays.asList(15L, 25.0, 35))));
+        assertEquals(ColumnCondition.and(ColumnCondition.in(Column.of("age", Arrays.asList(15, 25))),
+                ColumnCondition.eq(Column.of("name", "Ada"))), optimize(condition));
+    }
+
+    @Test
+    public void shouldDetectContradictions() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        assertEmpty(ColumnCondition.gt(Column.of("age", 10)).and(ColumnCondition.lt(Column.of("age", 5))));
+        assertEmpty(ColumnCondition.gt(Column.of("age", 10)).and(ColumnCondition.lte(Column.of("age", 10))));
+        assertEmpty(name.and(ColumnCondition.eq(Column.of("name", "Alan"))));
+        assertEmpty(name.and(name.negate()));
+        assertEmpty(ColumnCondition.eq(Column.of("age", 3)).and(ColumnCondition.gte(Column.of("age", 4))));
+    }
+
+    @Test
+    public void shouldReduceSingleValueRange() {
+        ColumnCondition condition = ColumnCondition.gte(Column.of("age", 10))
+                .and(ColumnCondition.lte(Column.of("age", 10L)));
+        assertEquals(ColumnCondition.eq(Column.of("age", 10)), optimize(condition));
+    }
+
+    @Test
+    public void shouldRemoveTautologies() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        Optional<ColumnQuery> query = optimizer.optimize(ColumnQuery.of("person").and(name.or(name.negate())));
+        assertTrue(query.isPresent());
+        assertFalse(query.get().getCondition().isPresent());
+    }
+
+    @Test
+    public void shouldKeepIncomparableRanges() {
+        ColumnCondition condition = ColumnCondition.gt(Column.of("age", 10))
+                .and(ColumnCondition.lt(Column.of("age", "z")));
+        assertEquals(condition, optimize(condition));
+    }
+
+    @Test
+    public void shouldNotChangeInformedQuery() {
+        ColumnCondition condition = ColumnCondition.gte(Column.of("age", 10))
+                .and(ColumnCondition.lte(Column.of("age", 30)));
+        ColumnQuery query = ColumnQuery.of("person").and(condition);
+        optimizer.optimize(query);
+        assertEquals(condition, query.getCondition().get());
+    }
+
+    @Test
+    public void shouldOptimizeDeleteQuery() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        ColumnDeleteQuery query = ColumnDeleteQuery.of("person", name.and(name));
+        query.add("age");
+        ColumnDeleteQuery optimized = optimizer.optimize(query).get();
+        assertEquals(name, optimized.getCondition().get());
+        assertEquals(Arrays.asList("age"), optimized.getColumns());
+        assertFalse(optimizer.optimize(ColumnDeleteQuery.of("person", name.and(name.negate()))).isPresent());
+    }
+
+    @Test
+    public void shouldNotCallManagerWhenQueryIsEmpty() {
+        CountingColumnFamilyManager delegate = new CountingColumnFamilyManager();
+        ColumnFamilyManager manager = optimizer.decorate(delegate);
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        assertTrue(manager.select(ColumnQuery.of("person").and(name.and(name.negate()))).isEmpty());
+        manager.delete(ColumnDeleteQuery.of("person", name.and(name.negate())));
+        assertTrue(delegate.queries.isEmpty());
+
+        manager.select(ColumnQuery.of("person").and(name.and(name)));
+        manager.delete(ColumnDeleteQuery.of("person", name.or(name)));
+        assertEquals(2, delegate.queries.size());
+    }
+
+    @Test
+    public void shouldPutKeyConditionsFirst() {
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        ColumnCondition range = ColumnCondition.gt(Column.of("id", 10));
+        ColumnCondition key = ColumnCondition.in(Column.of("id", Arrays.asList(11, 12)));
+        ColumnCondition age = ColumnCondition.eq(Column.of("age", 36));
+        assertEquals(ColumnCondition.and(ColumnCondition.eq(Column.of("id", 10L)), name),
+                optimize(name.and(ColumnCondition.eq(Column.of("id", 10L)))));
+        assertEquals(ColumnCondition.or(key, age, range.and(name)), optimize(age.or(name.and(range)).or(key)));
+    }
+
+    @Test
+    public void shouldSplitDisjointKeyRanges() {
+        ColumnCondition first = ColumnCondition.between(Column.of("id", Arrays.asList(1, 10)));
+        ColumnCondition second = ColumnCondition.gt(Column.of("id", 10)).and(ColumnCondition.lt(Column.of("id", 20)))
+                .and(ColumnCondition.eq(Column.of("name", "Ada")));
+        ColumnCondition third = ColumnCondition.in(Column.of("id", Arrays.asList(20, 30)));
+        List<ColumnQuery> queries = optimizer.split(ColumnQuery.of("person").addColumn("name")
+                .and(first.or(second).or(third)));
+        assertEquals(3, queries.size());
+        assertEquals(third, queries.get(0).getCondition().get());
+        assertEquals(first, queries.get(1).getCondition().get());
+        assertEquals(ColumnCondition.and(ColumnCondition.gt(Column.of("id", 10)),
+                ColumnCondition.lt(Column.of("id", 20)), ColumnCondition.eq(Column.of("name", "Ada"))),
+                queries.get(2).getCondition().get());
+        assertEquals(Arrays.asList("name"), queries.get(2).getColumns());
+    }
+
+    @Test
+    public void shouldNotSplitOverlappingKeyRanges() {
+        ColumnCondition first = ColumnCondition.between(Column.of("id", Arrays.asList(1, 10)));
+        ColumnCondition name = ColumnCondition.eq(Column.of("name", "Ada"));
+        assertEquals(1, split(first.or(ColumnCondition.gte(Column.of("id", 10)))).size());
+        assertEquals(1, split(first.or(name)).size());
+        assertEquals(1, split(first.or(ColumnCondition.gt(Column.of("id", "z")))).size());
+        assertEquals(1, split(first.and(name)).size());
+        assertEquals(0, split(first.and(first.negate())).size());
+        assertEquals(1, optimizer.split(ColumnQuery.of("person").withMaxResults(10)
+                .and(first.or(ColumnCondition.gt(Column.of("id", 10))))).size());
+    }
+
+    @Test
+    public void shouldRunSplitQueriesInParallel() {
+        CountingColumnFamilyManager delegate = new CountingColumnFamilyManager();
+        ColumnFamilyManager manager = optimizer.decorate(delegate);
+        manager.select(ColumnQuery.of("person").and(ColumnCondition.lt(Column.of("id", 10))
+                .or(ColumnCondition.gt(Column.of("id", 20)))));
+        assertEquals(2, delegate.queries.size());
+    }
+
+    @Test
+    public void shouldRunSplitQueriesOnTheExecutor() {
+        CountingColumnFamilyManager delegate = new CountingColumnFamilyManager();
+        AtomicInteger tasks = new AtomicInteger();
+        ColumnFamilyManager manager = optimizer.decorate(delegate, r -> {
+            tasks.incrementAndGet();
+            r.run();
+        });
+        manager.select(ColumnQuery.of("person").and(ColumnCondition.lt(Column.of("id", 10))
+                .or(ColumnCondition.gt(Column.of("id", 20)))));
+        assertEquals(2, tasks.get());
+        assertEquals(2, delegate.queries.size());
+        manager.select(ColumnQuery.of("person").and(ColumnCondition.lt(Column.of("id", 10))));
+        assertEquals(2, tasks.get());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenExecutorIsNull() {
+        optimizer.decorate(new CountingColumnFamilyManager(), null);
+    }
+
+    private List<ColumnQuery> split(ColumnCondition condition) {
+        return optimizer.split(ColumnQuery.of("person").and(condition));
+    }
+
+    private ColumnCondition optimize(ColumnCondition condition) {
+        return optimizer.optimize(ColumnQuery.of("person").and(condition)).get().getCondition().get();
+    }
+
+    private void assertEmpty(ColumnCondition condition) {
+        assertFalse(optimizer.optimize(ColumnQuery.of("person").and(condition)).isPresent());
+    }
+
+    private static class CountingColumnFamilyManager implements ColumnFamilyManager {
+
+        private final List<Object> queries = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public ColumnEntity insert(ColumnEntity entity) {
+            return entity;
+        }
+
+        @Override
+        public ColumnEntity insert(ColumnEntity entity, Duration ttl) {
+            return entity;
+        }
+
+        @Override
+        public ColumnEntity update(ColumnEntity entity) {
+            return entity;
+        }
+
+        @Override
+        public void delete(ColumnDeleteQuery query) {
+            queries.add(query);
+        }
+
+        @Override
+        public List<ColumnEntity> select(ColumnQuery query) {
+            queries.add(query);
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThat;
+
+public class ColumnQueryShapeTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        ColumnQueryShape.of((ColumnQuery) null);
+    }
+
+    @Test
+    public void shouldStripLiterals() {
+        ColumnQueryShape shape = ColumnQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris")));
+        assertEquals("select 'person' columns('name') where AND(EQUALS('name', ?), GREATER_THAN('age', ?), "
+                + "NOT(IN('city', ?[2]))) sort('name' ASC) max", shape.getFingerprint());
+        assertThat(shape.getValues(), contains("Ada", 10, "London", "Paris"));
+        assertEquals(shape, ColumnQueryShape.of(query("Alan", 20, Arrays.asList("Rome", "Oslo"))));
+        assertEquals(shape.hashCode(), ColumnQueryShape.of(query("Alan", 20, Arrays.asList("Rome", "Oslo")))
+                .hashCode());
+    }
+
+    @Test
+    public void shouldKeepStructure() {
+        ColumnQueryShape shape = ColumnQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris")));
+        assertNotEquals(shape, ColumnQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris", "Rome"))));
+        assertNotEquals(shape, ColumnQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris"))
+                .addSort(Sort.of("age", DESC))));
+        assertNotEquals(shape, ColumnQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris"))
+                .withFirstResult(10)));
+        assertNotEquals(ColumnQueryShape.of(ColumnQuery.of("person")
+                        .and(ColumnCondition.gt(Column.of("age", 10)))),
+                ColumnQueryShape.of(ColumnQuery.of("person").and(ColumnCondition.gte(Column.of("age", 10)))));
+        assertNotEquals(ColumnQueryShape.of(ColumnQuery.of("person").addColumn("a, 'b'")),
+                ColumnQueryShape.of(ColumnQuery.of("person").addColumn("a").addColumn("b")));
+    }
+
+    @Test
+    public void shouldCreateDeleteShape() {
+        ColumnDeleteQuery query = ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("name", "Ada"))
+                .or(ColumnCondition.between(Column.of("age", Arrays.asList(10, 20)))));
+        query.add("age");
+        ColumnQueryShape shape = ColumnQueryShape.of(query);
+        assertEquals("delete 'person' columns('age') where OR(EQUALS('name', ?), BETWEEN('age', ?[2]))",
+                shape.getFingerprint());
+        assertThat(shape.getValues(), contains("Ada", 10, 20));
+        assertNotEquals(shape, ColumnQueryShape.of(ColumnQuery.of("person")));
+    }
+
+    @Test
+    public void shouldIncludeSubquery() {
+        ColumnQuery query = ColumnQuery.of("person").and(ColumnCondition.subquery(ColumnQuery.of("city")
+                .and(ColumnCondition.eq(Column.of("name", "London")))));
+        ColumnQueryShape shape = ColumnQueryShape.of(query);
+        assertEquals("select 'person' where SUBQUERY(select 'city' where EQUALS('name', ?))", shape.getFingerprint());
+        assertThat(shape.getValues(), contains("London"));
+    }
+
+    private ColumnQuery query(String name, int age, Iterable<String> cities) {
+        return ColumnQuery.of("person").addColumn("name")
+                .and(ColumnCondition.eq(Column.of("name", name)))
+                .and(ColumnCondition.gt(Column.of("age", age)))
+                .and(ColumnCondition.in(Column.of("city", cities)).negate())
+                .addSort(Sort.of("name", ASC)).withMaxResults(10);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.Parameter;
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class ColumnQueryTemplateTest {
+
+    private final ColumnCondition active = ColumnCondition.eq(Column.of("active", true));
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        ColumnQueryTemplate.of(null);
+    }
+
+    @Test
+    public void shouldBindParameters() {
+        ColumnQueryTemplate template = ColumnQueryTemplate.of(ColumnQuery.of("person")
+                .and(ColumnCondition.eq(Column.of("name", Parameter.of("name"))))
+                .and(ColumnCondition.between(Column.of("age", Arrays.asList(Parameter.of("min"), 60))))
+                .and(ColumnCondition.in(Column.of("city", Parameter.of("cities"))).negate())
+                .and(active)
+                .addSort(Sort.of("name", ASC)).addColumn("name").withFirstResult(1).withMaxResults(10));
+        assertThat(template.getParameters(), contains("name", "min", "cities"));
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Ada");
+        values.put("min", 18);
+        values.put("cities", Arrays.asList("London", "Paris"));
+        ColumnQuery query = template.bind(values);
+
+        ColumnQuery expected = ColumnQuery.of("person")
+                .and(ColumnCondition.eq(Column.of("name", "Ada")))
+                .and(ColumnCondition.between(Column.of("age", Arrays.asList(18, 60))))
+                .and(ColumnCondition.in(Column.of("city", Arrays.asList("London", "Paris"))).negate())
+                .and(active)
+                .addSort(Sort.of("name", ASC)).addColumn("name").withFirstResult(1).withMaxResults(10);
+        assertEquals(expected, query);
+    }
+
+    @Test
+    public void shouldShareConditionsWithoutParameters() {
+        ColumnQueryTemplate template = ColumnQueryTemplate.of(ColumnQuery.of("person").and(active));
+        assertSame(active, template.bind(Collections.emptyMap()).getCondition().get());
+        assertEquals(0, template.getParameters().size());
+    }
+
+    @Test
+    public void shouldNotChangeWithQuery() {
+        ColumnQuery query = ColumnQuery.of("person").and(active);
+        ColumnQueryTemplate template = ColumnQueryTemplate.of(query);
+        query.and(ColumnCondition.eq(Column.of("name", "Ada"))).addSort(Sort.of("name", ASC));
+        assertEquals(active, template.getCondition().get());
+        assertEquals(0, template.getSorts().size());
+        assertEquals(ColumnQueryTemplate.of(ColumnQuery.of("person").and(active)), template);
+        assertFalse(ColumnQueryTemplate.of(ColumnQuery.of("person")).getCondition().isPresent());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnImmutableSorts() {
+        ColumnQueryTemplate.of(ColumnQuery.of("person")).getSorts().add(Sort.of("name", ASC));
+    }
+
+    @Test
+    public void shouldNotChangeTemplateWhenBoundQueryChanges() {
+        ColumnQueryTemplate template = ColumnQueryTemplate.of(ColumnQuery.of("person")
+                .and(ColumnCondition.eq(Column.of("name", Parameter.of("name")))).or(active));
+        template.bind(Collections.singletonMap("name", "Ada")).and(ColumnCondition.eq(Column.of("age", 10)))
+                .addSort(Sort.of("age", ASC));
+        ColumnQuery query = template.bind(Collections.singletonMap("name", "Alan"));
+        assertEquals(ColumnCondition.eq(Column.of("name", "Alan")).or(active), query.getCondition().get());
+        assertEquals(0, query.getSorts().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenParameterIsMissing() {
+        ColumnQueryTemplate.of(ColumnQuery.of("person")
+                .and(ColumnCondition.eq(Column.of("name", Parameter.of("name")))))
+                .bind(Collections.emptyMap());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenParameterIsNull() {
+        ColumnQueryTemplate.of(ColumnQuery.of("person")
+                .and(ColumnCondition.eq(Column.of("name", Parameter.of("name")))))
+                .bind(Collections.singletonMap("name", null));
+    }
+
+    @Test
+    public void shouldBindConcurrently() throws Exception {
+        ColumnQueryTemplate template = ColumnQueryTemplate.of(ColumnQuery.of("person")
+                .and(ColumnCondition.eq(Column.of("age", Parameter.of("age")))).and(active));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ColumnQuery>> queries = new ArrayList<>();
+            for (int index = 0; index < 100; index++) {
+                int age = index;
+                queries.add(executor.submit(() -> template.bind(Collections.singletonMap("age", age))));
+            }
+            for (int index = 0; index < 100; index++) {
+                assertEquals(ColumnCondition.eq(Column.of("age", index)).and(active),
+                        queries.get(index).get(10, TimeUnit.SECONDS).getCondition().get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
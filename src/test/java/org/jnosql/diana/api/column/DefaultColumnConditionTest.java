@@ -231,5 +231,45 @@ public class DefaultColumnConditionTest {
         Assert.assertThat(integers, contains(12, 13));
     }
 
+    @Test
+    public void shouldChainManyConditions() {
+        ColumnCondition or = ColumnCondition.eq(Column.of("id", 0));
+        for (int index = 1; index < 500; index++) {
+            or = or.or(ColumnCondition.eq(Column.of("id", index)));
+        }
+        List<ColumnCondition> conditions = or.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        });
+        assertEquals(OR, or.getCondition());
+        assertEquals(500, conditions.size());
+        assertEquals(ColumnCondition.eq(Column.of("id", 499)), conditions.get(499));
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldFlattenNestedConditions() {
+        ColumnCondition eq = ColumnCondition.eq(Column.of("name", "otavio"));
+        ColumnCondition gt = ColumnCondition.gt(Column.of("age", 10));
+        ColumnCondition lte = ColumnCondition.lte(Column.of("salary", 10_000.00));
+        ColumnCondition and = eq.and(gt.and(lte));
+        assertThat(and.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        }), contains(eq, gt, lte));
+        assertEquals(and, ColumnCondition.and(eq, ColumnCondition.and(gt, lte)));
+        assertEquals(and.hashCode(), ColumnCondition.and(eq, gt, lte).hashCode());
+    }
+
+    @Test
+    public void shouldKeepBranchesIndependent() {
+        ColumnCondition eq = ColumnCondition.eq(Column.of("name", "otavio"));
+        ColumnCondition gt = ColumnCondition.gt(Column.of("age", 10));
+        ColumnCondition lte = ColumnCondition.lte(Column.of("salary", 10_000.00));
+        ColumnCondition in = ColumnCondition.in(Column.of("city", Arrays.asList("Salvador", "Lisbon")));
+        ColumnCondition and = eq.and(gt);
+        ColumnCondition left = and.and(lte);
+        ColumnCondition right = and.and(in);
+        assertThat(and.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        }), contains(eq, gt));
+        assertThat(left.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        }), contains(eq, gt, lte));
+        assertThat(right.getColumn().get(new TypeReference<List<ColumnCondition>>() {
+        }), contains(eq, gt, in));
+    }
+}
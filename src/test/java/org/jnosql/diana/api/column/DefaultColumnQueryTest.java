@@ -135,4 +135,12 @@ public class DefaultColumnQueryTest {
         assertThat(query.getColumns(), contains(columnDeleteQuery.getColumns().get(0)));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldBeEqualsWhenHasTheSameCondition() {
+        ColumnQuery query = ColumnQuery.of("select").and(ColumnCondition.eq(Column.of("name", "Ada")));
+        ColumnQuery query2 = ColumnQuery.of("select").and(ColumnCondition.eq(Column.of("name", "Ada")));
+        assertEquals(query, query2);
+        assertEquals(query.hashCode(), query2.hashCode());
+    }
+}
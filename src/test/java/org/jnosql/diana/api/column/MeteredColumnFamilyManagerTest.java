@@ -0,0 +1,106 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column;
+
+import org.jnosql.diana.api.column.memory.MemoryColumnConfiguration;
+import org.jnosql.diana.api.column.memory.MemoryColumnFamilyManagerFactory;
+import org.jnosql.diana.api.metrics.MetricsRegistry;
+import org.jnosql.diana.api.metrics.OperationStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MeteredColumnFamilyManagerTest {
+
+    private final MetricsRegistry registry = MetricsRegistry.of();
+
+    private MemoryColumnFamilyManagerFactory factory;
+
+    @Before
+    public void setUp() {
+        factory = new MemoryColumnConfiguration().getAsync();
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldRecordOperations() {
+        MeteredColumnFamilyManager manager = MeteredColumnFamilyManager.of(factory.get("database"), registry);
+        manager.insert(person(1L, "Ada"));
+        manager.insert(Arrays.asList(person(2L, "Alan"), person(3L, "Grace")));
+        manager.update(person(1L, "Ada Lovelace"));
+        assertEquals(3, manager.select(ColumnQuery.of("person")).size());
+        manager.delete(ColumnDeleteQuery.of("person"));
+        OperationStats insert = find("column", "insert");
+        assertEquals(2L, insert.getCount());
+        assertEquals(3L, insert.getResultSize().getSum());
+        assertEquals(3L, find("column", "select").getResultSize().getMax());
+        assertEquals(1L, find("column", "update").getCount());
+        assertEquals(0L, find("column", "delete").getResultSize().getCount());
+    }
+
+    @Test
+    public void shouldRecordAsyncOperations() throws InterruptedException {
+        MeteredColumnFamilyManagerAsync manager = MeteredColumnFamilyManagerAsync.of(factory.getAsync("database"),
+                registry);
+        CountDownLatch inserted = new CountDownLatch(1);
+        manager.insert(person(1L, "Ada"), e -> inserted.countDown());
+        manager.insert(Arrays.asList(person(2L, "Alan"), person(3L, "Grace")));
+        assertTrue(inserted.await(5L, TimeUnit.SECONDS));
+        awaitCount("insert", 2L);
+        CountDownLatch selected = new CountDownLatch(1);
+        manager.select(ColumnQuery.of("person"), entities -> selected.countDown());
+        assertTrue(selected.await(5L, TimeUnit.SECONDS));
+        awaitCount("select", 1L);
+        assertEquals(3L, find("column-async", "insert").getResultSize().getSum());
+        assertEquals(0L, find("column-async", "select").getInFlight());
+    }
+
+    private void awaitCount(String operation, long count) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            if (registry.getOperations().stream().anyMatch(s -> s.getManager().equals("column-async")
+                    && s.getOperation().equals(operation) && s.getCount() == count)) {
+                return;
+            }
+            Thread.sleep(10L);
+        }
+        fail("The operation " + operation + " was not recorded " + count + " times");
+    }
+
+    private OperationStats find(String manager, String operation) {
+        return registry.getOperations().stream().filter(s -> s.getManager().equals(manager)
+                && s.getOperation().equals(operation) && s.getCollection().equals("person")).findFirst()
+                .orElseThrow(() -> new AssertionError("There is no " + manager + "." + operation));
+    }
+
+    private static ColumnEntity person(long id, String name) {
+        return ColumnEntity.of("person", Arrays.asList(Column.of("id", id), Column.of("name", name)));
+    }
+}
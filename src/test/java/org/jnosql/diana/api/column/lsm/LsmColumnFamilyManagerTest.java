@@ -0,0 +1,255 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.lsm;
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnCondition;
+import org.jnosql.diana.api.column.ColumnDeleteQuery;
+import org.jnosql.diana.api.column.ColumnEntity;
+import org.jnosql.diana.api.column.ColumnQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LsmColumnFamilyManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LsmColumnConfiguration configuration;
+
+    private LsmColumnFamilyManagerFactory factory;
+
+    private LsmColumnFamilyManager manager;
+
+    @Before
+    public void setUp() {
+        configuration = new LsmColumnConfiguration(folder.getRoot().toPath(), "id", 4096, 512, 2, true,
+                Duration.ofMinutes(1L));
+        factory = configuration.get();
+        manager = factory.get("database");
+        manager.insert(person(3, "Poliana", 28));
+        manager.insert(person(1, "Ada", 36));
+        manager.insert(person(4, "Alan", 41));
+        manager.insert(person(2, "Otavio", 30));
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldShareTheDatabase() {
+        assertSame(manager, factory.get("database"));
+        assertTrue(factory.get("other").select(ColumnQuery.of("person")).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenThereIsNoKey() {
+        manager.insert(ColumnEntity.of("person", Arrays.asList(Column.of("name", "Ada"))));
+    }
+
+    @Test
+    public void shouldSelectByKey() {
+        factory.flush();
+        manager.insert(person(5, "Grace", 45));
+        assertThat(names(manager.select(ColumnQuery.of("person"))),
+                contains("Ada", "Otavio", "Poliana", "Alan", "Grace"));
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 2)))), contains("Otavio"));
+        assertThat(names(select(ColumnCondition.in(Column.of("id", Arrays.asList(5, 1, 9))))),
+                contains("Ada", "Grace"));
+        assertThat(names(select(ColumnCondition.gt(Column.of("id", 2)))), contains("Poliana", "Alan", "Grace"));
+        assertThat(names(select(ColumnCondition.lt(Column.of("id", 2.5)))), contains("Ada", "Otavio"));
+        assertThat(names(select(ColumnCondition.between(Column.of("id", Arrays.asList(2, 4))))),
+                contains("Otavio", "Poliana", "Alan"));
+        ColumnCondition range = ColumnCondition.gt(Column.of("id", 1)).and(ColumnCondition.lte(Column.of("id", 3)));
+        assertThat(names(select(range.and(ColumnCondition.lt(Column.of("age", 30))))), contains("Poliana"));
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 1))
+                .or(ColumnCondition.gte(Column.of("id", 5))))), contains("Ada", "Grace"));
+    }
+
+    @Test
+    public void shouldSelectByOtherColumns() {
+        assertThat(names(select(ColumnCondition.gt(Column.of("age", 30)))), contains("Ada", "Alan"));
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 1))
+                .or(ColumnCondition.eq(Column.of("name", "Alan"))))), contains("Ada", "Alan"));
+    }
+
+    @Test
+    public void shouldSortPaginateAndProject() {
+        ColumnQuery query = ColumnQuery.of("person").addSort(Sort.of("age", DESC)).withFirstResult(1)
+                .withMaxResults(2);
+        query.addColumn("name");
+        List<ColumnEntity> entities = manager.select(query);
+        assertThat(names(entities), contains("Ada", "Otavio"));
+        assertEquals(1, entities.get(0).size());
+        assertThat(names(manager.select(ColumnQuery.of("person").withFirstResult(1).withMaxResults(2))),
+                contains("Otavio", "Poliana"));
+    }
+
+    @Test
+    public void shouldReadTheNewestVersion() {
+        factory.flush();
+        manager.update(person(2, "Otavio Santana", 31));
+        factory.flush();
+        manager.delete(ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 1))));
+        assertThat(names(manager.select(ColumnQuery.of("person"))), contains("Otavio Santana", "Poliana", "Alan"));
+        factory.flush();
+        assertThat(names(select(ColumnCondition.lte(Column.of("id", 2)))), contains("Otavio Santana"));
+    }
+
+    @Test
+    public void shouldDeleteColumns() {
+        ColumnDeleteQuery query = ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 1)));
+        query.add("age");
+        manager.delete(query);
+        ColumnEntity entity = select(ColumnCondition.eq(Column.of("id", 1))).get(0);
+        assertFalse(entity.find("age").isPresent());
+        assertTrue(entity.find("name").isPresent());
+        manager.delete(ColumnDeleteQuery.of("person"));
+        assertTrue(manager.select(ColumnQuery.of("person")).isEmpty());
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentPutsWhenDeletingColumns() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread deleter = new Thread(() -> {
+            while (running.get()) {
+                ColumnDeleteQuery query = ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 1)));
+                query.add("name");
+                manager.delete(query);
+            }
+        });
+        deleter.start();
+        try {
+            for (int age = 0; age < 300; age++) {
+                manager.insert(person(1, "Ada", age));
+                ColumnEntity entity = select(ColumnCondition.eq(Column.of("id", 1))).get(0);
+                assertEquals(age, entity.find("age").get().get(Integer.class).intValue());
+            }
+        } finally {
+            running.set(false);
+            deleter.join();
+        }
+    }
+
+    @Test
+    public void shouldCompactInLevels() {
+        LongStream.range(0, 2000).forEach(id -> manager.insert(person(id, "person " + id, (int) (id % 90))));
+        manager.delete(ColumnDeleteQuery.of("person", ColumnCondition.lt(Column.of("id", 1000))));
+        factory.flush();
+        assertTrue(factory.compact() > 0);
+        assertEquals(0, factory.compact());
+        List<Integer> segments = manager.family("person").getTree().getSegments();
+        assertTrue(segments.get(0) < LsmTree.LEVEL0_LIMIT);
+        assertTrue(segments.size() > 2);
+        assertEquals(1000, manager.select(ColumnQuery.of("person")).size());
+        assertThat(names(select(ColumnCondition.between(Column.of("id", Arrays.asList(1498, 1500))))),
+                contains("person 1498", "person 1499", "person 1500"));
+        assertTrue(select(ColumnCondition.eq(Column.of("id", 999))).isEmpty());
+        assertEquals(10, manager.select(ColumnQuery.of("person").and(ColumnCondition.gte(Column.of("id", 1990))))
+                .size());
+    }
+
+    @Test
+    public void shouldRecoverAfterReopen() {
+        factory.flush();
+        manager.insert(person(5, "Grace", 45));
+        manager.delete(ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 3))));
+        factory.close();
+        factory = configuration.get();
+        manager = factory.get("database");
+        assertThat(names(manager.select(ColumnQuery.of("person"))), contains("Ada", "Otavio", "Alan", "Grace"));
+    }
+
+    @Test
+    public void shouldDeleteLeftoverSegments() throws IOException {
+        factory.flush();
+        factory.close();
+        Path family = folder.getRoot().toPath().resolve("database").resolve("person");
+        Path leftover = family.resolve(String.format("%020d", 999) + ".sst");
+        Files.write(leftover, new byte[]{1, 2, 3});
+        factory = configuration.get();
+        manager = factory.get("database");
+        assertEquals(4, manager.select(ColumnQuery.of("person")).size());
+        assertFalse(Files.exists(leftover));
+        try (Stream<Path> files = Files.list(family)) {
+            assertEquals(1, files.filter(f -> f.toString().endsWith(".sst")).count());
+        }
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        manager.insert(person(5, "Grace", 45), Duration.ofMillis(50));
+        assertEquals(5, manager.select(ColumnQuery.of("person")).size());
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(select(ColumnCondition.eq(Column.of("id", 5))).isEmpty());
+        assertEquals(4, manager.select(ColumnQuery.of("person")).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenFanoutIsLesserThanTwo() {
+        new LsmColumnConfiguration(folder.getRoot().toPath(), "id", 4096, 512, 1, true, Duration.ofMinutes(1L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenFactoryIsClosed() {
+        LsmColumnFamily family = manager.family("person");
+        factory.close();
+        family.select(null, Collections.emptyList(), 0, 0, Collections.emptyList());
+    }
+
+    private List<ColumnEntity> select(ColumnCondition condition) {
+        return manager.select(ColumnQuery.of("person").and(condition));
+    }
+
+    private static List<String> names(List<ColumnEntity> entities) {
+        return entities.stream().map(e -> e.find("name").get().get(String.class)).collect(toList());
+    }
+
+    private static ColumnEntity person(long id, String name, int age) {
+        return ColumnEntity.of("person", Arrays.asList(Column.of("id", id), Column.of("name", name),
+                Column.of("age", age)));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnDeleteQuery;
+import org.jnosql.diana.api.column.ColumnEntity;
+import org.jnosql.diana.api.column.ColumnQuery;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryColumnFamilyManagerAsyncTest {
+
+    private final MemoryColumnFamilyManagerFactory factory =
+            new MemoryColumnConfiguration("key", Runnable::run, Duration.ofMinutes(1L)).getAsync();
+
+    private final MemoryColumnFamilyManagerAsync manager = factory.getAsync("database");
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldInsertAndSelect() {
+        AtomicReference<ColumnEntity> inserted = new AtomicReference<>();
+        manager.insert(ColumnEntity.of("person", Arrays.asList(Column.of("key", "ada"))), inserted::set);
+        assertEquals("person", inserted.get().getName());
+
+        AtomicReference<List<ColumnEntity>> entities = new AtomicReference<>();
+        manager.select(ColumnQuery.of("person"), entities::set);
+        assertEquals(1, entities.get().size());
+        assertEquals(1, factory.get("database").select(ColumnQuery.of("person")).size());
+    }
+
+    @Test
+    public void shouldDelete() {
+        manager.insert(ColumnEntity.of("person", Arrays.asList(Column.of("key", "ada"))));
+        AtomicBoolean deleted = new AtomicBoolean();
+        manager.delete(ColumnDeleteQuery.of("person"), v -> deleted.set(true));
+        assertTrue(deleted.get());
+        assertTrue(factory.get("database").select(ColumnQuery.of("person")).isEmpty());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.column.memory;
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.column.Column;
+import org.jnosql.diana.api.column.ColumnCondition;
+import org.jnosql.diana.api.column.ColumnDeleteQuery;
+import org.jnosql.diana.api.column.ColumnEntity;
+import org.jnosql.diana.api.column.ColumnQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryColumnFamilyManagerTest {
+
+    private MemoryColumnFamilyManagerFactory factory;
+
+    private MemoryColumnFamilyManager manager;
+
+    @Before
+    public void setUp() {
+        factory = new MemoryColumnConfiguration().get();
+        manager = factory.get("database");
+        manager.insert(person(3, "Poliana", 28));
+        manager.insert(person(1, "Ada", 36));
+        manager.insert(person(4, "Alan", 41));
+        manager.insert(person(2, "Otavio", 30));
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldShareTheDatabase() {
+        assertSame(manager, factory.get("database"));
+        assertTrue(factory.get("other").select(ColumnQuery.of("person")).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenThereIsNoKey() {
+        manager.insert(ColumnEntity.of("person", Arrays.asList(Column.of("name", "Ada"))));
+    }
+
+    @Test
+    public void shouldSelectInKeyOrder() {
+        assertThat(names(manager.select(ColumnQuery.of("person"))), contains("Ada", "Otavio", "Poliana", "Alan"));
+    }
+
+    @Test
+    public void shouldUpdate() {
+        manager.update(person(2, "Otavio Santana", 31));
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 2)))), contains("Otavio Santana"));
+        assertEquals(4, manager.select(ColumnQuery.of("person")).size());
+    }
+
+    @Test
+    public void shouldSelectByKey() {
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 2L)))), contains("Otavio"));
+        assertThat(names(select(ColumnCondition.in(Column.of("id", Arrays.asList(4, 1, 9))))),
+                contains("Ada", "Alan"));
+        assertThat(names(select(ColumnCondition.gt(Column.of("id", 2)))), contains("Poliana", "Alan"));
+        assertThat(names(select(ColumnCondition.gte(Column.of("id", 2)))), contains("Otavio", "Poliana", "Alan"));
+        assertThat(names(select(ColumnCondition.lt(Column.of("id", 2.5)))), contains("Ada", "Otavio"));
+        assertThat(names(select(ColumnCondition.lte(Column.of("id", 2)))), contains("Ada", "Otavio"));
+        assertThat(names(select(ColumnCondition.between(Column.of("id", Arrays.asList(2, 3))))),
+                contains("Otavio", "Poliana"));
+    }
+
+    @Test
+    public void shouldIntersectKeyRanges() {
+        ColumnCondition range = ColumnCondition.gt(Column.of("id", 1)).and(ColumnCondition.lte(Column.of("id", 3)));
+        assertThat(names(select(range)), contains("Otavio", "Poliana"));
+        assertThat(names(select(range.and(ColumnCondition.lt(Column.of("age", 30))))), contains("Poliana"));
+        ColumnCondition empty = ColumnCondition.gt(Column.of("id", 3)).and(ColumnCondition.lt(Column.of("id", 3)));
+        assertTrue(select(empty).isEmpty());
+    }
+
+    @Test
+    public void shouldSelectByOtherColumns() {
+        assertThat(names(select(ColumnCondition.gt(Column.of("age", 30)))), contains("Ada", "Alan"));
+        assertThat(names(select(ColumnCondition.like(Column.of("name", "A%")))), contains("Ada", "Alan"));
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 1))
+                .or(ColumnCondition.eq(Column.of("name", "Alan"))))), contains("Ada", "Alan"));
+        assertThat(names(select(ColumnCondition.eq(Column.of("id", 1)).negate())),
+                contains("Otavio", "Poliana", "Alan"));
+    }
+
+    @Test
+    public void shouldSortPaginateAndProject() {
+        ColumnQuery query = ColumnQuery.of("person").addSort(Sort.of("age", DESC)).withFirstResult(1)
+                .withMaxResults(2);
+        query.addColumn("name");
+        List<ColumnEntity> entities = manager.select(query);
+        assertThat(names(entities), contains("Ada", "Otavio"));
+        assertEquals(1, entities.get(0).size());
+    }
+
+    @Test
+    public void shouldDelete() {
+        manager.delete(ColumnDeleteQuery.of("person", ColumnCondition.lt(Column.of("id", 3))));
+        assertThat(names(manager.select(ColumnQuery.of("person"))), contains("Poliana", "Alan"));
+        manager.delete(ColumnDeleteQuery.of("person"));
+        assertTrue(manager.select(ColumnQuery.of("person")).isEmpty());
+    }
+
+    @Test
+    public void shouldDeleteColumns() {
+        ColumnDeleteQuery query = ColumnDeleteQuery.of("person", ColumnCondition.eq(Column.of("id", 1)));
+        query.add("age");
+        manager.delete(query);
+        ColumnEntity entity = select(ColumnCondition.eq(Column.of("id", 1))).get(0);
+        assertFalse(entity.find("age").isPresent());
+        assertTrue(entity.find("name").isPresent());
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        manager.insert(person(5, "Grace", 45), Duration.ofMillis(50));
+        assertEquals(5, manager.select(ColumnQuery.of("person")).size());
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(select(ColumnCondition.eq(Column.of("id", 5))).isEmpty());
+        assertEquals(1, factory.purge());
+        assertEquals(0, factory.purge());
+    }
+
+    @Test
+    public void shouldReapExpiredRows() throws InterruptedException {
+        MemoryColumnFamilyManagerFactory reaped = new MemoryColumnConfiguration("id", ForkJoinPool.commonPool(),
+                Duration.ofMillis(10)).get();
+        reaped.get("database").insert(person(1, "Ada", 36), Duration.ofMillis(10));
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(0, reaped.purge());
+        reaped.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenReaperIntervalIsZero() {
+        new MemoryColumnConfiguration("id", ForkJoinPool.commonPool(), Duration.ZERO);
+    }
+
+    private List<ColumnEntity> select(ColumnCondition condition) {
+        return manager.select(ColumnQuery.of("person").and(condition));
+    }
+
+    private static List<String> names(List<ColumnEntity> entities) {
+        return entities.stream().map(e -> e.find("name").get().get(String.class)).collect(toList());
+    }
+
+    private static ColumnEntity person(long id, String name, int age) {
+        return ColumnEntity.of("person", Arrays.asList(Column.of("id", id), Column.of("name", name),
+                Column.of("age", age)));
+    }
+}
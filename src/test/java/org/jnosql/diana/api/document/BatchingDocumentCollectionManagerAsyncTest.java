@@ -0,0 +1,273 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.document.memory.MemoryDocumentCollectionManagerFactory;
+import org.jnosql.diana.api.document.memory.MemoryDocumentConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchingDocumentCollectionManagerAsyncTest {
+
+    private MemoryDocumentCollectionManagerFactory factory;
+
+    private RecordingDocumentCollectionManagerAsync delegate;
+
+    @Before
+    public void setUp() {
+        factory = new MemoryDocumentConfiguration().getAsync();
+        delegate = new RecordingDocumentCollectionManagerAsync(factory.getAsync("database"));
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        BatchingDocumentCollectionManagerAsync.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBatchSizeIsInvalid() {
+        BatchingDocumentCollectionManagerAsync.of(delegate, Duration.ofMillis(1L), 0);
+    }
+
+    @Test
+    public void shouldBatchConcurrentInserts() throws InterruptedException {
+        BatchingDocumentCollectionManagerAsync manager = BatchingDocumentCollectionManagerAsync.of(delegate,
+                Duration.ofSeconds(10L), 100);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(100);
+        Map<Long, DocumentEntity> saved = new ConcurrentHashMap<>();
+        for (long id = 0; id < 100; id++) {
+            long key = id;
+            callers.execute(() -> manager.insert(person(key, "person" + key), entity -> {
+                saved.put(key, entity);
+                done.countDown();
+            }));
+        }
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        callers.shutdown();
+        assertEquals(Arrays.asList(100), delegate.bulkSizes);
+        saved.forEach((key, entity) -> assertEquals(key, entity.find("_id").get().get()));
+    }
+
+    @Test
+    public void shouldDispatchAfterLinger() throws InterruptedException {
+        BatchingDocumentCollectionManagerAsync manager = BatchingDocumentCollectionManagerAsync.of(delegate,
+                Duration.ofMillis(5L), 100);
+        CountDownLatch done = new CountDownLatch(3);
+        manager.insert(person(1L, "Ada"), e -> done.countDown());
+        manager.insert(person(2L, "Alan"), Duration.ofMinutes(1L), e -> done.countDown());
+        manager.update(person(1L, "Ada Lovelace"), e -> done.countDown());
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        assertEquals(3, delegate.bulkSizes.size());
+        assertTrue(delegate.bulkSizes.stream().allMatch(size -> size == 1));
+        CountDownLatch selected = new CountDownLatch(1);
+        manager.select(DocumentQuery.of("person"), entities -> {
+            assertEquals(2, entities.size());
+            selected.countDown();
+        });
+        assertTrue(selected.await(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldFallBackWhenBulkIsRejected() throws InterruptedException {
+        BatchingDocumentCollectionManagerAsync manager = BatchingDocumentCollectionManagerAsync.of(delegate,
+                Duration.ofSeconds(10L), 2);
+        delegate.rejectBulk.set(true);
+        CountDownLatch done = new CountDownLatch(2);
+        manager.insert(person(1L, "Ada"), e -> done.countDown());
+        manager.insert(person(2L, "Alan"), e -> done.countDown());
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        assertTrue(delegate.bulkSizes.isEmpty());
+    }
+
+    @Test
+    public void shouldCompleteEachCallbackWhenOneFails() throws InterruptedException {
+        BatchingDocumentCollectionManagerAsync manager = BatchingDocumentCollectionManagerAsync.of(delegate,
+                Duration.ofSeconds(10L), 3);
+        CountDownLatch done = new CountDownLatch(2);
+        manager.insert(person(1L, "Ada"), e -> {
+            throw new IllegalStateException("callback");
+        });
+        manager.insert(person(2L, "Alan"), e -> done.countDown());
+        manager.insert(person(3L, "Grace"), e -> done.countDown());
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(3), delegate.bulkSizes);
+    }
+
+    @Test
+    public void shouldCompleteEachCallbackWhenResultsAreMissing() throws InterruptedException {
+        BatchingDocumentCollectionManagerAsync manager = BatchingDocumentCollectionManagerAsync.of(delegate,
+                Duration.ofSeconds(10L), 2);
+        delegate.truncateBulk.set(true);
+        CountDownLatch done = new CountDownLatch(2);
+        Map<Long, DocumentEntity> saved = new ConcurrentHashMap<>();
+        for (long id = 1; id <= 2; id++) {
+            long key = id;
+            manager.insert(person(key, "person" + key), entity -> {
+                saved.put(key, entity);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        saved.forEach((key, entity) -> assertEquals(key, entity.find("_id").get().get()));
+    }
+
+    @Test
+    public void shouldDrainOnClose() throws InterruptedException {
+        BatchingDocumentCollectionManagerAsync manager = BatchingDocumentCollectionManagerAsync.of(delegate,
+                Duration.ofSeconds(10L), 100);
+        CountDownLatch done = new CountDownLatch(1);
+        manager.insert(person(1L, "Ada"), e -> done.countDown());
+        manager.flush();
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        manager.insert(person(2L, "Alan"));
+        manager.close();
+        assertEquals(Arrays.asList(1, 1), delegate.bulkSizes);
+    }
+
+    private static DocumentEntity person(long id, String name) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("_id", id), Document.of("name", name)));
+    }
+
+    private static class RecordingDocumentCollectionManagerAsync implements DocumentCollectionManagerAsync {
+
+        private final DocumentCollectionManagerAsync manager;
+
+        private final List<Integer> bulkSizes = new CopyOnWriteArrayList<>();
+
+        private final AtomicBoolean rejectBulk = new AtomicBoolean();
+
+        private final AtomicBoolean truncateBulk = new AtomicBoolean();
+
+        RecordingDocumentCollectionManagerAsync(DocumentCollectionManagerAsync manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public void insert(DocumentEntity entity) {
+            manager.insert(entity);
+        }
+
+        @Override
+        public void insert(DocumentEntity entity, Duration ttl) {
+            manager.insert(entity, ttl);
+        }
+
+        @Override
+        public void insert(DocumentEntity entity, Consumer<DocumentEntity> callBack) {
+            manager.insert(entity, callBack);
+        }
+
+        @Override
+        public void insert(DocumentEntity entity, Duration ttl, Consumer<DocumentEntity> callBack) {
+            manager.insert(entity, ttl, callBack);
+        }
+
+        @Override
+        public void insert(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) {
+            record(entities);
+            manager.insert(entities, truncate(callBack));
+        }
+
+        @Override
+        public void insert(Iterable<DocumentEntity> entities, Duration ttl,
+                           Consumer<List<DocumentEntity>> callBack) {
+            record(entities);
+            manager.insert(entities, ttl, callBack);
+        }
+
+        @Override
+        public void update(DocumentEntity entity) {
+            manager.update(entity);
+        }
+
+        @Override
+        public void update(DocumentEntity entity, Consumer<DocumentEntity> callBack) {
+            manager.update(entity, callBack);
+        }
+
+        @Override
+        public void update(Iterable<DocumentEntity> entities, Consumer<List<DocumentEntity>> callBack) {
+            record(entities);
+            manager.update(entities, callBack);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            manager.delete(query);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query, Consumer<Void> callBack) {
+            manager.delete(query, callBack);
+        }
+
+        @Override
+        public void select(DocumentQuery query, Consumer<List<DocumentEntity>> callBack) {
+            manager.select(query, callBack);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Drops the last result when {@link #truncateBulk} is set, like a driver that loses a result
+         */
+        private Consumer<List<DocumentEntity>> truncate(Consumer<List<DocumentEntity>> callBack) {
+            if (!truncateBulk.get()) {
+                return callBack;
+            }
+            return results -> callBack.accept(results.subList(0, results.size() - 1));
+        }
+
+        private void record(Iterable<DocumentEntity> entities) {
+            if (rejectBulk.get()) {
+                throw new IllegalStateException("rejected");
+            }
+            int size = 0;
+            for (DocumentEntity ignored : entities) {
+                size++;
+            }
+            bulkSizes.add(size);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.cache.Cache;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CachedDocumentCollectionManagerTest {
+
+    private final ListDocumentCollectionManager delegate = new ListDocumentCollectionManager();
+
+    private final CachedDocumentCollectionManager manager = CachedDocumentCollectionManager.of(delegate, 100);
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        CachedDocumentCollectionManager.of(null, 100);
+    }
+
+    @Test
+    public void shouldServeFromCache() {
+        manager.insert(DocumentEntity.of("person", singletonList(Document.of("name", "Otavio"))));
+        List<DocumentEntity> first = manager.select(query());
+        List<DocumentEntity> second = manager.select(query());
+        assertSame(first, second);
+        assertEquals(1, delegate.selects);
+        assertEquals(1, manager.getStats().getHitCount());
+    }
+
+    @Test
+    public void shouldInvalidateTheCollection() {
+        manager.insert(DocumentEntity.of("person", singletonList(Document.of("name", "Otavio"))));
+        manager.select(query());
+        manager.select(DocumentQuery.of("animal"));
+        manager.update(DocumentEntity.of("person", singletonList(Document.of("name", "Poliana"))));
+        assertEquals(2, manager.select(query()).size());
+        manager.select(DocumentQuery.of("animal"));
+        assertEquals(3, delegate.selects);
+        manager.delete(DocumentDeleteQuery.of("person"));
+        manager.select(query());
+        assertEquals(4, delegate.selects);
+    }
+
+    @Test
+    public void shouldNotScanTheCacheOnWrites() {
+        Cache<Object, List<DocumentEntity>> cache = Cache.of(100);
+        CachedDocumentCollectionManager cached = CachedDocumentCollectionManager.of(delegate, cache);
+        cached.select(query());
+        cached.insert(DocumentEntity.of("person", singletonList(Document.of("name", "Otavio"))));
+        assertEquals(1, cache.size());
+        assertEquals(1, cached.select(query()).size());
+        assertEquals(2, delegate.selects);
+        assertEquals(2, cache.size());
+        cached.invalidate("person");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldInvalidateTheCollectionsOfBulkWrites() {
+        manager.select(query());
+        manager.select(DocumentQuery.of("animal"));
+        manager.select(DocumentQuery.of("city"));
+        List<DocumentEntity> entities = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            entities.add(DocumentEntity.of(index % 2 == 0 ? "person" : "animal",
+                    singletonList(Document.of("name", "name" + index))));
+        }
+        manager.insert(entities::iterator);
+        assertEquals(50, manager.select(query()).size());
+        assertEquals(50, manager.select(DocumentQuery.of("animal")).size());
+        manager.select(DocumentQuery.of("city"));
+        assertEquals(5, delegate.selects);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnReadOnlyEntities() {
+        manager.insert(DocumentEntity.of("person", singletonList(Document.of("name", "Otavio"))));
+        manager.select(query()).get(0).add(Document.of("age", 26));
+    }
+
+    @Test
+    public void shouldCopyReadOnlyEntities() {
+        manager.insert(DocumentEntity.of("person", singletonList(Document.of("name", "Otavio"))));
+        DocumentEntity entity = manager.select(query()).get(0).copy();
+        entity.add(Document.of("age", 26));
+        assertEquals(2, entity.size());
+        assertEquals(delegate.entities.get(0), manager.select(query()).get(0));
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        CachedDocumentCollectionManager manager = CachedDocumentCollectionManager.of(delegate, Cache.of(10),
+                Duration.ofMillis(10L));
+        manager.select(query());
+        Thread.sleep(50L);
+        manager.select(query());
+        assertEquals(2, delegate.selects);
+    }
+
+    private DocumentQuery query() {
+        return DocumentQuery.of("person").and(DocumentCondition.eq(Document.of("active", true)));
+    }
+
+    private static class ListDocumentCollectionManager implements DocumentCollectionManager {
+
+        private final List<DocumentEntity> entities = new ArrayList<>();
+
+        private int selects;
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity) {
+            entities.add(entity);
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity, Duration ttl) {
+            return insert(entity);
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            return insert(entity);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            entities.removeIf(e -> e.getName().equals(query.getCollection()));
+        }
+
+        @Override
+        public List<DocumentEntity> select(DocumentQuery query) {
+            selects++;
+            return entities.stream().filter(e -> e.getName().equals(query.getCollection()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
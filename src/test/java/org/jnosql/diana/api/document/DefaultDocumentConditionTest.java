@@ -228,4 +228,45 @@ public class DefaultDocumentConditionTest {
         Assert.assertThat(integers, contains(12, 13));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldChainManyConditions() {
+        DocumentCondition or = DocumentCondition.eq(Document.of("id", 0));
+        for (int index = 1; index < 500; index++) {
+            or = or.or(DocumentCondition.eq(Document.of("id", index)));
+        }
+        List<DocumentCondition> conditions = or.getDocument().get(new TypeReference<List<DocumentCondition>>() {
+        });
+        assertEquals(OR, or.getCondition());
+        assertEquals(500, conditions.size());
+        assertEquals(DocumentCondition.eq(Document.of("id", 499)), conditions.get(499));
+    }
+
+    @Test
+    public void shouldFlattenNestedConditions() {
+        DocumentCondition eq = DocumentCondition.eq(Document.of("name", "otavio"));
+        DocumentCondition gt = DocumentCondition.gt(Document.of("age", 10));
+        DocumentCondition lte = DocumentCondition.lte(Document.of("salary", 10_000.00));
+        DocumentCondition and = eq.and(gt.and(lte));
+        assertThat(and.getDocument().get(new TypeReference<List<DocumentCondition>>() {
+        }), contains(eq, gt, lte));
+        assertEquals(and, DocumentCondition.and(eq, DocumentCondition.and(gt, lte)));
+        assertEquals(and.hashCode(), DocumentCondition.and(eq, gt, lte).hashCode());
+    }
+
+    @Test
+    public void shouldKeepBranchesIndependent() {
+        DocumentCondition eq = DocumentCondition.eq(Document.of("name", "otavio"));
+        DocumentCondition gt = DocumentCondition.gt(Document.of("age", 10));
+        DocumentCondition lte = DocumentCondition.lte(Document.of("salary", 10_000.00));
+        DocumentCondition in = DocumentCondition.in(Document.of("city", Arrays.asList("Salvador", "Lisbon")));
+        DocumentCondition and = eq.and(gt);
+        DocumentCondition left = and.and(lte);
+        DocumentCondition right = and.and(in);
+        assertThat(and.getDocument().get(new TypeReference<List<DocumentCondition>>() {
+        }), contains(eq, gt));
+        assertThat(left.getDocument().get(new TypeReference<List<DocumentCondition>>() {
+        }), contains(eq, gt, lte));
+        assertThat(right.getDocument().get(new TypeReference<List<DocumentCondition>>() {
+        }), contains(eq, gt, in));
+    }
+}
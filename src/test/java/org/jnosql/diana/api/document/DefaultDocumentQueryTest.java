@@ -133,4 +133,12 @@ public class DefaultDocumentQueryTest {
         assertThat(query.getDocuments(), contains(columnDeleteQuery.getDocuments().get(0)));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldBeEqualsWhenHasTheSameCondition() {
+        DocumentQuery query = DocumentQuery.of("select").and(DocumentCondition.eq(Document.of("name", "Ada")));
+        DocumentQuery query2 = DocumentQuery.of("select").and(DocumentCondition.eq(Document.of("name", "Ada")));
+        assertEquals(query, query2);
+        assertEquals(query.hashCode(), query2.hashCode());
+    }
+}
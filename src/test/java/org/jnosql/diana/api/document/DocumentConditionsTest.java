@@ -0,0 +1,132 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentConditionsTest {
+
+    private final DocumentEntity ada = DocumentEntity.of("person", Arrays.asList(Document.of("name", "Ada"),
+            Document.of("age", 36), Document.of("salary", 1500.5), Document.of("birthday", LocalDate.of(1815, 12, 10)),
+            Document.of("address", Arrays.asList(Document.of("city", "London"), Document.of("zip", 10)))));
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenConditionIsNull() {
+        DocumentConditions.compile(null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnErrorWhenConditionIsSubquery() {
+        DocumentConditions.compile(DocumentCondition.subquery(DocumentQuery.of("person")));
+    }
+
+    @Test
+    public void shouldCompareNumbersByValue() {
+        assertTrue(test(DocumentCondition.eq(Document.of("age", 36L))));
+        assertTrue(test(DocumentCondition.eq(Document.of("age", 36.0))));
+        assertTrue(test(DocumentCondition.eq(Document.of("age", new BigDecimal("36.00")))));
+        assertTrue(test(DocumentCondition.eq(Document.of("salary", new BigDecimal("1500.50")))));
+        assertFalse(test(DocumentCondition.eq(Document.of("age", "36"))));
+        assertTrue(test(DocumentCondition.gt(Document.of("age", 35.5))));
+        assertTrue(test(DocumentCondition.gte(Document.of("age", BigInteger.valueOf(36)))));
+        assertTrue(test(DocumentCondition.lt(Document.of("salary", 1501))));
+        assertFalse(test(DocumentCondition.lte(Document.of("salary", 1500))));
+        assertFalse(test(DocumentCondition.gt(Document.of("age", Double.NaN))));
+        assertTrue(test(DocumentCondition.lt(Document.of("age", Double.POSITIVE_INFINITY))));
+    }
+
+    @Test
+    public void shouldCompareComparables() {
+        assertTrue(test(DocumentCondition.gt(Document.of("name", "Ab"))));
+        assertTrue(test(DocumentCondition.lt(Document.of("birthday", LocalDate.of(1900, 1, 1)))));
+        assertFalse(test(DocumentCondition.lt(Document.of("name", 10))));
+        assertFalse(test(DocumentCondition.gt(Document.of("age", "A"))));
+        assertFalse(test(DocumentCondition.gt(Document.of("unknown", 1))));
+    }
+
+    @Test
+    public void shouldEvaluateInAndBetween() {
+        assertTrue(test(DocumentCondition.in(Document.of("age", Arrays.asList(1, 36.0, "36")))));
+        assertFalse(test(DocumentCondition.in(Document.of("age", Arrays.asList(1, "36")))));
+        assertTrue(test(DocumentCondition.in(Document.of("name", Arrays.asList("Alan", "Ada")))));
+        assertTrue(test(DocumentCondition.between(Document.of("age", Arrays.asList(30, 36L)))));
+        assertFalse(test(DocumentCondition.between(Document.of("age", Arrays.asList(37, 40)))));
+    }
+
+    @Test
+    public void shouldEvaluateLike() {
+        assertTrue(test(DocumentCondition.like(Document.of("name", "Ada"))));
+        assertTrue(test(DocumentCondition.like(Document.of("name", "A%"))));
+        assertTrue(test(DocumentCondition.like(Document.of("name", "%da"))));
+        assertTrue(test(DocumentCondition.like(Document.of("name", "%d%"))));
+        assertTrue(test(DocumentCondition.like(Document.of("name", "A_a"))));
+        assertTrue(test(DocumentCondition.like(Document.of("name", "%"))));
+        assertTrue(test(DocumentCondition.like(Document.of("name", "A%a%"))));
+        assertFalse(test(DocumentCondition.like(Document.of("name", "a%"))));
+        assertFalse(test(DocumentCondition.like(Document.of("name", "A.a"))));
+        assertFalse(test(DocumentCondition.like(Document.of("age", "3%"))));
+    }
+
+    @Test
+    public void shouldGoThroughSubdocuments() {
+        assertTrue(test(DocumentCondition.eq(Document.of("address.city", "London"))));
+        assertTrue(test(DocumentCondition.gt(Document.of("address.zip", 9))));
+        assertFalse(test(DocumentCondition.eq(Document.of("address.country", "UK"))));
+        assertFalse(test(DocumentCondition.eq(Document.of("name.first", "Ada"))));
+        assertEquals(Optional.of("London"), DocumentConditions.value(ada, "address.city"));
+        assertEquals(Optional.empty(), DocumentConditions.value(ada, "address.country"));
+    }
+
+    @Test
+    public void shouldCombineConditions() {
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        DocumentCondition age = DocumentCondition.gt(Document.of("age", 40));
+        assertFalse(test(name.and(age)));
+        assertTrue(test(name.or(age)));
+        assertTrue(test(age.negate()));
+        assertFalse(test(age.negate().negate()));
+        assertTrue(test(name.and(age.negate()).and(DocumentCondition.lt(Document.of("age", 40)))));
+        assertTrue(test(age.or(DocumentCondition.eq(Document.of("age", 1))).or(name)));
+    }
+
+    @Test
+    public void shouldReuseThePredicate() {
+        Predicate<DocumentEntity> predicate = DocumentConditions.compile(DocumentCondition.gt(Document.of("age", 40))
+                .and(DocumentCondition.like(Document.of("name", "A%"))));
+        DocumentEntity entity = DocumentEntity.of("person", Arrays.asList(Document.of("age", 50),
+                Document.of("name", "Alan")));
+        assertTrue(predicate.test(entity));
+        assertFalse(predicate.test(ada));
+    }
+
+    private boolean test(DocumentCondition condition) {
+        return DocumentConditions.compile(condition).test(ada);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.document.memory.MemoryDocumentConfiguration;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentContinuationTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenQueryHasNoSort() {
+        DocumentContinuation.of(DocumentQuery.of("person"), person(1, "Ada", 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenEntityHasNoSortValue() {
+        DocumentContinuation.of(DocumentQuery.of("person").addSort(Sort.of("city", ASC)), person(1, "Ada", 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTokenIsInvalid() {
+        DocumentContinuation.parse("not a token");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenTokenIsTruncated() {
+        String token = DocumentContinuation.of(query(), person(1, "Ada", 10)).getToken();
+        DocumentContinuation.parse(token.substring(0, token.length() - 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSortsAreDifferent() {
+        String token = DocumentContinuation.of(query(), person(1, "Ada", 10)).getToken();
+        DocumentQuery.of("person").addSort(Sort.of("name", ASC)).withContinuation(token);
+    }
+
+    @Test
+    public void shouldNotChangeTheQueryWithContinuation() {
+        DocumentCondition condition = DocumentCondition.eq(Document.of("name", "Ada"));
+        DocumentQuery query = query().and(condition).withMaxResults(4).withFirstResult(1L).addColumn("name");
+        DocumentContinuation continuation = DocumentContinuation.of(query, person(3, "Ada", 10));
+        DocumentQuery next = query.withContinuation(continuation.getToken());
+        query.withContinuation(continuation.getToken());
+
+        assertEquals(condition, query.getCondition().get());
+        assertEquals(DocumentCondition.and(condition, continuation.toCondition()), next.getCondition().get());
+        assertEquals(query.getCollection(), next.getCollection());
+        assertEquals(query.getSorts(), next.getSorts());
+        assertEquals(query.getDocuments(), next.getDocuments());
+        assertEquals(4L, next.getMaxResults());
+        assertEquals(0L, next.getFirstResult());
+        assertEquals(1L, query.getFirstResult());
+    }
+
+    @Test
+    public void shouldCreateKeysetCondition() {
+        DocumentContinuation continuation = DocumentContinuation.of(query(), person(3, "Ada", 10));
+        DocumentCondition expected = DocumentCondition.or(DocumentCondition.lt(Document.of("age", 10)),
+                DocumentCondition.and(DocumentCondition.eq(Document.of("age", 10)),
+                        DocumentCondition.gt(Document.of("_id", 3L))));
+        assertEquals(expected, continuation.toCondition());
+        assertEquals(expected, DocumentContinuation.parse(continuation.getToken()).toCondition());
+    }
+
+    @Test
+    public void shouldReadValuesFromToken() {
+        List<Sort> sorts = Arrays.asList(Sort.of("a", ASC), Sort.of("b", DESC), Sort.of("c", ASC),
+                Sort.of("d", ASC), Sort.of("e", ASC));
+        DocumentQuery query = DocumentQuery.of("person");
+        sorts.forEach(query::addSort);
+        DocumentEntity entity = DocumentEntity.of("person", Arrays.asList(Document.of("a", "text"),
+                Document.of("b", new BigDecimal("1.50")), Document.of("c", LocalDate.of(2020, 1, 2)),
+                Document.of("d", Instant.ofEpochSecond(10)), Document.of("e", ASC)));
+        DocumentContinuation continuation = DocumentContinuation.parse(DocumentContinuation.of(query, entity)
+                .getToken());
+        assertEquals(sorts, continuation.getSorts());
+        assertThat(continuation.getValues(), contains("text", new BigDecimal("1.50"), LocalDate.of(2020, 1, 2),
+                Instant.ofEpochSecond(10), "ASC"));
+        assertTrue(Base64.getUrlDecoder().decode(continuation.getToken()).length > 0);
+    }
+
+    @Test
+    public void shouldReturnEmptyWhenPageIsLast() {
+        DocumentQuery query = query().withMaxResults(2);
+        assertFalse(DocumentContinuation.next(query, Collections.emptyList()).isPresent());
+        assertFalse(DocumentContinuation.next(query, Collections.singletonList(person(1, "Ada", 10))).isPresent());
+        assertTrue(DocumentContinuation.next(query, Arrays.asList(person(1, "Ada", 10), person(2, "Alan", 10)))
+                .isPresent());
+    }
+
+    @Test
+    public void shouldSeekPages() {
+        List<Long> ids = new ArrayList<>();
+        assertEquals(7, seek(query().withMaxResults(4), ids));
+        assertEquals(expected(), ids);
+    }
+
+    @Test
+    public void shouldSkipTheFirstResultsJustOnTheFirstPage() {
+        List<Long> ids = new ArrayList<>();
+        assertEquals(6, seek(query().withMaxResults(4).withFirstResult(2L), ids));
+        List<Long> expected = expected();
+        assertEquals(expected.subList(2, expected.size()), ids);
+    }
+
+    /**
+     * Selects every page of 25 persons from the first query, adding the ids found
+     *
+     * @return the number of pages
+     */
+    private int seek(DocumentQuery first, List<Long> ids) {
+        DocumentCollectionManager manager = new MemoryDocumentConfiguration().get().get("database");
+        for (int index = 0; index < 25; index++) {
+            manager.insert(person(index, "person" + index, index % 4));
+        }
+        Optional<DocumentContinuation> continuation = Optional.empty();
+        int pages = 0;
+        do {
+            DocumentQuery query = continuation.map(c -> first.withContinuation(c.getToken())).orElse(first);
+            List<DocumentEntity> page = manager.select(query);
+            page.forEach(e -> ids.add(e.find("_id").get().get(Long.class)));
+            continuation = DocumentContinuation.next(query, page);
+            pages++;
+        } while (continuation.isPresent());
+        return pages;
+    }
+
+    private List<Long> expected() {
+        List<Long> expected = new ArrayList<>();
+        for (int age = 3; age >= 0; age--) {
+            for (long id = 0; id < 25; id++) {
+                if (id % 4 == age) {
+                    expected.add(id);
+                }
+            }
+        }
+        return expected;
+    }
+
+    private DocumentQuery query() {
+        return DocumentQuery.of("person").addSort(Sort.of("age", DESC)).addSort(Sort.of("_id", ASC));
+    }
+
+    private DocumentEntity person(long id, String name, int age) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("_id", id), Document.of("name", name),
+                Document.of("age", age)));
+    }
+}
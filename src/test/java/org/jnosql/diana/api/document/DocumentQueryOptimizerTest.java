@@ -0,0 +1,224 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentQueryOptimizerTest {
+
+    private final DocumentQueryOptimizer optimizer = DocumentQueryOptimizer.of();
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        optimizer.optimize((DocumentQuery) null);
+    }
+
+    @Test
+    public void shouldKeepQueryWithoutCondition() {
+        DocumentQuery query = DocumentQuery.of("person").addSort(Sort.of("name", ASC)).addColumn("name")
+                .withFirstResult(2).withMaxResults(10);
+        DocumentQuery optimized = optimizer.optimize(query).get();
+        assertEquals(query, optimized);
+        assertFalse(optimized.getCondition().isPresent());
+    }
+
+    @Test
+    public void shouldPushNegationDown() {
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        DocumentCondition city = DocumentCondition.eq(Document.of("city", "London"));
+        assertEquals(DocumentCondition.or(name.negate(), city.negate()), optimize(name.and(city).negate()));
+        assertEquals(DocumentCondition.and(name.negate(), city), optimize(name.or(city.negate()).negate()));
+        assertEquals(name, optimize(name.negate().negate()));
+    }
+
+    @Test
+    public void shouldMergeRangesIntoBetween() {
+        DocumentCondition condition = DocumentCondition.and(DocumentCondition.gte(Document.of("age", 10)),
+                DocumentCondition.lte(Document.of("age", 30)), DocumentCondition.gte(Document.of("age", 18)));
+        assertEquals(DocumentCondition.between(Document.of("age", Arrays.asList(18, 30))), optimize(condition));
+    }
+
+    @Test
+    public void shouldKeepTightestExclusiveBounds() {
+        DocumentCondition condition = DocumentCondition.and(DocumentCondition.gt(Document.of("age", 10)),
+                DocumentCondition.gte(Document.of("age", 10)), DocumentCondition.lt(Document.of("age", 30.5)));
+        assertEquals(DocumentCondition.and(DocumentCondition.gt(Document.of("age", 10)),
+                DocumentCondition.lt(Document.of("age", 30.5))), optimize(condition));
+    }
+
+    @Test
+    public void shouldCollapseEqualsIntoIn() {
+        DocumentCondition condition = DocumentCondition.or(DocumentCondition.eq(Document.of("name", "Ada")),
+                DocumentCondition.eq(Document.of("age", 10)), DocumentCondition.eq(Document.of("name", "Alan")),
+                DocumentCondition.in(Document.of("name", Arrays.asList("Ada", "Grace"))));
+        assertEquals(DocumentCondition.or(DocumentCondition.in(Document.of("name",
+                Arrays.asList("Ada", "Alan", "Grace"))), DocumentCondition.eq(Document.of("age", 10))),
+                optimize(condition));
+    }
+
+    @Test
+    public void shouldNotSpreadCollectionOfEquals() {
+        List<String> first = Arrays.asList("a", "b");
+        List<String> second = Arrays.asList("c");
+        DocumentCondition condition = DocumentCondition.eq(Document.of("tags", first))
+                .or(DocumentCondition.eq(Document.of("tags", second)));
+        assertEquals(DocumentCondition.in(Document.of("tags", Arrays.asList(first, second))), optimize(condition));
+        assertEquals(DocumentCondition.eq(Document.of("tags", first)), optimize(condition
+                .and(DocumentCondition.in(Document.of("tags", Arrays.asList(first, "a"))))));
+    }
+
+    @Test
+    public void shouldRemoveDuplicates() {
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        DocumentCondition like = DocumentCondition.like(Document.of("city", "Lon%"));
+        assertEquals(DocumentCondition.and(name, like), optimize(name.and(like).and(like).and(name)));
+        assertEquals(like, optimize(like.or(like)));
+    }
+
+    @Test
+    public void shouldIntersectEqualsWithRanges() {
+        DocumentCondition condition = DocumentCondition.and(
+                DocumentCondition.in(Document.of("age", Arrays.asList(5, 15, 25))),
+                DocumentCondition.gt(Document.of("age", 10)), DocumentCondition.eq(Document.of("name", "Ada")),
+                DocumentCondition.in(Document.of("age", Arrays.asList(15L, 25.0, 35))));
+        assertEquals(DocumentCondition.and(DocumentCondition.in(Document.of("age", Arrays.asList(15, 25))),
+                DocumentCondition.eq(Document.of("name", "Ada"))), optimize(condition));
+    }
+
+    @Test
+    public void shouldDetectContradictions() {
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        assertEmpty(DocumentCondition.gt(Document.of("age", 10)).and(DocumentCondition.lt(Document.of("age", 5))));
+        assertEmpty(DocumentCondition.gt(Document.of("age", 10)).and(DocumentCondition.lte(Document.of("age", 10))));
+        assertEmpty(name.and(DocumentCondition.eq(Document.of("name", "Alan"))));
+        assertEmpty(name.and(name.negate()));
+        assertEmpty(DocumentCondition.eq(Document.of("age", 3)).and(DocumentCondition.gte(Document.of("age", 4))));
+    }
+
+    @Test
+    public void shouldReduceSingleValueRange() {
+        DocumentCondition condition = DocumentCondition.gte(Document.of("age", 10))
+                .and(DocumentCondition.lte(Document.of("age", 10L)));
+        assertEquals(DocumentCondition.eq(Document.of("age", 10)), optimize(condition));
+    }
+
+    @Test
+    public void shouldRemoveTautologies() {
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        Optional<DocumentQuery> query = optimizer.optimize(DocumentQuery.of("person").and(name.or(name.negate())));
+        assertTrue(query.isPresent());
+        assertFalse(query.get().getCondition().isPresent());
+    }
+
+    @Test
+    public void shouldKeepIncomparableRanges() {
+        DocumentCondition condition = DocumentCondition.gt(Document.of("age", 10))
+                .and(DocumentCondition.lt(Document.of("age", "z")));
+        assertEquals(condition, optimize(condition));
+    }
+
+    @Test
+    public void shouldNotChangeInformedQuery() {
+        DocumentCondition condition = DocumentCondition.gte(Document.of("age", 10))
+                .and(DocumentCondition.lte(Document.of("age", 30)));
+        DocumentQuery query = DocumentQuery.of("person").and(condition);
+        optimizer.optimize(query);
+        assertEquals(condition, query.getCondition().get());
+    }
+
+    @Test
+    public void shouldOptimizeDeleteQuery() {
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        DocumentDeleteQuery query = DocumentDeleteQuery.of("person", name.and(name));
+        query.add("age");
+        DocumentDeleteQuery optimized = optimizer.optimize(query).get();
+        assertEquals(name, optimized.getCondition().get());
+        assertEquals(Arrays.asList("age"), optimized.getDocuments());
+        assertFalse(optimizer.optimize(DocumentDeleteQuery.of("person", name.and(name.negate()))).isPresent());
+    }
+
+    @Test
+    public void shouldNotCallManagerWhenQueryIsEmpty() {
+        CountingDocumentCollectionManager delegate = new CountingDocumentCollectionManager();
+        DocumentCollectionManager manager = optimizer.decorate(delegate);
+        DocumentCondition name = DocumentCondition.eq(Document.of("name", "Ada"));
+        assertTrue(manager.select(DocumentQuery.of("person").and(name.and(name.negate()))).isEmpty());
+        manager.delete(DocumentDeleteQuery.of("person", name.and(name.negate())));
+        assertTrue(delegate.queries.isEmpty());
+
+        manager.select(DocumentQuery.of("person").and(name.and(name)));
+        manager.delete(DocumentDeleteQuery.of("person", name.or(name)));
+        assertEquals(2, delegate.queries.size());
+    }
+
+    private DocumentCondition optimize(DocumentCondition condition) {
+        return optimizer.optimize(DocumentQuery.of("person").and(condition)).get().getCondition().get();
+    }
+
+    private void assertEmpty(DocumentCondition condition) {
+        assertFalse(optimizer.optimize(DocumentQuery.of("person").and(condition)).isPresent());
+    }
+
+    private static class CountingDocumentCollectionManager implements DocumentCollectionManager {
+
+        private final List<Object> queries = new ArrayList<>();
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity) {
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity, Duration ttl) {
+            return entity;
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            return entity;
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            queries.add(query);
+        }
+
+        @Override
+        public List<DocumentEntity> select(DocumentQuery query) {
+            queries.add(query);
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
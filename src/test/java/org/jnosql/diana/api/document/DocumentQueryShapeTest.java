@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThat;
+
+public class DocumentQueryShapeTest {
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        DocumentQueryShape.of((DocumentQuery) null);
+    }
+
+    @Test
+    public void shouldStripLiterals() {
+        DocumentQueryShape shape = DocumentQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris")));
+        assertEquals("select 'person' documents('name') where AND(EQUALS('name', ?), GREATER_THAN('age', ?), "
+                + "NOT(IN('city', ?[2]))) sort('name' ASC) max", shape.getFingerprint());
+        assertThat(shape.getValues(), contains("Ada", 10, "London", "Paris"));
+        assertEquals(shape, DocumentQueryShape.of(query("Alan", 20, Arrays.asList("Rome", "Oslo"))));
+        assertEquals(shape.hashCode(), DocumentQueryShape.of(query("Alan", 20, Arrays.asList("Rome", "Oslo")))
+                .hashCode());
+    }
+
+    @Test
+    public void shouldKeepStructure() {
+        DocumentQueryShape shape = DocumentQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris")));
+        assertNotEquals(shape, DocumentQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris", "Rome"))));
+        assertNotEquals(shape, DocumentQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris"))
+                .addSort(Sort.of("age", DESC))));
+        assertNotEquals(shape, DocumentQueryShape.of(query("Ada", 10, Arrays.asList("London", "Paris"))
+                .withFirstResult(10)));
+        assertNotEquals(DocumentQueryShape.of(DocumentQuery.of("person")
+                        .and(DocumentCondition.gt(Document.of("age", 10)))),
+                DocumentQueryShape.of(DocumentQuery.of("person").and(DocumentCondition.gte(Document.of("age", 10)))));
+        assertNotEquals(DocumentQueryShape.of(DocumentQuery.of("person").addColumn("a, 'b'")),
+                DocumentQueryShape.of(DocumentQuery.of("person").addColumn("a").addColumn("b")));
+    }
+
+    @Test
+    public void shouldCreateDeleteShape() {
+        DocumentDeleteQuery query = DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("name", "Ada"))
+                .or(DocumentCondition.between(Document.of("age", Arrays.asList(10, 20)))));
+        query.add("age");
+        DocumentQueryShape shape = DocumentQueryShape.of(query);
+        assertEquals("delete 'person' documents('age') where OR(EQUALS('name', ?), BETWEEN('age', ?[2]))",
+                shape.getFingerprint());
+        assertThat(shape.getValues(), contains("Ada", 10, 20));
+        assertNotEquals(shape, DocumentQueryShape.of(DocumentQuery.of("person")));
+    }
+
+    @Test
+    public void shouldIncludeSubquery() {
+        DocumentQuery query = DocumentQuery.of("person").and(DocumentCondition.subquery(DocumentQuery.of("city")
+                .and(DocumentCondition.eq(Document.of("name", "London")))));
+        DocumentQueryShape shape = DocumentQueryShape.of(query);
+        assertEquals("select 'person' where SUBQUERY(select 'city' where EQUALS('name', ?))", shape.getFingerprint());
+        assertThat(shape.getValues(), contains("London"));
+    }
+
+    private DocumentQuery query(String name, int age, Iterable<String> cities) {
+        return DocumentQuery.of("person").addColumn("name")
+                .and(DocumentCondition.eq(Document.of("name", name)))
+                .and(DocumentCondition.gt(Document.of("age", age)))
+                .and(DocumentCondition.in(Document.of("city", cities)).negate())
+                .addSort(Sort.of("name", ASC)).withMaxResults(10);
+    }
+}
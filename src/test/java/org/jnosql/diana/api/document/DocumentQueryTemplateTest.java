@@ -0,0 +1,144 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Parameter;
+import org.jnosql.diana.api.Sort;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class DocumentQueryTemplateTest {
+
+    private final DocumentCondition active = DocumentCondition.eq(Document.of("active", true));
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenQueryIsNull() {
+        DocumentQueryTemplate.of(null);
+    }
+
+    @Test
+    public void shouldBindParameters() {
+        DocumentQueryTemplate template = DocumentQueryTemplate.of(DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("name", Parameter.of("name"))))
+                .and(DocumentCondition.between(Document.of("age", Arrays.asList(Parameter.of("min"), 60))))
+                .and(DocumentCondition.in(Document.of("city", Parameter.of("cities"))).negate())
+                .and(active)
+                .addSort(Sort.of("name", ASC)).addColumn("name").withFirstResult(1).withMaxResults(10));
+        assertThat(template.getParameters(), contains("name", "min", "cities"));
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", "Ada");
+        values.put("min", 18);
+        values.put("cities", Arrays.asList("London", "Paris"));
+        DocumentQuery query = template.bind(values);
+
+        DocumentQuery expected = DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("name", "Ada")))
+                .and(DocumentCondition.between(Document.of("age", Arrays.asList(18, 60))))
+                .and(DocumentCondition.in(Document.of("city", Arrays.asList("London", "Paris"))).negate())
+                .and(active)
+                .addSort(Sort.of("name", ASC)).addColumn("name").withFirstResult(1).withMaxResults(10);
+        assertEquals(expected, query);
+    }
+
+    @Test
+    public void shouldShareConditionsWithoutParameters() {
+        DocumentQueryTemplate template = DocumentQueryTemplate.of(DocumentQuery.of("person").and(active));
+        assertSame(active, template.bind(Collections.emptyMap()).getCondition().get());
+        assertEquals(0, template.getParameters().size());
+    }
+
+    @Test
+    public void shouldNotChangeWithQuery() {
+        DocumentQuery query = DocumentQuery.of("person").and(active);
+        DocumentQueryTemplate template = DocumentQueryTemplate.of(query);
+        query.and(DocumentCondition.eq(Document.of("name", "Ada"))).addSort(Sort.of("name", ASC));
+        assertEquals(active, template.getCondition().get());
+        assertEquals(0, template.getSorts().size());
+        assertEquals(DocumentQueryTemplate.of(DocumentQuery.of("person").and(active)), template);
+        assertFalse(DocumentQueryTemplate.of(DocumentQuery.of("person")).getCondition().isPresent());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnImmutableSorts() {
+        DocumentQueryTemplate.of(DocumentQuery.of("person")).getSorts().add(Sort.of("name", ASC));
+    }
+
+    @Test
+    public void shouldNotChangeTemplateWhenBoundQueryChanges() {
+        DocumentQueryTemplate template = DocumentQueryTemplate.of(DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("name", Parameter.of("name")))).or(active));
+        template.bind(Collections.singletonMap("name", "Ada")).and(DocumentCondition.eq(Document.of("age", 10)))
+                .addSort(Sort.of("age", ASC));
+        DocumentQuery query = template.bind(Collections.singletonMap("name", "Alan"));
+        assertEquals(DocumentCondition.eq(Document.of("name", "Alan")).or(active), query.getCondition().get());
+        assertEquals(0, query.getSorts().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenParameterIsMissing() {
+        DocumentQueryTemplate.of(DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("name", Parameter.of("name")))))
+                .bind(Collections.emptyMap());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenParameterIsNull() {
+        DocumentQueryTemplate.of(DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("name", Parameter.of("name")))))
+                .bind(Collections.singletonMap("name", null));
+    }
+
+    @Test
+    public void shouldBindConcurrently() throws Exception {
+        DocumentQueryTemplate template = DocumentQueryTemplate.of(DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("age", Parameter.of("age")))).and(active));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DocumentQuery>> queries = new ArrayList<>();
+            for (int index = 0; index < 100; index++) {
+                int age = index;
+                queries.add(executor.submit(() -> template.bind(Collections.singletonMap("age", age))));
+            }
+            for (int index = 0; index < 100; index++) {
+                assertEquals(DocumentCondition.eq(Document.of("age", index)).and(active),
+                        queries.get(index).get(10, TimeUnit.SECONDS).getCondition().get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.document.memory.MemoryDocumentCollectionManagerFactory;
+import org.jnosql.diana.api.document.memory.MemoryDocumentConfiguration;
+import org.jnosql.diana.api.metrics.MetricsRegistry;
+import org.jnosql.diana.api.metrics.OperationStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MeteredDocumentCollectionManagerTest {
+
+    private final MetricsRegistry registry = MetricsRegistry.of();
+
+    private MemoryDocumentCollectionManagerFactory factory;
+
+    @Before
+    public void setUp() {
+        factory = new MemoryDocumentConfiguration().getAsync();
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldRecordOperations() {
+        MeteredDocumentCollectionManager manager = MeteredDocumentCollectionManager.of(factory.get("database"),
+                registry);
+        manager.insert(person(1L, "Ada"));
+        manager.insert(Arrays.asList(person(2L, "Alan"), person(3L, "Grace")));
+        manager.insert(Arrays.asList(person(4L, "Linus"), DocumentEntity.of("city", Arrays.asList(
+                Document.of("_id", 1L)))));
+        manager.update(person(1L, "Ada Lovelace"));
+        assertEquals(4, manager.select(DocumentQuery.of("person")).size());
+        manager.delete(DocumentDeleteQuery.of("person"));
+        List<OperationStats> operations = registry.getOperations();
+        assertEquals(5, operations.size());
+        OperationStats delete = find("document", "delete", "person");
+        assertEquals(1L, delete.getCount());
+        assertEquals(0L, delete.getResultSize().getCount());
+        OperationStats insert = find("document", "insert", "person");
+        assertEquals(2L, insert.getCount());
+        assertEquals(3L, insert.getResultSize().getSum());
+        assertEquals(2L, find("document", "insert", "*").getResultSize().getSum());
+        assertEquals(4L, find("document", "select", "person").getResultSize().getMax());
+        assertEquals(1L, find("document", "update", "person").getCount());
+    }
+
+    @Test
+    public void shouldRecordErrors() {
+        MeteredDocumentCollectionManager manager = MeteredDocumentCollectionManager.of(factory.get("database"),
+                registry);
+        try {
+            manager.update(DocumentEntity.of("person", Arrays.asList(Document.of("name", "Ada"))));
+            fail("The update of an entity without key should fail");
+        } catch (RuntimeException exception) {
+            OperationStats update = find("document", "update", "person");
+            assertEquals(1L, update.getErrors());
+            assertEquals(0L, update.getInFlight());
+        }
+    }
+
+    @Test
+    public void shouldRecordAsyncOperations() throws InterruptedException {
+        MeteredDocumentCollectionManagerAsync manager = MeteredDocumentCollectionManagerAsync.of(
+                factory.getAsync("database"), registry);
+        CountDownLatch done = new CountDownLatch(3);
+        manager.insert(person(1L, "Ada"), e -> done.countDown());
+        manager.insert(Arrays.asList(person(2L, "Alan"), person(3L, "Grace")), e -> done.countDown());
+        manager.insert(person(4L, "Linus"));
+        manager.update(Arrays.asList(person(2L, "Alan Turing")));
+        manager.select(DocumentQuery.of("person"), entities -> done.countDown());
+        assertTrue(done.await(5L, TimeUnit.SECONDS));
+        awaitCount("insert", 3L);
+        awaitCount("update", 1L);
+        OperationStats select = find("document-async", "select", "person");
+        assertEquals(0L, select.getInFlight());
+        assertEquals(4L, find("document-async", "insert", "person").getResultSize().getSum());
+    }
+
+    @Test
+    public void shouldSendBulkCallsWithoutCallbackToTheBulkMethods() {
+        List<String> calls = new ArrayList<>();
+        DocumentCollectionManagerAsync delegate = (DocumentCollectionManagerAsync) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{DocumentCollectionManagerAsync.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName() + args.length);
+                    return null;
+                });
+        MeteredDocumentCollectionManagerAsync manager = MeteredDocumentCollectionManagerAsync.of(delegate,
+                registry);
+        List<DocumentEntity> entities = Arrays.asList(person(1L, "Ada"), person(2L, "Alan"));
+        manager.insert(entities);
+        manager.insert(entities, Duration.ofMinutes(1L));
+        manager.update(entities);
+        assertEquals(Arrays.asList("insert1", "insert2", "update1"), calls);
+        OperationStats insert = find("document-async", "insert", "person");
+        assertEquals(2L, insert.getCount());
+        assertEquals(4L, insert.getResultSize().getSum());
+        assertEquals(0L, insert.getInFlight());
+        assertEquals(1L, find("document-async", "update", "person").getCount());
+    }
+
+    @Test
+    public void shouldRecordAsyncRejection() {
+        Executor rejecting = command -> {
+            throw new RejectedExecutionException("rejected");
+        };
+        MemoryDocumentCollectionManagerFactory rejectingFactory = new MemoryDocumentConfiguration("_id", rejecting)
+                .getAsync();
+        MeteredDocumentCollectionManagerAsync manager = MeteredDocumentCollectionManagerAsync.of(
+                rejectingFactory.getAsync("database"), registry);
+        try {
+            manager.select(DocumentQuery.of("person"), entities -> fail("The select should be rejected"));
+            fail("The select should be rejected");
+        } catch (ExecuteAsyncQueryException exception) {
+            OperationStats select = find("document-async", "select", "person");
+            assertEquals(1L, select.getErrors());
+            assertEquals(0L, select.getInFlight());
+        } finally {
+            rejectingFactory.close();
+        }
+    }
+
+    private void awaitCount(String operation, long count) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            if (find("document-async", operation, "person").getCount() == count) {
+                return;
+            }
+            Thread.sleep(10L);
+        }
+        fail("The operation " + operation + " was not recorded " + count + " times");
+    }
+
+    private OperationStats find(String manager, String operation, String collection) {
+        return registry.getOperations().stream().filter(s -> s.getManager().equals(manager)
+                && s.getOperation().equals(operation) && s.getCollection().equals(collection)).findFirst()
+                .orElseThrow(() -> new AssertionError("There is no " + manager + "." + operation + "." + collection));
+    }
+
+    private static DocumentEntity person(long id, String name) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("_id", id), Document.of("name", name)));
+    }
+}
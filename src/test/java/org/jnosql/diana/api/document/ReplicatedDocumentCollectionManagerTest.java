@@ -0,0 +1,222 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.document.memory.MemoryDocumentCollectionManagerFactory;
+import org.jnosql.diana.api.document.memory.MemoryDocumentConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReplicatedDocumentCollectionManagerTest {
+
+    private final DocumentQuery query = DocumentQuery.of("person");
+
+    private MemoryDocumentCollectionManagerFactory factory;
+
+    private StubDocumentCollectionManager primary;
+
+    private StubDocumentCollectionManager first;
+
+    private StubDocumentCollectionManager second;
+
+    @Before
+    public void setUp() {
+        factory = new MemoryDocumentConfiguration().get();
+        DocumentCollectionManager database = factory.get("database");
+        primary = new StubDocumentCollectionManager(database);
+        first = new StubDocumentCollectionManager(database);
+        second = new StubDocumentCollectionManager(database);
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenReplicasAreEmpty() {
+        ReplicatedDocumentCollectionManager.of(primary, Collections.emptyList());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenPrimaryIsNull() {
+        ReplicatedDocumentCollectionManager.of(null, Collections.singletonList(first));
+    }
+
+    @Test
+    public void shouldSendWritesToPrimary() {
+        ReplicatedDocumentCollectionManager manager = ReplicatedDocumentCollectionManager.of(primary,
+                Arrays.asList(first, second));
+        manager.insert(person(1L, "Ada"));
+        manager.insert(Arrays.asList(person(2L, "Alan"), person(3L, "Grace")));
+        manager.insert(person(4L, "Linus"), Duration.ofMinutes(1L));
+        manager.update(person(1L, "Ada Lovelace"));
+        manager.delete(DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("_id", 4L))));
+        assertEquals(5, primary.writes.get());
+        assertEquals(0, first.writes.get() + second.writes.get());
+        assertEquals(3, manager.select(query).size());
+        assertEquals(0, primary.selects.get());
+        assertSame(primary, manager.getPrimary());
+        assertEquals(Arrays.asList(first, second), manager.getReplicas());
+    }
+
+    @Test
+    public void shouldSpreadSelects() {
+        ReplicatedDocumentCollectionManager manager = ReplicatedDocumentCollectionManager.of(primary,
+                Arrays.asList(first, second), false, Runnable::run);
+        for (int index = 0; index < 200; index++) {
+            manager.select(query);
+        }
+        assertTrue(first.selects.get() > 0);
+        assertTrue(second.selects.get() > 0);
+        assertEquals(200, first.selects.get() + second.selects.get());
+        assertFalse(manager.getHedgeDelay().isPresent());
+    }
+
+    @Test
+    public void shouldHedgeSlowSelect() {
+        primary.insert(person(1L, "Ada"));
+        ReplicatedDocumentCollectionManager manager = ReplicatedDocumentCollectionManager.of(primary,
+                Collections.singletonList(first));
+        warmUp(manager);
+        first.stall = 2000L;
+        long start = System.nanoTime();
+        assertEquals(1, manager.select(query).size());
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(1, primary.selects.get());
+    }
+
+    @Test
+    public void shouldHedgeFailedSelect() {
+        ReplicatedDocumentCollectionManager manager = ReplicatedDocumentCollectionManager.of(primary,
+                Arrays.asList(first, second));
+        warmUp(manager);
+        first.failing = true;
+        for (int index = 0; index < 20; index++) {
+            assertTrue(manager.select(query).isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldReturnErrorWhenAllSelectsFail() {
+        ReplicatedDocumentCollectionManager manager = ReplicatedDocumentCollectionManager.of(primary,
+                Collections.singletonList(first));
+        warmUp(manager);
+        first.failing = true;
+        primary.failing = true;
+        try {
+            manager.select(query);
+            fail("The select should fail");
+        } catch (IllegalStateException exception) {
+            assertEquals("failing", exception.getMessage());
+        }
+    }
+
+    private void warmUp(ReplicatedDocumentCollectionManager manager) {
+        assertFalse(manager.getHedgeDelay().isPresent());
+        for (int index = 0; index < ReplicatedDocumentCollectionManager.MINIMUM_SAMPLES; index++) {
+            manager.select(query);
+        }
+        assertTrue(manager.getHedgeDelay().isPresent());
+    }
+
+    private static DocumentEntity person(long id, String name) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("_id", id), Document.of("name", name)));
+    }
+
+    private static class StubDocumentCollectionManager implements DocumentCollectionManager {
+
+        private final DocumentCollectionManager manager;
+
+        private final AtomicInteger selects = new AtomicInteger();
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        private volatile long stall;
+
+        private volatile boolean failing;
+
+        StubDocumentCollectionManager(DocumentCollectionManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity) {
+            writes.incrementAndGet();
+            return manager.insert(entity);
+        }
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity, Duration ttl) {
+            writes.incrementAndGet();
+            return manager.insert(entity, ttl);
+        }
+
+        @Override
+        public Iterable<DocumentEntity> insert(Iterable<DocumentEntity> entities) {
+            writes.incrementAndGet();
+            return manager.insert(entities);
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            writes.incrementAndGet();
+            return manager.update(entity);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            writes.incrementAndGet();
+            manager.delete(query);
+        }
+
+        @Override
+        public List<DocumentEntity> select(DocumentQuery query) {
+            selects.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("failing");
+            }
+            if (stall > 0L) {
+                try {
+                    Thread.sleep(stall);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return manager.select(query);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document;
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.document.memory.MemoryDocumentCollectionManagerFactory;
+import org.jnosql.diana.api.document.memory.MemoryDocumentConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedDocumentCollectionManagerTest {
+
+    private final List<MemoryDocumentCollectionManagerFactory> factories = new ArrayList<>();
+
+    private final List<CountingDocumentCollectionManager> shards = new ArrayList<>();
+
+    private DocumentCollectionManager single;
+
+    private ShardedDocumentCollectionManager manager;
+
+    @Before
+    public void setUp() {
+        for (int index = 0; index < 4; index++) {
+            MemoryDocumentCollectionManagerFactory factory = new MemoryDocumentConfiguration().get();
+            factories.add(factory);
+            shards.add(new CountingDocumentCollectionManager(factory.get("database")));
+        }
+        MemoryDocumentCollectionManagerFactory factory = new MemoryDocumentConfiguration().get();
+        factories.add(factory);
+        single = factory.get("database");
+        manager = ShardedDocumentCollectionManager.of(new ArrayList<>(shards), "_id");
+        List<DocumentEntity> entities = new ArrayList<>();
+        for (long id = 0; id < 40; id++) {
+            entities.add(person(id, "person" + (id % 7), (int) (id % 5)));
+        }
+        assertEquals(entities, manager.insert(entities));
+        single.insert(entities);
+        shards.forEach(s -> s.selects.set(0));
+    }
+
+    @After
+    public void tearDown() {
+        factories.forEach(MemoryDocumentCollectionManagerFactory::close);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenShardsAreEmpty() {
+        ShardedDocumentCollectionManager.of(Collections.emptyList(), "_id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenEntityHasNoKey() {
+        manager.insert(DocumentEntity.of("person", Collections.singletonList(Document.of("name", "Ada"))));
+    }
+
+    @Test
+    public void shouldRouteWrites() {
+        for (CountingDocumentCollectionManager shard : shards) {
+            List<DocumentEntity> entities = shard.select(DocumentQuery.of("person"));
+            assertFalse(entities.isEmpty());
+            entities.forEach(e -> assertSame(shard, manager.getShard(e)));
+        }
+        assertSame(manager.getShard(person(1L, "Ada", 10)), manager.getShard(DocumentEntity.of("person",
+                Collections.singletonList(Document.of("_id", 1)))));
+    }
+
+    @Test
+    public void shouldMergeSortedResults() {
+        DocumentQuery query = DocumentQuery.of("person").addSort(Sort.of("age", DESC)).addSort(Sort.of("_id", ASC));
+        assertEquals(single.select(query), manager.select(query));
+
+        DocumentQuery page = DocumentQuery.of("person").addSort(Sort.of("name", ASC)).addSort(Sort.of("_id", DESC))
+                .and(DocumentCondition.gte(Document.of("age", 2))).withFirstResult(5).withMaxResults(7);
+        assertEquals(single.select(page), manager.select(page));
+        shards.forEach(s -> assertEquals(12L, s.last.getMaxResults()));
+        shards.forEach(s -> assertEquals(0L, s.last.getFirstResult()));
+    }
+
+    @Test
+    public void shouldRemoveSortDocumentsFromProjection() {
+        DocumentQuery query = DocumentQuery.of("person").addColumn("name").addSort(Sort.of("_id", DESC))
+                .withMaxResults(3);
+        List<DocumentEntity> entities = manager.select(query);
+        assertEquals(Arrays.asList("person4", "person3", "person2"), entities.stream()
+                .map(e -> e.find("name").get().get(String.class)).collect(toList()));
+        entities.forEach(e -> assertEquals(1, e.size()));
+    }
+
+    @Test
+    public void shouldSelectOnlyRelevantShards() {
+        DocumentCondition key = DocumentCondition.eq(Document.of("_id", 3));
+        assertEquals(1, manager.select(DocumentQuery.of("person").and(key)
+                .and(DocumentCondition.eq(Document.of("age", 3)))).size());
+        assertEquals(1, shards.stream().mapToInt(s -> s.selects.get()).sum());
+
+        shards.forEach(s -> s.selects.set(0));
+        assertEquals(2, manager.select(DocumentQuery.of("person").and(key
+                .or(DocumentCondition.in(Document.of("_id", Arrays.asList(3L, 7L)))))).size());
+        assertTrue(shards.stream().mapToInt(s -> s.selects.get()).sum() <= 2);
+
+        shards.forEach(s -> s.selects.set(0));
+        manager.select(DocumentQuery.of("person").and(key.or(DocumentCondition.eq(Document.of("age", 3)))));
+        assertEquals(4, shards.stream().mapToInt(s -> s.selects.get()).sum());
+    }
+
+    @Test
+    public void shouldDeleteAndUpdate() {
+        manager.update(Arrays.asList(person(1, "Ada", 100), person(2, "Alan", 100)));
+        assertEquals(2, manager.select(DocumentQuery.of("person")
+                .and(DocumentCondition.eq(Document.of("age", 100)))).size());
+        manager.delete(DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("age", 100))));
+        assertEquals(38, manager.select(DocumentQuery.of("person")).size());
+        manager.insert(person(100, "Grace", 1), Duration.ofMinutes(1));
+        assertEquals(39, manager.select(DocumentQuery.of("person")).size());
+    }
+
+    private static DocumentEntity person(long id, String name, int age) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("_id", id), Document.of("name", name),
+                Document.of("age", age)));
+    }
+
+    private static class CountingDocumentCollectionManager implements DocumentCollectionManager {
+
+        private final DocumentCollectionManager manager;
+
+        private final AtomicInteger selects = new AtomicInteger();
+
+        private volatile DocumentQuery last;
+
+        CountingDocumentCollectionManager(DocumentCollectionManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity) {
+            return manager.insert(entity);
+        }
+
+        @Override
+        public DocumentEntity insert(DocumentEntity entity, Duration ttl) {
+            return manager.insert(entity, ttl);
+        }
+
+        @Override
+        public DocumentEntity update(DocumentEntity entity) {
+            return manager.update(entity);
+        }
+
+        @Override
+        public void delete(DocumentDeleteQuery query) {
+            manager.delete(query);
+        }
+
+        @Override
+        public List<DocumentEntity> select(DocumentQuery query) {
+            selects.incrementAndGet();
+            last = query;
+            return manager.select(query);
+        }
+
+        @Override
+        public void close() {
+            manager.close();
+        }
+    }
+}
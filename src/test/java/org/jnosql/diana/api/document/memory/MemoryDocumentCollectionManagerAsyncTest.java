@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.ExecuteAsyncQueryException;
+import org.jnosql.diana.api.document.Document;
+import org.jnosql.diana.api.document.DocumentDeleteQuery;
+import org.jnosql.diana.api.document.DocumentEntity;
+import org.jnosql.diana.api.document.DocumentQuery;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryDocumentCollectionManagerAsyncTest {
+
+    private final MemoryDocumentCollectionManagerFactory factory =
+            new MemoryDocumentConfiguration("id", Runnable::run).getAsync();
+
+    private final MemoryDocumentCollectionManagerAsync manager = factory.getAsync("database");
+
+    @Test
+    public void shouldInsertAndSelect() {
+        AtomicReference<DocumentEntity> inserted = new AtomicReference<>();
+        manager.insert(DocumentEntity.of("person", Arrays.asList(Document.of("name", "Ada"))), inserted::set);
+        assertTrue(inserted.get().find("id").isPresent());
+
+        AtomicReference<List<DocumentEntity>> entities = new AtomicReference<>();
+        manager.select(DocumentQuery.of("person"), entities::set);
+        assertEquals(1, entities.get().size());
+        assertEquals(1, factory.get("database").select(DocumentQuery.of("person")).size());
+    }
+
+    @Test
+    public void shouldDelete() {
+        manager.insert(DocumentEntity.of("person", Arrays.asList(Document.of("name", "Ada"))));
+        AtomicBoolean deleted = new AtomicBoolean();
+        manager.delete(DocumentDeleteQuery.of("person"), v -> deleted.set(true));
+        assertTrue(deleted.get());
+        assertTrue(factory.get("database").select(DocumentQuery.of("person")).isEmpty());
+    }
+
+    @Test(expected = ExecuteAsyncQueryException.class)
+    public void shouldReturnErrorWhenExecutorRejects() {
+        MemoryDocumentCollectionManagerAsync rejected = new MemoryDocumentConfiguration("id", r -> {
+            throw new RejectedExecutionException();
+        }).getAsync().getAsync("database");
+        rejected.insert(DocumentEntity.of("person"));
+    }
+}
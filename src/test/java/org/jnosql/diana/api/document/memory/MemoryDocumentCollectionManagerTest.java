@@ -0,0 +1,247 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.document.memory;
+
+import org.jnosql.diana.api.Sort;
+import org.jnosql.diana.api.document.Document;
+import org.jnosql.diana.api.document.DocumentCondition;
+import org.jnosql.diana.api.document.DocumentDeleteQuery;
+import org.jnosql.diana.api.document.DocumentEntity;
+import org.jnosql.diana.api.document.DocumentQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.Matchers.contains;
+import static org.jnosql.diana.api.Sort.SortType.ASC;
+import static org.jnosql.diana.api.Sort.SortType.DESC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryDocumentCollectionManagerTest {
+
+    private MemoryDocumentCollectionManagerFactory factory;
+
+    private MemoryDocumentCollectionManager manager;
+
+    @Before
+    public void setUp() {
+        factory = new MemoryDocumentConfiguration().get();
+        manager = factory.get("database");
+        manager.insert(person(1, "Ada", 36, "London"));
+        manager.insert(person(2, "Otavio", 30, "Salvador"));
+        manager.insert(person(3, "Poliana", 28, "Salvador"));
+        manager.insert(person(4, "Alan", 41, "London"));
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldShareTheDatabase() {
+        assertSame(manager, factory.get("database"));
+        assertNotSame(manager, factory.get("other"));
+        assertTrue(factory.get("other").select(DocumentQuery.of("person")).isEmpty());
+    }
+
+    @Test
+    public void shouldGenerateKey() {
+        DocumentEntity entity = manager.insert(DocumentEntity.of("animal",
+                Arrays.asList(Document.of("name", "Dog"))));
+        assertTrue(entity.find(MemoryDocumentConfiguration.KEY).isPresent());
+        assertEquals(1, manager.select(DocumentQuery.of("animal")).size());
+    }
+
+    @Test
+    public void shouldUpdate() {
+        manager.update(person(2, "Otavio Santana", 31, "Salvador"));
+        List<DocumentEntity> entities = manager.select(DocumentQuery.of("person"));
+        assertEquals(4, entities.size());
+        assertThat(names(entities), contains("Ada", "Otavio Santana", "Poliana", "Alan"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenUpdateWithoutKey() {
+        manager.update(DocumentEntity.of("person", Arrays.asList(Document.of("name", "Ada"))));
+    }
+
+    @Test
+    public void shouldNotShareTheEntity() {
+        manager.select(DocumentQuery.of("person")).get(0).add(Document.of("name", "Grace"));
+        assertThat(names(manager.select(DocumentQuery.of("person"))), contains("Ada", "Otavio", "Poliana", "Alan"));
+    }
+
+    @Test
+    public void shouldSelectByConditions() {
+        assertThat(names(select(DocumentCondition.eq(Document.of("age", 30L)))), contains("Otavio"));
+        assertThat(names(select(DocumentCondition.gt(Document.of("age", 30)))), contains("Ada", "Alan"));
+        assertThat(names(select(DocumentCondition.gte(Document.of("age", 30)))), contains("Ada", "Otavio", "Alan"));
+        assertThat(names(select(DocumentCondition.lt(Document.of("age", 30.0)))), contains("Poliana"));
+        assertThat(names(select(DocumentCondition.lte(Document.of("age", 30)))), contains("Otavio", "Poliana"));
+        assertThat(names(select(DocumentCondition.in(Document.of("name", Arrays.asList("Ada", "Alan"))))),
+                contains("Ada", "Alan"));
+        assertThat(names(select(DocumentCondition.like(Document.of("name", "A%")))), contains("Ada", "Alan"));
+        assertThat(names(select(DocumentCondition.like(Document.of("name", "_da")))), contains("Ada"));
+        assertThat(names(select(DocumentCondition.between(Document.of("age", Arrays.asList(29, 36))))),
+                contains("Ada", "Otavio"));
+    }
+
+    @Test
+    public void shouldSelectByLogicalConditions() {
+        DocumentCondition london = DocumentCondition.eq(Document.of("city", "London"));
+        DocumentCondition young = DocumentCondition.lt(Document.of("age", 40));
+        assertThat(names(select(london.and(young))), contains("Ada"));
+        assertThat(names(select(london.or(young))), contains("Ada", "Otavio", "Poliana", "Alan"));
+        assertThat(names(select(london.negate())), contains("Otavio", "Poliana"));
+        assertThat(names(select(london.and(young).negate())), contains("Otavio", "Poliana", "Alan"));
+    }
+
+    @Test
+    public void shouldSelectBySubdocument() {
+        manager.insert(DocumentEntity.of("person", Arrays.asList(Document.of("_id", 5), Document.of("name", "Grace"),
+                Document.of("address", Arrays.asList(Document.of("city", "New York"))))));
+        assertThat(names(select(DocumentCondition.eq(Document.of("address.city", "New York")))),
+                contains("Grace"));
+    }
+
+    @Test
+    public void shouldSelectWithIndexes() {
+        manager.createIndex("person", "city", IndexType.HASH);
+        manager.createIndex("person", "age", IndexType.SORTED);
+        manager.insert(person(5, "Grace", 45, "London"));
+        manager.update(person(1, "Ada", 37, "Paris"));
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "London")))), contains("Alan", "Grace"));
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "Paris")))), contains("Ada"));
+        assertThat(names(select(DocumentCondition.gt(Document.of("age", 36)))), contains("Ada", "Alan", "Grace"));
+        assertThat(names(select(DocumentCondition.between(Document.of("age", Arrays.asList(30, 37))))),
+                contains("Ada", "Otavio"));
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "London"))
+                .and(DocumentCondition.lt(Document.of("age", 42))))), contains("Alan"));
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "Paris"))
+                .or(DocumentCondition.lt(Document.of("age", 29))))), contains("Ada", "Poliana"));
+        manager.delete(DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("city", "London"))));
+        assertTrue(select(DocumentCondition.eq(Document.of("city", "London"))).isEmpty());
+        manager.dropIndex("person", "city");
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "Salvador")))),
+                contains("Otavio", "Poliana"));
+    }
+
+    @Test
+    public void shouldSortAndPaginate() {
+        DocumentQuery query = DocumentQuery.of("person").addSort(Sort.of("city", DESC))
+                .addSort(Sort.of("age", ASC)).withFirstResult(1).withMaxResults(2);
+        assertThat(names(manager.select(query)), contains("Otavio", "Ada"));
+    }
+
+    @Test
+    public void shouldProject() {
+        DocumentQuery query = DocumentQuery.of("person").and(DocumentCondition.eq(Document.of("_id", 1)))
+                .addColumn("name");
+        DocumentEntity entity = manager.select(query).get(0);
+        assertEquals(1, entity.size());
+        assertEquals("Ada", entity.find("name").get().get());
+    }
+
+    @Test
+    public void shouldDelete() {
+        manager.delete(DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("city", "Salvador"))));
+        assertThat(names(manager.select(DocumentQuery.of("person"))), contains("Ada", "Alan"));
+        manager.delete(DocumentDeleteQuery.of("person"));
+        assertTrue(manager.select(DocumentQuery.of("person")).isEmpty());
+    }
+
+    @Test
+    public void shouldDeleteDocuments() {
+        DocumentDeleteQuery query = DocumentDeleteQuery.of("person", DocumentCondition.eq(Document.of("_id", 1)));
+        query.add("city");
+        manager.delete(query);
+        DocumentEntity entity = manager.select(DocumentQuery.of("person")).get(0);
+        assertEquals("Ada", entity.find("name").get().get());
+        assertFalse(entity.find("city").isPresent());
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        manager.createIndex("person", "city", IndexType.HASH);
+        manager.insert(person(5, "Grace", 45, "London"), Duration.ofMillis(50));
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "London")))),
+                contains("Ada", "Alan", "Grace"));
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(names(select(DocumentCondition.eq(Document.of("city", "London")))), contains("Ada", "Alan"));
+        manager.insert(person(6, "Linus", 50, "Helsinki"));
+        assertEquals(5, manager.select(DocumentQuery.of("person")).size());
+    }
+
+    @Test
+    public void shouldBeThreadSafe() throws InterruptedException {
+        manager.createIndex("counter", "group", IndexType.HASH);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch latch = new CountDownLatch(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 1_000;
+            executor.execute(() -> {
+                for (int index = offset; index < offset + 1_000; index++) {
+                    manager.insert(DocumentEntity.of("counter", Arrays.asList(Document.of("_id", index),
+                            Document.of("group", index % 10))));
+                    manager.select(DocumentQuery.of("counter").and(DocumentCondition.eq(Document.of("group", 1))));
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(4_000, manager.select(DocumentQuery.of("counter")).size());
+        assertEquals(400, manager.select(DocumentQuery.of("counter")
+                .and(DocumentCondition.eq(Document.of("group", 1)))).size());
+    }
+
+    @Test
+    public void shouldDropDataWhenFactoryIsClosed() {
+        factory.close();
+        assertTrue(factory.get("database").select(DocumentQuery.of("person")).isEmpty());
+    }
+
+    private List<DocumentEntity> select(DocumentCondition condition) {
+        return manager.select(DocumentQuery.of("person").and(condition));
+    }
+
+    private static List<String> names(List<DocumentEntity> entities) {
+        return entities.stream().map(e -> e.find("name").get().get(String.class)).collect(toList());
+    }
+
+    private static DocumentEntity person(long id, String name, int age, String city) {
+        return DocumentEntity.of("person", Arrays.asList(Document.of("_id", id), Document.of("name", name),
+                Document.of("age", age), Document.of("city", city)));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.Value;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BucketManagerTest {
+
+    private final MapBucketManager manager = new MapBucketManager();
+
+    @Test
+    public void shouldGetAllKeepingTheKeys() {
+        manager.put("otavio", "Otavio");
+        manager.put("poliana", "Poliana");
+        Map<String, Value> values = manager.getAll(Arrays.asList("poliana", "ada", "otavio"));
+        assertThat(values.keySet(), contains("poliana", "otavio"));
+        assertEquals(Value.of("Poliana"), values.get("poliana"));
+        assertEquals(Value.of("Otavio"), values.get("otavio"));
+    }
+
+    @Test
+    public void shouldGetAllInChunks() {
+        List<Integer> keys = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        keys.forEach(k -> manager.put(k, "value" + k));
+        Map<Integer, Value> values = manager.getAll(keys, 7, true);
+        assertEquals(100, values.size());
+        assertEquals(keys, values.keySet().stream().collect(Collectors.toList()));
+        assertEquals(Value.of("value42"), values.get(42));
+    }
+
+    @Test
+    public void shouldPutInChunks() {
+        List<KeyValueEntity<Integer>> entities = IntStream.range(0, 10)
+                .mapToObj(i -> KeyValueEntity.of(i, "value" + i)).collect(Collectors.toList());
+        manager.put(entities, 4, false);
+        assertThat(manager.bulkSizes, contains(4, 4, 2));
+        assertEquals(10, manager.values.size());
+    }
+
+    @Test
+    public void shouldPutWithTTLInChunks() {
+        List<KeyValueEntity<Integer>> entities = IntStream.range(0, 10)
+                .mapToObj(i -> KeyValueEntity.of(i, "value" + i)).collect(Collectors.toList());
+        manager.put(entities, Duration.ofSeconds(10), 5, true);
+        assertThat(manager.bulkSizes, containsInAnyOrder(5, 5));
+        assertTrue(manager.ttls.values().stream().allMatch(Duration.ofSeconds(10)::equals));
+    }
+
+    @Test
+    public void shouldRemoveInChunks() {
+        IntStream.range(0, 10).forEach(i -> manager.put(i, "value"));
+        manager.remove(IntStream.range(0, 10).boxed().collect(Collectors.toList()), 3, false);
+        assertThat(manager.bulkSizes, contains(3, 3, 3, 1));
+        assertTrue(manager.values.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenChunkSizeIsInvalid() {
+        manager.getAll(Arrays.asList(1, 2), 0, false);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenKeysIsNull() {
+        manager.getAll(null, 10, false);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.cache.CacheStats;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public class CachedBucketManagerTest {
+
+    private final MapBucketManager delegate = new MapBucketManager();
+
+    private final CachedBucketManager manager = CachedBucketManager.of(delegate, 100);
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        CachedBucketManager.of(null, 10);
+    }
+
+    @Test
+    public void shouldServeFromCache() {
+        delegate.put("key", "value");
+        assertEquals(Optional.of(Value.of("value")), manager.get("key"));
+        assertEquals(Optional.of(Value.of("value")), manager.get("key"));
+        assertEquals(1, delegate.gets);
+        assertEquals(CacheStats.of(1, 1, 0), manager.getStats());
+    }
+
+    @Test
+    public void shouldInvalidateOnPut() {
+        manager.put("key", "value");
+        manager.get("key");
+        manager.put("key", "value2");
+        assertEquals(Optional.of(Value.of("value2")), manager.get("key"));
+    }
+
+    @Test
+    public void shouldInvalidateOnRemove() {
+        manager.put("key", "value");
+        manager.get("key");
+        manager.remove("key");
+        assertFalse(manager.get("key").isPresent());
+        manager.put(KeyValueEntity.of("key2", "value"));
+        manager.get("key2");
+        manager.remove(Arrays.asList("key2"));
+        assertFalse(manager.get("key2").isPresent());
+    }
+
+    @Test
+    public void shouldHonorTTL() throws InterruptedException {
+        manager.put(KeyValueEntity.of("key", "value"), Duration.ofMillis(20L));
+        assertEquals(Optional.of(Value.of("value")), manager.get("key"));
+        Thread.sleep(50L);
+        delegate.values.clear();
+        assertFalse(manager.get("key").isPresent());
+    }
+
+    @Test
+    public void shouldGetAllMixingCacheAndDatabase() {
+        manager.put("a", "A");
+        manager.put("b", "B");
+        manager.put("c", "C");
+        manager.get("b");
+        Map<String, Value> values = manager.getAll(Arrays.asList("a", "b", "d", "c"));
+        assertThat(values.keySet(), contains("a", "b", "c"));
+        assertThat(manager.get(Arrays.asList("c", "a")), contains(Value.of("C"), Value.of("A")));
+        assertEquals(4, delegate.gets);
+    }
+
+    @Test
+    public void shouldInvalidateAll() {
+        manager.put("key", "value");
+        manager.get("key");
+        manager.invalidateAll();
+        manager.get("key");
+        assertEquals(2, delegate.gets);
+    }
+}
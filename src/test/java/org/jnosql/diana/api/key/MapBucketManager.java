@@ -0,0 +1,104 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.Value;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link BucketManager} backed by a map that records the bulk calls, used on tests.
+ */
+class MapBucketManager implements BucketManager {
+
+    final Map<Object, Value> values = new ConcurrentHashMap<>();
+
+    final Map<Object, Duration> ttls = new ConcurrentHashMap<>();
+
+    final List<Integer> bulkSizes = new CopyOnWriteArrayList<>();
+
+    volatile int gets;
+
+    @Override
+    public <K, V> void put(K key, V value) {
+        put(KeyValueEntity.of(key, value));
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity) {
+        values.put(entity.getKey(), entity.getValue());
+    }
+
+    @Override
+    public <K> void put(KeyValueEntity<K> entity, Duration ttl) {
+        put(entity);
+        ttls.put(entity.getKey(), ttl);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities) {
+        List<KeyValueEntity<K>> list = StreamSupport.stream(entities.spliterator(), false)
+                .collect(Collectors.toList());
+        bulkSizes.add(list.size());
+        list.forEach(this::put);
+    }
+
+    @Override
+    public <K> void put(Iterable<KeyValueEntity<K>> entities, Duration ttl) {
+        List<KeyValueEntity<K>> list = StreamSupport.stream(entities.spliterator(), false)
+                .collect(Collectors.toList());
+        bulkSizes.add(list.size());
+        list.forEach(e -> put(e, ttl));
+    }
+
+    @Override
+    public <K> Optional<Value> get(K key) {
+        gets++;
+        return Optional.ofNullable(values.get(key));
+    }
+
+    @Override
+    public <K> Iterable<Value> get(Iterable<K> keys) {
+        return StreamSupport.stream(keys.spliterator(), false).map(this::get)
+                .filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public <K> void remove(K key) {
+        values.remove(key);
+        ttls.remove(key);
+    }
+
+    @Override
+    public <K> void remove(Iterable<K> keys) {
+        List<K> list = StreamSupport.stream(keys.spliterator(), false).collect(Collectors.toList());
+        bulkSizes.add(list.size());
+        list.forEach(this::remove);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.metrics.MetricsRegistry;
+import org.jnosql.diana.api.metrics.OperationStats;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MeteredBucketManagerTest {
+
+    private final MetricsRegistry registry = MetricsRegistry.of();
+
+    private final MapBucketManager delegate = new MapBucketManager();
+
+    private final MeteredBucketManager manager = MeteredBucketManager.of(delegate, registry, "sessions");
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenBucketNameIsNull() {
+        MeteredBucketManager.of(delegate, registry, null);
+    }
+
+    @Test
+    public void shouldRecordOperations() {
+        manager.put("key", "value");
+        manager.put(Arrays.asList(KeyValueEntity.of("key2", "value"), KeyValueEntity.of("key3", "value")));
+        manager.get("key");
+        manager.get("missing");
+        assertEquals(2, manager.getAll(Arrays.asList("key", "key2", "missing")).size());
+        manager.remove(Arrays.asList("key", "key2"));
+        List<OperationStats> operations = registry.getOperations();
+        assertEquals(3, operations.size());
+        OperationStats get = operations.get(0);
+        assertEquals("bucket", get.getManager());
+        assertEquals("sessions", get.getCollection());
+        assertEquals(3L, get.getCount());
+        assertEquals(3L, get.getResultSize().getSum());
+        OperationStats put = operations.get(1);
+        assertEquals(2L, put.getCount());
+        assertEquals(3L, put.getResultSize().getSum());
+        assertEquals(2L, operations.get(2).getResultSize().getSum());
+    }
+
+    @Test
+    public void shouldRecordErrors() {
+        try {
+            manager.put((KeyValueEntity<String>) null);
+            fail("The put should fail");
+        } catch (NullPointerException exception) {
+            OperationStats put = registry.getOperations().get(0);
+            assertEquals(1L, put.getErrors());
+            assertEquals(0L, put.getInFlight());
+        }
+    }
+}
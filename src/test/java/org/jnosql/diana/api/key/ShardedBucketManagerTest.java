@@ -0,0 +1,227 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+
+import org.jnosql.diana.api.Value;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedBucketManagerTest {
+
+    private final Map<String, MapBucketManager> delegates = shards("a", "b", "c");
+
+    private final ShardedBucketManager manager = ShardedBucketManager.of(new LinkedHashMap<>(delegates));
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenShardsIsEmpty() {
+        ShardedBucketManager.of(Collections.emptyMap());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenShardsIsNull() {
+        ShardedBucketManager.of(null);
+    }
+
+    @Test
+    public void shouldRouteByOwner() {
+        manager.put("key", "value");
+        MapBucketManager owner = delegates.get(manager.getShard("key"));
+        assertEquals(Value.of("value"), owner.values.get("key"));
+        assertEquals(Optional.of(Value.of("value")), manager.get("key"));
+        manager.remove("key");
+        assertFalse(manager.get("key").isPresent());
+        assertTrue(owner.values.isEmpty());
+    }
+
+    @Test
+    public void shouldSpreadKeys() {
+        manager.put(entities(0, 3000));
+        delegates.values().forEach(shard -> {
+            assertThat(shard.values.size(), greaterThan(700));
+            assertThat(shard.values.size(), lessThan(1300));
+        });
+    }
+
+    @Test
+    public void shouldGroupBulkCallsByShard() {
+        manager.put(entities(0, 300), Duration.ofMinutes(1L));
+        delegates.values().forEach(shard -> {
+            assertEquals(1, shard.bulkSizes.size());
+            assertEquals(shard.values.size(), shard.bulkSizes.get(0).intValue());
+            assertEquals(shard.values.size(), shard.ttls.size());
+        });
+        List<Integer> keys = IntStream.range(0, 300).boxed().collect(Collectors.toList());
+        Map<Integer, Value> values = manager.getAll(keys);
+        assertEquals(keys, new ArrayList<>(values.keySet()));
+        assertEquals(Value.of("value10"), values.get(10));
+        assertEquals(300, ((List<Value>) manager.get(keys)).size());
+        manager.remove(keys);
+        delegates.values().forEach(shard -> {
+            assertEquals(2, shard.bulkSizes.size());
+            assertTrue(shard.values.isEmpty());
+        });
+    }
+
+    @Test
+    public void shouldMoveFewKeysWhenAShardIsAdded() {
+        List<Integer> keys = IntStream.range(0, 4000).boxed().collect(Collectors.toList());
+        Map<Integer, String> before = new HashMap<>();
+        keys.forEach(key -> before.put(key, manager.getShard(key)));
+        Map<String, BucketManager> shards = new LinkedHashMap<>(delegates);
+        shards.put("d", new MapBucketManager());
+        manager.reshard(shards);
+        long moved = keys.stream().filter(key -> !before.get(key).equals(manager.getShard(key))).count();
+        assertThat(moved, greaterThan(600L));
+        assertThat(moved, lessThan(1400L));
+        keys.stream().filter(key -> !before.get(key).equals(manager.getShard(key)))
+                .forEach(key -> assertEquals("d", manager.getShard(key)));
+    }
+
+    @Test
+    public void shouldMigrateOnRead() {
+        manager.put(entities(0, 1000));
+        MapBucketManager added = new MapBucketManager();
+        Map<String, BucketManager> shards = new LinkedHashMap<>(delegates);
+        shards.put("d", added);
+        manager.reshard(shards);
+        Integer key = IntStream.range(0, 1000).boxed().filter(k -> "d".equals(manager.getShard(k)))
+                .findFirst().get();
+        assertEquals(Optional.of(Value.of("value" + key)), manager.get(key));
+        assertEquals(Value.of("value" + key), added.values.get(key));
+        assertEquals(1000, delegates.values().stream().mapToInt(s -> s.values.size()).sum() + added.values.size());
+
+        List<Integer> keys = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        assertEquals(1000, manager.getAll(keys).size());
+        keys.forEach(k -> assertTrue(((MapBucketManager) manager.getShards().get(manager.getShard(k)))
+                .values.containsKey(k)));
+        manager.finishResharding();
+        assertEquals(1000, manager.getAll(keys).size());
+    }
+
+    @Test
+    public void shouldRemoveFromPreviousOwnerOnWrite() {
+        manager.put(entities(0, 200));
+        MapBucketManager added = new MapBucketManager();
+        Map<String, BucketManager> shards = new LinkedHashMap<>(delegates);
+        shards.put("d", added);
+        manager.reshard(shards);
+        List<Integer> moved = IntStream.range(0, 200).boxed().filter(k -> "d".equals(manager.getShard(k)))
+                .collect(Collectors.toList());
+        manager.remove(moved);
+        moved.forEach(key -> assertFalse(manager.get(key).isPresent()));
+        moved.forEach(key -> manager.put(key, "new"));
+        manager.finishResharding();
+        moved.forEach(key -> assertEquals(Optional.of(Value.of("new")), manager.get(key)));
+        assertEquals(200, delegates.values().stream().mapToInt(s -> s.values.size()).sum() + added.values.size());
+    }
+
+    @Test
+    public void shouldNotWaitForTheExecutorWhileHoldingTheLocks() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            ShardedBucketManager sharded = ShardedBucketManager.of(new LinkedHashMap<>(delegates),
+                    ShardedBucketManager.VIRTUAL_NODES, executor);
+            Map<String, BucketManager> shards = new LinkedHashMap<>(delegates);
+            shards.put("d", new MapBucketManager());
+            sharded.reshard(shards);
+            Thread writer = new Thread(() -> {
+                sharded.put(entities(0, 200));
+                sharded.remove(IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+            });
+            writer.start();
+            writer.join(TimeUnit.SECONDS.toMillis(5L));
+            assertFalse(writer.isAlive());
+            release.countDown();
+            assertEquals(100, sharded.getAll(IntStream.range(0, 200).boxed().collect(Collectors.toList()))
+                    .size());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldMigrateKeys() {
+        manager.put(entities(0, 500));
+        MapBucketManager added = new MapBucketManager();
+        Map<String, BucketManager> shards = new LinkedHashMap<>(delegates);
+        shards.put("d", added);
+        manager.reshard(shards);
+        List<Integer> keys = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+        manager.migrate(keys);
+        long moved = keys.stream().filter(k -> "d".equals(manager.getShard(k))).count();
+        assertEquals(moved, added.values.size());
+        assertEquals(500 - moved, delegates.values().stream().mapToInt(s -> s.values.size()).sum());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenReshardingIsNotFinished() {
+        manager.reshard(Collections.singletonMap("d", new MapBucketManager()));
+        manager.reshard(Collections.singletonMap("e", new MapBucketManager()));
+    }
+
+    @Test
+    public void shouldKeepShardNames() {
+        assertThat(manager.getShards().keySet(), contains("a", "b", "c"));
+    }
+
+    private static Map<String, MapBucketManager> shards(String... names) {
+        Map<String, MapBucketManager> shards = new LinkedHashMap<>();
+        for (String name : names) {
+            shards.put(name, new MapBucketManager());
+        }
+        return shards;
+    }
+
+    private static List<KeyValueEntity<Integer>> entities(int from, int to) {
+        return IntStream.range(from, to).mapToObj(key -> KeyValueEntity.of(key, "value" + key))
+                .collect(Collectors.toList());
+    }
+}
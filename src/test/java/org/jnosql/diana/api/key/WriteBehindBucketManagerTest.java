@@ -0,0 +1,166 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key;
+
+import org.jnosql.diana.api.Value;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class WriteBehindBucketManagerTest {
+
+    private final MapBucketManager delegate = new MapBucketManager();
+
+    private final WriteBehindBucketManager manager = WriteBehindBucketManager.of(delegate, 100,
+            Duration.ofMinutes(10L));
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenManagerIsNull() {
+        WriteBehindBucketManager.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenBatchSizeIsInvalid() {
+        WriteBehindBucketManager.of(delegate, 0, Duration.ofSeconds(1L));
+    }
+
+    @Test
+    public void shouldReadBufferedWrites() {
+        manager.put("key", "value");
+        manager.put(KeyValueEntity.of("key2", "value2"));
+        manager.remove("key2");
+        delegate.put("key3", "value3");
+        assertEquals(1, delegate.values.size());
+        assertEquals(Optional.of(Value.of("value")), manager.get("key"));
+        assertFalse(manager.get("key2").isPresent());
+        Map<String, Value> values = manager.getAll(Arrays.asList("key3", "key2", "key"));
+        assertThat(values.keySet(), contains("key3", "key"));
+        assertEquals(2, manager.getPendingSize());
+    }
+
+    @Test
+    public void shouldCoalesceWrites() {
+        for (int index = 0; index < 50; index++) {
+            manager.put("counter", index);
+        }
+        manager.flush();
+        assertEquals(Value.of(49), delegate.values.get("counter"));
+        assertEquals(Arrays.asList(1), delegate.bulkSizes);
+        assertEquals(0, manager.getPendingSize());
+    }
+
+    @Test
+    public void shouldFlushInBatches() {
+        List<KeyValueEntity<Integer>> entities = IntStream.range(0, 250)
+                .mapToObj(key -> KeyValueEntity.of(key, "value" + key)).collect(Collectors.toList());
+        manager.put(entities.subList(0, 50));
+        manager.put(entities.subList(50, 250), Duration.ofMinutes(1L));
+        manager.flush();
+        assertEquals(250, delegate.values.size());
+        assertEquals(200, delegate.ttls.size());
+        assertTrue(delegate.bulkSizes.stream().allMatch(size -> size <= 100));
+        assertEquals(250, delegate.bulkSizes.stream().mapToInt(Integer::intValue).sum());
+
+        delegate.bulkSizes.clear();
+        manager.remove(Arrays.asList(0, 1));
+        manager.flush();
+        assertEquals(248, delegate.values.size());
+        assertEquals(Arrays.asList(2), delegate.bulkSizes);
+    }
+
+    @Test
+    public void shouldFlushWhenBatchSizeIsReached() throws InterruptedException {
+        IntStream.range(0, 100).forEach(key -> manager.put(key, key));
+        for (int attempt = 0; attempt < 100 && delegate.values.size() < 100; attempt++) {
+            Thread.sleep(10L);
+        }
+        assertEquals(100, delegate.values.size());
+    }
+
+    @Test
+    public void shouldFlushOnTimer() throws InterruptedException {
+        WriteBehindBucketManager timed = WriteBehindBucketManager.of(delegate, 100, Duration.ofMillis(10L));
+        timed.put("key", "value");
+        for (int attempt = 0; attempt < 100 && delegate.values.isEmpty(); attempt++) {
+            Thread.sleep(10L);
+        }
+        assertEquals(Value.of("value"), delegate.values.get("key"));
+        timed.close();
+    }
+
+    @Test
+    public void shouldDrainOnClose() {
+        manager.put("key", "value");
+        manager.close();
+        assertEquals(Value.of("value"), delegate.values.get("key"));
+    }
+
+    @Test
+    public void shouldWriteEveryAcceptedPutWhenClosingConcurrently() throws InterruptedException {
+        Queue<Integer> accepted = new ConcurrentLinkedQueue<>();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> writers = IntStream.range(0, 4).mapToObj(writer -> new Thread(() -> {
+            started.countDown();
+            try {
+                for (int key = writer; ; key += 4) {
+                    manager.put(key, "value");
+                    accepted.add(key);
+                }
+            } catch (IllegalStateException exception) {
+                return;
+            }
+        })).collect(Collectors.toList());
+        writers.forEach(Thread::start);
+        started.await();
+        Thread.sleep(20L);
+        manager.close();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertFalse(accepted.isEmpty());
+        accepted.forEach(key -> assertTrue(delegate.values.containsKey(key)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenWritingAfterClose() {
+        manager.close();
+        manager.put("key", "value");
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.disk;
+
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DiskBucketManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DiskConfiguration configuration;
+
+    private DiskBucketManagerFactory factory;
+
+    private DiskBucketManager manager;
+
+    @Before
+    public void setUp() {
+        configuration = new DiskConfiguration(folder.getRoot().toPath(), 1024, true, 0.5, Duration.ofMinutes(1L));
+        factory = configuration.get();
+        manager = factory.getBucketManager("bucket");
+    }
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        manager.put("otavio", "Otavio Santana");
+        manager.put(KeyValueEntity.of(10, Arrays.asList(1, 2, 3)));
+        assertEquals("Otavio Santana", manager.get("otavio").get().get());
+        assertEquals(Arrays.asList(1, 2, 3), manager.get(10).map(Value::get).get());
+        assertFalse(manager.get("poliana").isPresent());
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    public void shouldRemove() {
+        manager.put(Arrays.asList(KeyValueEntity.of("a", 1), KeyValueEntity.of("b", 2)));
+        manager.remove(Arrays.asList("a", "c", "a"));
+        assertFalse(manager.get("a").isPresent());
+        assertEquals(2, manager.get("b").get().get());
+        reopen();
+        assertFalse(manager.get("a").isPresent());
+        assertEquals(2, manager.get("b").get().get());
+        assertEquals(1, manager.size());
+    }
+
+    @Test
+    public void shouldRecoverAfterReopen() {
+        manager.put("a", 1);
+        manager.put("b", 2);
+        manager.put("a", 3);
+        manager.remove("b");
+        reopen();
+        assertEquals(3, manager.get("a").get().get());
+        assertFalse(manager.get("b").isPresent());
+        assertEquals(1, manager.size());
+    }
+
+    @Test
+    public void shouldRollSegments() throws IOException {
+        for (int index = 0; index < 100; index++) {
+            manager.put(index, "value " + index);
+        }
+        assertTrue(segments() > 1);
+        reopen();
+        for (int index = 0; index < 100; index++) {
+            assertEquals("value " + index, manager.get(index).get().get());
+        }
+    }
+
+    @Test
+    public void shouldCompact() throws IOException {
+        manager.put("deleted", "value");
+        manager.remove("deleted");
+        for (int round = 0; round < 10; round++) {
+            for (int index = 0; index < 10; index++) {
+                manager.put(index, "value " + round);
+            }
+        }
+        long segments = segments();
+        assertTrue(factory.compact() > 0);
+        assertTrue(segments() < segments);
+        for (int index = 0; index < 10; index++) {
+            assertEquals("value 9", manager.get(index).get().get());
+        }
+        reopen();
+        for (int index = 0; index < 10; index++) {
+            assertEquals("value 9", manager.get(index).get().get());
+        }
+        assertFalse(manager.get("deleted").isPresent());
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        manager.put(KeyValueEntity.of("a", 1), Duration.ofMillis(50));
+        manager.put("b", 2);
+        assertTrue(manager.get("a").isPresent());
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(manager.get("a").isPresent());
+        assertEquals(1, factory.purge());
+        reopen();
+        assertFalse(manager.get("a").isPresent());
+        assertTrue(manager.get("b").isPresent());
+    }
+
+    @Test
+    public void shouldRecoverFromTornWrite() throws IOException {
+        manager.put("a", 1);
+        manager.put("b", 2);
+        factory.close();
+        Path segment = Files.list(folder.getRoot().toPath().resolve("bucket")).sorted()
+                .collect(Collectors.toList()).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long end = file.length() - 1;
+            while (end > 0) {
+                file.seek(end);
+                if (file.read() != 0) {
+                    break;
+                }
+                end--;
+            }
+            file.seek(end + 1);
+            file.write(new byte[]{1, 2, 3, 4, 0, 0, 0, 5, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 1, 7});
+        }
+        factory = configuration.get();
+        manager = factory.getBucketManager("bucket");
+        assertEquals(1, manager.get("a").get().get());
+        assertEquals(2, manager.get("b").get().get());
+        manager.put("c", 3);
+        reopen();
+        assertEquals(3, manager.get("c").get().get());
+        assertEquals(3, manager.size());
+    }
+
+    @Test
+    public void shouldGroupCommitConcurrentWrites() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch latch = new CountDownLatch(4);
+        List<Throwable> errors = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 100;
+            executor.execute(() -> {
+                try {
+                    for (int index = offset; index < offset + 100; index++) {
+                        manager.put(index, index);
+                    }
+                } catch (Throwable error) {
+                    errors.add(error);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(errors.isEmpty());
+        reopen();
+        assertEquals(400, manager.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldReturnErrorWhenGetList() {
+        factory.getList("list", String.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenRecordIsLargerThanSegment() {
+        manager.put("a", new byte[2048]);
+    }
+
+    private long segments() throws IOException {
+        return Files.list(folder.getRoot().toPath().resolve("bucket")).count();
+    }
+
+    private void reopen() {
+        factory.close();
+        factory = configuration.get();
+        manager = factory.getBucketManager("bucket");
+    }
+}
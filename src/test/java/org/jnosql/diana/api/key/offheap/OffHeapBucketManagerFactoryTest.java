@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapBucketManagerFactoryTest {
+
+    private final OffHeapBucketManagerFactory factory = new OffHeapConfiguration().get();
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldReturnList() {
+        List<String> list = factory.getList("names", String.class);
+        list.add("Ada");
+        list.add("Poliana");
+        list.add(1, "Otavio");
+        assertThat(list, contains("Ada", "Otavio", "Poliana"));
+        assertEquals("Otavio", list.remove(1));
+        list.set(0, "Grace");
+        assertThat(factory.getList("names", String.class), contains("Grace", "Poliana"));
+        assertSame(list, factory.getList("names", String.class));
+    }
+
+    @Test
+    public void shouldReturnSet() {
+        Set<String> set = factory.getSet("names", String.class);
+        assertTrue(set.add("Ada"));
+        assertFalse(set.add("Ada"));
+        set.add("Otavio");
+        assertThat(set, containsInAnyOrder("Ada", "Otavio"));
+        assertTrue(set.remove("Ada"));
+        assertThat(set, contains("Otavio"));
+    }
+
+    @Test
+    public void shouldReturnQueue() {
+        Queue<Integer> queue = factory.getQueue("numbers", Integer.class);
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+        assertThat(queue, contains(1, 2, 3));
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertEquals(Integer.valueOf(2), queue.peek());
+        assertEquals(2, queue.size());
+        queue.clear();
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void shouldReturnMap() {
+        Map<String, Integer> map = factory.getMap("ages", String.class, Integer.class);
+        assertNull(map.put("Ada", 36));
+        assertEquals(Integer.valueOf(36), map.put("Ada", 37));
+        map.put("Otavio", 30);
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(37), map.get("Ada"));
+        assertTrue(map.containsKey("Otavio"));
+        map.entrySet().removeIf(e -> e.getValue() > 35);
+        assertFalse(map.containsKey("Ada"));
+    }
+
+    @Test
+    public void shouldSeparateTheNamespaces() {
+        factory.getBucketManager("names").put("Ada", 36);
+        factory.getMap("names", String.class, Integer.class).put("Otavio", 30);
+        assertFalse(factory.getBucketManager("names").get("Otavio").isPresent());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.key.offheap;
+
+import org.jnosql.diana.api.JNoSQLException;
+import org.jnosql.diana.api.Value;
+import org.jnosql.diana.api.key.KeyValueEntity;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapBucketManagerTest {
+
+    private final OffHeapBucketManagerFactory factory = new OffHeapConfiguration(1 << 16, 1 << 20,
+            Duration.ofMinutes(1L)).get();
+
+    private final OffHeapBucketManager manager = factory.getBucketManager("bucket");
+
+    @After
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        manager.put("otavio", "Otavio Santana");
+        manager.put(KeyValueEntity.of(10, Arrays.asList(1, 2, 3)));
+        assertEquals("Otavio Santana", manager.get("otavio").get().get());
+        assertEquals(Arrays.asList(1, 2, 3), manager.get(10).map(Value::get).get());
+        assertFalse(manager.get("poliana").isPresent());
+        assertSame(manager, factory.getBucketManager("bucket"));
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    public void shouldGetAll() {
+        manager.put(Arrays.asList(KeyValueEntity.of("a", 1), KeyValueEntity.of("b", 2)));
+        Map<String, Value> values = manager.getAll(Arrays.asList("a", "b", "c"));
+        assertEquals(2, values.size());
+        assertEquals(2, values.get("b").get());
+        assertThat(manager.get(Arrays.asList("a", "c")), contains(Value.of(1)));
+    }
+
+    @Test
+    public void shouldRemove() {
+        manager.put("a", 1);
+        manager.put("b", 2);
+        manager.remove(Arrays.asList("a", "b"));
+        assertFalse(manager.get("a").isPresent());
+        assertEquals(0, manager.size());
+    }
+
+    @Test
+    public void shouldExpire() throws InterruptedException {
+        manager.put(KeyValueEntity.of("a", 1), Duration.ofMillis(50));
+        assertTrue(manager.get("a").isPresent());
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(manager.get("a").isPresent());
+        assertEquals(1, factory.purge());
+    }
+
+    @Test
+    public void shouldReuseTheMemory() {
+        for (int index = 0; index < 10_000; index++) {
+            manager.put("key", new byte[1_000]);
+        }
+        assertEquals(1 << 16, factory.getReservedMemory());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldReturnErrorWhenMemoryIsFull() {
+        for (int index = 0; index < 10_000; index++) {
+            manager.put(index, new byte[1_000]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenValueIsLargerThanSlab() {
+        manager.put("key", new byte[1 << 17]);
+    }
+
+    @Test(expected = JNoSQLException.class)
+    public void shouldReturnErrorWhenValueIsNotSerializable() {
+        manager.put("key", new Object());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenSlabSizeIsNotPowerOfTwo() {
+        new OffHeapConfiguration(1000, 1 << 20, Duration.ofSeconds(1L));
+    }
+
+    @Test
+    public void shouldBeThreadSafe() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch latch = new CountDownLatch(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 1_000;
+            executor.execute(() -> {
+                for (int index = offset; index < offset + 1_000; index++) {
+                    manager.put(index, "value " + index);
+                    assertEquals("value " + index, manager.get(index).get().get());
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(4_000, manager.size());
+    }
+}
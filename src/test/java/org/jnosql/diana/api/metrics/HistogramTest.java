@@ -0,0 +1,103 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void shouldReturnZeroWhenEmpty() {
+        Histogram histogram = Histogram.of();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getPercentile(0.99));
+        assertEquals(0D, histogram.getMean(), 0D);
+    }
+
+    @Test
+    public void shouldCountSmallValuesExactly() {
+        Histogram histogram = Histogram.of();
+        for (long value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+        assertEquals(50L, histogram.getCount());
+        assertEquals(25L, histogram.getPercentile(0.5));
+        assertEquals(50L, histogram.getPercentile(1D));
+        assertEquals(25.5D, histogram.getMean(), 0D);
+        assertEquals(50L, histogram.getMax());
+    }
+
+    @Test
+    public void shouldKeepRelativeError() {
+        Histogram histogram = Histogram.of();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000L);
+        }
+        assertWithin(50_000_000L, histogram.getPercentile(0.5));
+        assertWithin(95_000_000L, histogram.getPercentile(0.95));
+        assertWithin(99_000_000L, histogram.getPercentile(0.99));
+        assertEquals(100_000_000L, histogram.getPercentile(1D));
+    }
+
+    @Test
+    public void shouldMapBucketsContiguously() {
+        long previous = -1L;
+        for (long value = 0; value < 1 << 16; value++) {
+            int index = Histogram.index(value);
+            assertTrue(value <= Histogram.highest(index));
+            assertTrue(index == previous || index == previous + 1);
+            previous = index;
+        }
+        assertEquals(Long.MAX_VALUE, Histogram.highest(Histogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void shouldRecordConcurrently() throws InterruptedException {
+        Histogram histogram = Histogram.of();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int value = 0; value < 10_000; value++) {
+                    histogram.record(value);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10L, TimeUnit.SECONDS));
+        assertEquals(40_000L, histogram.getCount());
+        assertEquals(9_999L, histogram.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldReturnErrorWhenPercentileIsInvalid() {
+        Histogram.of().getPercentile(1.5);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / Histogram.SUB_BUCKETS);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright (c) 2017 Otávio Santana and others
+ *   All rights reserved. This program and the accompanying materials
+ *   are made available under the terms of the Eclipse Public License v1.0
+ *   and Apache License v2.0 which accompanies this distribution.
+ *   The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *   and the Apache License v2.0 is available at http://www.opensource.org/licenses/apache2.0.php.
+ *
+ *   You may elect to redistribute this code under either of these licenses.
+ *
+ *   Contributors:
+ *
+ *   Otavio Santana
+ *
+ */
+
+
+package org.jnosql.diana.api.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = MetricsRegistry.of();
+
+    @Test
+    public void shouldReturnSameOperation() {
+        OperationMetrics select = registry.operation("document", "select", "person");
+        assertSame(select, registry.operation("document", "select", "person"));
+        registry.operation("document", "insert", "person");
+        registry.operation("bucket", "get", "sessions");
+        List<OperationStats> operations = registry.getOperations();
+        assertEquals(3, operations.size());
+        assertEquals("bucket", operations.get(0).getManager());
+        assertEquals("insert", operations.get(1).getOperation());
+    }
+
+    @Test
+    public void shouldRecordOperation() {
+        OperationMetrics metrics = registry.operation("document", "select", "person");
+        metrics.started();
+        metrics.started();
+        OperationStats stats = registry.getOperations().get(0);
+        assertEquals(2L, stats.getInFlight());
+        metrics.succeeded(1000L, 10L);
+        metrics.failed(3000L);
+        assertEquals(0L, stats.getInFlight());
+        assertEquals(2L, stats.getCount());
+        assertEquals(1L, stats.getErrors());
+        assertEquals(3000L, stats.getLatency().getMax());
+        assertEquals(1L, stats.getResultSize().getCount());
+        assertEquals(10L, stats.getResultSize().getMax());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldReturnErrorWhenCollectionIsNull() {
+        registry.operation("document", "select", null);
+    }
+
+    @Test
+    public void shouldExportOnJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        OperationMetrics metrics = registry.operation("document", "select", "person");
+        metrics.started();
+        metrics.succeeded(5000L, 3L);
+        try (JmxMetricsExporter exporter = JmxMetricsExporter.export(registry, "test", server)) {
+            ObjectName name = exporter.getObjectName();
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "document.select.person.count"));
+            assertEquals(5000L, server.getAttribute(name, "document.select.person.latencyMax"));
+            registry.operation("bucket", "get", "sessions").started();
+            assertEquals(1L, server.getAttribute(name, "bucket.get.sessions.inFlight"));
+            assertEquals(20, server.getMBeanInfo(name).getAttributes().length);
+            exporter.close();
+            assertFalse(server.isRegistered(name));
+        }
+    }
+}